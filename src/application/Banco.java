@@ -1,43 +1,137 @@
 package application;
 
+import application.servidor.ServidorBanco;
+import models.ArmazemLivros;
+import models.Dinheiro;
+import models.enums.TipoChavePix;
 import models.exceptions.*;
 import service.BancoService;
-
+import service.CacheIdempotencia;
+import service.ImportacaoContas;
+import service.ModoCorrecao;
+import service.MotorParticionado;
+import service.metricas.MetricasBanco;
+import service.persistencia.CommitEmGrupo;
+import service.persistencia.GravadorJournal;
+import service.persistencia.Journal;
+import service.persistencia.PoliticaSincronizacao;
+import service.saida.SaidaAssincrona;
+import service.saida.SaidaNula;
+
+import javax.management.JMException;
 import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Classe principal do Banco Object.
  * Responsável por inicializar e gerenciar as operações do sistema bancário.
- * O estado do serviço bancário é persistido e recuperado automaticamente.
+ * O estado do serviço bancário é persistido e recuperado automaticamente: cada operação é gravada em um
+ * journal, e snapshots completos do serviço são gravados em segundo plano, a cada intervalo definido pela
+ * propriedade {@code banco.snapshot.intervaloSegundos} (0 desativa), e ao sair.
+ * A política de sincronização do journal pode ser definida pela propriedade {@code banco.journal.sincronizacao}
+ * (SEMPRE, INTERVALO ou SISTEMA_OPERACIONAL). Na política SEMPRE as operações passam por um {@link CommitEmGrupo},
+ * configurado pelas propriedades {@code banco.journal.tamanhoLote} e {@code banco.journal.esperaMaximaMicros}.
+ * O histórico das contas é mantido em livros mapeados em memória no diretório {@code banco_service.livros},
+ * fora do heap, a menos que a propriedade {@code banco.livros.mapeados} seja {@code false}.
+ * A propriedade {@code banco.correcao.modo} (IMEDIATA ou SOB_DEMANDA) define como as correções das contas
+ * poupança são aplicadas; sem ela, é mantido o modo salvo no snapshot.
+ * Os comprovantes das operações são apresentados pela saída definida na propriedade {@code banco.saida}:
+ * CONSOLE (padrão), ASSINCRONA, gravada em uma thread própria, ou NULA, que os descarta.
+ * A propriedade {@code banco.motor.particoes} (0, o padrão, desativa) inicia um {@link MotorParticionado} com a
+ * quantidade de partições informada, que passa a executar os depósitos, saques e transferências Pix.
+ * As propriedades {@code banco.idempotencia.capacidade} e {@code banco.idempotencia.validadeSegundos} definem os
+ * limites do {@link CacheIdempotencia} das chaves de idempotência.
+ * Com a propriedade {@code banco.metricas=true}, as operações são medidas e as {@link MetricasBanco} publicadas por
+ * JMX; com {@code banco.metricas.arquivo}, o relatório das métricas também é gravado nesse arquivo a cada
+ * {@code banco.metricas.intervaloSegundos} (0 grava apenas ao sair).
+ * <p>
+ * Com o argumento {@code --script [arquivo]}, a aplicação executa os comandos do arquivo (ou da entrada padrão, sem
+ * arquivo ou com {@code -}) em vez de exibir o menu, no formato descrito em {@link ExecutorScript}, e termina com um
+ * resumo da execução. Nesse modo, a saída padrão é a ASSINCRONA.
+ * Com o argumento {@code --servidor [porta]}, a aplicação atende as operações por HTTP ({@link ServidorBanco}), na
+ * porta informada ou na 8080, até que o processo seja encerrado; nesse modo, a saída padrão é a NULA.
  */
 
 public class Banco {
 
     /**
      * Ponto de entrada da aplicação.
-     * @param args Argumentos de linha de comando (não utilizados).
+     * @param args Argumentos de linha de comando: vazio para o menu interativo, {@code --script [arquivo]} ou
+     *             {@code --servidor [porta]}.
      */
     public static void main(String[] args) {
-        Banco banco = new Banco();
-        banco.iniciar();
+        if (args.length > 2 || (args.length > 0 && !args[0].equals("--script") && !args[0].equals("--servidor"))) {
+            System.out.println("Uso: java application.Banco [--script [arquivo|-] | --servidor [porta]]");
+            return;
+        }
+
+        Banco banco;
+        try {
+            banco = new Banco();
+        } catch (IllegalStateException e) {
+            System.out.println("\nErro ao iniciar o Banco Object: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (args.length == 0) {
+            banco.iniciar();
+        } else if (args[0].equals("--script")) {
+            banco.executarScript(args.length > 1 ? args[1] : "-");
+        } else {
+            banco.iniciarServidor(args.length > 1 ? Integer.parseInt(args[1]) : PORTA_SERVIDOR_PADRAO);
+        }
     }
 
     private BancoService bancoService;
     private final Scanner input = new Scanner(System.in);
+    private GravadorJournal journal;
+    private ArmazemLivros armazemLivros;
+    private ScheduledExecutorService agendadorSnapshots;
+    private ScheduledExecutorService agendadorMetricas;
+    private MetricasBanco metricas;
+    private MotorParticionado motor;
     private static final String FILE_NAME = "banco_service.ser";
+    private static final String SNAPSHOT_FILE_NAME = "banco_service.snapshot";
+    private static final String JOURNAL_FILE_NAME = "banco_service.journal";
+    private static final String LIVROS_DIRECTORY_NAME = "banco_service.livros";
+    private static final long INTERVALO_SNAPSHOT_PADRAO = 300;
+    private static final long INTERVALO_METRICAS_PADRAO = 60;
+    private static final int PORTA_SERVIDOR_PADRAO = 8080;
 
     /**
      * Construtor da classe Banco.
-     * Inicializa o serviço bancário, recupera o seu estado a partir de um arquivo serializado.
-     * Caso o arquivo não exista, cria uma nova instância de {@link BancoService}
+     * Inicializa o serviço bancário, recupera o seu estado a partir do último snapshot (ou do arquivo
+     * serializado de versões anteriores) e reproduz as operações registradas no journal depois dele.
+     * Caso nenhum dos arquivos exista, cria uma nova instância de {@link BancoService}
+     *
+     * @throws IllegalStateException Se o journal não puder ser aberto ou reproduzido.
      */
     public Banco() {
-        bancoService = desserializarBancoService();
+        armazemLivros = abrirArmazemLivros();
+        bancoService = carregarSnapshot();
+        if (bancoService == null) {
+            bancoService = desserializarBancoService();
+        }
         if (bancoService == null) {
             bancoService = new BancoService();
         }
+        definirModoCorrecao();
+        definirSaida();
+        configurarIdempotencia();
+        usarArmazemLivros();
+        abrirJournal();
+        iniciarMotor();
+        ativarMetricas();
+        agendarSnapshots();
     }
 
     /**
@@ -56,6 +150,7 @@ public class Banco {
             [8] - Efetuar Pix
             [9] - Consultar Extrato
             [10] - Exibir Contas Registradas
+            [11] - Importar Contas de Arquivo
             [0] - Sair""");
         System.out.print("\nDigite aqui: ");
     }
@@ -82,8 +177,9 @@ public class Banco {
                     case 8 -> efetuarPix();
                     case 9 -> consultarExtrato();
                     case 10 -> exibirContasRegistradas();
+                    case 11 -> importarContas();
                     case 0 -> {
-                        serializarBancoService();
+                        encerrar();
                         input.close();
                         System.out.println("\n- Obrigado por utilizar o Banco Object. 🏦");
                         app = false;
@@ -95,25 +191,371 @@ public class Banco {
                 System.out.println("\nErro: Entrada inválida. Por favor, insira um número.");
                 input.nextLine(); // Limpando buffer
             } catch (Exception e) {
+                bancoService.getSaida().descarregar();
                 System.out.println("\nErro: " + e.getMessage());
             }
+            bancoService.getSaida().descarregar();
+        }
+    }
+
+    /**
+     * Executa um script de comandos, sem o menu, e exibe o resumo da execução.
+     * Sem a propriedade {@code banco.saida}, os comprovantes são apresentados pela saída assíncrona.
+     *
+     * @param caminho Caminho do script, ou {@code -} para a entrada padrão.
+     */
+    private void executarScript(String caminho) {
+        if (System.getProperty("banco.saida") == null) {
+            bancoService.setSaida(new SaidaAssincrona());
         }
+
+        ExecutorScript executor = new ExecutorScript(bancoService);
+        try (Reader entrada = caminho.equals("-")
+                ? new InputStreamReader(System.in)
+                : Files.newBufferedReader(Path.of(caminho))) {
+            executor.executar(entrada);
+        } catch (IOException e) {
+            bancoService.getSaida().descarregar();
+            System.out.println("\nErro ao ler o script: " + e.getMessage());
+        } finally {
+            encerrar();
+        }
+        System.out.println("\n" + executor);
     }
 
     /**
-     * Salva o estado atual do {@link BancoService} em um arquivo serializado.
+     * Inicia o servidor HTTP e o mantém ativo até o encerramento do processo, quando o servidor é parado e o
+     * sistema bancário é encerrado normalmente.
+     * Sem a propriedade {@code banco.saida}, os comprovantes não são apresentados.
+     *
+     * @param porta Porta do servidor.
      */
-    private void serializarBancoService() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_NAME))) {
-            oos.writeObject(bancoService);
+    private void iniciarServidor(int porta) {
+        if (System.getProperty("banco.saida") == null) {
+            bancoService.setSaida(SaidaNula.INSTANCIA);
+        }
+
+        ServidorBanco servidor;
+        try {
+            servidor = ServidorBanco.iniciar(bancoService, new InetSocketAddress(porta));
+        } catch (IOException e) {
+            System.out.println("\nErro ao iniciar o servidor: " + e.getMessage());
+            encerrar();
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidor.close();
+            encerrar();
+        }, "encerramento"));
+        System.out.println("\n- Servidor do Banco Object ativo na porta " + servidor.getPorta()
+                + (servidor.isThreadsVirtuais() ? " (threads virtuais)." : " (pool de threads)."));
+    }
+
+    /**
+     * Encerra o sistema bancário: cancela os snapshots periódicos, encerra o motor particionado, grava o snapshot
+     * final, fecha o journal e apresenta a saída pendente.
+     */
+    private void encerrar() {
+        pararSnapshots();
+        if (motor != null) {
+            motor.close();
+        }
+        gravarSnapshot();
+        pararMetricas();
+        fecharJournal();
+        bancoService.getSaida().close();
+    }
+
+    /**
+     * Grava um snapshot do estado atual do {@link BancoService}.
+     * Depois do primeiro snapshot, o arquivo serializado de versões anteriores deixa de ser necessário e é apagado.
+     *
+     * @return Verdadeiro se o snapshot foi gravado.
+     */
+    private boolean gravarSnapshot() {
+        try {
+            bancoService.gravarSnapshot(Path.of(SNAPSHOT_FILE_NAME));
+            Files.deleteIfExists(Path.of(FILE_NAME));
             //System.out.println("\n- Estado do BancoService salvo com sucesso.");
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("\nErro ao salvar o estado do BancoService: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Agenda a gravação periódica de snapshots em segundo plano, conforme a propriedade
+     * {@code banco.snapshot.intervaloSegundos}. Cada snapshot permite apagar os segmentos do journal já contidos nele.
+     */
+    private void agendarSnapshots() {
+        long intervalo = Long.getLong("banco.snapshot.intervaloSegundos", INTERVALO_SNAPSHOT_PADRAO);
+        if (intervalo <= 0) {
+            return;
+        }
+
+        agendadorSnapshots = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendadorSnapshots.scheduleWithFixedDelay(this::gravarSnapshot, intervalo, intervalo, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cancela os snapshots periódicos e aguarda o término de um snapshot em andamento.
+     */
+    private void pararSnapshots() {
+        if (agendadorSnapshots == null) {
+            return;
+        }
+
+        agendadorSnapshots.shutdown();
+        try {
+            agendadorSnapshots.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Abre o diretório dos livros-razão mapeados das contas, conforme a propriedade {@code banco.livros.mapeados}.
+     * Caso o diretório não possa ser aberto, o histórico das contas é mantido em memória.
+     *
+     * @return Armazém de livros, ou {@code null} se os livros mapeados estiverem desativados ou indisponíveis.
+     */
+    private ArmazemLivros abrirArmazemLivros() {
+        if (!Boolean.parseBoolean(System.getProperty("banco.livros.mapeados", "true"))) {
+            return null;
+        }
+
+        try {
+            return ArmazemLivros.abrir(Path.of(LIVROS_DIRECTORY_NAME));
+        } catch (IOException e) {
+            System.out.println("\nErro ao abrir os livros-razão das contas: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Define o modo de correção das contas poupança do {@link BancoService}, caso a propriedade
+     * {@code banco.correcao.modo} tenha sido informada.
+     */
+    private void definirModoCorrecao() {
+        String modo = System.getProperty("banco.correcao.modo");
+        if (modo == null) {
+            return;
+        }
+
+        try {
+            bancoService.setModoCorrecao(ModoCorrecao.valueOf(modo));
+        } catch (IllegalArgumentException e) {
+            System.out.println("\nErro: modo de correção desconhecido: " + modo + ".");
+        }
+    }
+
+    /**
+     * Define os limites do {@link CacheIdempotencia} do {@link BancoService}, conforme as propriedades
+     * {@code banco.idempotencia.capacidade} e {@code banco.idempotencia.validadeSegundos}.
+     * Deve ser chamado antes de anexar o journal, para que as chaves reproduzidas respeitem os limites.
+     */
+    private void configurarIdempotencia() {
+        int capacidade = Integer.getInteger("banco.idempotencia.capacidade", CacheIdempotencia.CAPACIDADE_PADRAO);
+        long validade = Long.getLong("banco.idempotencia.validadeSegundos", CacheIdempotencia.VALIDADE_PADRAO_SEGUNDOS);
+
+        try {
+            bancoService.getCacheIdempotencia().configurar(capacidade, validade);
+        } catch (IllegalArgumentException e) {
+            System.out.println("\nErro: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inicia o {@link MotorParticionado} do {@link BancoService}, conforme a propriedade {@code banco.motor.particoes}.
+     * Deve ser chamado depois de anexar o journal, para que as operações reproduzidas já estejam aplicadas.
+     */
+    private void iniciarMotor() {
+        int particoes = Integer.getInteger("banco.motor.particoes", 0);
+        if (particoes <= 0) {
+            return;
+        }
+
+        try {
+            motor = bancoService.iniciarMotorParticionado(particoes);
+        } catch (IllegalArgumentException e) {
+            System.out.println("\nErro: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ativa as métricas do {@link BancoService} e as publica por JMX, conforme a propriedade {@code banco.metricas},
+     * e agenda a gravação periódica do relatório, conforme {@code banco.metricas.arquivo} e
+     * {@code banco.metricas.intervaloSegundos}.
+     */
+    private void ativarMetricas() {
+        if (!Boolean.getBoolean("banco.metricas")) {
+            return;
+        }
+
+        metricas = bancoService.ativarMetricas();
+        try {
+            metricas.publicar();
+        } catch (JMException e) {
+            System.err.println("\nErro ao publicar as métricas por JMX: " + e.getMessage());
+        }
+
+        long intervalo = Long.getLong("banco.metricas.intervaloSegundos", INTERVALO_METRICAS_PADRAO);
+        if (System.getProperty("banco.metricas.arquivo") == null || intervalo <= 0) {
+            return;
+        }
+
+        agendadorMetricas = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "metricas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendadorMetricas.scheduleWithFixedDelay(this::gravarMetricas, intervalo, intervalo, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cancela a gravação periódica das métricas e grava o relatório final, caso as métricas estejam ativas.
+     */
+    private void pararMetricas() {
+        if (agendadorMetricas != null) {
+            agendadorMetricas.shutdown();
+            try {
+                agendadorMetricas.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (metricas != null) {
+            gravarMetricas();
+            metricas.retirar();
+        }
+    }
+
+    /**
+     * Grava o relatório das métricas no arquivo da propriedade {@code banco.metricas.arquivo}, se informada.
+     */
+    private void gravarMetricas() {
+        String arquivo = System.getProperty("banco.metricas.arquivo");
+        if (arquivo == null) {
+            return;
+        }
+
+        try {
+            metricas.gravar(Path.of(arquivo));
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("\nErro ao gravar as métricas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Define a saída dos comprovantes do {@link BancoService}, conforme a propriedade {@code banco.saida}.
+     * Com a saída assíncrona, o menu aguarda a gravação dos comprovantes de cada operação antes de ser exibido.
+     */
+    private void definirSaida() {
+        String saida = System.getProperty("banco.saida", "CONSOLE");
+
+        switch (saida) {
+            case "CONSOLE" -> { }
+            case "ASSINCRONA" -> bancoService.setSaida(new SaidaAssincrona());
+            case "NULA" -> bancoService.setSaida(SaidaNula.INSTANCIA);
+            default -> System.out.println("\nErro: saída desconhecida: " + saida + ".");
+        }
+    }
+
+    /**
+     * Transfere o histórico das contas do {@link BancoService} para os livros mapeados, caso estejam disponíveis.
+     */
+    private void usarArmazemLivros() {
+        if (armazemLivros == null) {
+            return;
+        }
+
+        try {
+            bancoService.usarArmazemLivros(armazemLivros);
         } catch (IOException e) {
-            System.out.println("\nErro ao salvar o estado do BancoService: " + e.getMessage());
+            System.out.println("\nErro ao transferir o histórico das contas para os livros-razão: " + e.getMessage());
         }
     }
 
     /**
-     * Recupera o estado do {@link BancoService} a partir de um arquivo serializado.
+     * Abre o journal do {@link BancoService} e reproduz as operações registradas depois do último snapshot.
+     * Caso o journal não possa ser aberto ou reproduzido até o fim, a inicialização é interrompida: o serviço
+     * pode ter apenas parte dos registros aplicada, e um snapshot dele faria com que os registros já aplicados
+     * fossem reproduzidos novamente na próxima inicialização.
+     *
+     * @throws IllegalStateException Se a política de sincronização configurada for inválida, ou se o journal não
+     *                               puder ser aberto ou reproduzido.
+     */
+    private void abrirJournal() {
+        String sincronizacao = System.getProperty("banco.journal.sincronizacao", PoliticaSincronizacao.SEMPRE.name());
+
+        try {
+            PoliticaSincronizacao politica;
+            try {
+                politica = PoliticaSincronizacao.valueOf(sincronizacao);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("política de sincronização do journal desconhecida: " + sincronizacao
+                        + " (use " + Arrays.toString(PoliticaSincronizacao.values()) + ").");
+            }
+
+            Journal arquivoJournal = Journal.abrir(Path.of(JOURNAL_FILE_NAME), politica);
+
+            if (politica == PoliticaSincronizacao.SEMPRE) {
+                int tamanhoLote = Integer.getInteger("banco.journal.tamanhoLote", CommitEmGrupo.TAMANHO_LOTE_PADRAO);
+                long esperaMaxima = Long.getLong("banco.journal.esperaMaximaMicros", CommitEmGrupo.ESPERA_MAXIMA_PADRAO);
+                journal = new CommitEmGrupo(arquivoJournal, tamanhoLote, esperaMaxima, TimeUnit.MICROSECONDS);
+            } else {
+                journal = arquivoJournal;
+            }
+            bancoService.anexarJournal(journal);
+        } catch (IOException | IllegalStateException e) {
+            fecharJournal();
+            journal = null;
+            bancoService.getSaida().close();
+            throw new IllegalStateException("não foi possível recuperar o journal do BancoService: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Força a gravação dos registros pendentes e fecha o journal.
+     */
+    private void fecharJournal() {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("\nErro ao fechar o journal do BancoService: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recupera o estado do {@link BancoService} a partir do último snapshot.
+     * @return Uma instância de {@link BancoService} carregada, ou {@code null} se não houver snapshot.
+     */
+    private BancoService carregarSnapshot() {
+        Path arquivo = Path.of(SNAPSHOT_FILE_NAME);
+        if (!Files.exists(arquivo)) {
+            return null;
+        }
+
+        try {
+            return BancoService.carregarSnapshot(arquivo, armazemLivros);
+        } catch (IOException e) {
+            System.out.println("\nErro ao carregar o estado do BancoService: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Recupera o estado do {@link BancoService} a partir de um arquivo serializado por versões anteriores.
      * @return Uma instância de {@link BancoService} carregada, ou {@code null} se não houver dados salvos.
      */
     private BancoService desserializarBancoService() {
@@ -191,7 +633,7 @@ public class Banco {
         int numeroConta = input.nextInt();
 
         System.out.print("- Informe a quantia desejada para depósito: ");
-        double quantiaDeposito = input.nextDouble();
+        long quantiaDeposito = Dinheiro.parse(input.next());
 
         bancoService.efetuarDeposito(numeroConta, quantiaDeposito);
     }
@@ -206,7 +648,7 @@ public class Banco {
         int numeroConta = input.nextInt();
 
         System.out.print("- Informe a quantia desejada para saque: ");
-        double quantiaSaque = input.nextDouble();
+        long quantiaSaque = Dinheiro.parse(input.next());
 
         bancoService.efetuarSaque(numeroConta, quantiaSaque);
     }
@@ -216,20 +658,35 @@ public class Banco {
      */
     private void aplicarCorrecao() {
         System.out.print("\n- Informe a taxa de correção: ");
-        double taxa = input.nextDouble();
+        long taxa = Dinheiro.parseTaxa(input.next());
         bancoService.aplicarCorrecao(taxa);
     }
 
     /**
-     * Cadastra CPF como chave Pix caso a conta seja corrente/especial.
+     * Cadastra uma chave Pix (CPF, e-mail, telefone ou aleatória) caso a conta seja corrente/especial.
      *
      * @throws ContaNaoEncontradaException Se a conta não existir.
      * @throws TipoContaException Se a conta não for corrente/especial.
      */
     private void cadastrarPix() throws ContaNaoEncontradaException, TipoContaException {
-        System.out.print("\n- Informe o CPF para registro: ");
+        System.out.print("\n- Informe o CPF do correntista: ");
         String cpf = input.next();
-        bancoService.cadastrarPix(cpf);
+
+        System.out.print("- Tipo de chave ([1] CPF, [2] E-mail, [3] Telefone, [4] Aleatória): ");
+        TipoChavePix tipo = switch (input.nextInt()) {
+            case 2 -> TipoChavePix.EMAIL;
+            case 3 -> TipoChavePix.TELEFONE;
+            case 4 -> TipoChavePix.ALEATORIA;
+            default -> TipoChavePix.CPF;
+        };
+
+        String chave = cpf;
+        if (tipo == TipoChavePix.EMAIL || tipo == TipoChavePix.TELEFONE) {
+            System.out.print("- Informe a chave: ");
+            chave = input.next();
+        }
+
+        bancoService.cadastrarPix(cpf, tipo, chave);
     }
 
     /**
@@ -239,16 +696,16 @@ public class Banco {
      * @throws ContaNaoEncontradaException Se a conta não existir.
      */
     private void efetuarPix() throws ContaNaoEncontradaException {
-        System.out.print("\n- Insira o CPF de origem: ");
-        String cpfOrigem = input.next();
+        System.out.print("\n- Insira a chave Pix de origem: ");
+        String chaveOrigem = input.next();
 
-        System.out.print("- Insira o CPF do destino: ");
-        String cpfDestino = input.next();
+        System.out.print("- Insira a chave Pix do destino: ");
+        String chaveDestino = input.next();
 
         System.out.print("- Insira o valor em R$: ");
-        double valor = input.nextDouble();
+        long valor = Dinheiro.parse(input.next());
 
-        bancoService.efetuarPix(cpfOrigem, cpfDestino, valor);
+        bancoService.efetuarPix(chaveOrigem, chaveDestino, valor);
     }
 
     /**
@@ -268,4 +725,22 @@ public class Banco {
     private void exibirContasRegistradas() {
         bancoService.exibirContasRegistradas();
     }
+
+    /**
+     * Importa contas de um arquivo delimitado por ponto e vírgula, no formato {@code TIPO;NOME;CPF[;DEPOSITO_INICIAL]},
+     * e exibe o resumo da importação.
+     *
+     * @throws IOException Se o arquivo não puder ser lido ou as rejeições não puderem ser gravadas.
+     */
+    private void importarContas() throws IOException {
+        System.out.print("\n- Informe o caminho do arquivo: ");
+        input.nextLine();
+        Path arquivo = Path.of(input.nextLine().strip());
+
+        System.out.print("- O arquivo possui cabeçalho? [S/N]: ");
+        boolean cabecalho = input.next().equalsIgnoreCase("S");
+
+        ImportacaoContas importacao = ImportacaoContas.de(arquivo).comCabecalho(cabecalho);
+        System.out.println("\n" + bancoService.importarContas(importacao));
+    }
 }
@@ -0,0 +1,202 @@
+package application;
+
+import models.Dinheiro;
+import models.enums.TipoChavePix;
+import service.BancoService;
+import service.Comprovante;
+import service.saida.SaidaBanco;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Executor dos scripts do {@link Banco}: um comando por linha, lido pelo {@link LeitorScript}, executado diretamente
+ * no {@link BancoService}, sem menu e sem perguntas. Os nomes dos comandos não diferenciam maiúsculas de minúsculas:
+ * <pre>
+ * corrente &lt;cpf&gt; &lt;nome&gt;
+ * poupanca &lt;cpf&gt; &lt;nome&gt;
+ * especial &lt;cpf&gt; &lt;nome&gt;
+ * deposito &lt;conta&gt; &lt;valor&gt;
+ * saque &lt;conta&gt; &lt;valor&gt;
+ * correcao &lt;taxa&gt;
+ * chave &lt;cpf&gt; [cpf|email|telefone|aleatoria] [chave]
+ * pix &lt;chaveOrigem&gt; &lt;chaveDestino&gt; &lt;valor&gt;
+ * extrato &lt;conta&gt;
+ * contas
+ * </pre>
+ * O nome do correntista é o restante da linha e pode conter espaços. Um comando inválido ou que falhe é contado
+ * como erro e não interrompe o script; o erro é exibido com o número da linha na saída do serviço.
+ */
+
+final class ExecutorScript {
+
+    private static final String[] COMANDOS = {
+            "corrente", "poupanca", "especial", "deposito", "saque", "correcao", "chave", "pix", "extrato", "contas"
+    };
+    private static final String[] TIPOS_CHAVE = {"cpf", "email", "telefone", "aleatoria"};
+    private static final TipoChavePix[] CHAVES = {
+            TipoChavePix.CPF, TipoChavePix.EMAIL, TipoChavePix.TELEFONE, TipoChavePix.ALEATORIA
+    };
+
+    private final BancoService bancoService;
+
+    private long operacoes;
+    private long erros;
+    private long duracaoNanos;
+
+    /**
+     * Construtor do executor.
+     *
+     * @param bancoService Serviço onde os comandos são executados.
+     */
+    ExecutorScript(BancoService bancoService) {
+        this.bancoService = bancoService;
+    }
+
+    /**
+     * Executa todos os comandos da entrada e aguarda a apresentação de toda a saída produzida por eles.
+     *
+     * @param entrada Entrada do script. Não é fechada pelo executor.
+     * @throws IOException Em caso de erro de leitura da entrada.
+     */
+    void executar(Reader entrada) throws IOException {
+        LeitorScript leitor = new LeitorScript(entrada);
+        SaidaBanco saida = bancoService.getSaida();
+        long inicio = System.nanoTime();
+
+        while (leitor.proximaLinha()) {
+            operacoes++;
+            try {
+                Comprovante comprovante = executar(leitor);
+                if (comprovante != null && !comprovante.isEfetuado()) {
+                    erros++;
+                }
+            } catch (Exception e) {
+                erros++;
+                saida.exibir("\nErro na linha " + leitor.getNumeroLinha() + ": " + e.getMessage());
+            }
+        }
+
+        saida.descarregar();
+        duracaoNanos = System.nanoTime() - inicio;
+    }
+
+    /**
+     * Executa o comando da linha atual do leitor.
+     *
+     * @param leitor Leitor posicionado na linha do comando.
+     * @return Comprovante da operação, ou null para consultas.
+     * @throws Exception Se o comando for inválido ou a operação falhar.
+     */
+    private Comprovante executar(LeitorScript leitor) throws Exception {
+        int comando = leitor.opcao(0, COMANDOS);
+        if (comando < 0) {
+            throw new IllegalArgumentException("Comando desconhecido: " + leitor.token(0) + ".");
+        }
+
+        int tokens = leitor.getQuantidadeTokens();
+        return switch (COMANDOS[comando]) {
+            case "corrente" -> {
+                exigirArgumentos(leitor, 3, Integer.MAX_VALUE);
+                yield bancoService.criarContaCorrente(leitor.resto(2), leitor.token(1));
+            }
+            case "poupanca" -> {
+                exigirArgumentos(leitor, 3, Integer.MAX_VALUE);
+                yield bancoService.criarContaPoupanca(leitor.resto(2), leitor.token(1));
+            }
+            case "especial" -> {
+                exigirArgumentos(leitor, 3, Integer.MAX_VALUE);
+                yield bancoService.criarContaEspecial(leitor.resto(2), leitor.token(1));
+            }
+            case "deposito" -> {
+                exigirArgumentos(leitor, 3, 3);
+                yield bancoService.efetuarDeposito(leitor.inteiro(1), Dinheiro.parse(leitor.token(2)));
+            }
+            case "saque" -> {
+                exigirArgumentos(leitor, 3, 3);
+                yield bancoService.efetuarSaque(leitor.inteiro(1), Dinheiro.parse(leitor.token(2)));
+            }
+            case "correcao" -> {
+                exigirArgumentos(leitor, 2, 2);
+                yield bancoService.aplicarCorrecao(Dinheiro.parseTaxa(leitor.token(1)));
+            }
+            case "chave" -> {
+                exigirArgumentos(leitor, 2, 4);
+                String cpf = leitor.token(1);
+                int tipo = tokens > 2 ? leitor.opcao(2, TIPOS_CHAVE) : 0;
+                if (tipo < 0) {
+                    throw new IllegalArgumentException("Tipo de chave desconhecido: " + leitor.token(2) + ".");
+                }
+                yield bancoService.cadastrarPix(cpf, CHAVES[tipo], tokens > 3 ? leitor.token(3) : cpf);
+            }
+            case "pix" -> {
+                exigirArgumentos(leitor, 4, 4);
+                yield bancoService.efetuarPix(leitor.token(1), leitor.token(2), Dinheiro.parse(leitor.token(3)));
+            }
+            case "extrato" -> {
+                exigirArgumentos(leitor, 2, 2);
+                bancoService.consultarExtrato(leitor.inteiro(1));
+                yield null;
+            }
+            default -> {
+                exigirArgumentos(leitor, 1, 1);
+                bancoService.exibirContasRegistradas();
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Confere a quantidade de tokens da linha atual, incluindo o nome do comando.
+     *
+     * @param leitor Leitor posicionado na linha do comando.
+     * @param minimo Quantidade mínima de tokens.
+     * @param maximo Quantidade máxima de tokens.
+     * @throws IllegalArgumentException Se a quantidade estiver fora dos limites.
+     */
+    private static void exigirArgumentos(LeitorScript leitor, int minimo, int maximo) {
+        int tokens = leitor.getQuantidadeTokens();
+        if (tokens < minimo || tokens > maximo) {
+            throw new IllegalArgumentException("Quantidade de argumentos inválida para o comando " + leitor.token(0) + ".");
+        }
+    }
+
+    /**
+     * Retorna a quantidade de comandos executados.
+     *
+     * @return Quantidade de comandos, incluindo os que falharam.
+     */
+    long getOperacoes() {
+        return operacoes;
+    }
+
+    /**
+     * Retorna a quantidade de comandos inválidos ou que falharam.
+     *
+     * @return Quantidade de erros.
+     */
+    long getErros() {
+        return erros;
+    }
+
+    /**
+     * Retorna a vazão da execução, incluindo a apresentação da saída.
+     *
+     * @return Comandos por segundo.
+     */
+    double getOperacoesPorSegundo() {
+        return operacoes / (Math.max(duracaoNanos, 1) / 1e9);
+    }
+
+    /**
+     * Retorna o resumo da execução.
+     *
+     * @return Quantidade de operações e de erros, duração e vazão.
+     */
+    @Override
+    public String toString() {
+        return "- Script concluído: " + operacoes + " operações, " + erros + " erros em " + duracaoNanos / 1_000_000
+                + " ms (" + String.format("%.0f", getOperacoesPorSegundo()) + " ops/s).";
+    }
+
+}
@@ -0,0 +1,221 @@
+package application;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Leitor dos comandos de um script do {@link Banco}.
+ * Lê a entrada em blocos de caracteres e separa cada linha em tokens delimitados por espaços ou tabulações,
+ * guardando apenas as posições de cada token na linha; os tokens só são convertidos em texto ou em números quando
+ * consultados. Linhas em branco e comentários (do {@code #} até o fim da linha) são ignorados.
+ */
+
+final class LeitorScript {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final Reader entrada;
+    private final char[] buffer = new char[TAMANHO_BUFFER];
+    private int posicao;
+    private int limite;
+
+    private char[] linha = new char[256];
+    private int tamanhoLinha;
+    private int[] inicios = new int[8];
+    private int[] fins = new int[8];
+    private int quantidadeTokens;
+    private long numeroLinha;
+
+    /**
+     * Construtor do leitor.
+     *
+     * @param entrada Entrada do script. Não é fechada pelo leitor.
+     */
+    LeitorScript(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * Avança para a próxima linha com ao menos um token.
+     *
+     * @return Falso se a entrada terminou.
+     * @throws IOException Em caso de erro de leitura.
+     */
+    boolean proximaLinha() throws IOException {
+        while (lerLinha()) {
+            separarTokens();
+            if (quantidadeTokens > 0) {
+                return true;
+            }
+        }
+        quantidadeTokens = 0;
+        return false;
+    }
+
+    /**
+     * Retorna o número da linha atual, a partir de 1.
+     *
+     * @return Número da linha.
+     */
+    long getNumeroLinha() {
+        return numeroLinha;
+    }
+
+    /**
+     * Retorna a quantidade de tokens da linha atual.
+     *
+     * @return Quantidade de tokens.
+     */
+    int getQuantidadeTokens() {
+        return quantidadeTokens;
+    }
+
+    /**
+     * Retorna um token da linha atual.
+     *
+     * @param i Posição do token.
+     * @return Texto do token.
+     */
+    String token(int i) {
+        return new String(linha, inicios[i], fins[i] - inicios[i]);
+    }
+
+    /**
+     * Retorna o texto da linha do início de um token até o fim do último, preservando os espaços entre eles.
+     *
+     * @param i Posição do primeiro token.
+     * @return Texto a partir do token.
+     */
+    String resto(int i) {
+        return new String(linha, inicios[i], fins[quantidadeTokens - 1] - inicios[i]);
+    }
+
+    /**
+     * Busca um token, sem diferenciar maiúsculas de minúsculas, em uma lista de opções escritas em minúsculas.
+     *
+     * @param i Posição do token.
+     * @param opcoes Opções aceitas, em minúsculas.
+     * @return Posição da opção correspondente, ou -1 se nenhuma corresponder.
+     */
+    int opcao(int i, String[] opcoes) {
+        int tamanho = fins[i] - inicios[i];
+
+        for (int o = 0; o < opcoes.length; o++) {
+            String opcao = opcoes[o];
+            if (opcao.length() != tamanho) {
+                continue;
+            }
+
+            int c = 0;
+            while (c < tamanho && Character.toLowerCase(linha[inicios[i] + c]) == opcao.charAt(c)) {
+                c++;
+            }
+            if (c == tamanho) {
+                return o;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converte um token em um número inteiro não negativo, sem criar texto intermediário.
+     *
+     * @param i Posição do token.
+     * @return Valor do token.
+     * @throws NumberFormatException Se o token não for um número inteiro não negativo válido.
+     */
+    int inteiro(int i) {
+        long valor = 0;
+
+        for (int c = inicios[i]; c < fins[i]; c++) {
+            char digito = linha[c];
+            if (digito < '0' || digito > '9' || (valor = valor * 10 + (digito - '0')) > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Número inválido: " + token(i));
+            }
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Copia a próxima linha da entrada para o buffer da linha, sem a quebra de linha.
+     *
+     * @return Falso se a entrada terminou antes de qualquer caractere.
+     * @throws IOException Em caso de erro de leitura.
+     */
+    private boolean lerLinha() throws IOException {
+        tamanhoLinha = 0;
+        boolean leuAlgo = false;
+
+        while (true) {
+            if (posicao == limite) {
+                limite = entrada.read(buffer);
+                posicao = 0;
+                if (limite <= 0) {
+                    limite = 0;
+                    if (leuAlgo) {
+                        numeroLinha++;
+                    }
+                    return leuAlgo;
+                }
+            }
+            leuAlgo = true;
+
+            int inicio = posicao;
+            while (posicao < limite && buffer[posicao] != '\n') {
+                posicao++;
+            }
+
+            int tamanho = posicao - inicio;
+            if (tamanhoLinha + tamanho > linha.length) {
+                linha = Arrays.copyOf(linha, Math.max(linha.length * 2, tamanhoLinha + tamanho));
+            }
+            System.arraycopy(buffer, inicio, linha, tamanhoLinha, tamanho);
+            tamanhoLinha += tamanho;
+
+            if (posicao < limite) {
+                posicao++;
+                numeroLinha++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Registra as posições dos tokens da linha atual, até o fim da linha ou o início de um comentário.
+     */
+    private void separarTokens() {
+        quantidadeTokens = 0;
+        int i = 0;
+
+        while (true) {
+            while (i < tamanhoLinha && espaco(linha[i])) {
+                i++;
+            }
+            if (i == tamanhoLinha || linha[i] == '#') {
+                return;
+            }
+
+            if (quantidadeTokens == inicios.length) {
+                inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                fins = Arrays.copyOf(fins, fins.length * 2);
+            }
+            inicios[quantidadeTokens] = i;
+            while (i < tamanhoLinha && !espaco(linha[i])) {
+                i++;
+            }
+            fins[quantidadeTokens++] = i;
+        }
+    }
+
+    /**
+     * Indica se um caractere separa tokens.
+     *
+     * @param c Caractere.
+     * @return Verdadeiro para espaço, tabulação e retorno de carro.
+     */
+    private static boolean espaco(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+}
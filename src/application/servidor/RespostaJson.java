@@ -0,0 +1,157 @@
+package application.servidor;
+
+import models.Dinheiro;
+import models.Operacao;
+import models.PaginaExtrato;
+import models.enums.TipoConta;
+import service.Comprovante;
+
+/**
+ * Conversão das respostas do {@link ServidorBanco} em JSON.
+ * Os valores em dinheiro são escritos como texto com duas casas decimais (ex: {@code "10.50"}), no mesmo formato
+ * aceito nas requisições, para não passar por ponto flutuante.
+ */
+
+final class RespostaJson {
+
+    private RespostaJson() {
+    }
+
+    /**
+     * Converte um comprovante em JSON, apenas com os campos que se aplicam ao tipo da operação.
+     *
+     * @param comprovante Comprovante da operação.
+     * @return Objeto JSON.
+     */
+    static String comprovante(Comprovante comprovante) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"tipo\":\"").append(comprovante.getTipo())
+                .append("\",\"situacao\":\"").append(comprovante.getSituacao())
+                .append("\",\"numeroConta\":").append(comprovante.getNumeroConta());
+
+        switch (comprovante.getTipo()) {
+            case CRIACAO_CONTA -> {
+                json.append(",\"tipoConta\":\"").append(comprovante.getTipoConta()).append('"');
+                if (comprovante.getTipoConta() == TipoConta.ESPECIAL) {
+                    campoDinheiro(json, "limiteEspecial", comprovante.getValor());
+                }
+            }
+            case DEPOSITO, SAQUE, PIX -> {
+                campoDinheiro(json, "valor", comprovante.getValor());
+                if (comprovante.isEfetuado()) {
+                    campoDinheiro(json, "saldo", comprovante.getSaldo());
+                }
+            }
+            case CADASTRO_PIX -> {
+                if (comprovante.getTipoChavePix() != null) {
+                    json.append(",\"tipoChave\":\"").append(comprovante.getTipoChavePix()).append('"');
+                }
+            }
+            default -> {
+            }
+        }
+
+        campoTexto(json, "chave", comprovante.getChave());
+        campoTexto(json, "chaveDestino", comprovante.getChaveDestino());
+        campoTexto(json, "mensagem", comprovante.getMensagem());
+        return json.append('}').toString();
+    }
+
+    /**
+     * Converte uma página do extrato de uma conta em JSON.
+     *
+     * @param numeroConta Número da conta.
+     * @param pagina Página do extrato.
+     * @return Objeto JSON com as operações e o cursor da próxima página, se houver.
+     */
+    static String extrato(int numeroConta, PaginaExtrato pagina) {
+        StringBuilder json = new StringBuilder(64 + pagina.getOperacoes().size() * 96);
+        json.append("{\"numeroConta\":").append(numeroConta).append(",\"operacoes\":[");
+
+        boolean primeira = true;
+        for (Operacao operacao : pagina.getOperacoes()) {
+            if (!primeira) {
+                json.append(',');
+            }
+            primeira = false;
+
+            json.append("{\"data\":\"").append(operacao.getData())
+                    .append("\",\"tipo\":\"").append(operacao.getIdentificadorTipo()).append('"');
+            campoDinheiro(json, "valor", operacao.getValor());
+            campoDinheiro(json, "saldo", operacao.getSaldoAtual());
+            campoTexto(json, "mensagem", operacao.getMsg());
+            json.append('}');
+        }
+
+        json.append(']');
+        campoTexto(json, "proximoCursor", pagina.getProximoCursor());
+        return json.append('}').toString();
+    }
+
+    /**
+     * Converte uma mensagem de erro em JSON.
+     *
+     * @param mensagem Mensagem do erro.
+     * @return Objeto JSON com o campo {@code erro}.
+     */
+    static String erro(String mensagem) {
+        StringBuilder json = new StringBuilder(64).append("{\"erro\":");
+        texto(json, mensagem != null ? mensagem : "Erro desconhecido.");
+        return json.append('}').toString();
+    }
+
+    /**
+     * Acrescenta um campo com um valor em dinheiro.
+     *
+     * @param json JSON em construção.
+     * @param nome Nome do campo.
+     * @param centavos Valor em centavos.
+     */
+    private static void campoDinheiro(StringBuilder json, String nome, long centavos) {
+        json.append(",\"").append(nome).append("\":\"").append(Dinheiro.formatar(centavos)).append('"');
+    }
+
+    /**
+     * Acrescenta um campo de texto, caso o valor não seja nulo.
+     *
+     * @param json JSON em construção.
+     * @param nome Nome do campo.
+     * @param valor Valor do campo.
+     */
+    private static void campoTexto(StringBuilder json, String nome, String valor) {
+        if (valor == null) {
+            return;
+        }
+        json.append(",\"").append(nome).append("\":");
+        texto(json, valor);
+    }
+
+    /**
+     * Acrescenta um texto entre aspas, escapando os caracteres especiais do JSON.
+     *
+     * @param json JSON em construção.
+     * @param valor Texto.
+     */
+    private static void texto(StringBuilder json, String valor) {
+        json.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+}
@@ -0,0 +1,424 @@
+package application.servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import models.ConsultaExtrato;
+import models.Dinheiro;
+import models.PaginaExtrato;
+import models.enums.TipoChavePix;
+import models.enums.TipoConta;
+import models.exceptions.ContaJaCadastradaException;
+import models.exceptions.ContaNaoEncontradaException;
+import models.exceptions.DocumentoInvalidoException;
+import models.exceptions.TipoContaException;
+import service.BancoService;
+import service.Comprovante;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor HTTP do {@link BancoService}, sobre o servidor HTTP embutido no JDK ({@code com.sun.net.httpserver}).
+ * Os parâmetros são lidos da query string e do corpo ({@code application/x-www-form-urlencoded}), e as respostas
+ * são escritas em JSON ({@link RespostaJson}):
+ * <pre>
+ * POST /contas                    tipo, nome, cpf
+ * POST /contas/{numero}/deposito  valor
+ * POST /contas/{numero}/saque     valor
+ * GET  /contas/{numero}/extrato   [tamanho], [cursor]
+ * POST /pix/chaves                cpf, [tipo], [chave]
+ * POST /pix                       origem, destino, valor
+ * </pre>
+ * Depósitos e transferências Pix aceitam o cabeçalho {@code Idempotency-Key}: o reenvio de uma requisição com a
+ * mesma chave devolve o comprovante original, sem repetir a operação.
+ * <p>
+ * Cada requisição é atendida em uma thread virtual, quando a JVM as oferece (Java 21 ou superior), de modo que
+ * milhares de clientes simultâneos, em geral aguardando a sincronização do journal, não ocupam milhares de threads
+ * do sistema operacional. Em versões anteriores, as requisições são atendidas por um pool fixo de threads.
+ * <p>
+ * Operações recusadas pelo serviço respondem com o comprovante da falha e o status correspondente: 404 para contas
+ * ou chaves não encontradas, 409 para contas ou chaves já cadastradas, 422 para saldo insuficiente e 400 para
+ * parâmetros inválidos. Falhas do próprio serviço, como um journal indisponível, respondem com 500.
+ */
+
+public final class ServidorBanco implements Closeable {
+
+    /**
+     * Tamanho máximo do corpo de uma requisição, em bytes.
+     */
+    public static final int TAMANHO_MAXIMO_CORPO = 64 * 1024;
+
+    private static final int FILA_CONEXOES = 1_024;
+    private static final int THREADS_PLATAFORMA = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+    private static final String PROPRIEDADE_NODELAY = "sun.net.httpserver.nodelay";
+
+    private final BancoService bancoService;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final boolean threadsVirtuais;
+
+    /**
+     * Construtor do servidor. O servidor é iniciado por {@link #iniciar(BancoService, InetSocketAddress)}.
+     *
+     * @param bancoService Serviço atendido pelo servidor.
+     * @param servidor Servidor HTTP já associado ao endereço.
+     * @param executor Executor das requisições.
+     * @param threadsVirtuais Verdadeiro se o executor cria uma thread virtual por requisição.
+     */
+    private ServidorBanco(BancoService bancoService, HttpServer servidor, ExecutorService executor, boolean threadsVirtuais) {
+        this.bancoService = bancoService;
+        this.servidor = servidor;
+        this.executor = executor;
+        this.threadsVirtuais = threadsVirtuais;
+    }
+
+    /**
+     * Inicia um servidor para o serviço no endereço informado.
+     *
+     * @param bancoService Serviço atendido pelo servidor.
+     * @param endereco Endereço do servidor; a porta 0 escolhe uma porta livre.
+     * @return Servidor iniciado.
+     * @throws IOException Se o endereço não puder ser utilizado.
+     */
+    public static ServidorBanco iniciar(BancoService bancoService, InetSocketAddress endereco) throws IOException {
+        // Sem TCP_NODELAY, o cabeçalho e o corpo da resposta, gravados separadamente, esperam o ACK atrasado do cliente.
+        if (System.getProperty(PROPRIEDADE_NODELAY) == null) {
+            System.setProperty(PROPRIEDADE_NODELAY, "true");
+        }
+
+        ExecutorService executor = criarExecutorVirtual();
+        boolean threadsVirtuais = executor != null;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS_PLATAFORMA);
+        }
+
+        HttpServer servidor;
+        try {
+            servidor = HttpServer.create(endereco, FILA_CONEXOES);
+        } catch (IOException e) {
+            executor.shutdown();
+            throw e;
+        }
+
+        ServidorBanco servidorBanco = new ServidorBanco(bancoService, servidor, executor, threadsVirtuais);
+        servidor.createContext("/", servidorBanco::atender);
+        servidor.setExecutor(executor);
+        servidor.start();
+        return servidorBanco;
+    }
+
+    /**
+     * Retorna a porta em que o servidor aceita conexões.
+     *
+     * @return Porta do servidor.
+     */
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Indica se as requisições são atendidas em threads virtuais.
+     *
+     * @return Verdadeiro para threads virtuais, falso para o pool fixo de threads.
+     */
+    public boolean isThreadsVirtuais() {
+        return threadsVirtuais;
+    }
+
+    /**
+     * Para de aceitar conexões, aguarda até um segundo pelas requisições em andamento e encerra o executor.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cria, por reflexão, um executor com uma thread virtual por tarefa, disponível a partir do Java 21.
+     *
+     * @return Executor de threads virtuais, ou null se a JVM não oferecer threads virtuais.
+     */
+    private static ExecutorService criarExecutorVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Atende uma requisição, encaminhando-a para a operação correspondente ao método e ao caminho.
+     *
+     * @param troca Requisição e resposta HTTP.
+     */
+    private void atender(HttpExchange troca) {
+        try {
+            String[] caminho = troca.getRequestURI().getPath().split("/");
+            String metodo = troca.getRequestMethod();
+            Map<String, String> parametros = lerParametros(troca);
+
+            if (caminho.length == 2 && caminho[1].equals("contas") && metodo.equals("POST")) {
+                criarConta(troca, parametros);
+            } else if (caminho.length == 4 && caminho[1].equals("contas")) {
+                operarConta(troca, metodo, Integer.parseInt(caminho[2]), caminho[3], parametros);
+            } else if (caminho.length == 3 && caminho[1].equals("pix") && caminho[2].equals("chaves") && metodo.equals("POST")) {
+                TipoChavePix tipo = constante(TipoChavePix.class, "tipo", parametros.getOrDefault("tipo", "CPF"));
+                String cpf = obrigatorio(parametros, "cpf");
+                responder(troca, bancoService.cadastrarPix(cpf, tipo, parametros.getOrDefault("chave", cpf)), 201);
+            } else if (caminho.length == 2 && caminho[1].equals("pix") && metodo.equals("POST")) {
+                String origem = obrigatorio(parametros, "origem");
+                String destino = obrigatorio(parametros, "destino");
+                long valor = Dinheiro.parse(obrigatorio(parametros, "valor"));
+                String chaveIdempotencia = chaveIdempotencia(troca);
+
+                responder(troca, chaveIdempotencia == null
+                        ? bancoService.efetuarPix(origem, destino, valor)
+                        : bancoService.efetuarPix(origem, destino, valor, chaveIdempotencia), 200);
+            } else {
+                responder(troca, 404, RespostaJson.erro("Recurso não encontrado: " + metodo + " " + troca.getRequestURI().getPath()));
+            }
+        } catch (ContaNaoEncontradaException e) {
+            responderErro(troca, 404, e);
+        } catch (ContaJaCadastradaException e) {
+            responderErro(troca, 409, e);
+        } catch (CorpoExcedidoException e) {
+            responderErro(troca, 413, e);
+        } catch (IOException e) {
+            // Conexão encerrada pelo cliente.
+        } catch (IllegalArgumentException | DocumentoInvalidoException | TipoContaException e) {
+            // Inclui NumberFormatException, de números e valores mal formados na requisição.
+            responderErro(troca, 400, e);
+        } catch (Exception e) {
+            // Falhas do serviço, como as do journal (UncheckedIOException) ou de um estado inválido.
+            responderErro(troca, 500, e);
+        } finally {
+            troca.close();
+        }
+    }
+
+    /**
+     * Cria uma conta do tipo informado.
+     *
+     * @param troca Requisição e resposta HTTP.
+     * @param parametros Parâmetros da requisição.
+     * @throws Exception Se a conta não puder ser criada.
+     */
+    private void criarConta(HttpExchange troca, Map<String, String> parametros) throws Exception {
+        String nome = obrigatorio(parametros, "nome");
+        String cpf = obrigatorio(parametros, "cpf");
+
+        Comprovante comprovante = switch (constante(TipoConta.class, "tipo", obrigatorio(parametros, "tipo"))) {
+            case CORRENTE -> bancoService.criarContaCorrente(nome, cpf);
+            case POUPANCA -> bancoService.criarContaPoupanca(nome, cpf);
+            case ESPECIAL -> bancoService.criarContaEspecial(nome, cpf);
+        };
+        responder(troca, comprovante, 201);
+    }
+
+    /**
+     * Executa uma operação sobre uma conta: depósito, saque ou consulta do extrato.
+     *
+     * @param troca Requisição e resposta HTTP.
+     * @param metodo Método HTTP.
+     * @param numeroConta Número da conta.
+     * @param operacao Último segmento do caminho.
+     * @param parametros Parâmetros da requisição.
+     * @throws Exception Se a operação falhar.
+     */
+    private void operarConta(HttpExchange troca, String metodo, int numeroConta, String operacao,
+                             Map<String, String> parametros) throws Exception {
+        if (operacao.equals("extrato") && metodo.equals("GET")) {
+            ConsultaExtrato consulta = ConsultaExtrato.paginas(
+                    Integer.parseInt(parametros.getOrDefault("tamanho", String.valueOf(ConsultaExtrato.TAMANHO_PAGINA_PADRAO))));
+            if (parametros.containsKey("cursor")) {
+                consulta = consulta.comCursor(parametros.get("cursor"));
+            }
+            PaginaExtrato pagina = bancoService.consultarExtrato(numeroConta, consulta);
+            responder(troca, 200, RespostaJson.extrato(numeroConta, pagina));
+        } else if (operacao.equals("deposito") && metodo.equals("POST")) {
+            long valor = Dinheiro.parse(obrigatorio(parametros, "valor"));
+            String chaveIdempotencia = chaveIdempotencia(troca);
+
+            responder(troca, chaveIdempotencia == null
+                    ? bancoService.efetuarDeposito(numeroConta, valor)
+                    : bancoService.efetuarDeposito(numeroConta, valor, chaveIdempotencia), 200);
+        } else if (operacao.equals("saque") && metodo.equals("POST")) {
+            responder(troca, bancoService.efetuarSaque(numeroConta, Dinheiro.parse(obrigatorio(parametros, "valor"))), 200);
+        } else {
+            responder(troca, 404, RespostaJson.erro("Recurso não encontrado: " + metodo + " " + troca.getRequestURI().getPath()));
+        }
+    }
+
+    /**
+     * Responde com um comprovante, usando o status de sucesso informado ou o status correspondente à falha.
+     *
+     * @param troca Requisição e resposta HTTP.
+     * @param comprovante Comprovante da operação.
+     * @param statusSucesso Status da resposta se a operação foi efetuada.
+     * @throws IOException Em caso de erro de escrita da resposta.
+     */
+    private static void responder(HttpExchange troca, Comprovante comprovante, int statusSucesso) throws IOException {
+        int status = switch (comprovante.getSituacao()) {
+            case EFETUADO -> statusSucesso;
+            case CONTA_NAO_ENCONTRADA -> 404;
+            case CHAVE_PIX_JA_CADASTRADA -> 409;
+            case SALDO_INSUFICIENTE -> 422;
+            default -> 400;
+        };
+        responder(troca, status, RespostaJson.comprovante(comprovante));
+    }
+
+    /**
+     * Responde com o erro de uma exceção, ignorando falhas de escrita.
+     *
+     * @param troca Requisição e resposta HTTP.
+     * @param status Status da resposta.
+     * @param erro Erro ocorrido.
+     */
+    private static void responderErro(HttpExchange troca, int status, Exception erro) {
+        try {
+            responder(troca, status, RespostaJson.erro(erro.getMessage()));
+        } catch (IOException e) {
+            // Conexão encerrada pelo cliente.
+        }
+    }
+
+    /**
+     * Escreve uma resposta JSON.
+     *
+     * @param troca Requisição e resposta HTTP.
+     * @param status Status da resposta.
+     * @param json Corpo da resposta.
+     * @throws IOException Em caso de erro de escrita da resposta.
+     */
+    private static void responder(HttpExchange troca, int status, String json) throws IOException {
+        byte[] corpo = json.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        troca.sendResponseHeaders(status, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+
+    /**
+     * Lê os parâmetros da query string e do corpo da requisição, que prevalecem em caso de repetição.
+     *
+     * @param troca Requisição e resposta HTTP.
+     * @return Parâmetros decodificados.
+     * @throws IOException Em caso de erro de leitura do corpo.
+     * @throws CorpoExcedidoException Se o corpo exceder {@link #TAMANHO_MAXIMO_CORPO}.
+     */
+    private static Map<String, String> lerParametros(HttpExchange troca) throws IOException, CorpoExcedidoException {
+        Map<String, String> parametros = new HashMap<>();
+        decodificar(troca.getRequestURI().getRawQuery(), parametros);
+
+        try (InputStream entrada = troca.getRequestBody()) {
+            byte[] corpo = entrada.readNBytes(TAMANHO_MAXIMO_CORPO + 1);
+            if (corpo.length > TAMANHO_MAXIMO_CORPO) {
+                throw new CorpoExcedidoException();
+            }
+            decodificar(new String(corpo, StandardCharsets.UTF_8), parametros);
+        }
+        return parametros;
+    }
+
+    /**
+     * Decodifica parâmetros no formato {@code nome=valor&nome=valor}.
+     *
+     * @param texto Texto codificado, ou null.
+     * @param parametros Mapa onde os parâmetros são colocados.
+     */
+    private static void decodificar(String texto, Map<String, String> parametros) {
+        if (texto == null || texto.isEmpty()) {
+            return;
+        }
+
+        for (String par : texto.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Retorna um parâmetro obrigatório.
+     *
+     * @param parametros Parâmetros da requisição.
+     * @param nome Nome do parâmetro.
+     * @return Valor do parâmetro.
+     * @throws IllegalArgumentException Se o parâmetro não tiver sido informado.
+     */
+    private static String obrigatorio(Map<String, String> parametros, String nome) {
+        String valor = parametros.get(nome);
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("Parâmetro obrigatório não informado: " + nome + ".");
+        }
+        return valor;
+    }
+
+    /**
+     * Retorna a chave de idempotência informada no cabeçalho {@code Idempotency-Key} da requisição.
+     *
+     * @param troca Requisição e resposta HTTP.
+     * @return Chave de idempotência, ou null se o cabeçalho não tiver sido informado.
+     */
+    private static String chaveIdempotencia(HttpExchange troca) {
+        return troca.getRequestHeaders().getFirst("Idempotency-Key");
+    }
+
+    /**
+     * Converte um parâmetro na constante de um enum, sem diferenciar maiúsculas de minúsculas.
+     *
+     * @param tipo Classe do enum.
+     * @param nome Nome do parâmetro.
+     * @param valor Valor do parâmetro.
+     * @param <E> Tipo do enum.
+     * @return Constante correspondente.
+     * @throws IllegalArgumentException Se nenhuma constante corresponder ao valor.
+     */
+    private static <E extends Enum<E>> E constante(Class<E> tipo, String nome, String valor) {
+        try {
+            return Enum.valueOf(tipo, valor.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor inválido para o parâmetro " + nome + ": " + valor + ".");
+        }
+    }
+
+    /**
+     * Exceção lançada quando o corpo da requisição excede {@link #TAMANHO_MAXIMO_CORPO}.
+     */
+    private static final class CorpoExcedidoException extends Exception {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Construtor da exceção.
+         */
+        CorpoExcedidoException() {
+            super("O corpo da requisição excede " + TAMANHO_MAXIMO_CORPO + " bytes.");
+        }
+    }
+
+}
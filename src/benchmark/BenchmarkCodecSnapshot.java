@@ -0,0 +1,168 @@
+package benchmark;
+
+import models.ArmazemLivros;
+import service.BancoService;
+import service.saida.SaidaNula;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de persistência do estado do serviço.
+ * Compara o tamanho do arquivo e o tempo de gravação e de carga do estado serializado com a serialização
+ * Java (o antigo {@code banco_service.ser}) e do snapshot no formato binário de
+ * {@link service.persistencia.CodecConta}, para um serviço com histórico de operações. Por fim, o histórico é
+ * transferido para livros mapeados ({@link ArmazemLivros}) e o snapshot, que passa a guardar apenas a quantidade
+ * de lançamentos de cada conta, é medido novamente.
+ * Uso: {@code java benchmark.BenchmarkCodecSnapshot [contas] [operacoesPorConta] [rodadas]}.
+ */
+
+public class BenchmarkCodecSnapshot {
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de contas, operações por conta e rodadas (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int quantidadeContas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int operacoesPorConta = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int rodadas = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path arquivoSerializado = Files.createTempFile("benchmark", ".ser");
+        Path arquivoSnapshot = Files.createTempFile("benchmark", ".snapshot");
+        Path diretorioLivros = Files.createTempDirectory("benchmark-livros");
+
+        try {
+            BancoService bancoService = preparar(quantidadeContas, operacoesPorConta);
+            System.out.println(quantidadeContas + " contas | " + operacoesPorConta + " operações por conta");
+
+            for (int rodada = 0; rodada < rodadas; rodada++) {
+                long inicio = System.nanoTime();
+                try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(arquivoSerializado.toFile()), 1 << 16))) {
+                    oos.writeObject(bancoService);
+                }
+                long gravacaoSerializada = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(arquivoSerializado.toFile()), 1 << 16))) {
+                    ois.readObject();
+                }
+                long cargaSerializada = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                bancoService.gravarSnapshot(arquivoSnapshot);
+                long gravacaoBinaria = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                BancoService.carregarSnapshot(arquivoSnapshot);
+                long cargaBinaria = System.nanoTime() - inicio;
+
+                System.out.println("Rodada " + rodada + " | serialização Java | " + formatarTamanho(Files.size(arquivoSerializado))
+                        + " | gravação " + millis(gravacaoSerializada) + " ms | carga " + millis(cargaSerializada) + " ms");
+                System.out.println("Rodada " + rodada + " | formato binário   | " + formatarTamanho(Files.size(arquivoSnapshot))
+                        + " | gravação " + millis(gravacaoBinaria) + " ms | carga " + millis(cargaBinaria) + " ms");
+            }
+
+            ArmazemLivros armazemLivros = ArmazemLivros.abrir(diretorioLivros);
+            bancoService.usarArmazemLivros(armazemLivros);
+
+            for (int rodada = 0; rodada < rodadas; rodada++) {
+                long inicio = System.nanoTime();
+                bancoService.gravarSnapshot(arquivoSnapshot);
+                long gravacao = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                BancoService.carregarSnapshot(arquivoSnapshot, armazemLivros);
+                long carga = System.nanoTime() - inicio;
+
+                System.out.println("Rodada " + rodada + " | livros mapeados   | " + formatarTamanho(Files.size(arquivoSnapshot))
+                        + " | gravação " + millis(gravacao) + " ms | carga " + millis(carga) + " ms");
+            }
+        } finally {
+            Files.deleteIfExists(arquivoSerializado);
+            Files.deleteIfExists(arquivoSnapshot);
+            apagarDiretorio(diretorioLivros);
+        }
+    }
+
+    /**
+     * Cria um serviço com contas correntes e poupanças e um histórico de depósitos, saques e correções.
+     *
+     * @param quantidadeContas Quantidade de contas.
+     * @param operacoesPorConta Quantidade aproximada de operações no histórico de cada conta.
+     * @return Serviço preparado.
+     * @throws Exception Em caso de falha na preparação.
+     */
+    private static BancoService preparar(int quantidadeContas, int operacoesPorConta) throws Exception {
+        BancoService bancoService = new BancoService();
+        bancoService.setSaida(SaidaNula.INSTANCIA);
+        int[] numerosConta = new int[quantidadeContas];
+
+        for (int i = 0; i < quantidadeContas; i++) {
+            String nome = "Benchmark " + i;
+            numerosConta[i] = (i % 2 == 0)
+                    ? bancoService.criarContaCorrente(nome, GeradorCPF.gerar(i)).getNumeroConta()
+                    : bancoService.criarContaPoupanca(nome, GeradorCPF.gerar(i)).getNumeroConta();
+        }
+
+        for (int operacao = 0; operacao < operacoesPorConta; operacao++) {
+            if (operacao % 10 == 9) {
+                bancoService.aplicarCorrecao(500);
+                continue;
+            }
+            for (int numeroConta : numerosConta) {
+                if (operacao % 3 == 2) {
+                    bancoService.efetuarSaque(numeroConta, 500);
+                } else {
+                    bancoService.efetuarDeposito(numeroConta, 1_000);
+                }
+            }
+        }
+        return bancoService;
+    }
+
+    /**
+     * Apaga um diretório temporário e os arquivos contidos nele.
+     *
+     * @param diretorio Diretório a ser apagado.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private static void apagarDiretorio(Path diretorio) throws IOException {
+        try (Stream<Path> caminhos = Files.walk(diretorio)) {
+            for (Path caminho : caminhos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(caminho);
+            }
+        }
+    }
+
+    /**
+     * Formata um tamanho de arquivo em megabytes.
+     *
+     * @param bytes Tamanho em bytes.
+     * @return Tamanho formatado.
+     */
+    private static String formatarTamanho(long bytes) {
+        return String.format("%8.2f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Converte nanossegundos em milissegundos.
+     *
+     * @param nanos Tempo em nanossegundos.
+     * @return Tempo em milissegundos.
+     */
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
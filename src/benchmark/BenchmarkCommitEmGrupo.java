@@ -0,0 +1,119 @@
+package benchmark;
+
+import models.exceptions.ContaNaoEncontradaException;
+import service.BancoService;
+import service.persistencia.CommitEmGrupo;
+import service.persistencia.GravadorJournal;
+import service.persistencia.Journal;
+import service.persistencia.PoliticaSincronizacao;
+import service.saida.SaidaNula;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de depósitos duráveis.
+ * Várias threads efetuam depósitos em contas distintas com o journal sincronizado a cada registro,
+ * comparando a gravação direta no {@link Journal} (um fsync por depósito) com o {@link CommitEmGrupo}
+ * (um fsync por lote), e exibe os percentis de latência de commit do commit em grupo.
+ * Uso: {@code java benchmark.BenchmarkCommitEmGrupo [threads] [operacoesPorThread] [tamanhoLote] [esperaMaximaMicros]}.
+ */
+
+public class BenchmarkCommitEmGrupo {
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de threads, operações por thread, tamanho do lote e espera máxima (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int operacoesPorThread = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int tamanhoLote = args.length > 2 ? Integer.parseInt(args[2]) : CommitEmGrupo.TAMANHO_LOTE_PADRAO;
+        long esperaMaxima = args.length > 3 ? Long.parseLong(args[3]) : CommitEmGrupo.ESPERA_MAXIMA_PADRAO;
+
+        for (int rodada = 0; rodada < 2; rodada++) {
+            Path arquivoDireto = Files.createTempFile("benchmark-direto", ".journal");
+            try (Journal journal = Journal.abrir(arquivoDireto, PoliticaSincronizacao.SEMPRE)) {
+                long nanos = executar(journal, threads, operacoesPorThread);
+                System.out.println("Rodada " + rodada + " | fsync por registro | " + threads + " threads | "
+                        + String.format("%.0f", operacoesPorSegundo(threads, operacoesPorThread, nanos)) + " ops/s");
+            } finally {
+                Files.deleteIfExists(arquivoDireto);
+            }
+
+            Path arquivoGrupo = Files.createTempFile("benchmark-grupo", ".journal");
+            CommitEmGrupo commitEmGrupo = new CommitEmGrupo(Journal.abrir(arquivoGrupo, PoliticaSincronizacao.SEMPRE),
+                    tamanhoLote, esperaMaxima, TimeUnit.MICROSECONDS);
+            try {
+                long nanos = executar(commitEmGrupo, threads, operacoesPorThread);
+                System.out.println("Rodada " + rodada + " | commit em grupo    | " + threads + " threads | "
+                        + String.format("%.0f", operacoesPorSegundo(threads, operacoesPorThread, nanos)) + " ops/s");
+                System.out.println("          " + commitEmGrupo.getEstatisticas());
+            } finally {
+                commitEmGrupo.close();
+                Files.deleteIfExists(arquivoGrupo);
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark gravando as mutações pelo gravador informado.
+     *
+     * @param gravador Gravador do journal anexado ao serviço.
+     * @param threads Quantidade de threads, cada uma com a sua conta.
+     * @param operacoesPorThread Quantidade de depósitos efetuados por thread.
+     * @return Tempo total da rodada, em nanossegundos.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada.
+     */
+    private static long executar(GravadorJournal gravador, int threads, int operacoesPorThread) throws Exception {
+        BancoService bancoService = new BancoService();
+        bancoService.setSaida(SaidaNula.INSTANCIA);
+        bancoService.anexarJournal(gravador);
+
+        int[] numerosConta = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            numerosConta[t] = bancoService.criarContaCorrente("Benchmark " + t, GeradorCPF.gerar(t)).getNumeroConta();
+        }
+
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch chegada = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int numeroConta = numerosConta[t];
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    for (int i = 0; i < operacoesPorThread; i++) {
+                        bancoService.efetuarDeposito(numeroConta, 1_000);
+                    }
+                } catch (InterruptedException | ContaNaoEncontradaException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    chegada.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        chegada.await();
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Calcula a vazão de uma rodada.
+     *
+     * @param threads Quantidade de threads.
+     * @param operacoesPorThread Quantidade de operações por thread.
+     * @param nanos Tempo total da rodada, em nanossegundos.
+     * @return Operações por segundo.
+     */
+    private static double operacoesPorSegundo(int threads, int operacoesPorThread, long nanos) {
+        return (double) threads * operacoesPorThread / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import service.BancoService;
+import service.ModoCorrecao;
+import service.saida.SaidaNula;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Benchmark da correção das contas poupança nos modos {@link ModoCorrecao#IMEDIATA} e {@link ModoCorrecao#SOB_DEMANDA}.
+ * Para cada modo, mede o tempo de várias correções seguidas sobre todas as contas e, em seguida, o tempo da primeira
+ * consulta de saldo de todas as contas, que no modo sob demanda aplica as correções pendentes. Ao final, confere que
+ * os saldos dos dois modos são iguais.
+ * Uso: {@code java benchmark.BenchmarkCorrecao [contas] [correcoes]}.
+ */
+
+public class BenchmarkCorrecao {
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de contas poupança e de correções (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int quantidadeContas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int quantidadeCorrecoes = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+
+        for (int rodada = 0; rodada < 2; rodada++) {
+            long[] saldosImediata = executar(System.out, rodada, ModoCorrecao.IMEDIATA, quantidadeContas, quantidadeCorrecoes);
+            long[] saldosSobDemanda = executar(System.out, rodada, ModoCorrecao.SOB_DEMANDA, quantidadeContas, quantidadeCorrecoes);
+
+            if (!Arrays.equals(saldosImediata, saldosSobDemanda)) {
+                throw new IllegalStateException("Os saldos dos dois modos de correção são diferentes.");
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark em um novo serviço.
+     *
+     * @param console Saída dos resultados.
+     * @param rodada Número da rodada.
+     * @param modoCorrecao Modo de correção do serviço.
+     * @param quantidadeContas Quantidade de contas poupança criadas.
+     * @param quantidadeCorrecoes Quantidade de correções aplicadas.
+     * @return Saldos das contas depois das correções, na ordem de criação.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada.
+     */
+    private static long[] executar(PrintStream console, int rodada, ModoCorrecao modoCorrecao, int quantidadeContas,
+                                   int quantidadeCorrecoes) throws Exception {
+        BancoService bancoService = new BancoService();
+        bancoService.setSaida(SaidaNula.INSTANCIA);
+        bancoService.setModoCorrecao(modoCorrecao);
+
+        int[] numerosConta = new int[quantidadeContas];
+        for (int c = 0; c < quantidadeContas; c++) {
+            numerosConta[c] = bancoService.criarContaPoupanca("Benchmark " + c, GeradorCPF.gerar(c)).getNumeroConta();
+            bancoService.efetuarDeposito(numerosConta[c], 100_000 + c);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < quantidadeCorrecoes; i++) {
+            bancoService.aplicarCorrecao(50 + i);
+        }
+        long nanosCorrecoes = System.nanoTime() - inicio;
+
+        long[] saldos = new long[quantidadeContas];
+        inicio = System.nanoTime();
+        for (int c = 0; c < quantidadeContas; c++) {
+            saldos[c] = bancoService.consultarSaldo(numerosConta[c]);
+        }
+        long nanosConsultas = System.nanoTime() - inicio;
+
+        console.println("Rodada " + rodada + " | " + String.format("%-11s", modoCorrecao) + " | "
+                + quantidadeCorrecoes + " correções: " + String.format("%.2f", nanosCorrecoes / 1e6) + " ms | "
+                + "primeira consulta dos saldos: " + String.format("%.2f", nanosConsultas / 1e6) + " ms");
+        return saldos;
+    }
+
+}
@@ -0,0 +1,106 @@
+package benchmark;
+
+import service.BancoService;
+import service.CacheIdempotencia;
+import service.saida.SaidaNula;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark do {@link CacheIdempotencia} nos depósitos do {@link BancoService}.
+ * Várias threads efetuam depósitos sem chave, com uma chave nova por depósito e com cada chave reenviada uma vez,
+ * simulando clientes que repetem a requisição após um tempo esgotado. Ao final de cada rodada, a soma dos saldos é
+ * conferida com as faltas do cache, garantindo que apenas as chaves novas movimentaram o dinheiro, e os contadores do
+ * cache são exibidos. Com uma capacidade pequena, chaves removidas antes do reenvio voltam a ser executadas.
+ * Uso: {@code java benchmark.BenchmarkIdempotencia [threads] [operacoesPorThread] [capacidade]}.
+ */
+
+public class BenchmarkIdempotencia {
+
+    private static final String[] CENARIOS = {"sem chave       ", "chaves novas    ", "chaves reenviadas"};
+    private static final long VALOR_DEPOSITO = 100;
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de threads, de operações por thread e capacidade do cache (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int operacoesPorThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int capacidade = args.length > 2 ? Integer.parseInt(args[2]) : CacheIdempotencia.CAPACIDADE_PADRAO;
+
+        for (int rodada = 0; rodada < 2; rodada++) {
+            for (int cenario = 0; cenario < CENARIOS.length; cenario++) {
+                BancoService bancoService = new BancoService();
+                bancoService.setSaida(SaidaNula.INSTANCIA);
+                bancoService.getCacheIdempotencia().configurar(capacidade, CacheIdempotencia.VALIDADE_PADRAO_SEGUNDOS);
+
+                long nanos = executar(bancoService, cenario, threads, operacoesPorThread);
+                double operacoesPorSegundo = (double) threads * operacoesPorThread / (nanos / 1e9);
+
+                System.out.println("Rodada " + rodada + " | " + CENARIOS[cenario] + " | " + threads + " threads | "
+                        + String.format("%.0f", operacoesPorSegundo) + " ops/s | " + bancoService.getCacheIdempotencia());
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark, com uma conta por thread, e confere a soma dos saldos.
+     *
+     * @param bancoService Serviço da rodada.
+     * @param cenario Índice do cenário em {@link #CENARIOS}.
+     * @param threads Quantidade de threads.
+     * @param operacoesPorThread Quantidade de depósitos executados por thread.
+     * @return Tempo total das operações, em nanossegundos.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada, ou se a soma dos saldos divergir.
+     */
+    private static long executar(BancoService bancoService, int cenario, int threads, int operacoesPorThread) throws Exception {
+        int[] numerosConta = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            numerosConta[t] = bancoService.criarContaCorrente("Benchmark " + t, GeradorCPF.gerar(t)).getNumeroConta();
+        }
+
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch chegada = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int numeroConta = numerosConta[t];
+            String prefixo = "t" + t + "-";
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    for (int i = 0; i < operacoesPorThread; i++) {
+                        switch (cenario) {
+                            case 0 -> bancoService.efetuarDeposito(numeroConta, VALOR_DEPOSITO);
+                            case 1 -> bancoService.efetuarDeposito(numeroConta, VALOR_DEPOSITO, prefixo + i);
+                            default -> bancoService.efetuarDeposito(numeroConta, VALOR_DEPOSITO, prefixo + (i >>> 1));
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    chegada.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        chegada.await();
+        long nanos = System.nanoTime() - inicio;
+
+        long depositosEfetivos = cenario == 0 ? (long) threads * operacoesPorThread : bancoService.getCacheIdempotencia().getFaltas();
+        long soma = 0;
+        for (int numeroConta : numerosConta) {
+            soma += bancoService.consultarSaldo(numeroConta);
+        }
+        if (soma != depositosEfetivos * VALOR_DEPOSITO) {
+            throw new IllegalStateException("Soma dos saldos divergente: " + soma + " centavos, esperado "
+                    + depositosEfetivos * VALOR_DEPOSITO + ".");
+        }
+        return nanos;
+    }
+}
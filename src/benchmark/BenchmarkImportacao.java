@@ -0,0 +1,169 @@
+package benchmark;
+
+import models.Dinheiro;
+import models.enums.TipoConta;
+import service.BancoService;
+import service.ImportacaoContas;
+import service.ResumoImportacao;
+import service.persistencia.CommitEmGrupo;
+import service.persistencia.Journal;
+import service.persistencia.PoliticaSincronizacao;
+import service.saida.SaidaNula;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark da importação de contas.
+ * Gera um arquivo com contas de todos os tipos e depósitos iniciais, com algumas linhas de CPF inválido e de CPF
+ * repetido, e compara o cadastro linha a linha por {@code criarConta...}/{@code efetuarDeposito} com
+ * {@link BancoService#importarContas(ImportacaoContas)}, em serviços com o journal sincronizado pelo {@link CommitEmGrupo}.
+ * Ao final, confere que as duas formas criaram as mesmas contas.
+ * Uso: {@code java benchmark.BenchmarkImportacao [linhas]}.
+ */
+
+public class BenchmarkImportacao {
+
+    private static final int INTERVALO_CPF_INVALIDO = 50;
+    private static final int INTERVALO_CPF_REPETIDO = 70;
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de linhas do arquivo (opcional).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int quantidadeLinhas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+
+        Path arquivo = Files.createTempFile("benchmark-importacao", ".csv");
+        try {
+            gerarArquivo(arquivo, quantidadeLinhas);
+
+            for (int rodada = 0; rodada < 2; rodada++) {
+                long inicio = System.nanoTime();
+                int contasIndividuais = executar(bancoService -> importarLinhaALinha(bancoService, arquivo));
+                long nanos = System.nanoTime() - inicio;
+                System.out.println("Rodada " + rodada + " | linha a linha | " + contasIndividuais + " contas | "
+                        + String.format("%.0f", quantidadeLinhas / (nanos / 1e9)) + " linhas/s");
+
+                ResumoImportacao[] resumo = new ResumoImportacao[1];
+                executar(bancoService -> {
+                    resumo[0] = bancoService.importarContas(ImportacaoContas.de(arquivo).comCabecalho(true));
+                    return (int) resumo[0].getContasCriadas();
+                });
+                System.out.println("Rodada " + rodada + " | importação    | " + resumo[0].getContasCriadas() + " contas | "
+                        + String.format("%.0f", resumo[0].getLinhasPorSegundo()) + " linhas/s");
+
+                if (resumo[0].getContasCriadas() != contasIndividuais) {
+                    throw new IllegalStateException("As duas formas de cadastro criaram quantidades diferentes de contas.");
+                }
+            }
+        } finally {
+            Files.deleteIfExists(arquivo);
+            Files.deleteIfExists(arquivo.resolveSibling(arquivo.getFileName() + ".rejeitados"));
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark em um novo serviço, com journal próprio.
+     *
+     * @param rodada Cadastro das contas no serviço.
+     * @return Quantidade de contas criadas.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada.
+     */
+    private static int executar(Cadastro rodada) throws Exception {
+        Path arquivo = Files.createTempFile("benchmark-importacao", ".journal");
+        CommitEmGrupo commitEmGrupo = new CommitEmGrupo(Journal.abrir(arquivo, PoliticaSincronizacao.SEMPRE));
+
+        try {
+            BancoService bancoService = new BancoService();
+            bancoService.setSaida(SaidaNula.INSTANCIA);
+            bancoService.anexarJournal(commitEmGrupo);
+            return rodada.cadastrar(bancoService);
+        } finally {
+            commitEmGrupo.close();
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    /**
+     * Gera o arquivo de contas, com cabeçalho, alternando os tipos de conta e o formato do CPF.
+     *
+     * @param arquivo Arquivo gerado.
+     * @param quantidadeLinhas Quantidade de contas do arquivo.
+     * @throws Exception Em caso de erro de gravação.
+     */
+    private static void gerarArquivo(Path arquivo, int quantidadeLinhas) throws Exception {
+        TipoConta[] tipos = TipoConta.values();
+
+        try (BufferedWriter escritor = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            escritor.write("tipo;nome;cpf;deposito_inicial");
+            escritor.newLine();
+
+            for (int i = 0; i < quantidadeLinhas; i++) {
+                String cpf = GeradorCPF.gerar(i % INTERVALO_CPF_REPETIDO == 0 && i > 0 ? i - 1 : i);
+                if (i % INTERVALO_CPF_INVALIDO == 0) {
+                    cpf = cpf.substring(0, 10) + (char) ('0' + (cpf.charAt(10) - '0' + 1) % 10);
+                } else if (i % 2 == 0) {
+                    cpf = cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "." + cpf.substring(6, 9) + "-" + cpf.substring(9);
+                }
+
+                escritor.write(tipos[i % tipos.length] + ";Correntista " + i + ";" + cpf + ";" + Dinheiro.formatar(10_000 + i));
+                escritor.newLine();
+            }
+        }
+    }
+
+    /**
+     * Cadastra as contas do arquivo uma a uma, pelas operações individuais do serviço.
+     *
+     * @param bancoService Serviço bancário.
+     * @param arquivo Arquivo de contas.
+     * @return Quantidade de contas criadas.
+     * @throws Exception Em caso de erro de leitura.
+     */
+    private static int importarLinhaALinha(BancoService bancoService, Path arquivo) throws Exception {
+        int contasCriadas = 0;
+
+        try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            leitor.readLine();
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                String[] campos = linha.split(";");
+                try {
+                    int numeroConta = switch (TipoConta.valueOf(campos[0])) {
+                        case CORRENTE -> bancoService.criarContaCorrente(campos[1], campos[2]).getNumeroConta();
+                        case POUPANCA -> bancoService.criarContaPoupanca(campos[1], campos[2]).getNumeroConta();
+                        case ESPECIAL -> bancoService.criarContaEspecial(campos[1], campos[2]).getNumeroConta();
+                    };
+                    bancoService.efetuarDeposito(numeroConta, Dinheiro.parse(campos[3]));
+                    contasCriadas++;
+                } catch (Exception e) {
+                    // Linha rejeitada.
+                }
+            }
+        }
+        return contasCriadas;
+    }
+
+    /**
+     * Cadastro das contas do arquivo em um serviço.
+     */
+    @FunctionalInterface
+    private interface Cadastro {
+
+        /**
+         * Cadastra as contas no serviço.
+         *
+         * @param bancoService Serviço bancário.
+         * @return Quantidade de contas criadas.
+         * @throws Exception Em caso de falha no cadastro.
+         */
+        int cadastrar(BancoService bancoService) throws Exception;
+    }
+
+}
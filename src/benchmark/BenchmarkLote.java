@@ -0,0 +1,125 @@
+package benchmark;
+
+import models.exceptions.ContaNaoEncontradaException;
+import service.BancoService;
+import service.ComandoLote;
+import service.persistencia.CommitEmGrupo;
+import service.persistencia.Journal;
+import service.persistencia.PoliticaSincronizacao;
+import service.saida.SaidaNula;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark da execução de comandos em lote.
+ * Uma thread efetua depósitos e saques intercalados entre várias contas, com o journal sincronizado pelo
+ * {@link CommitEmGrupo}, comparando chamadas individuais a {@code efetuarDeposito}/{@code efetuarSaque}
+ * (uma espera pelo disco por comando) com {@link BancoService#executarLote(List)} (uma espera por lote).
+ * Uso: {@code java benchmark.BenchmarkLote [contas] [comandos] [tamanhoLote]}.
+ */
+
+public class BenchmarkLote {
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de contas, de comandos e tamanho do lote (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int quantidadeContas = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int quantidadeComandos = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int tamanhoLote = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+
+        for (int rodada = 0; rodada < 2; rodada++) {
+            long nanos = executar(quantidadeContas, quantidadeComandos, 0);
+            System.out.println("Rodada " + rodada + " | chamadas individuais | "
+                    + String.format("%.0f", quantidadeComandos / (nanos / 1e9)) + " ops/s");
+
+            nanos = executar(quantidadeContas, quantidadeComandos, tamanhoLote);
+            System.out.println("Rodada " + rodada + " | lotes de " + tamanhoLote + "      | "
+                    + String.format("%.0f", quantidadeComandos / (nanos / 1e9)) + " ops/s");
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark sobre um serviço com journal próprio.
+     *
+     * @param quantidadeContas Quantidade de contas criadas.
+     * @param quantidadeComandos Quantidade de depósitos e saques efetuados.
+     * @param tamanhoLote Tamanho dos lotes, ou 0 para efetuar cada comando individualmente.
+     * @return Tempo total dos comandos, em nanossegundos.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada.
+     */
+    private static long executar(int quantidadeContas, int quantidadeComandos, int tamanhoLote) throws Exception {
+        Path arquivo = Files.createTempFile("benchmark-lote", ".journal");
+        CommitEmGrupo commitEmGrupo = new CommitEmGrupo(Journal.abrir(arquivo, PoliticaSincronizacao.SEMPRE));
+
+        try {
+            BancoService bancoService = new BancoService();
+            bancoService.setSaida(SaidaNula.INSTANCIA);
+            bancoService.anexarJournal(commitEmGrupo);
+
+            int[] numerosConta = new int[quantidadeContas];
+            for (int c = 0; c < quantidadeContas; c++) {
+                numerosConta[c] = bancoService.criarContaCorrente("Benchmark " + c, GeradorCPF.gerar(c)).getNumeroConta();
+            }
+
+            List<ComandoLote> comandos = gerarComandos(numerosConta, quantidadeComandos);
+
+            long inicio = System.nanoTime();
+            if (tamanhoLote > 0) {
+                for (int i = 0; i < comandos.size(); i += tamanhoLote) {
+                    bancoService.executarLote(comandos.subList(i, Math.min(i + tamanhoLote, comandos.size())));
+                }
+            } else {
+                for (ComandoLote comando : comandos) {
+                    efetuar(bancoService, comando);
+                }
+            }
+            return System.nanoTime() - inicio;
+        } finally {
+            commitEmGrupo.close();
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    /**
+     * Gera depósitos e saques intercalados entre as contas, com a mesma semente em todas as rodadas.
+     *
+     * @param numerosConta Números das contas.
+     * @param quantidadeComandos Quantidade de comandos.
+     * @return Lista de comandos.
+     */
+    private static List<ComandoLote> gerarComandos(int[] numerosConta, int quantidadeComandos) {
+        Random random = new Random(42);
+        List<ComandoLote> comandos = new ArrayList<>(quantidadeComandos);
+
+        for (int i = 0; i < quantidadeComandos; i++) {
+            int numeroConta = numerosConta[random.nextInt(numerosConta.length)];
+            long valor = 1 + random.nextInt(10_000);
+            comandos.add(random.nextInt(3) == 0 ? ComandoLote.saque(numeroConta, valor) : ComandoLote.deposito(numeroConta, valor));
+        }
+        return comandos;
+    }
+
+    /**
+     * Efetua um comando pelas operações individuais do serviço.
+     *
+     * @param bancoService Serviço bancário.
+     * @param comando Depósito ou saque.
+     * @throws ContaNaoEncontradaException Se a conta do comando não existir.
+     */
+    private static void efetuar(BancoService bancoService, ComandoLote comando) throws ContaNaoEncontradaException {
+        switch (comando.getTipo()) {
+            case DEPOSITO -> bancoService.efetuarDeposito(comando.getNumeroConta(), comando.getValor());
+            case SAQUE -> bancoService.efetuarSaque(comando.getNumeroConta(), comando.getValor());
+            default -> throw new IllegalArgumentException("Comando não suportado pelo benchmark: " + comando.getTipo());
+        }
+    }
+
+}
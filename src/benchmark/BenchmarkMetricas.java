@@ -0,0 +1,112 @@
+package benchmark;
+
+import service.BancoService;
+import service.metricas.MetricasBanco;
+import service.saida.SaidaNula;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark do custo das {@link MetricasBanco} nas operações do {@link BancoService}.
+ * Várias threads efetuam depósitos, saques e transferências Pix entre contas sorteadas, com a medição desativada e
+ * ativada, e a vazão das duas rodadas é comparada. Ao final, é exibido o relatório das métricas da última rodada.
+ * Uso: {@code java benchmark.BenchmarkMetricas [threads] [contas] [operacoesPorThread]}.
+ */
+
+public class BenchmarkMetricas {
+
+    private static final long SALDO_INICIAL = 1_000_000_000L;
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de threads, de contas e de operações por thread (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int quantidadeContas = args.length > 1 ? Integer.parseInt(args[1]) : 1_024;
+        int operacoesPorThread = args.length > 2 ? Integer.parseInt(args[2]) : 250_000;
+        MetricasBanco metricas = null;
+
+        for (int rodada = 0; rodada < 3; rodada++) {
+            for (boolean medir : new boolean[]{false, true}) {
+                BancoService bancoService = new BancoService();
+                bancoService.setSaida(SaidaNula.INSTANCIA);
+
+                long nanos = executar(bancoService, medir, threads, quantidadeContas, operacoesPorThread);
+                double operacoesPorSegundo = (double) threads * operacoesPorThread / (nanos / 1e9);
+
+                System.out.println("Rodada " + rodada + " | métricas " + (medir ? "ativadas  " : "desativadas") + " | "
+                        + threads + " threads | " + String.format("%.0f", operacoesPorSegundo) + " ops/s");
+                if (medir) {
+                    metricas = bancoService.getMetricas();
+                }
+            }
+        }
+        System.out.println();
+        System.out.print(metricas);
+    }
+
+    /**
+     * Executa uma rodada do benchmark.
+     *
+     * @param bancoService Serviço da rodada.
+     * @param medir Verdadeiro para ativar as métricas depois de criar as contas.
+     * @param threads Quantidade de threads.
+     * @param quantidadeContas Quantidade de contas criadas.
+     * @param operacoesPorThread Quantidade de operações executadas por thread.
+     * @return Tempo total das operações, em nanossegundos.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada.
+     */
+    private static long executar(BancoService bancoService, boolean medir, int threads, int quantidadeContas,
+                                 int operacoesPorThread) throws Exception {
+        int[] numerosConta = new int[quantidadeContas];
+        String[] chaves = new String[quantidadeContas];
+        for (int c = 0; c < quantidadeContas; c++) {
+            chaves[c] = GeradorCPF.gerar(c);
+            numerosConta[c] = bancoService.criarContaCorrente("Benchmark " + c, chaves[c]).getNumeroConta();
+            bancoService.cadastrarPix(chaves[c]);
+            bancoService.efetuarDeposito(numerosConta[c], SALDO_INICIAL);
+        }
+        if (medir) {
+            bancoService.ativarMetricas();
+        }
+
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch chegada = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int semente = t;
+            Thread thread = new Thread(() -> {
+                long sorteio = semente * 0x9E3779B97F4A7C15L + 1;
+                try {
+                    largada.await();
+                    for (int i = 0; i < operacoesPorThread; i++) {
+                        sorteio ^= sorteio << 13;
+                        sorteio ^= sorteio >>> 7;
+                        sorteio ^= sorteio << 17;
+                        int conta = (int) ((sorteio >>> 1) % quantidadeContas);
+
+                        switch (i & 3) {
+                            case 0, 2 -> bancoService.efetuarDeposito(numerosConta[conta], 1_000);
+                            case 1 -> bancoService.efetuarSaque(numerosConta[conta], 500);
+                            default -> bancoService.efetuarPix(chaves[conta],
+                                    chaves[(int) ((sorteio >>> 33) % quantidadeContas)], 100);
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    chegada.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        chegada.await();
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,144 @@
+package benchmark;
+
+import service.BancoService;
+import service.MotorParticionado;
+import service.saida.SaidaNula;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark do {@link MotorParticionado} em comparação com as listras travadas pelas próprias threads chamadoras.
+ * Várias threads efetuam depósitos, saques e transferências Pix entre contas sorteadas, primeiro sem motor
+ * (modo com lock por conta) e depois com o motor em quantidades crescentes de partições. Ao final de cada rodada,
+ * a soma dos saldos é conferida, garantindo que cada transferência entre partições foi creditada exatamente uma vez.
+ * Uso: {@code java benchmark.BenchmarkMotorParticionado [threads] [contas] [operacoesPorThread]}.
+ */
+
+public class BenchmarkMotorParticionado {
+
+    private static final int[] PARTICOES = {0, 1, 2, 4, 8};
+    private static final long SALDO_INICIAL = 1_000_000_000L;
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de threads, de contas e de operações por thread (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int quantidadeContas = args.length > 1 ? Integer.parseInt(args[1]) : 1_024;
+        int operacoesPorThread = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        for (int rodada = 0; rodada < 2; rodada++) {
+            for (int particoes : PARTICOES) {
+                long nanos = executar(particoes, threads, quantidadeContas, operacoesPorThread);
+                double operacoesPorSegundo = (double) threads * operacoesPorThread / (nanos / 1e9);
+
+                System.out.println("Rodada " + rodada + " | "
+                        + (particoes == 0 ? "lock por conta  " : String.format("motor %d partições", particoes))
+                        + " | " + threads + " threads | " + String.format("%.0f", operacoesPorSegundo) + " ops/s");
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark e confere a soma dos saldos.
+     *
+     * @param particoes Quantidade de partições do motor, ou 0 para não utilizar o motor.
+     * @param threads Quantidade de threads.
+     * @param quantidadeContas Quantidade de contas criadas.
+     * @param operacoesPorThread Quantidade de operações executadas por thread.
+     * @return Tempo total das operações, em nanossegundos.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada, ou se a soma dos saldos divergir.
+     */
+    private static long executar(int particoes, int threads, int quantidadeContas, int operacoesPorThread) throws Exception {
+        BancoService bancoService = new BancoService();
+        bancoService.setSaida(SaidaNula.INSTANCIA);
+
+        int[] numerosConta = new int[quantidadeContas];
+        String[] chaves = new String[quantidadeContas];
+        for (int c = 0; c < quantidadeContas; c++) {
+            chaves[c] = GeradorCPF.gerar(c);
+            numerosConta[c] = bancoService.criarContaCorrente("Benchmark " + c, chaves[c]).getNumeroConta();
+            bancoService.cadastrarPix(chaves[c]);
+            bancoService.efetuarDeposito(numerosConta[c], SALDO_INICIAL);
+        }
+
+        MotorParticionado motor = particoes > 0 ? bancoService.iniciarMotorParticionado(particoes) : null;
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch chegada = new CountDownLatch(threads);
+        long nanos;
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                int semente = t;
+                Thread thread = new Thread(() -> {
+                    long sorteio = semente * 0x9E3779B97F4A7C15L + 1;
+                    try {
+                        largada.await();
+                        for (int i = 0; i < operacoesPorThread; i++) {
+                            sorteio ^= sorteio << 13;
+                            sorteio ^= sorteio >>> 7;
+                            sorteio ^= sorteio << 17;
+                            int conta = (int) ((sorteio >>> 1) % quantidadeContas);
+
+                            switch (i & 3) {
+                                case 0, 2 -> bancoService.efetuarDeposito(numerosConta[conta], 1_000);
+                                case 1 -> bancoService.efetuarSaque(numerosConta[conta], 500);
+                                default -> bancoService.efetuarPix(chaves[conta],
+                                        chaves[(int) ((sorteio >>> 33) % quantidadeContas)], 100);
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        chegada.countDown();
+                    }
+                });
+                thread.start();
+            }
+
+            long inicio = System.nanoTime();
+            largada.countDown();
+            chegada.await();
+            nanos = System.nanoTime() - inicio;
+        } finally {
+            if (motor != null) {
+                motor.close();
+            }
+        }
+
+        conferirSaldos(bancoService, numerosConta, threads, operacoesPorThread);
+        return nanos;
+    }
+
+    /**
+     * Confere se a soma dos saldos corresponde aos depósitos e saques efetuados, já que as transferências Pix
+     * apenas movem valores entre as contas.
+     *
+     * @param bancoService Serviço da rodada.
+     * @param numerosConta Contas da rodada.
+     * @param threads Quantidade de threads.
+     * @param operacoesPorThread Quantidade de operações executadas por thread.
+     * @throws Exception Se a soma dos saldos divergir do esperado.
+     */
+    private static void conferirSaldos(BancoService bancoService, int[] numerosConta, int threads, int operacoesPorThread) throws Exception {
+        long esperado = SALDO_INICIAL * numerosConta.length;
+        for (int i = 0; i < operacoesPorThread; i++) {
+            switch (i & 3) {
+                case 0, 2 -> esperado += 1_000L * threads;
+                case 1 -> esperado -= 500L * threads;
+                default -> { }
+            }
+        }
+
+        long soma = 0;
+        for (int numeroConta : numerosConta) {
+            soma += bancoService.consultarSaldo(numeroConta);
+        }
+        if (soma != esperado) {
+            throw new IllegalStateException("Soma dos saldos divergente: " + soma + " (esperado " + esperado + ").");
+        }
+    }
+}
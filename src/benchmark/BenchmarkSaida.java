@@ -0,0 +1,104 @@
+package benchmark;
+
+import service.BancoService;
+import service.saida.SaidaAssincrona;
+import service.saida.SaidaBanco;
+import service.saida.SaidaConsole;
+import service.saida.SaidaNula;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark das saídas do {@link BancoService}.
+ * Várias threads efetuam depósitos, cada uma em uma conta própria, com os comprovantes gravados em um arquivo
+ * pela {@link SaidaConsole} e pela {@link SaidaAssincrona}, ou descartados pela {@link SaidaNula}.
+ * O tempo da saída assíncrona inclui a gravação de todos os comprovantes pendentes.
+ * Uso: {@code java benchmark.BenchmarkSaida [threads] [operacoesPorThread]}.
+ */
+
+public class BenchmarkSaida {
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de threads e de operações por thread (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int operacoesPorThread = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        for (int rodada = 0; rodada < 2; rodada++) {
+            for (String nome : new String[]{"console", "assíncrona", "nula"}) {
+                Path arquivo = Files.createTempFile("benchmark-saida", ".txt");
+
+                try (OutputStream destino = new BufferedOutputStream(Files.newOutputStream(arquivo))) {
+                    SaidaBanco saida = switch (nome) {
+                        case "console" -> new SaidaConsole(new PrintStream(destino, false, StandardCharsets.UTF_8));
+                        case "assíncrona" -> new SaidaAssincrona(destino, StandardCharsets.UTF_8, SaidaAssincrona.CAPACIDADE_PADRAO);
+                        default -> SaidaNula.INSTANCIA;
+                    };
+
+                    long nanos = executar(saida, threads, operacoesPorThread);
+                    System.out.println("Rodada " + rodada + " | " + String.format("%-10s", nome) + " | " + threads + " threads | "
+                            + String.format("%.0f", (double) threads * operacoesPorThread / (nanos / 1e9)) + " ops/s");
+                } finally {
+                    Files.deleteIfExists(arquivo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark com a saída informada, fechando-a ao final.
+     *
+     * @param saida Saída do serviço.
+     * @param threads Quantidade de threads.
+     * @param operacoesPorThread Quantidade de depósitos efetuados por thread.
+     * @return Tempo total da rodada, em nanossegundos.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada.
+     */
+    private static long executar(SaidaBanco saida, int threads, int operacoesPorThread) throws Exception {
+        BancoService bancoService = new BancoService();
+        bancoService.setSaida(SaidaNula.INSTANCIA);
+
+        int[] numerosConta = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            numerosConta[t] = bancoService.criarContaCorrente("Benchmark " + t, GeradorCPF.gerar(t)).getNumeroConta();
+        }
+        bancoService.setSaida(saida);
+
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch chegada = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int numeroConta = numerosConta[t];
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    for (int i = 0; i < operacoesPorThread; i++) {
+                        bancoService.efetuarDeposito(numeroConta, 1_000);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    chegada.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        chegada.await();
+        saida.close();
+        return System.nanoTime() - inicio;
+    }
+
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import models.exceptions.ContaNaoEncontradaException;
+import models.exceptions.ContaJaCadastradaException;
+import models.exceptions.DocumentoInvalidoException;
+import service.BancoService;
+import service.ModoConcorrencia;
+import service.saida.SaidaNula;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark de contenção sobre o saldo de uma única conta.
+ * Várias threads efetuam depósitos e saques na mesma conta, comparando o modo com lock por conta
+ * e o modo livre de lock, em que o saldo é atualizado apenas por comparação e troca (CAS).
+ * Uso: {@code java benchmark.BenchmarkSaldo [threads] [operacoesPorThread]}.
+ */
+
+public class BenchmarkSaldo {
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de threads e de operações por thread (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int operacoesPorThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        for (int rodada = 0; rodada < 3; rodada++) {
+            for (ModoConcorrencia modo : ModoConcorrencia.values()) {
+                long nanos = executar(modo, threads, operacoesPorThread);
+                double operacoesPorSegundo = (double) threads * operacoesPorThread / (nanos / 1e9);
+
+                System.out.println("Rodada " + rodada + " | " + modo + " | " + threads + " threads | "
+                        + String.format("%.0f", operacoesPorSegundo) + " ops/s");
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada do benchmark no modo informado.
+     *
+     * @param modo Modo de concorrência do serviço.
+     * @param threads Quantidade de threads.
+     * @param operacoesPorThread Quantidade de operações executadas por thread.
+     * @return Tempo total da rodada, em nanossegundos.
+     * @throws Exception Em caso de falha na preparação ou execução da rodada.
+     */
+    private static long executar(ModoConcorrencia modo, int threads, int operacoesPorThread) throws Exception {
+        BancoService bancoService = new BancoService();
+        bancoService.setSaida(SaidaNula.INSTANCIA);
+        bancoService.setModoConcorrencia(modo);
+        int numeroConta = criarConta(bancoService);
+
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch chegada = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    for (int i = 0; i < operacoesPorThread; i++) {
+                        if ((i & 1) == 0) {
+                            bancoService.efetuarDeposito(numeroConta, 1_000);
+                        } else {
+                            bancoService.efetuarSaque(numeroConta, 500);
+                        }
+                    }
+                } catch (InterruptedException | ContaNaoEncontradaException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    chegada.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        chegada.await();
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Cria a conta disputada pelas threads do benchmark.
+     *
+     * @param bancoService Serviço onde a conta será criada.
+     * @return Número da conta criada.
+     * @throws ContaJaCadastradaException Se a conta já existir.
+     * @throws DocumentoInvalidoException Se o CPF for inválido.
+     */
+    private static int criarConta(BancoService bancoService) throws ContaJaCadastradaException, DocumentoInvalidoException {
+        return bancoService.criarContaCorrente("Benchmark", "52998224725").getNumeroConta();
+    }
+}
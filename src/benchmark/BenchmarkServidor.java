@@ -0,0 +1,143 @@
+package benchmark;
+
+import application.servidor.ServidorBanco;
+import service.BancoService;
+import service.saida.SaidaNula;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Cliente de carga do {@link ServidorBanco}.
+ * Inicia o servidor na interface de loopback, cria uma conta por cliente pela própria API e dispara, a partir de
+ * vários clientes simultâneos, depósitos e saques alternados na conta de cada cliente, medindo a vazão e as
+ * latências (mediana, p99 e máxima) das requisições.
+ * Uso: {@code java benchmark.BenchmarkServidor [clientes] [requisicoesPorCliente]}.
+ */
+
+public class BenchmarkServidor {
+
+    /**
+     * Ponto de entrada do benchmark.
+     *
+     * @param args Quantidade de clientes e de requisições por cliente (opcionais).
+     * @throws Exception Em caso de falha na preparação ou execução do benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requisicoesPorCliente = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        BancoService bancoService = new BancoService();
+        bancoService.setSaida(SaidaNula.INSTANCIA);
+
+        try (ServidorBanco servidor = ServidorBanco.iniciar(bancoService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            String base = "http://127.0.0.1:" + servidor.getPorta();
+            HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            System.out.println("Servidor em " + base + (servidor.isThreadsVirtuais() ? " | threads virtuais" : " | pool de threads"));
+
+            int[] numerosConta = new int[clientes];
+            for (int c = 0; c < clientes; c++) {
+                String resposta = enviar(cliente, base + "/contas", "tipo=CORRENTE&nome=Benchmark+" + c + "&cpf=" + GeradorCPF.gerar(c), 201);
+                int inicio = resposta.indexOf("\"numeroConta\":") + "\"numeroConta\":".length();
+                numerosConta[c] = Integer.parseInt(resposta.substring(inicio, resposta.indexOf(',', inicio)));
+            }
+
+            for (int rodada = 0; rodada < 2; rodada++) {
+                executar(cliente, base, numerosConta, requisicoesPorCliente, rodada);
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada de carga e exibe a vazão e as latências.
+     *
+     * @param cliente Cliente HTTP compartilhado.
+     * @param base Endereço base do servidor.
+     * @param numerosConta Conta de cada cliente.
+     * @param requisicoesPorCliente Quantidade de requisições de cada cliente.
+     * @param rodada Número da rodada.
+     * @throws Exception Em caso de falha na execução da rodada.
+     */
+    private static void executar(HttpClient cliente, String base, int[] numerosConta, int requisicoesPorCliente,
+                                 int rodada) throws Exception {
+        int clientes = numerosConta.length;
+        long[] latencias = new long[clientes * requisicoesPorCliente];
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch chegada = new CountDownLatch(clientes);
+
+        for (int c = 0; c < clientes; c++) {
+            int indice = c;
+            Thread thread = new Thread(() -> {
+                String conta = base + "/contas/" + numerosConta[indice];
+                try {
+                    largada.await();
+                    for (int i = 0; i < requisicoesPorCliente; i++) {
+                        long inicio = System.nanoTime();
+                        if ((i & 1) == 0) {
+                            enviar(cliente, conta + "/deposito", "valor=10.00", 200);
+                        } else {
+                            enviar(cliente, conta + "/saque", "valor=5.00", 200);
+                        }
+                        latencias[indice * requisicoesPorCliente + i] = System.nanoTime() - inicio;
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    chegada.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        chegada.await();
+        long nanos = System.nanoTime() - inicio;
+
+        Arrays.sort(latencias);
+        System.out.println("Rodada " + rodada + " | " + clientes + " clientes | "
+                + String.format("%.0f", latencias.length / (nanos / 1e9)) + " req/s | mediana "
+                + micros(latencias[latencias.length / 2]) + " µs | p99 "
+                + micros(latencias[(int) Math.min(latencias.length - 1, (long) Math.ceil(latencias.length * 0.99) - 1)])
+                + " µs | máxima " + micros(latencias[latencias.length - 1]) + " µs");
+    }
+
+    /**
+     * Envia uma requisição POST com parâmetros de formulário e confere o status da resposta.
+     *
+     * @param cliente Cliente HTTP.
+     * @param uri Endereço do recurso.
+     * @param corpo Parâmetros codificados.
+     * @param statusEsperado Status esperado.
+     * @return Corpo da resposta.
+     * @throws Exception Em caso de falha na requisição ou de status inesperado.
+     */
+    private static String enviar(HttpClient cliente, String uri, String corpo, int statusEsperado) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        HttpResponse<String> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != statusEsperado) {
+            throw new IllegalStateException("Status " + resposta.statusCode() + " em " + uri + ": " + resposta.body());
+        }
+        return resposta.body();
+    }
+
+    /**
+     * Converte nanossegundos em microssegundos.
+     *
+     * @param nanos Duração em nanossegundos.
+     * @return Duração em microssegundos.
+     */
+    private static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+
+}
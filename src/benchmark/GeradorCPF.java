@@ -0,0 +1,52 @@
+package benchmark;
+
+/**
+ * Gerador de CPFs válidos para os benchmarks, a partir de um número sequencial.
+ */
+
+final class GeradorCPF {
+
+    private GeradorCPF() {
+    }
+
+    /**
+     * Gera um CPF válido cujos nove primeiros dígitos são derivados do número informado.
+     *
+     * @param numero Número sequencial, entre 0 e 999.999.998.
+     * @return CPF com onze dígitos, sem formatação.
+     */
+    static String gerar(int numero) {
+        int[] digitos = new int[11];
+        int base = numero + 1;
+
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = base % 10;
+            base /= 10;
+        }
+
+        digitos[9] = digitoVerificador(digitos, 9);
+        digitos[10] = digitoVerificador(digitos, 10);
+
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    /**
+     * Calcula um dígito verificador do CPF.
+     *
+     * @param digitos Dígitos do CPF.
+     * @param quantidade Quantidade de dígitos considerados no cálculo.
+     * @return Dígito verificador.
+     */
+    private static int digitoVerificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
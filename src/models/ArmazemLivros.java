@@ -0,0 +1,327 @@
+package models;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diretório dos livros-razão mapeados em memória.
+ * Contas com o livro no armazém mantêm o histórico fora do heap, e os snapshots guardam apenas a quantidade
+ * de lançamentos de cada conta, em vez do histórico completo. Por isso, os arquivos do armazém devem ser
+ * mantidos junto com o snapshot.
+ * <p>
+ * Os livros de todas as contas ficam em um único arquivo de dados, dividido em segmentos de tamanho fixo,
+ * e cada livro recebe os seus segmentos conforme cresce. O arquivo é mapeado em regiões de vários segmentos,
+ * compartilhadas entre os livros, de modo que a quantidade de mapeamentos depende do tamanho do arquivo, e não
+ * da quantidade de contas (o sistema operacional limita a quantidade de mapeamentos de um processo).
+ * O arquivo de índice registra, para cada segmento, a conta e a posição do segmento no livro dela.
+ * <p>
+ * Índice: quantidade de lançamentos por segmento (int) e, para cada segmento, o número da conta (int) e a
+ * posição do segmento no livro (int). Armazéns gravados com um arquivo por conta ({@code conta-N.livro})
+ * têm os livros copiados para o arquivo de dados quando são reabertos.
+ */
+
+public final class ArmazemLivros {
+
+    public static final int REGISTROS_POR_SEGMENTO_PADRAO = 2048;
+
+    private static final String ARQUIVO_DADOS = "livros.dados";
+    private static final String ARQUIVO_INDICE = "livros.indice";
+    private static final int TAMANHO_ENTRADA_INDICE = 8;
+    private static final long TAMANHO_MINIMO_REGIAO = 64L * 1024 * 1024;
+
+    private final Path diretorio;
+    private final int registrosPorSegmento;
+    private final int tamanhoSegmento;
+    private final int segmentosPorRegiao;
+    private final FileChannel canalDados;
+    private final FileChannel canalIndice;
+    private final List<MappedByteBuffer> regioes = new ArrayList<>();
+    private final Map<Integer, List<Integer>> segmentosPorConta;
+    private final Map<Integer, LivroMapeado> livros = new ConcurrentHashMap<>();
+    private int quantidadeSegmentos;
+    private boolean indiceAlterado;
+
+    private ArmazemLivros(Path diretorio, int registrosPorSegmento, FileChannel canalDados, FileChannel canalIndice,
+                          Map<Integer, List<Integer>> segmentosPorConta, int quantidadeSegmentos) {
+        this.diretorio = diretorio;
+        this.registrosPorSegmento = registrosPorSegmento;
+        this.tamanhoSegmento = registrosPorSegmento * LivroMapeado.TAMANHO_REGISTRO;
+        this.segmentosPorRegiao = (int) Math.max(1, TAMANHO_MINIMO_REGIAO / tamanhoSegmento);
+        this.canalDados = canalDados;
+        this.canalIndice = canalIndice;
+        this.segmentosPorConta = segmentosPorConta;
+        this.quantidadeSegmentos = quantidadeSegmentos;
+    }
+
+    /**
+     * Abre o armazém em um diretório, criando-o caso não exista.
+     *
+     * @param diretorio Diretório dos livros.
+     * @return Armazém de livros.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public static ArmazemLivros abrir(Path diretorio) throws IOException {
+        return abrir(diretorio, REGISTROS_POR_SEGMENTO_PADRAO);
+    }
+
+    /**
+     * Abre o armazém em um diretório, criando-o caso não exista.
+     * Um armazém existente mantém a quantidade de lançamentos por segmento com que foi criado.
+     *
+     * @param diretorio Diretório dos livros.
+     * @param registrosPorSegmento Quantidade de lançamentos em cada segmento dos livros, para um armazém novo.
+     * @return Armazém de livros.
+     * @throws IOException Em caso de erro de entrada/saída ou se o índice estiver corrompido.
+     * @throws IllegalArgumentException Se a quantidade de lançamentos por segmento for inválida.
+     */
+    public static ArmazemLivros abrir(Path diretorio, int registrosPorSegmento) throws IOException {
+        if (registrosPorSegmento <= 0 || registrosPorSegmento > Integer.MAX_VALUE / LivroMapeado.TAMANHO_REGISTRO) {
+            throw new IllegalArgumentException("Quantidade de lançamentos por segmento inválida: " + registrosPorSegmento + ".");
+        }
+
+        Files.createDirectories(diretorio);
+        FileChannel canalIndice = FileChannel.open(diretorio.resolve(ARQUIVO_INDICE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel canalDados = null;
+        try {
+            Map<Integer, List<Integer>> segmentosPorConta = new HashMap<>();
+            int quantidadeSegmentos = 0;
+
+            // Uma entrada incompleta no fim do índice é de um segmento cuja alocação não chegou ao disco.
+            long entradas = canalIndice.size() / TAMANHO_ENTRADA_INDICE;
+            if (entradas == 0) {
+                gravarEntradaIndice(canalIndice, 0, registrosPorSegmento, 0);
+                canalIndice.force(true);
+            } else {
+                ByteBuffer indice = ByteBuffer.allocate(Math.toIntExact(entradas * TAMANHO_ENTRADA_INDICE));
+                lerCompleto(canalIndice, indice, 0);
+                indice.flip();
+
+                registrosPorSegmento = indice.getInt();
+                indice.getInt();
+                if (registrosPorSegmento <= 0 || registrosPorSegmento > Integer.MAX_VALUE / LivroMapeado.TAMANHO_REGISTRO) {
+                    throw new IOException("Índice do armazém de livros corrompido: " + registrosPorSegmento + " lançamentos por segmento.");
+                }
+
+                while (indice.hasRemaining()) {
+                    int numeroConta = indice.getInt();
+                    int ordem = indice.getInt();
+                    List<Integer> segmentos = segmentosPorConta.computeIfAbsent(numeroConta, numero -> new ArrayList<>());
+                    if (ordem != segmentos.size()) {
+                        throw new IOException("Índice do armazém de livros corrompido: segmento " + ordem + " da conta n° " + numeroConta
+                                + " fora de ordem.");
+                    }
+                    segmentos.add(quantidadeSegmentos++);
+                }
+                canalIndice.truncate(entradas * TAMANHO_ENTRADA_INDICE);
+            }
+
+            canalDados = FileChannel.open(diretorio.resolve(ARQUIVO_DADOS), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new ArmazemLivros(diretorio, registrosPorSegmento, canalDados, canalIndice, segmentosPorConta, quantidadeSegmentos);
+        } catch (IOException | RuntimeException e) {
+            canalIndice.close();
+            if (canalDados != null) {
+                canalDados.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Abre o livro de uma conta, considerando apenas os primeiros lançamentos gravados nos seus segmentos.
+     *
+     * @param numeroConta Número da conta.
+     * @param tamanho Quantidade de lançamentos válidos no livro, conforme o snapshot (0 para uma conta nova).
+     * @return Livro da conta.
+     * @throws IOException Em caso de erro de entrada/saída ou se o livro tiver menos lançamentos que o informado.
+     */
+    public LivroRazao abrirLivro(int numeroConta, int tamanho) throws IOException {
+        if (tamanho > 0 && getQuantidadeSegmentos(numeroConta) == 0) {
+            importarArquivoConta(numeroConta, tamanho);
+        }
+
+        LivroMapeado livro = new LivroMapeado(this, numeroConta, registrosPorSegmento, tamanho);
+        livros.put(numeroConta, livro);
+        return livro;
+    }
+
+    /**
+     * Transfere o histórico de uma conta para um livro do armazém, caso ele ainda esteja em memória.
+     * Nenhuma operação pode estar em andamento na conta durante a transferência.
+     *
+     * @param conta Conta cujo histórico será transferido.
+     * @throws IOException Em caso de erro de entrada/saída. A conta mantém o histórico em memória.
+     */
+    public void migrar(Conta conta) throws IOException {
+        LivroRazao atual = conta.getLivro();
+        if (atual.isPersistente()) {
+            return;
+        }
+
+        LivroRazao livro = abrirLivro(conta.getNumeroConta(), 0);
+        for (int i = 0; i < atual.tamanho(); i++) {
+            LivroRazao.copiarLancamento(atual, i, livro);
+        }
+        conta.substituirLivro(livro);
+    }
+
+    /**
+     * Sincroniza com o disco os lançamentos de todos os livros abertos e o índice dos seus segmentos.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void descarregar() throws IOException {
+        for (LivroMapeado livro : livros.values()) {
+            livro.descarregar();
+        }
+
+        synchronized (this) {
+            if (indiceAlterado) {
+                canalIndice.force(true);
+                indiceAlterado = false;
+            }
+        }
+    }
+
+    /**
+     * Retorna o diretório dos livros.
+     *
+     * @return Diretório do armazém.
+     */
+    public Path getDiretorio() {
+        return diretorio;
+    }
+
+    /**
+     * Retorna a quantidade de segmentos já alocados ao livro de uma conta.
+     *
+     * @param numeroConta Número da conta.
+     * @return Quantidade de segmentos.
+     */
+    synchronized int getQuantidadeSegmentos(int numeroConta) {
+        List<Integer> segmentos = segmentosPorConta.get(numeroConta);
+        return segmentos != null ? segmentos.size() : 0;
+    }
+
+    /**
+     * Retorna um segmento do livro de uma conta, alocando-o no fim do arquivo de dados caso a conta ainda não o possua.
+     * Segmentos já alocados são reaproveitados, e os lançamentos gravados neles são sobrescritos pelo livro.
+     *
+     * @param numeroConta Número da conta.
+     * @param ordem Posição do segmento no livro da conta.
+     * @return Segmento mapeado, com {@code registrosPorSegmento} lançamentos.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    synchronized MappedByteBuffer obterSegmento(int numeroConta, int ordem) throws IOException {
+        List<Integer> segmentos = segmentosPorConta.computeIfAbsent(numeroConta, numero -> new ArrayList<>());
+        if (ordem < segmentos.size()) {
+            return mapear(segmentos.get(ordem));
+        }
+
+        int segmento = quantidadeSegmentos;
+        MappedByteBuffer mapeado = mapear(segmento);
+        gravarEntradaIndice(canalIndice, segmento + 1, numeroConta, ordem);
+        indiceAlterado = true;
+
+        quantidadeSegmentos++;
+        segmentos.add(segmento);
+        return mapeado;
+    }
+
+    /**
+     * Retorna a parte da região mapeada que corresponde a um segmento do arquivo de dados,
+     * mapeando as regiões que ainda faltam e ampliando o arquivo caso necessário.
+     *
+     * @param segmento Posição do segmento no arquivo de dados.
+     * @return Segmento mapeado.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private MappedByteBuffer mapear(int segmento) throws IOException {
+        long tamanhoRegiao = (long) segmentosPorRegiao * tamanhoSegmento;
+        int regiao = segmento / segmentosPorRegiao;
+
+        while (regioes.size() <= regiao) {
+            regioes.add(canalDados.map(FileChannel.MapMode.READ_WRITE, regioes.size() * tamanhoRegiao, tamanhoRegiao));
+        }
+        return regioes.get(regiao).slice((segmento % segmentosPorRegiao) * tamanhoSegmento, tamanhoSegmento);
+    }
+
+    /**
+     * Copia para o arquivo de dados o livro de uma conta gravado em um arquivo próprio, por versões anteriores do armazém.
+     * O arquivo próprio é mantido.
+     *
+     * @param numeroConta Número da conta.
+     * @param tamanho Quantidade de lançamentos válidos no livro.
+     * @throws IOException Em caso de erro de entrada/saída ou se o arquivo tiver menos lançamentos que o informado.
+     */
+    private void importarArquivoConta(int numeroConta, int tamanho) throws IOException {
+        Path arquivo = diretorio.resolve("conta-" + numeroConta + ".livro");
+        if (!Files.exists(arquivo)) {
+            return;
+        }
+
+        long tamanhoLivro = (long) tamanho * LivroMapeado.TAMANHO_REGISTRO;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() < tamanhoLivro) {
+                throw new IOException("O livro-razão " + arquivo + " não possui os " + tamanho + " lançamentos esperados.");
+            }
+
+            for (int ordem = 0; (long) ordem * tamanhoSegmento < tamanhoLivro; ordem++) {
+                MappedByteBuffer segmento = obterSegmento(numeroConta, ordem);
+                long posicao = (long) ordem * tamanhoSegmento;
+                lerCompleto(canal, segmento.duplicate().limit((int) Math.min(tamanhoSegmento, tamanhoLivro - posicao)), posicao);
+                segmento.force();
+            }
+        }
+        synchronized (this) {
+            canalIndice.force(true);
+            indiceAlterado = false;
+        }
+    }
+
+    /**
+     * Lê de um canal até preencher o buffer.
+     *
+     * @param canal Canal de origem.
+     * @param destino Buffer a ser preenchido.
+     * @param posicao Posição no canal do primeiro byte do buffer.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes.
+     */
+    private static void lerCompleto(FileChannel canal, ByteBuffer destino, long posicao) throws IOException {
+        int inicio = destino.position();
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, posicao + destino.position() - inicio) < 0) {
+                throw new EOFException("Fim inesperado do arquivo do armazém de livros.");
+            }
+        }
+    }
+
+    /**
+     * Grava uma entrada do índice dos segmentos.
+     *
+     * @param canal Canal do arquivo de índice.
+     * @param posicao Posição da entrada (0 para o cabeçalho).
+     * @param primeiro Número da conta, ou a quantidade de lançamentos por segmento no cabeçalho.
+     * @param segundo Posição do segmento no livro da conta (0 no cabeçalho).
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private static void gravarEntradaIndice(FileChannel canal, long posicao, int primeiro, int segundo) throws IOException {
+        ByteBuffer entrada = ByteBuffer.allocate(TAMANHO_ENTRADA_INDICE).putInt(primeiro).putInt(segundo).flip();
+        while (entrada.hasRemaining()) {
+            canal.write(entrada, posicao * TAMANHO_ENTRADA_INDICE + entrada.position());
+        }
+    }
+
+}
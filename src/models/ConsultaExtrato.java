@@ -0,0 +1,133 @@
+package models;
+
+import models.enums.IdentificadorTipo;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Parâmetros de consulta de uma página do extrato de uma conta.
+ * A consulta pode ser restrita a um intervalo de datas e a tipos de operação, e começa do início do histórico
+ * ou do cursor devolvido pela página anterior ({@link PaginaExtrato#getProximoCursor()}).
+ * Instâncias são imutáveis: cada método {@code com...} retorna uma nova consulta.
+ */
+
+public final class ConsultaExtrato {
+
+    public static final int TAMANHO_PAGINA_PADRAO = 50;
+    public static final int TAMANHO_PAGINA_MAXIMO = 1_000;
+
+    private final int tamanhoPagina;
+    private final LocalDateTime dataInicial;
+    private final LocalDateTime dataFinal;
+    private final Set<IdentificadorTipo> tipos;
+    private final String cursor;
+
+    private ConsultaExtrato(int tamanhoPagina, LocalDateTime dataInicial, LocalDateTime dataFinal,
+                            Set<IdentificadorTipo> tipos, String cursor) {
+        this.tamanhoPagina = tamanhoPagina;
+        this.dataInicial = dataInicial;
+        this.dataFinal = dataFinal;
+        this.tipos = tipos;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Cria uma consulta de todo o histórico, em páginas do tamanho informado.
+     *
+     * @param tamanhoPagina Quantidade máxima de operações por página.
+     * @return Consulta sem filtros, a partir do início do histórico.
+     * @throws IllegalArgumentException Se o tamanho da página não estiver entre 1 e {@value #TAMANHO_PAGINA_MAXIMO}.
+     */
+    public static ConsultaExtrato paginas(int tamanhoPagina) {
+        if (tamanhoPagina <= 0 || tamanhoPagina > TAMANHO_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_PAGINA_MAXIMO + ".");
+        }
+        return new ConsultaExtrato(tamanhoPagina, null, null, null, null);
+    }
+
+    /**
+     * Restringe a consulta às operações realizadas no intervalo informado.
+     *
+     * @param dataInicial Data inicial (inclusiva), ou null para não limitar o início.
+     * @param dataFinal Data final (exclusiva), ou null para não limitar o fim.
+     * @return Nova consulta com o intervalo.
+     * @throws IllegalArgumentException Se a data final for anterior à inicial.
+     */
+    public ConsultaExtrato comPeriodo(LocalDateTime dataInicial, LocalDateTime dataFinal) {
+        if (dataInicial != null && dataFinal != null && dataFinal.isBefore(dataInicial)) {
+            throw new IllegalArgumentException("A data final deve ser posterior à data inicial.");
+        }
+        return new ConsultaExtrato(tamanhoPagina, dataInicial, dataFinal, tipos, cursor);
+    }
+
+    /**
+     * Restringe a consulta aos tipos de operação informados.
+     *
+     * @param tipos Tipos de operação aceitos. Sem tipos, todas as operações são aceitas.
+     * @return Nova consulta com os tipos.
+     */
+    public ConsultaExtrato comTipos(IdentificadorTipo... tipos) {
+        Set<IdentificadorTipo> tiposAceitos = tipos.length > 0 ? EnumSet.copyOf(Arrays.asList(tipos)) : null;
+        return new ConsultaExtrato(tamanhoPagina, dataInicial, dataFinal, tiposAceitos, cursor);
+    }
+
+    /**
+     * Continua a consulta a partir do cursor devolvido por uma página anterior da mesma conta.
+     *
+     * @param cursor Cursor da próxima página, ou null para começar do início.
+     * @return Nova consulta a partir do cursor.
+     */
+    public ConsultaExtrato comCursor(String cursor) {
+        return new ConsultaExtrato(tamanhoPagina, dataInicial, dataFinal, tipos, cursor);
+    }
+
+    /**
+     * Retorna a quantidade máxima de operações por página.
+     *
+     * @return Tamanho da página.
+     */
+    public int getTamanhoPagina() {
+        return tamanhoPagina;
+    }
+
+    /**
+     * Retorna a data inicial do intervalo consultado.
+     *
+     * @return Data inicial (inclusiva), ou null se o início não for limitado.
+     */
+    public LocalDateTime getDataInicial() {
+        return dataInicial;
+    }
+
+    /**
+     * Retorna a data final do intervalo consultado.
+     *
+     * @return Data final (exclusiva), ou null se o fim não for limitado.
+     */
+    public LocalDateTime getDataFinal() {
+        return dataFinal;
+    }
+
+    /**
+     * Retorna o cursor a partir do qual a consulta continua.
+     *
+     * @return Cursor, ou null se a consulta começa do início.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Verifica se um tipo de operação é aceito pela consulta.
+     *
+     * @param tipo Tipo da operação.
+     * @return Verdadeiro se o tipo for aceito.
+     */
+    public boolean aceita(IdentificadorTipo tipo) {
+        return tipos == null || tipos.contains(tipo);
+    }
+
+}
@@ -1,14 +1,29 @@
 package models;
 
+import models.enums.IdentificadorTipo;
 import models.exceptions.SaldoInsuficienteException;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
  * Classe abstrata que representa uma conta bancária genérica.
  * Armazena informações do correntista, saldo, número da conta, e histórico de transações.
+ * <p>
+ * O saldo é mantido em centavos (ver {@link Dinheiro}) e atualizado sem locks, por meio de operações de comparação e troca (CAS):
+ * a verificação de saldo suficiente e o débito acontecem em uma única troca atômica, e a operação
+ * correspondente só é registrada no histórico depois que o novo saldo foi efetivado.
+ * O bit menos significativo do estado do saldo fica reservado às subclasses, que podem usá-lo como
+ * marcador atualizado atomicamente junto com o saldo (ver {@link ContaEspecial}).
+ * <p>
+ * O histórico é guardado em um {@link LivroRazao}, e objetos {@link Operacao} são criados apenas quando
+ * o histórico é consultado. Na serialização, o histórico continua sendo gravado como a lista de operações.
+ * <p>
+ * Subclasses podem adiar operações que não dependem da conta (ver {@link ContaPoupanca}); as consultas de saldo
+ * e de histórico aplicam as operações adiadas antes de ler o estado da conta.
  */
 
 public abstract class Conta implements Serializable {
@@ -17,13 +32,33 @@ public abstract class Conta implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private static final String FILE_NAME = "numero_conta_gerador.ser";
-    private static int numeroContaGerador = restaurarNumeroContaGerador();
+    private static final GeradorNumeroConta GERADOR =
+            new GeradorNumeroConta(Path.of(FILE_NAME), GeradorNumeroConta.TAMANHO_BLOCO_PADRAO);
+
+    @Serial
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("numeroConta", int.class),
+            new ObjectStreamField("correntistaNome", String.class),
+            new ObjectStreamField("correntistaCPF", String.class),
+            new ObjectStreamField("estadoSaldo", long.class),
+            new ObjectStreamField("transacoes", List.class)
+    };
+
+    private static final VarHandle ESTADO_SALDO;
+
+    static {
+        try {
+            ESTADO_SALDO = MethodHandles.lookup().findVarHandle(Conta.class, "estadoSaldo", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     private int numeroConta;
     private String correntistaNome;
     private String correntistaCPF;
-    protected double saldo;
-    protected List<Operacao> transacoes;
+    private volatile long estadoSaldo;
+    private transient LivroRazao livro;
 
     /**
      * Construtor da classe Conta.
@@ -33,15 +68,12 @@ public abstract class Conta implements Serializable {
      * @param correntistaCPF CPF do correntista.
      */
     public Conta(String correntistaNome, String correntistaCPF) {
-        this.numeroConta = numeroContaGerador;
+        this.numeroConta = GERADOR.proximoNumero();
 
         this.correntistaNome = correntistaNome;
         this.correntistaCPF = correntistaCPF;
-        this.saldo = 0;
-        this.transacoes = new ArrayList<>();
-
-        numeroContaGerador++;
-        salvarNumeroContaGerador();
+        this.estadoSaldo = montarEstado(0, false);
+        this.livro = new LivroEmMemoria();
     }
 
     /**
@@ -50,18 +82,34 @@ public abstract class Conta implements Serializable {
      *
      * @param correntistaNome Nome do correntista.
      * @param correntistaCPF CPF do correntista.
-     * @param saldo Saldo inicial da conta.
+     * @param saldo Saldo inicial da conta, em centavos.
      */
-    public Conta(String correntistaNome, String correntistaCPF, double saldo) {
-        this.numeroConta = numeroContaGerador;
+    public Conta(String correntistaNome, String correntistaCPF, long saldo) {
+        this.numeroConta = GERADOR.proximoNumero();
 
         this.correntistaNome = correntistaNome;
         this.correntistaCPF = correntistaCPF;
-        this.saldo = saldo;
-        this.transacoes = new ArrayList<>();
+        this.estadoSaldo = montarEstado(saldo, false);
+        this.livro = new LivroEmMemoria();
+    }
 
-        numeroContaGerador++;
-        salvarNumeroContaGerador();
+    /**
+     * Construtor da classe Conta.
+     * Inicializa a conta com saldo zero e com um número já atribuído anteriormente, utilizado na
+     * restauração de contas a partir do journal. O número é registrado no gerador para não ser reemitido.
+     *
+     * @param numeroConta Número da conta.
+     * @param correntistaNome Nome do correntista.
+     * @param correntistaCPF CPF do correntista.
+     */
+    protected Conta(int numeroConta, String correntistaNome, String correntistaCPF) {
+        this.numeroConta = numeroConta;
+        GERADOR.registrarUtilizado(numeroConta);
+
+        this.correntistaNome = correntistaNome;
+        this.correntistaCPF = correntistaCPF;
+        this.estadoSaldo = montarEstado(0, false);
+        this.livro = new LivroEmMemoria();
     }
 
     /**
@@ -103,64 +151,327 @@ public abstract class Conta implements Serializable {
     /**
      * Retorna o saldo atual da conta.
      *
-     * @return Saldo da conta.
+     * @return Saldo da conta, em centavos.
      */
-    public double getSaldo() {
-        return saldo;
+    public long getSaldo() {
+        aplicarPendencias();
+        return saldoDoEstado(estadoSaldo);
     }
 
     /**
-     * Retorna a lista de transações associadas à conta.
+     * Retorna uma lista com as transações associadas à conta, criadas a partir do livro-razão.
+     * A lista é montada de forma consistente mesmo com operações sendo registradas em paralelo.
      *
      * @return Lista de transações.
      */
     public List<Operacao> getTransacoes() {
-        return transacoes;
+        aplicarPendencias();
+        return livro.materializar(0, livro.tamanho());
+    }
+
+    /**
+     * Consulta uma página do histórico da conta. Apenas as operações da página são criadas.
+     *
+     * @param consulta Parâmetros da consulta: período, tipos de operação, cursor e tamanho da página.
+     * @return Página com as operações, em ordem cronológica, e o cursor da próxima página.
+     * @throws IllegalArgumentException Se o cursor da consulta for inválido ou pertencer a outra conta.
+     */
+    public PaginaExtrato consultarTransacoes(ConsultaExtrato consulta) {
+        aplicarPendencias();
+        int posicaoInicial = consulta.getCursor() != null ? PaginaExtrato.decodificarCursor(consulta.getCursor(), numeroConta) : 0;
+        return livro.consultar(consulta, posicaoInicial, numeroConta);
+    }
+
+    /**
+     * Retorna a quantidade de operações registradas no histórico da conta, sem criar as operações.
+     *
+     * @return Quantidade de operações.
+     */
+    public int getQuantidadeTransacoes() {
+        aplicarPendencias();
+        return livro.tamanho();
+    }
+
+    /**
+     * Redefine a data das operações do histórico a partir da posição informada.
+     * Utilizado para manter a data original de operações reproduzidas a partir do journal.
+     *
+     * @param aPartirDe Posição da primeira operação a ser redatada.
+     * @param data Data original das operações, em milissegundos desde a época.
+     */
+    public void definirDataTransacoes(int aPartirDe, long data) {
+        livro.redatar(aPartirDe, data);
+    }
+
+    /**
+     * Aplica ao saldo e ao histórico as operações que a conta registrou de forma adiada, antes de a conta ser
+     * consultada ou alterada. Por padrão, não há operações adiadas; subclasses que adiam operações
+     * (ver {@link ContaPoupanca}) sobrescrevem este método, que também deve ser chamado no início das suas mutações.
+     */
+    protected void aplicarPendencias() {
     }
 
     /**
      * Método abstrato para realizar saques.
      * Deve ser implementado nas subclasses.
      *
-     * @param valor Valor a ser sacado.
+     * @param valor Valor a ser sacado, em centavos.
      * @throws SaldoInsuficienteException Se o saldo for insuficiente.
      */
-    public abstract void sacar(double valor) throws SaldoInsuficienteException;
+    public abstract void sacar(long valor) throws SaldoInsuficienteException;
 
     /**
      * Método abstrato para realizar depósitos.
      * Deve ser implementado nas subclasses.
      *
-     * @param valor Valor a ser depositado.
+     * @param valor Valor a ser depositado, em centavos.
+     */
+    public abstract void depositar(long valor);
+
+    /**
+     * Verifica, sem alterar a conta, se um depósito do valor informado seria efetuado.
+     * Utilizado pelo serviço para registrar o depósito no journal antes de efetivá-lo.
+     *
+     * @param valor Valor a ser depositado, em centavos.
+     * @throws IllegalArgumentException Se o valor do depósito for menor ou igual a 0.
+     */
+    public void verificarDeposito(long valor) {
+        if (valor <= 0) {
+            throw new IllegalArgumentException("O valor para depósito deve ser positivo.");
+        }
+    }
+
+    /**
+     * Verifica, sem alterar o saldo, se um saque do valor informado seria efetuado.
+     * Utilizado pelo serviço para registrar o saque no journal antes de efetivá-lo; o resultado só continua
+     * válido enquanto nenhuma outra thread alterar a conta, por isso a verificação é feita com a listra travada.
+     *
+     * @param valor Valor a ser sacado, em centavos.
+     * @throws IllegalArgumentException Se o valor do saque for menor ou igual a 0.
+     * @throws SaldoInsuficienteException Se o saldo disponível for insuficiente para o saque.
+     */
+    public void verificarSaque(long valor) throws SaldoInsuficienteException {
+        if (valor <= 0) {
+            throw new IllegalArgumentException("O valor para saque deve ser positivo.");
+        }
+        if (getSaldoDisponivel() < valor) {
+            throw new SaldoInsuficienteException("Saldo insuficiente para realizar o saque.");
+        }
+    }
+
+    /**
+     * Retorna o valor que pode ser debitado da conta. Por padrão, é o próprio saldo; subclasses com
+     * crédito adicional (ver {@link ContaEspecial}) o incluem.
+     *
+     * @return Valor disponível para débito, em centavos.
+     */
+    protected long getSaldoDisponivel() {
+        return getSaldo();
+    }
+
+    /**
+     * Credita um valor no saldo da conta de forma atômica, preservando o marcador do estado.
+     *
+     * @param centavos Valor a ser creditado, em centavos.
+     * @return Saldo resultante, em centavos.
+     */
+    protected final long creditar(long centavos) {
+        while (true) {
+            long estado = estadoSaldo;
+            long novoSaldo = saldoDoEstado(estado) + centavos;
+
+            if (ESTADO_SALDO.compareAndSet(this, estado, montarEstado(novoSaldo, marcadorDoEstado(estado)))) {
+                return novoSaldo;
+            }
+        }
+    }
+
+    /**
+     * Debita um valor do saldo da conta de forma atômica, preservando o marcador do estado.
+     * A verificação de saldo suficiente e o débito são efetivados na mesma troca.
+     *
+     * @param centavos Valor a ser debitado, em centavos.
+     * @param mensagemSaldoInsuficiente Mensagem da exceção caso o saldo não seja suficiente.
+     * @return Saldo resultante, em centavos.
+     * @throws SaldoInsuficienteException Se o saldo for menor que o valor a ser debitado.
+     */
+    protected final long debitar(long centavos, String mensagemSaldoInsuficiente) throws SaldoInsuficienteException {
+        while (true) {
+            long estado = estadoSaldo;
+            long saldoAtual = saldoDoEstado(estado);
+
+            if (saldoAtual < centavos) {
+                throw new SaldoInsuficienteException(mensagemSaldoInsuficiente);
+            }
+
+            long novoSaldo = saldoAtual - centavos;
+            if (ESTADO_SALDO.compareAndSet(this, estado, montarEstado(novoSaldo, marcadorDoEstado(estado)))) {
+                return novoSaldo;
+            }
+        }
+    }
+
+    /**
+     * Retorna o estado atual do saldo, composto pelo saldo em centavos e pelo marcador das subclasses.
+     *
+     * @return Estado atual do saldo.
      */
-    public abstract void depositar(double valor);
+    protected final long lerEstadoSaldo() {
+        return estadoSaldo;
+    }
+
+    /**
+     * Troca atomicamente o estado do saldo, caso ele ainda seja o esperado.
+     *
+     * @param esperado Estado lido anteriormente.
+     * @param novo Novo estado.
+     * @return Verdadeiro se a troca foi efetivada, falso se outro valor foi gravado antes.
+     */
+    protected final boolean trocarEstadoSaldo(long esperado, long novo) {
+        return ESTADO_SALDO.compareAndSet(this, esperado, novo);
+    }
 
     /**
-     * Salva o valor atual do gerador de número de conta em um arquivo.
-     * Este método é usado para persistir o número da próxima conta a ser criada.
+     * Define o marcador do estado do saldo, preservando o saldo.
+     *
+     * @param marcador Novo valor do marcador.
      */
-    private static void salvarNumeroContaGerador() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_NAME))) {
-            oos.writeInt(numeroContaGerador);
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar numeroContaGerador: " + e.getMessage());
+    protected final void definirMarcadorSaldo(boolean marcador) {
+        while (true) {
+            long estado = estadoSaldo;
+            if (ESTADO_SALDO.compareAndSet(this, estado, montarEstado(saldoDoEstado(estado), marcador))) {
+                return;
+            }
         }
     }
 
     /**
-     * Restaura o valor do gerador de número de conta a partir de um arquivo.
-     * Se o arquivo não existir, o gerador começa em 0.
+     * Redefine o saldo da conta, preservando o marcador do estado.
+     * Deve ser utilizado apenas durante a construção da conta.
      *
-     * @return Valor restaurado ou 0 se o arquivo não existir.
+     * @param centavos Saldo inicial, em centavos.
      */
-    private static int restaurarNumeroContaGerador() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(FILE_NAME))) {
-            return ois.readInt();
-        } catch (IOException e) {
-            return 0;
+    protected final void definirSaldoInicial(long centavos) {
+        while (true) {
+            long estado = estadoSaldo;
+            if (ESTADO_SALDO.compareAndSet(this, estado, montarEstado(centavos, marcadorDoEstado(estado)))) {
+                return;
+            }
         }
     }
 
+    /**
+     * Registra uma operação no histórico da conta, com a data atual.
+     * Deve ser chamado somente depois que o saldo resultante da operação foi efetivado.
+     *
+     * @param tipo Tipo da operação.
+     * @param valor Valor da operação, em centavos.
+     * @param saldoResultante Saldo após a operação, em centavos.
+     */
+    protected final void registrarOperacao(IdentificadorTipo tipo, long valor, long saldoResultante) {
+        registrarOperacao(tipo, valor, saldoResultante, null);
+    }
+
+    /**
+     * Registra uma operação com mensagem no histórico da conta, com a data atual.
+     * Deve ser chamado somente depois que o saldo resultante da operação foi efetivado.
+     *
+     * @param tipo Tipo da operação.
+     * @param valor Valor da operação, em centavos.
+     * @param saldoResultante Saldo após a operação, em centavos.
+     * @param mensagem Mensagem associada à operação.
+     */
+    protected final void registrarOperacao(IdentificadorTipo tipo, long valor, long saldoResultante, String mensagem) {
+        livro.registrar(System.currentTimeMillis(), valor, tipo, saldoResultante, mensagem);
+    }
+
+    /**
+     * Registra uma correção no histórico da conta, com a data informada e a taxa aplicada, sem montar a sua mensagem.
+     * Correções adiadas recebem a data em que foram registradas, e não a da sua aplicação.
+     * Deve ser chamado somente depois que o saldo resultante da correção foi efetivado.
+     *
+     * @param data Data da correção, em milissegundos desde a época.
+     * @param rendimento Rendimento da correção, em centavos.
+     * @param saldoResultante Saldo após a correção, em centavos.
+     * @param taxa Taxa aplicada, na escala {@link Dinheiro#ESCALA_TAXA}.
+     */
+    protected final void registrarCorrecao(long data, long rendimento, long saldoResultante, long taxa) {
+        livro.registrarCorrecao(data, rendimento, saldoResultante, taxa);
+    }
+
+    /**
+     * Retorna o livro-razão da conta.
+     *
+     * @return Livro com o histórico da conta.
+     */
+    final LivroRazao getLivro() {
+        return livro;
+    }
+
+    /**
+     * Substitui o livro-razão da conta por outro com os mesmos lançamentos.
+     * Nenhuma operação pode estar em andamento na conta durante a substituição.
+     *
+     * @param livro Novo livro da conta.
+     */
+    final void substituirLivro(LivroRazao livro) {
+        this.livro = livro;
+    }
+
+    /**
+     * Retorna uma cópia dos primeiros lançamentos do livro-razão da conta.
+     * Como o livro só recebe acréscimos, os primeiros lançamentos não mudam depois de registrados.
+     *
+     * @param quantidade Quantidade de lançamentos a partir do início do histórico.
+     * @return Cópia do livro.
+     */
+    final LivroRazao copiarLivro(int quantidade) {
+        return livro.copiar(quantidade);
+    }
+
+    /**
+     * Substitui o estado do saldo e o histórico da conta.
+     * Utilizado apenas na restauração de contas a partir de um snapshot, antes de a conta ser publicada.
+     *
+     * @param estadoSaldo Estado do saldo, com o saldo em centavos e o marcador das subclasses.
+     * @param livro Livro-razão com o histórico da conta.
+     */
+    final void restaurarEstado(long estadoSaldo, LivroRazao livro) {
+        this.estadoSaldo = estadoSaldo;
+        this.livro = livro;
+    }
+
+    /**
+     * Extrai o saldo, em centavos, de um estado do saldo.
+     *
+     * @param estado Estado do saldo.
+     * @return Saldo em centavos.
+     */
+    protected static long saldoDoEstado(long estado) {
+        return estado >> 1;
+    }
+
+    /**
+     * Extrai o marcador reservado às subclasses de um estado do saldo.
+     *
+     * @param estado Estado do saldo.
+     * @return Valor do marcador.
+     */
+    protected static boolean marcadorDoEstado(long estado) {
+        return (estado & 1L) != 0;
+    }
+
+    /**
+     * Monta um estado do saldo a partir do saldo em centavos e do marcador.
+     *
+     * @param saldoCentavos Saldo em centavos.
+     * @param marcador Valor do marcador.
+     * @return Estado do saldo.
+     */
+    protected static long montarEstado(long saldoCentavos, boolean marcador) {
+        return (saldoCentavos << 1) | (marcador ? 1L : 0L);
+    }
+
     /**
      * Retorna uma representação textual da conta, incluindo o número, nome do correntista,
      * CPF e saldo.
@@ -171,7 +482,56 @@ public abstract class Conta implements Serializable {
     public String toString() {
         return "Conta: " + numeroConta + " - " +
                 "Correntista: " + correntistaNome + " (CPF: " + correntistaCPF + ") - " +
-                "Saldo: " + String.format("%.2f", saldo);
+                "Saldo: " + Dinheiro.formatar(getSaldo());
+    }
+
+    /**
+     * Método especial para salvar o estado do objeto, gravando o histórico como a lista de operações,
+     * no mesmo formato das versões anteriores. As operações adiadas são aplicadas antes da gravação.
+     *
+     * @param oos Objeto de saída de fluxo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        aplicarPendencias();
+
+        ObjectOutputStream.PutField campos = oos.putFields();
+        campos.put("numeroConta", numeroConta);
+        campos.put("correntistaNome", correntistaNome);
+        campos.put("correntistaCPF", correntistaCPF);
+        campos.put("estadoSaldo", estadoSaldo);
+        campos.put("transacoes", livro.materializar(0, livro.tamanho()));
+        oos.writeFields();
+    }
+
+    /**
+     * Método especial para restaurar o estado do objeto após a desserialização.
+     * Estados salvos com o saldo em ponto flutuante são convertidos para centavos, e o número da conta
+     * restaurada é registrado no gerador para que não seja entregue a uma nova conta. A lista de operações
+     * gravada é convertida para o livro-razão.
+     *
+     * @param ois Objeto de entrada de fluxo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     * @throws ClassNotFoundException Caso a classe não seja encontrada durante a leitura.
+     */
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = ois.readFields();
+        numeroConta = campos.get("numeroConta", 0);
+        GERADOR.registrarUtilizado(numeroConta);
+        correntistaNome = (String) campos.get("correntistaNome", null);
+        correntistaCPF = (String) campos.get("correntistaCPF", null);
+        List<Operacao> transacoes = (List<Operacao>) campos.get("transacoes", null);
+
+        if (campos.getObjectStreamClass().getField("estadoSaldo") != null) {
+            estadoSaldo = campos.get("estadoSaldo", 0L);
+        } else {
+            estadoSaldo = montarEstado(Dinheiro.deReais(campos.get("saldo", 0.0)), false);
+        }
+
+        livro = transacoes != null ? LivroRazao.de(transacoes) : new LivroEmMemoria();
     }
 
 }
@@ -1,12 +1,14 @@
 package models;
 
 import models.enums.IdentificadorTipo;
+import models.enums.TipoChavePix;
 import models.exceptions.PixJaCadastradoException;
 import models.exceptions.PixNaoCadastradoException;
 import models.exceptions.SaldoInsuficienteException;
+import models.interfaces.DiretorioPix;
 import models.interfaces.Pix;
 
-import java.util.List;
+import java.io.Serial;
 
 /**
  * Classe que representa uma conta corrente.
@@ -15,6 +17,9 @@ import java.util.List;
 
 public class ContaCorrente extends Conta implements Pix {
 
+    @Serial
+    private static final long serialVersionUID = 7934435867067282302L;
+
     /**
      * Construtor da classe ContaCorrente.
      * Inicializa uma conta corrente com saldo inicial.
@@ -22,13 +27,13 @@ public class ContaCorrente extends Conta implements Pix {
      *
      * @param correntistaNome Nome do correntista.
      * @param correntistaCPF  CPF do correntista.
-     * @param saldo           Saldo inicial da conta.
+     * @param saldo           Saldo inicial da conta, em centavos.
      */
-    public ContaCorrente(String correntistaNome, String correntistaCPF, double saldo) {
+    public ContaCorrente(String correntistaNome, String correntistaCPF, long saldo) {
         super(correntistaNome, correntistaCPF, saldo);
 
         if (saldo < 0) {
-            this.saldo = 0;
+            definirSaldoInicial(0);
         }
 
     }
@@ -44,128 +49,193 @@ public class ContaCorrente extends Conta implements Pix {
         super(correntistaNome, correntistaCPF);
     }
 
+    /**
+     * Construtor da classe ContaCorrente.
+     * Inicializa uma conta corrente sem saldo inicial, com um número já atribuído anteriormente.
+     * Utilizado na restauração de contas a partir do journal.
+     *
+     * @param numeroConta     Número da conta.
+     * @param correntistaNome Nome do correntista.
+     * @param correntistaCPF  CPF do correntista.
+     */
+    public ContaCorrente(int numeroConta, String correntistaNome, String correntistaCPF) {
+        super(numeroConta, correntistaNome, correntistaCPF);
+    }
+
     /**
      * Realiza um saque na conta.
      * O valor do saque deve ser positivo e não pode exceder o saldo disponível.
      *
-     * @param valor Valor a ser sacado.
+     * @param valor Valor a ser sacado, em centavos.
      * @throws IllegalArgumentException   Se o valor do saque for menor ou igual a 0.
      * @throws SaldoInsuficienteException Se o saldo for insuficiente para o saque.
      */
     @Override
-    public void sacar(double valor) throws SaldoInsuficienteException {
+    public void sacar(long valor) throws SaldoInsuficienteException {
 
         if (valor <= 0) {
             throw new IllegalArgumentException("O valor para saque deve ser positivo.");
         }
 
-        if (this.saldo < valor) {
-            throw new SaldoInsuficienteException("Saldo insuficiente para realizar o saque.");
-        }
-
-        this.saldo -= valor;
-
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.SAQUE);
-        operacao.setSaldoAtual(this.saldo);
+        long saldoResultante = debitar(valor, "Saldo insuficiente para realizar o saque.");
 
-        transacoes.add(operacao);
+        registrarOperacao(IdentificadorTipo.SAQUE, valor, saldoResultante);
     }
 
     /**
      * Realiza um depósito na conta.
      * O valor do depósito deve ser positivo.
      *
-     * @param valor Valor a ser depositado.
+     * @param valor Valor a ser depositado, em centavos.
      * @throws IllegalArgumentException Se o valor do depósito for menor ou igual a 0.
      */
     @Override
-    public void depositar(double valor) {
+    public void depositar(long valor) {
 
         if (valor <= 0) {
             throw new IllegalArgumentException("O valor para depósito deve ser positivo.");
         }
 
-        this.saldo += valor;
+        long saldoResultante = creditar(valor);
 
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.DEPOSITO);
-        operacao.setSaldoAtual(this.saldo);
-
-        transacoes.add(operacao);
+        registrarOperacao(IdentificadorTipo.DEPOSITO, valor, saldoResultante);
     }
 
     /**
-     * Cadastra o CPF do correntista no sistema Pix, caso não esteja.
+     * Cadastra o CPF do correntista no diretório de Pix, caso não esteja.
      *
-     * @param usuariosPix Lista de CPFs cadastrados no sistema Pix.
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
      * @throws PixJaCadastradoException Se o CPF do correntista já estiver cadastrado.
      */
     @Override
-    public void cadastrarPix(List<String> usuariosPix) throws PixJaCadastradoException {
-
-        if (usuariosPix.contains(this.getCorrentistaCPF())) {
-            throw new PixJaCadastradoException("CPF já cadastrado.");
-        }
+    public void cadastrarPix(DiretorioPix diretorioPix) throws PixJaCadastradoException {
+        diretorioPix.registrar(TipoChavePix.CPF, this.getCorrentistaCPF(), this);
+    }
 
-        usuariosPix.add(this.getCorrentistaCPF());
+    /**
+     * Cadastra uma chave do tipo informado no diretório de Pix, associada a esta conta.
+     *
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
+     * @param tipo Tipo da chave (CPF, e-mail, telefone ou aleatória).
+     * @param chave Valor da chave. Ignorado para chaves aleatórias, que são geradas pelo diretório.
+     * @return A chave cadastrada.
+     * @throws PixJaCadastradoException Se a chave já estiver cadastrada.
+     * @throws IllegalArgumentException Se a chave não respeitar o formato do tipo informado.
+     */
+    @Override
+    public String cadastrarPix(DiretorioPix diretorioPix, TipoChavePix tipo, String chave) throws PixJaCadastradoException {
+        return diretorioPix.registrar(tipo, chave, this);
     }
 
     /**
      * Realiza uma transferência Pix para outra conta.
-     * O CPF do remetente e do destinatário devem estar cadastrados no sistema Pix,
-     * e o saldo deve ser suficiente para a transferência.
+     * O remetente e o destinatário devem possuir chave cadastrada no diretório de Pix,
+     * e o saldo deve ser suficiente para a transferência. O valor é debitado da origem
+     * antes de ser creditado no destinatário.
      *
-     * @param usuariosPix Lista de CPFs cadastrados no sistema Pix.
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
      * @param destinatario Conta destinatária do Pix.
-     * @param valor Valor a ser transferido.
-     * @throws PixNaoCadastradoException Se o CPF do remetente ou destinatário não estiver cadastrado no sistema Pix.
+     * @param valor Valor a ser transferido, em centavos.
+     * @throws PixNaoCadastradoException Se o remetente ou destinatário não possuir chave cadastrada no sistema Pix.
      * @throws SaldoInsuficienteException Se o saldo for insuficiente para a transferência.
      * @throws IllegalArgumentException Se o valor for menor ou igual a 0.
      */
     @Override
-    public void efetuarPix(List<String> usuariosPix, ContaCorrente destinatario, double valor) throws PixNaoCadastradoException, SaldoInsuficienteException {
+    public void efetuarPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException, SaldoInsuficienteException {
+        enviarPix(diretorioPix, destinatario, valor);
+        destinatario.receberPix(diretorioPix, valor);
+    }
 
-        if (valor <= 0) {
-            throw new IllegalArgumentException("O valor para transferência deve ser positivo.");
-        }
-        if (!usuariosPix.contains(this.getCorrentistaCPF())) {
-            throw new PixNaoCadastradoException("O CPF do remetente não está cadastrado no Pix.");
-        }
-        if (!usuariosPix.contains(destinatario.getCorrentistaCPF())) {
-            throw new PixNaoCadastradoException("O CPF do destinatário não está cadastrado no Pix.");
-        }
-        if (this.saldo < valor) {
-            throw new SaldoInsuficienteException("Saldo insuficiente para realizar a transferência Pix.");
-        }
+    /**
+     * Debita uma transferência Pix da conta, sem creditá-la no destinatário.
+     * As verificações são as mesmas de {@link #efetuarPix(DiretorioPix, ContaCorrente, long)}.
+     *
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
+     * @param destinatario Conta destinatária do Pix.
+     * @param valor Valor a ser transferido, em centavos.
+     * @throws PixNaoCadastradoException Se o remetente ou destinatário não possuir chave cadastrada no sistema Pix.
+     * @throws SaldoInsuficienteException Se o saldo for insuficiente para a transferência.
+     * @throws IllegalArgumentException Se o valor for menor ou igual a 0.
+     */
+    @Override
+    public void enviarPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException, SaldoInsuficienteException {
+
+        verificarParticipantesPix(diretorioPix, destinatario, valor);
 
-        destinatario.receberPix(usuariosPix, valor);
-        this.saldo -= valor;
+        long saldoResultante = debitar(valor, "Saldo insuficiente para realizar a transferência Pix.");
 
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.PIX_OUT);
-        operacao.setSaldoAtual(this.saldo);
+        registrarOperacao(IdentificadorTipo.PIX_OUT, valor, saldoResultante);
+    }
+
+    /**
+     * Verifica, sem alterar o saldo, se uma transferência Pix seria debitada da conta.
+     * O resultado só continua válido enquanto nenhuma outra thread alterar a conta ou o diretório de Pix.
+     *
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
+     * @param destinatario Conta destinatária do Pix.
+     * @param valor Valor a ser transferido, em centavos.
+     * @throws PixNaoCadastradoException Se o remetente ou destinatário não possuir chave cadastrada no sistema Pix.
+     * @throws SaldoInsuficienteException Se o saldo disponível for insuficiente para a transferência.
+     * @throws IllegalArgumentException Se o valor for menor ou igual a 0.
+     */
+    @Override
+    public void verificarEnvioPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException, SaldoInsuficienteException {
+        verificarParticipantesPix(diretorioPix, destinatario, valor);
 
-        transacoes.add(operacao);
+        if (getSaldoDisponivel() < valor) {
+            throw new SaldoInsuficienteException("Saldo insuficiente para realizar a transferência Pix.");
+        }
     }
 
     /**
      * Recebe uma transferência Pix.
-     * O CPF do destinatário deve estar cadastrado no sistema Pix.
+     * O destinatário deve possuir chave cadastrada no diretório de Pix.
      *
-     * @param usuariosPix Lista de CPFs cadastrados no sistema Pix.
-     * @param valor Valor a ser recebido.
-     * @throws PixNaoCadastradoException Se o CPF do destinatário não estiver cadastrado no sistema Pix.
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
+     * @param valor Valor a ser recebido, em centavos.
+     * @throws PixNaoCadastradoException Se o destinatário não possuir chave cadastrada no sistema Pix.
      */
     @Override
-    public void receberPix(List<String> usuariosPix, double valor) throws PixNaoCadastradoException {
+    public void receberPix(DiretorioPix diretorioPix, long valor) throws PixNaoCadastradoException {
 
-        if (!usuariosPix.contains(this.getCorrentistaCPF())) {
-            throw new PixNaoCadastradoException("O CPF do destinatário não está cadastrado no Pix.");
+        if (!diretorioPix.possuiChave(this)) {
+            throw new PixNaoCadastradoException("O destinatário não possui chave cadastrada no Pix.");
         }
 
-        this.saldo += valor;
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.PIX_IN);
-        operacao.setSaldoAtual(this.saldo);
+        receberPixVerificado(valor);
+    }
+
+    /**
+     * Recebe uma transferência Pix cujo destinatário já foi verificado por {@link #enviarPix}, sem consultar o diretório.
+     *
+     * @param valor Valor a ser recebido, em centavos.
+     */
+    @Override
+    public void receberPixVerificado(long valor) {
+        long saldoResultante = creditar(valor);
 
-        transacoes.add(operacao);
+        registrarOperacao(IdentificadorTipo.PIX_IN, valor, saldoResultante);
+    }
+
+    /**
+     * Verifica o valor de uma transferência Pix e se o remetente e o destinatário possuem chave cadastrada.
+     *
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
+     * @param destinatario Conta destinatária do Pix.
+     * @param valor Valor a ser transferido, em centavos.
+     * @throws PixNaoCadastradoException Se o remetente ou destinatário não possuir chave cadastrada no sistema Pix.
+     * @throws IllegalArgumentException Se o valor for menor ou igual a 0.
+     */
+    protected final void verificarParticipantesPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException {
+        if (valor <= 0) {
+            throw new IllegalArgumentException("O valor para transferência deve ser positivo.");
+        }
+        if (!diretorioPix.possuiChave(this)) {
+            throw new PixNaoCadastradoException("O remetente não possui chave cadastrada no Pix.");
+        }
+        if (!diretorioPix.possuiChave(destinatario)) {
+            throw new PixNaoCadastradoException("O destinatário não possui chave cadastrada no Pix.");
+        }
     }
 
 }
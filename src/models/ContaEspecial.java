@@ -3,18 +3,26 @@ package models;
 import models.enums.IdentificadorTipo;
 import models.exceptions.PixNaoCadastradoException;
 import models.exceptions.SaldoInsuficienteException;
+import models.interfaces.DiretorioPix;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
 import java.util.Random;
 
 /**
  * Classe que representa uma conta especial.
  * Herda da classe ContaCorrente e adiciona a funcionalidade de um limite especial para saque e Pix.
+ * A disponibilidade do limite é guardada no marcador do estado do saldo, de modo que o uso do limite
+ * e o débito do valor sejam efetivados na mesma troca atômica.
  */
 
 public class ContaEspecial extends ContaCorrente {
 
-    private double limiteEspecial;
+    @Serial
+    private static final long serialVersionUID = 6543328000065019055L;
+
+    private long limiteConcedido;
     private Random random = new Random();
 
     /**
@@ -23,11 +31,12 @@ public class ContaEspecial extends ContaCorrente {
      *
      * @param correntistaNome Nome do correntista.
      * @param correntistaCPF CPF do correntista.
-     * @param saldo Saldo inicial da conta.
+     * @param saldo Saldo inicial da conta, em centavos.
      */
-    public ContaEspecial(String correntistaNome, String correntistaCPF, double saldo) {
+    public ContaEspecial(String correntistaNome, String correntistaCPF, long saldo) {
         super(correntistaNome, correntistaCPF, saldo);
-        this.limiteEspecial = random.nextInt(300, 1000);
+        this.limiteConcedido = random.nextInt(300, 1000) * Dinheiro.CENTAVOS_POR_REAL;
+        definirMarcadorSaldo(true);
     }
 
     /**
@@ -39,90 +48,152 @@ public class ContaEspecial extends ContaCorrente {
      */
     public ContaEspecial(String correntistaNome, String correntistaCPF) {
         super(correntistaNome, correntistaCPF);
-        this.limiteEspecial = random.nextInt(300, 1000);
+        this.limiteConcedido = random.nextInt(300, 1000) * Dinheiro.CENTAVOS_POR_REAL;
+        definirMarcadorSaldo(true);
+    }
+
+    /**
+     * Construtor da classe ContaEspecial.
+     * Inicializa uma conta especial sem saldo inicial, com número e limite especial já atribuídos anteriormente.
+     * Utilizado na restauração de contas a partir do journal.
+     *
+     * @param numeroConta Número da conta.
+     * @param correntistaNome Nome do correntista.
+     * @param correntistaCPF CPF do correntista.
+     * @param limiteEspecial Limite especial concedido, em centavos.
+     */
+    public ContaEspecial(int numeroConta, String correntistaNome, String correntistaCPF, long limiteEspecial) {
+        super(numeroConta, correntistaNome, correntistaCPF);
+        this.limiteConcedido = limiteEspecial;
+        definirMarcadorSaldo(true);
     }
 
     /**
      * Retorna o valor do limite especial disponível para a conta.
      *
-     * @return Valor do limite especial.
+     * @return Valor do limite especial, em centavos.
      */
-    public double getLimiteEspecial() {
-        return limiteEspecial;
+    public long getLimiteEspecial() {
+        return marcadorDoEstado(lerEstadoSaldo()) ? limiteConcedido : 0;
+    }
+
+    /**
+     * Retorna o limite especial concedido à conta, esteja ele disponível ou já utilizado.
+     *
+     * @return Limite concedido, em centavos.
+     */
+    long getLimiteConcedido() {
+        return limiteConcedido;
     }
 
     /**
      * Realiza um saque na conta.
      * O saque pode usar o saldo e o limite especial, caso o saldo não seja suficiente.
      *
-     * @param valor Valor a ser sacado.
+     * @param valor Valor a ser sacado, em centavos.
      * @throws IllegalArgumentException   Se o valor do saque for menor ou igual a 0.
      * @throws SaldoInsuficienteException Se o saldo mais o limite especial não forem suficientes para o saque.
      */
     @Override
-    public void sacar(double valor) throws SaldoInsuficienteException {
+    public void sacar(long valor) throws SaldoInsuficienteException {
         if (valor <= 0) {
             throw new IllegalArgumentException("O valor para saque deve ser positivo.");
         }
 
-        if ((this.saldo + limiteEspecial) < valor) {
-            throw new SaldoInsuficienteException("Saldo insuficiente para realizar o saque.");
-        }
-
-        if (saldo >= valor) {
-            this.saldo -= valor;
-        } else {
-            this.saldo += limiteEspecial;
-            this.saldo -= valor;
-            this.limiteEspecial = 0;
-        }
-
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.SAQUE);
-        operacao.setSaldoAtual(this.saldo);
+        long saldoResultante = debitarComLimite(valor, "Saldo insuficiente para realizar o saque.");
 
-        transacoes.add(operacao);
+        registrarOperacao(IdentificadorTipo.SAQUE, valor, saldoResultante);
     }
 
     /**
-     * Realiza uma transferência Pix para outra conta.
+     * Debita uma transferência Pix da conta, sem creditá-la no destinatário.
      * O Pix pode utilizar o saldo e o limite especial, caso o saldo não seja suficiente.
      *
-     * @param usuariosPix Lista de CPFs cadastrados no sistema Pix.
+     * @param diretorioPix Diretório de chaves cadastradas no sistema Pix.
      * @param destinatario Conta destinatária do Pix.
-     * @param valor Valor a ser transferido.
+     * @param valor Valor a ser transferido, em centavos.
      * @throws IllegalArgumentException Se o valor do Pix for menor ou igual a 0.
-     * @throws PixNaoCadastradoException Se o CPF do remetente ou do destinatário não estiver cadastrado no sistema Pix.
+     * @throws PixNaoCadastradoException Se o remetente ou o destinatário não possuir chave cadastrada no sistema Pix.
      * @throws SaldoInsuficienteException Se o saldo mais o limite especial não forem suficientes para a transferência Pix.
      */
     @Override
-    public void efetuarPix(List<String> usuariosPix, ContaCorrente destinatario, double valor) throws PixNaoCadastradoException, SaldoInsuficienteException {
-        if (valor <= 0) {
-            throw new IllegalArgumentException("O valor para transferência deve ser positivo.");
-        }
-        if (!usuariosPix.contains(this.getCorrentistaCPF())) {
-            throw new PixNaoCadastradoException("O CPF do remetente não está cadastrado no Pix.");
-        }
-        if (!usuariosPix.contains(destinatario.getCorrentistaCPF())) {
-            throw new PixNaoCadastradoException("O CPF do destinatário não está cadastrado no Pix.");
-        }
-        if ((this.saldo + this.limiteEspecial) < valor) {
-            throw new SaldoInsuficienteException("Saldo insuficiente para realizar a transferência Pix.");
+    public void enviarPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException, SaldoInsuficienteException {
+        verificarParticipantesPix(diretorioPix, destinatario, valor);
+
+        long saldoResultante = debitarComLimite(valor, "Saldo insuficiente para realizar a transferência Pix.");
+
+        registrarOperacao(IdentificadorTipo.PIX_OUT, valor, saldoResultante);
+    }
+
+    /**
+     * Retorna o saldo somado ao limite especial, enquanto o limite estiver disponível.
+     *
+     * @return Valor disponível para saque e Pix, em centavos.
+     */
+    @Override
+    protected long getSaldoDisponivel() {
+        long estado = lerEstadoSaldo();
+        return saldoDoEstado(estado) + (marcadorDoEstado(estado) ? limiteConcedido : 0);
+    }
+
+    /**
+     * Debita um valor da conta, incorporando o limite especial ao saldo caso o saldo não seja suficiente.
+     * Depois de incorporado, o limite deixa de estar disponível. A verificação, o uso do limite e o débito
+     * são efetivados na mesma troca atômica do estado do saldo.
+     *
+     * @param centavos Valor a ser debitado, em centavos.
+     * @param mensagemSaldoInsuficiente Mensagem da exceção caso o saldo mais o limite não sejam suficientes.
+     * @return Saldo resultante, em centavos.
+     * @throws SaldoInsuficienteException Se o saldo mais o limite especial não forem suficientes.
+     */
+    private long debitarComLimite(long centavos, String mensagemSaldoInsuficiente) throws SaldoInsuficienteException {
+        while (true) {
+            long estado = lerEstadoSaldo();
+            long saldoAtual = saldoDoEstado(estado);
+            boolean limiteDisponivel = marcadorDoEstado(estado);
+            long limite = limiteDisponivel ? limiteConcedido : 0;
+
+            if ((saldoAtual + limite) < centavos) {
+                throw new SaldoInsuficienteException(mensagemSaldoInsuficiente);
+            }
+
+            long novoEstado;
+            if (saldoAtual >= centavos) {
+                novoEstado = montarEstado(saldoAtual - centavos, limiteDisponivel);
+            } else {
+                novoEstado = montarEstado(saldoAtual + limite - centavos, false);
+            }
+
+            if (trocarEstadoSaldo(estado, novoEstado)) {
+                return saldoDoEstado(novoEstado);
+            }
         }
+    }
 
-        destinatario.receberPix(usuariosPix, valor);
+    /**
+     * Método especial para restaurar o estado do objeto após a desserialização.
+     * Estados salvos com o limite em ponto flutuante são convertidos para centavos, e o limite
+     * é considerado disponível enquanto for maior que zero.
+     *
+     * @param ois Objeto de entrada de fluxo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     * @throws ClassNotFoundException Caso a classe não seja encontrada durante a leitura.
+     */
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = ois.readFields();
+        random = (Random) campos.get("random", null);
 
-        if (saldo >= valor) {
-            this.saldo -= valor;
+        if (campos.getObjectStreamClass().getField("limiteConcedido") != null) {
+            limiteConcedido = campos.get("limiteConcedido", 0L);
         } else {
-            this.saldo += this.limiteEspecial;
-            this.saldo -= valor;
-            this.limiteEspecial = 0;
+            limiteConcedido = Dinheiro.deReais(campos.get("limiteEspecial", 0.0));
+            definirMarcadorSaldo(limiteConcedido > 0);
         }
 
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.PIX_OUT);
-        operacao.setSaldoAtual(this.saldo);
-
-        transacoes.add(operacao);
+        if (random == null) {
+            random = new Random();
+        }
     }
 
 }
@@ -4,13 +4,29 @@ import models.enums.IdentificadorTipo;
 import models.exceptions.SaldoInsuficienteException;
 import models.interfaces.Remunerada;
 
+import java.io.Serial;
+import java.math.RoundingMode;
+
 /**
  * Classe que representa uma conta poupança.
  * Implementa a interface Remunerada para aplicar taxas de correção ao saldo.
+ * <p>
+ * Vinculada às {@link EpocasCorrecao} do serviço, a conta também recebe correções sob demanda: ela guarda
+ * quantas épocas já aplicou e, antes de qualquer consulta ou alteração, aplica as épocas pendentes em ordem,
+ * cada uma com a sua data, obtendo o mesmo saldo e o mesmo histórico da correção imediata.
  */
 
 public class ContaPoupanca extends Conta implements Remunerada {
 
+    @Serial
+    private static final long serialVersionUID = -5452594380687467208L;
+
+    private static final int SEM_EPOCA = -1;
+
+    private volatile long ultimaExecucaoCorrecao;
+    private volatile int epocaCorrecao = SEM_EPOCA;
+    private transient volatile EpocasCorrecao epocasCorrecao;
+
     /**
      * Construtor da classe ContaPoupanca.
      * Inicializa uma conta poupança sem saldo inicial.
@@ -22,6 +38,19 @@ public class ContaPoupanca extends Conta implements Remunerada {
         super(correntistaNome, correntistaCPF);
     }
 
+    /**
+     * Construtor da classe ContaPoupanca.
+     * Inicializa uma conta poupança sem saldo inicial, com um número já atribuído anteriormente.
+     * Utilizado na restauração de contas a partir do journal.
+     *
+     * @param numeroConta Número da conta.
+     * @param correntistaNome Nome do correntista.
+     * @param correntistaCPF CPF do correntista.
+     */
+    public ContaPoupanca(int numeroConta, String correntistaNome, String correntistaCPF) {
+        super(numeroConta, correntistaNome, correntistaCPF);
+    }
+
     /**
      * Construtor da classe ContaPoupanca.
      * Inicializa uma conta poupança com saldo inicial.
@@ -29,77 +58,234 @@ public class ContaPoupanca extends Conta implements Remunerada {
      *
      * @param correntistaNome Nome do correntista.
      * @param correntistaCPF CPF do correntista.
-     * @param saldo Saldo inicial da conta.
+     * @param saldo Saldo inicial da conta, em centavos.
      */
-    public ContaPoupanca(String correntistaNome, String correntistaCPF, double saldo) {
+    public ContaPoupanca(String correntistaNome, String correntistaCPF, long saldo) {
         super(correntistaNome, correntistaCPF, saldo);
         if (saldo < 0) {
-            this.saldo = 0;
+            definirSaldoInicial(0);
         }
     }
 
     /**
      * Realiza um saque na conta.
      *
-     * @param valor Valor a ser sacado.
+     * @param valor Valor a ser sacado, em centavos.
      * @throws IllegalArgumentException Se o valor do saque for menor ou igual a 0.
      * @throws SaldoInsuficienteException Se o saldo disponível for insuficiente.
      */
     @Override
-    public void sacar(double valor) throws SaldoInsuficienteException {
+    public void sacar(long valor) throws SaldoInsuficienteException {
         if (valor <= 0) {
             throw new IllegalArgumentException("O valor para saque deve ser positivo.");
         }
 
-        if (this.saldo < valor) {
-            throw new SaldoInsuficienteException("Saldo insuficiente para realizar o saque.");
-        }
-
-        this.saldo -= valor;
+        aplicarPendencias();
+        long saldoResultante = debitar(valor, "Saldo insuficiente para realizar o saque.");
 
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.SAQUE);
-        operacao.setSaldoAtual(this.saldo);
-        transacoes.add(operacao);
+        registrarOperacao(IdentificadorTipo.SAQUE, valor, saldoResultante);
     }
 
     /**
      * Realiza um depósito na conta.
      *
-     * @param valor Valor a ser depositado.
+     * @param valor Valor a ser depositado, em centavos.
      * @throws IllegalArgumentException Se o valor do depósito for menor ou igual a 0.
      */
     @Override
-    public void depositar(double valor) {
+    public void depositar(long valor) {
         if (valor <= 0) {
             throw new IllegalArgumentException("O valor para depósito deve ser positivo.");
         }
 
-        this.saldo += valor;
-        Operacao operacao = new Operacao(valor, IdentificadorTipo.DEPOSITO);
-        operacao.setSaldoAtual(this.saldo);
+        aplicarPendencias();
+        long saldoResultante = creditar(valor);
+        registrarOperacao(IdentificadorTipo.DEPOSITO, valor, saldoResultante);
+    }
 
-        transacoes.add(operacao);
+    /**
+     * Aplica uma taxa de correção ao saldo da conta, gerando um rendimento proporcional à taxa informada.
+     * O rendimento é arredondado para centavos com o modo de arredondamento padrão.
+     *
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @throws IllegalArgumentException Se a taxa de correção for negativa.
+     */
+    @Override
+    public void taxaCorrecao(long taxa) {
+        taxaCorrecao(taxa, Dinheiro.ARREDONDAMENTO_PADRAO);
     }
 
     /**
      * Aplica uma taxa de correção ao saldo da conta, gerando um rendimento proporcional à taxa informada.
      *
-     * @param porcentagemTaxa Porcentagem da taxa de correção.
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     * @throws IllegalArgumentException Se a taxa de correção for negativa.
+     */
+    @Override
+    public void taxaCorrecao(long taxa, RoundingMode arredondamento) {
+        verificarCorrecao(taxa);
+
+        aplicarPendencias();
+        corrigirSaldo(taxa, arredondamento, System.currentTimeMillis());
+    }
+
+    /**
+     * Aplica uma taxa de correção ao saldo da conta como parte de uma execução de correção identificada,
+     * uma única vez por execução.
+     *
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     * @param idExecucao Identificador da execução, ou 0 para uma correção avulsa, sempre aplicada.
+     * @return Verdadeiro se a correção foi aplicada, falso se a conta já havia sido corrigida pela execução.
+     * @throws IllegalArgumentException Se a taxa de correção for negativa.
+     */
+    @Override
+    public boolean taxaCorrecao(long taxa, RoundingMode arredondamento, long idExecucao) {
+        if (isCorrigidaPelaExecucao(idExecucao)) {
+            return false;
+        }
+
+        taxaCorrecao(taxa, arredondamento);
+        if (idExecucao != 0) {
+            ultimaExecucaoCorrecao = idExecucao;
+        }
+        return true;
+    }
+
+    /**
+     * Retorna o identificador da última execução de correção aplicada à conta.
+     *
+     * @return Identificador da execução, ou 0 se a conta nunca foi corrigida por uma execução identificada.
+     */
+    @Override
+    public long getUltimaExecucaoCorrecao() {
+        return ultimaExecucaoCorrecao;
+    }
+
+    /**
+     * Indica se a última correção aplicada à conta, incluindo as épocas pendentes, pertence à execução informada.
+     *
+     * @param idExecucao Identificador da execução, ou 0 para uma correção avulsa.
+     * @return Verdadeiro se a execução já corrigiu a conta; sempre falso para correções avulsas.
+     */
+    @Override
+    public boolean isCorrigidaPelaExecucao(long idExecucao) {
+        aplicarPendencias();
+        return idExecucao != 0 && idExecucao == ultimaExecucaoCorrecao;
+    }
+
+    /**
+     * Verifica se a taxa de correção pode ser aplicada.
+     *
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
      * @throws IllegalArgumentException Se a taxa de correção for negativa.
      */
     @Override
-    public void taxaCorrecao(double porcentagemTaxa) {
-        if (porcentagemTaxa < 0) {
+    public void verificarCorrecao(long taxa) {
+        if (taxa < 0) {
             throw new IllegalArgumentException("A taxa de correção deve ser positiva.");
         }
+    }
+
+    /**
+     * Restaura o identificador da última execução de correção, lido de um snapshot.
+     *
+     * @param idExecucao Identificador da execução.
+     */
+    void restaurarUltimaExecucaoCorrecao(long idExecucao) {
+        this.ultimaExecucaoCorrecao = idExecucao;
+    }
+
+    /**
+     * Vincula a conta às épocas de correção do serviço. Uma conta ainda não vinculada passa a considerar
+     * aplicadas todas as épocas já registradas, pois elas são anteriores à sua criação; contas restauradas
+     * mantêm a quantidade de épocas aplicadas que foi salva.
+     *
+     * @param epocasCorrecao Épocas de correção do serviço.
+     */
+    public synchronized void vincularEpocasCorrecao(EpocasCorrecao epocasCorrecao) {
+        if (epocaCorrecao == SEM_EPOCA) {
+            epocaCorrecao = epocasCorrecao.tamanho();
+        }
+        this.epocasCorrecao = epocasCorrecao;
+    }
+
+    /**
+     * Aplica as épocas de correção registradas desde a última aplicação, em ordem, cada uma com a data em
+     * que foi registrada. Sem épocas pendentes, o custo é o de uma leitura; com épocas pendentes, a aplicação
+     * é feita com a conta travada, de modo que cada época é aplicada uma única vez.
+     */
+    public void aplicarCorrecoesPendentes() {
+        EpocasCorrecao epocas = epocasCorrecao;
+        if (epocas == null || epocaCorrecao >= epocas.tamanho()) {
+            return;
+        }
+
+        synchronized (this) {
+            int epoca = epocaCorrecao;
+            while (epoca < epocas.tamanho()) {
+                corrigirSaldo(epocas.getTaxa(epoca), epocas.getArredondamento(epoca), epocas.getData(epoca));
+
+                long idExecucao = epocas.getIdExecucao(epoca);
+                if (idExecucao != 0) {
+                    ultimaExecucaoCorrecao = idExecucao;
+                }
+                epocaCorrecao = ++epoca;
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade de épocas de correção já aplicadas à conta.
+     *
+     * @return Quantidade de épocas aplicadas, ou -1 se a conta ainda não foi vinculada às épocas de correção.
+     */
+    public int getEpocaCorrecao() {
+        return epocaCorrecao;
+    }
 
-        double rendimento = this.saldo * (porcentagemTaxa / 100);
-        this.saldo += rendimento;
+    /**
+     * Restaura a quantidade de épocas de correção aplicadas, lida de um snapshot.
+     *
+     * @param epocaCorrecao Quantidade de épocas aplicadas.
+     */
+    void restaurarEpocaCorrecao(int epocaCorrecao) {
+        this.epocaCorrecao = epocaCorrecao;
+    }
 
-        Operacao operacao = new Operacao(rendimento, IdentificadorTipo.CORRECAO_TAX, "Taxa " + String.format("%.2f", porcentagemTaxa) + "%");
-        operacao.setSaldoAtual(this.saldo);
+    /**
+     * Aplica as épocas de correção pendentes antes de a conta ser consultada ou alterada.
+     */
+    @Override
+    protected void aplicarPendencias() {
+        aplicarCorrecoesPendentes();
+    }
+
+    /**
+     * Soma ao saldo o rendimento da taxa e registra a correção no histórico.
+     *
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     * @param data Data da correção, em milissegundos desde a época.
+     */
+    private void corrigirSaldo(long taxa, RoundingMode arredondamento, long data) {
+        long rendimento;
+        long saldoResultante;
+
+        while (true) {
+            long estado = lerEstadoSaldo();
+            long saldoAtual = saldoDoEstado(estado);
+
+            rendimento = Dinheiro.aplicarTaxa(saldoAtual, taxa, arredondamento);
+            saldoResultante = saldoAtual + rendimento;
+
+            if (trocarEstadoSaldo(estado, montarEstado(saldoResultante, marcadorDoEstado(estado)))) {
+                break;
+            }
+        }
 
-        transacoes.add(operacao);
+        registrarCorrecao(data, rendimento, saldoResultante, taxa);
     }
 
 }
@@ -0,0 +1,211 @@
+package models;
+
+import java.math.RoundingMode;
+
+/**
+ * Classe utilitária para valores monetários em ponto fixo.
+ * Valores em dinheiro são representados como {@code long} em centavos, e taxas de correção como
+ * {@code long} em décimos de milésimo de ponto percentual (ex: 0,5% = 5000). As operações são exatas,
+ * não alocam objetos e utilizam um {@link RoundingMode} explícito sempre que há divisão.
+ */
+
+public final class Dinheiro {
+
+    /**
+     * Quantidade de centavos em um real.
+     */
+    public static final long CENTAVOS_POR_REAL = 100;
+
+    /**
+     * Escala das taxas de correção: uma taxa de 1% é representada por este valor.
+     */
+    public static final long ESCALA_TAXA = 10_000;
+
+    /**
+     * Modo de arredondamento utilizado quando nenhum outro é informado.
+     */
+    public static final RoundingMode ARREDONDAMENTO_PADRAO = RoundingMode.HALF_EVEN;
+
+    private static final int CASAS_DINHEIRO = 2;
+    private static final int CASAS_TAXA = 4;
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte um valor em reais para centavos, arredondando para o centavo mais próximo.
+     * Deve ser usado apenas na fronteira com código que ainda trabalha com {@code double}.
+     *
+     * @param reais Valor em reais.
+     * @return Valor em centavos.
+     */
+    public static long deReais(double reais) {
+        return Math.round(reais * CENTAVOS_POR_REAL);
+    }
+
+    /**
+     * Converte um texto decimal em reais (ex: "10", "10.5", "10,50") para centavos, sem passar por {@code double}.
+     *
+     * @param texto Valor em reais.
+     * @return Valor em centavos.
+     * @throws NumberFormatException Se o texto não for um valor válido ou tiver mais de duas casas decimais.
+     */
+    public static long parse(String texto) {
+        return parseDecimal(texto, CASAS_DINHEIRO);
+    }
+
+    /**
+     * Converte um texto decimal em porcentagem (ex: "0.5", "1,25") para a escala de taxas.
+     *
+     * @param texto Taxa em porcentagem.
+     * @return Taxa na escala {@link #ESCALA_TAXA}.
+     * @throws NumberFormatException Se o texto não for uma taxa válida ou tiver mais de quatro casas decimais.
+     */
+    public static long parseTaxa(String texto) {
+        return parseDecimal(texto, CASAS_TAXA);
+    }
+
+    /**
+     * Formata um valor em centavos com duas casas decimais (ex: 1050 = "10.50").
+     *
+     * @param centavos Valor em centavos.
+     * @return Valor formatado.
+     */
+    public static String formatar(long centavos) {
+        StringBuilder sb = new StringBuilder(24);
+        if (centavos < 0) {
+            sb.append('-');
+        }
+
+        long absoluto = Math.abs(centavos);
+        long resto = absoluto % CENTAVOS_POR_REAL;
+
+        sb.append(absoluto / CENTAVOS_POR_REAL).append('.');
+        if (resto < 10) {
+            sb.append('0');
+        }
+        return sb.append(resto).toString();
+    }
+
+    /**
+     * Formata uma taxa com duas casas decimais de porcentagem (ex: 5000 = "0.50").
+     *
+     * @param taxa Taxa na escala {@link #ESCALA_TAXA}.
+     * @return Taxa formatada, sem o símbolo de porcentagem.
+     */
+    public static String formatarTaxa(long taxa) {
+        return formatar(dividir(taxa, ESCALA_TAXA / 100, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Calcula o rendimento de um valor a uma taxa, arredondando o resultado para centavos.
+     *
+     * @param centavos Valor base, em centavos.
+     * @param taxa Taxa na escala {@link #ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento.
+     * @return Rendimento, em centavos.
+     * @throws ArithmeticException Se o resultado não couber em um {@code long}, ou se o arredondamento
+     * for {@link RoundingMode#UNNECESSARY} e o resultado não for exato.
+     */
+    public static long aplicarTaxa(long centavos, long taxa, RoundingMode arredondamento) {
+        long divisor = 100 * ESCALA_TAXA;
+        long quociente = centavos / divisor;
+        long resto = centavos % divisor;
+
+        long parteInteira = Math.multiplyExact(quociente, taxa);
+        long parteFracionaria = dividir(Math.multiplyExact(resto, taxa), divisor, arredondamento);
+
+        return Math.addExact(parteInteira, parteFracionaria);
+    }
+
+    /**
+     * Divide dois inteiros aplicando o modo de arredondamento informado.
+     *
+     * @param dividendo Dividendo.
+     * @param divisor Divisor, maior que zero.
+     * @param arredondamento Modo de arredondamento.
+     * @return Quociente arredondado.
+     * @throws ArithmeticException Se o arredondamento for {@link RoundingMode#UNNECESSARY} e a divisão não for exata.
+     */
+    public static long dividir(long dividendo, long divisor, RoundingMode arredondamento) {
+        long quociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+
+        if (resto == 0) {
+            return quociente;
+        }
+
+        int sinal = dividendo < 0 ? -1 : 1;
+        long restoAbsoluto = Math.abs(resto);
+        int comparacaoMetade = Long.compare(restoAbsoluto, divisor - restoAbsoluto);
+
+        boolean afastarDoZero = switch (arredondamento) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sinal > 0;
+            case FLOOR -> sinal < 0;
+            case HALF_UP -> comparacaoMetade >= 0;
+            case HALF_DOWN -> comparacaoMetade > 0;
+            case HALF_EVEN -> comparacaoMetade > 0 || (comparacaoMetade == 0 && (quociente & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Divisão não exata com arredondamento UNNECESSARY.");
+        };
+
+        return afastarDoZero ? quociente + sinal : quociente;
+    }
+
+    /**
+     * Converte um texto decimal em um inteiro escalado pela quantidade de casas informada.
+     *
+     * @param texto Texto decimal, com ponto ou vírgula como separador.
+     * @param casas Quantidade de casas decimais da escala.
+     * @return Valor escalado.
+     * @throws NumberFormatException Se o texto for inválido ou tiver mais casas decimais que a escala.
+     */
+    private static long parseDecimal(String texto, int casas) {
+        if (texto == null || texto.isBlank()) {
+            throw new NumberFormatException("Valor vazio.");
+        }
+
+        String valor = texto.strip();
+        int inicio = 0;
+        boolean negativo = false;
+
+        if (valor.charAt(0) == '-' || valor.charAt(0) == '+') {
+            negativo = valor.charAt(0) == '-';
+            inicio = 1;
+        }
+
+        long resultado = 0;
+        int casasLidas = -1;
+        boolean possuiDigito = false;
+
+        for (int i = inicio; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+
+            if (c == '.' || c == ',') {
+                if (casasLidas >= 0) {
+                    throw new NumberFormatException("Valor inválido: " + texto);
+                }
+                casasLidas = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (casasLidas >= 0 && ++casasLidas > casas) {
+                    throw new NumberFormatException("Valor com mais de " + casas + " casas decimais: " + texto);
+                }
+                resultado = Math.addExact(Math.multiplyExact(resultado, 10), c - '0');
+                possuiDigito = true;
+            } else {
+                throw new NumberFormatException("Valor inválido: " + texto);
+            }
+        }
+
+        if (!possuiDigito) {
+            throw new NumberFormatException("Valor inválido: " + texto);
+        }
+
+        for (int i = Math.max(casasLidas, 0); i < casas; i++) {
+            resultado = Math.multiplyExact(resultado, 10);
+        }
+
+        return negativo ? -resultado : resultado;
+    }
+}
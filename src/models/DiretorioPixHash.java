@@ -0,0 +1,210 @@
+package models;
+
+import models.enums.TipoChavePix;
+import models.exceptions.PixJaCadastradoException;
+import models.interfaces.DiretorioPix;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Diretório de chaves Pix baseado em tabelas hash.
+ * O cadastro e a resolução de chaves são feitos em tempo constante, e a resolução retorna
+ * diretamente a {@link ContaCorrente} associada à chave. O diretório pode ser acessado por várias threads.
+ * As chaves de cada conta são mantidas também em um índice por número de conta, reconstruído a partir
+ * das chaves na desserialização.
+ */
+
+public class DiretorioPixHash implements DiretorioPix, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, ContaCorrente> contasPorChave = new ConcurrentHashMap<>();
+    private transient Map<Integer, List<String>> chavesPorConta = new ConcurrentHashMap<>();
+
+    /**
+     * Registra uma chave Pix para a conta informada.
+     *
+     * @param tipo Tipo da chave a ser registrada.
+     * @param chave Valor da chave a ser registrada.
+     * @param conta Conta corrente associada à chave.
+     * @return A chave registrada, já normalizada.
+     * @throws PixJaCadastradoException Se a chave já estiver cadastrada no diretório.
+     * @throws IllegalArgumentException Se a chave não respeitar o formato do tipo informado.
+     */
+    @Override
+    public String registrar(TipoChavePix tipo, String chave, ContaCorrente conta) throws PixJaCadastradoException {
+        String chaveNormalizada = (tipo == TipoChavePix.ALEATORIA) ? UUID.randomUUID().toString() : normalizar(chave);
+        validarFormato(tipo, chaveNormalizada);
+
+        associar(chaveNormalizada, conta, tipo.getTipoNome() + " já cadastrado.");
+        return chaveNormalizada;
+    }
+
+    /**
+     * Registra uma chave Pix já cadastrada anteriormente, exatamente como foi gravada.
+     *
+     * @param chave Chave normalizada, como retornada pelo cadastro original.
+     * @param conta Conta corrente associada à chave.
+     * @throws PixJaCadastradoException Se a chave já estiver cadastrada no diretório.
+     */
+    @Override
+    public void restaurar(String chave, ContaCorrente conta) throws PixJaCadastradoException {
+        String chaveNormalizada = normalizar(chave);
+        associar(chaveNormalizada, conta, "Chave " + chaveNormalizada + " já cadastrada.");
+    }
+
+    /**
+     * Desfaz o registro de uma chave Pix, caso ela ainda esteja associada à conta informada.
+     *
+     * @param chave Chave normalizada, como retornada pelo cadastro.
+     * @param conta Conta corrente associada à chave.
+     */
+    @Override
+    public void remover(String chave, ContaCorrente conta) {
+        if (!contasPorChave.remove(chave, conta)) {
+            return;
+        }
+
+        chavesPorConta.computeIfPresent(conta.getNumeroConta(), (numero, chaves) -> {
+            chaves.remove(chave);
+            return chaves.isEmpty() ? null : chaves;
+        });
+    }
+
+    /**
+     * Busca a conta associada a uma chave Pix.
+     *
+     * @param chave Chave Pix a ser resolvida.
+     * @return Conta corrente associada à chave ou null se a chave não estiver cadastrada.
+     */
+    @Override
+    public ContaCorrente resolver(String chave) {
+        if (chave == null) {
+            return null;
+        }
+        return contasPorChave.get(normalizar(chave));
+    }
+
+    /**
+     * Verifica se a conta possui ao menos uma chave Pix cadastrada.
+     *
+     * @param conta Conta a ser verificada.
+     * @return Verdadeiro se a conta possuir chave cadastrada, caso contrário falso.
+     */
+    @Override
+    public boolean possuiChave(ContaCorrente conta) {
+        return chavesPorConta.containsKey(conta.getNumeroConta());
+    }
+
+    /**
+     * Retorna as chaves Pix cadastradas para a conta.
+     *
+     * @param conta Conta a ser consultada.
+     * @return Lista com as chaves normalizadas, vazia se a conta não possuir chave cadastrada.
+     */
+    @Override
+    public List<String> chavesDaConta(ContaCorrente conta) {
+        List<String> chaves = chavesPorConta.get(conta.getNumeroConta());
+        return chaves != null ? List.copyOf(chaves) : List.of();
+    }
+
+    /**
+     * Associa uma chave normalizada à conta, caso a chave ainda não esteja cadastrada.
+     *
+     * @param chaveNormalizada Chave já normalizada.
+     * @param conta Conta corrente associada à chave.
+     * @param mensagemJaCadastrada Mensagem da exceção caso a chave já esteja cadastrada.
+     * @throws PixJaCadastradoException Se a chave já estiver cadastrada no diretório.
+     */
+    private void associar(String chaveNormalizada, ContaCorrente conta, String mensagemJaCadastrada) throws PixJaCadastradoException {
+        if (contasPorChave.putIfAbsent(chaveNormalizada, conta) != null) {
+            throw new PixJaCadastradoException(mensagemJaCadastrada);
+        }
+
+        indexarChave(chaveNormalizada, conta);
+    }
+
+    /**
+     * Acrescenta a chave ao índice de chaves da conta.
+     *
+     * @param chaveNormalizada Chave já normalizada.
+     * @param conta Conta corrente associada à chave.
+     */
+    private void indexarChave(String chaveNormalizada, ContaCorrente conta) {
+        chavesPorConta.computeIfAbsent(conta.getNumeroConta(), numero -> new CopyOnWriteArrayList<>()).add(chaveNormalizada);
+    }
+
+    /**
+     * Coloca a chave em sua forma canônica, para que variações de escrita resolvam para a mesma conta.
+     * E-mails e chaves aleatórias são convertidos para minúsculas, telefones mantêm apenas o sinal
+     * de "+" inicial seguido dos dígitos, e CPFs formatados mantêm apenas os dígitos.
+     *
+     * @param chave Chave informada.
+     * @return Chave normalizada.
+     */
+    private static String normalizar(String chave) {
+        String chaveLimpa = chave.strip();
+
+        if (chaveLimpa.indexOf('@') >= 0) {
+            return chaveLimpa.toLowerCase();
+        }
+
+        if (chaveLimpa.startsWith("+")) {
+            StringBuilder telefone = new StringBuilder("+");
+            for (int i = 1; i < chaveLimpa.length(); i++) {
+                char c = chaveLimpa.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    telefone.append(c);
+                }
+            }
+            return telefone.toString();
+        }
+
+        return chaveLimpa.length() == 36 ? chaveLimpa.toLowerCase() : ValidarCPF.normalizar(chaveLimpa);
+    }
+
+    /**
+     * Verifica se a chave normalizada respeita o formato esperado para o tipo informado.
+     *
+     * @param tipo Tipo da chave.
+     * @param chave Chave normalizada.
+     * @throws IllegalArgumentException Se a chave não respeitar o formato do tipo.
+     */
+    private static void validarFormato(TipoChavePix tipo, String chave) {
+        boolean formatoValido = switch (tipo) {
+            case CPF -> ValidarCPF.cpfEhValido(chave);
+            case EMAIL -> chave.indexOf('@') > 0 && chave.indexOf('@') < chave.length() - 1;
+            case TELEFONE -> chave.startsWith("+") && chave.length() >= 11 && chave.length() <= 14;
+            case ALEATORIA -> chave.length() == 36;
+        };
+
+        if (!formatoValido) {
+            throw new IllegalArgumentException("Chave do tipo " + tipo.getTipoNome() + " inválida.");
+        }
+    }
+
+    /**
+     * Método especial para restaurar o estado do objeto após a desserialização,
+     * reconstruindo o índice de chaves por conta a partir das chaves restauradas.
+     *
+     * @param ois Objeto de entrada de fluxo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     * @throws ClassNotFoundException Caso a classe não seja encontrada durante a leitura.
+     */
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+
+        chavesPorConta = new ConcurrentHashMap<>();
+        contasPorChave.forEach(this::indexarChave);
+    }
+}
@@ -0,0 +1,169 @@
+package models;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Épocas de correção das contas poupança, utilizadas na correção sob demanda.
+ * Cada época registra uma correção aplicada a todas as contas poupança existentes: a data, a taxa, o modo de
+ * arredondamento e o identificador da execução de correção. Registrar uma época não altera nenhuma conta:
+ * cada {@link ContaPoupanca} guarda quantas épocas já aplicou e aplica as pendentes, em ordem e com a data
+ * de cada época, na próxima vez em que é consultada ou alterada. Como nenhuma operação da conta acontece
+ * entre a época e a sua aplicação, o saldo e o histórico resultantes são os mesmos da correção imediata.
+ * <p>
+ * As épocas só são acrescentadas e podem ser lidas por várias threads. As datas das épocas nunca decrescem.
+ */
+
+public final class EpocasCorrecao implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int CAPACIDADE_INICIAL = 8;
+    private static final RoundingMode[] ARREDONDAMENTOS = RoundingMode.values();
+
+    private long[] datas = new long[CAPACIDADE_INICIAL];
+    private long[] taxas = new long[CAPACIDADE_INICIAL];
+    private byte[] arredondamentos = new byte[CAPACIDADE_INICIAL];
+    private long[] idsExecucao = new long[CAPACIDADE_INICIAL];
+    private volatile int tamanho;
+
+    /**
+     * Registra uma nova época de correção.
+     * A data é ajustada para não ser anterior à da última época.
+     *
+     * @param data Data da correção, em milissegundos desde a época Unix.
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     * @param idExecucao Identificador da execução de correção, ou 0 para uma correção avulsa.
+     * @return Posição da época registrada.
+     * @throws IllegalArgumentException Se a taxa de correção for negativa.
+     */
+    public synchronized int registrar(long data, long taxa, RoundingMode arredondamento, long idExecucao) {
+        if (taxa < 0) {
+            throw new IllegalArgumentException("A taxa de correção deve ser positiva.");
+        }
+
+        int epoca = tamanho;
+        if (epoca == datas.length) {
+            crescer();
+        }
+
+        datas[epoca] = epoca > 0 ? Math.max(data, datas[epoca - 1]) : data;
+        taxas[epoca] = taxa;
+        arredondamentos[epoca] = (byte) arredondamento.ordinal();
+        idsExecucao[epoca] = idExecucao;
+        tamanho = epoca + 1;
+        return epoca;
+    }
+
+    /**
+     * Retorna a quantidade de épocas registradas. A leitura não trava as épocas.
+     *
+     * @return Quantidade de épocas.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna a data de uma época.
+     *
+     * @param epoca Posição da época.
+     * @return Data da correção, em milissegundos desde a época Unix.
+     */
+    public synchronized long getData(int epoca) {
+        verificarEpoca(epoca);
+        return datas[epoca];
+    }
+
+    /**
+     * Retorna a taxa de uma época.
+     *
+     * @param epoca Posição da época.
+     * @return Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     */
+    public synchronized long getTaxa(int epoca) {
+        verificarEpoca(epoca);
+        return taxas[epoca];
+    }
+
+    /**
+     * Retorna o modo de arredondamento de uma época.
+     *
+     * @param epoca Posição da época.
+     * @return Modo de arredondamento do rendimento.
+     */
+    public synchronized RoundingMode getArredondamento(int epoca) {
+        verificarEpoca(epoca);
+        return ARREDONDAMENTOS[arredondamentos[epoca]];
+    }
+
+    /**
+     * Retorna o identificador da execução de correção de uma época.
+     *
+     * @param epoca Posição da época.
+     * @return Identificador da execução, ou 0 para uma correção avulsa.
+     */
+    public synchronized long getIdExecucao(int epoca) {
+        verificarEpoca(epoca);
+        return idsExecucao[epoca];
+    }
+
+    /**
+     * Verifica se alguma época pertence à execução de correção informada.
+     *
+     * @param idExecucao Identificador da execução.
+     * @return Verdadeiro se a execução já registrou uma época; sempre falso para correções avulsas (0).
+     */
+    public synchronized boolean contemExecucao(long idExecucao) {
+        if (idExecucao == 0) {
+            return false;
+        }
+        for (int i = tamanho - 1; i >= 0; i--) {
+            if (idsExecucao[i] == idExecucao) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se a posição corresponde a uma época registrada.
+     *
+     * @param epoca Posição da época.
+     * @throws IndexOutOfBoundsException Se a posição estiver fora das épocas registradas.
+     */
+    private void verificarEpoca(int epoca) {
+        if (epoca < 0 || epoca >= tamanho) {
+            throw new IndexOutOfBoundsException("Época " + epoca + " fora das " + tamanho + " épocas de correção.");
+        }
+    }
+
+    /**
+     * Dobra a capacidade dos vetores das épocas.
+     */
+    private void crescer() {
+        int novaCapacidade = datas.length * 2;
+        datas = Arrays.copyOf(datas, novaCapacidade);
+        taxas = Arrays.copyOf(taxas, novaCapacidade);
+        arredondamentos = Arrays.copyOf(arredondamentos, novaCapacidade);
+        idsExecucao = Arrays.copyOf(idsExecucao, novaCapacidade);
+    }
+
+    /**
+     * Método especial para salvar o estado do objeto sem que novas épocas sejam registradas durante a gravação.
+     *
+     * @param oos Objeto de saída de fluxo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Serial
+    private synchronized void writeObject(ObjectOutputStream oos) throws IOException {
+        oos.defaultWriteObject();
+    }
+
+}
@@ -0,0 +1,112 @@
+package models;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Gerador dos números de conta, com reserva em blocos (hi/lo).
+ * O arquivo do gerador guarda apenas o limite do último bloco reservado. Os números de um bloco são
+ * entregues em memória, e o arquivo só é regravado quando o bloco se esgota. Como o limite é gravado
+ * antes de qualquer número do bloco ser entregue, uma reinicialização retoma a partir do limite salvo
+ * e nunca reemite um número, ao custo de descartar o restante do bloco em uso.
+ */
+
+public class GeradorNumeroConta {
+
+    /**
+     * Quantidade padrão de números reservados a cada gravação do arquivo.
+     */
+    public static final int TAMANHO_BLOCO_PADRAO = 1000;
+
+    private final Path arquivo;
+    private final int tamanhoBloco;
+
+    private int proximoNumero;
+    private int limiteReservado;
+
+    /**
+     * Construtor do gerador.
+     * Restaura o limite reservado a partir do arquivo; se o arquivo não existir, o gerador começa em 0.
+     *
+     * @param arquivo Arquivo onde o limite reservado é persistido.
+     * @param tamanhoBloco Quantidade de números reservados a cada gravação.
+     * @throws IllegalArgumentException Se o tamanho do bloco for menor ou igual a 0.
+     */
+    public GeradorNumeroConta(Path arquivo, int tamanhoBloco) {
+        if (tamanhoBloco <= 0) {
+            throw new IllegalArgumentException("O tamanho do bloco deve ser positivo.");
+        }
+
+        this.arquivo = arquivo;
+        this.tamanhoBloco = tamanhoBloco;
+        this.proximoNumero = restaurarLimite();
+        this.limiteReservado = proximoNumero;
+    }
+
+    /**
+     * Retorna o próximo número de conta, reservando um novo bloco caso o atual tenha se esgotado.
+     *
+     * @return Número de conta ainda não utilizado.
+     * @throws UncheckedIOException Se não for possível persistir a reserva de um novo bloco.
+     */
+    public synchronized int proximoNumero() {
+        if (proximoNumero >= limiteReservado) {
+            reservarBloco();
+        }
+        return proximoNumero++;
+    }
+
+    /**
+     * Garante que números menores ou iguais ao informado nunca serão entregues pelo gerador.
+     * Utilizado ao restaurar contas cujo número foi gerado antes da última reserva persistida.
+     *
+     * @param numeroConta Número de conta já utilizado.
+     */
+    public synchronized void registrarUtilizado(int numeroConta) {
+        if (numeroConta >= proximoNumero) {
+            proximoNumero = numeroConta + 1;
+        }
+    }
+
+    /**
+     * Reserva o próximo bloco de números, gravando o novo limite de forma atômica e durável.
+     *
+     * @throws UncheckedIOException Se não for possível persistir o novo limite.
+     */
+    private void reservarBloco() {
+        int novoLimite = Math.addExact(proximoNumero, tamanhoBloco);
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+
+        try (FileOutputStream fos = new FileOutputStream(temporario.toFile());
+             ObjectOutputStream oos = new ObjectOutputStream(fos)) {
+            oos.writeInt(novoLimite);
+            oos.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao reservar números de conta: " + e.getMessage(), e);
+        }
+
+        try {
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao reservar números de conta: " + e.getMessage(), e);
+        }
+
+        limiteReservado = novoLimite;
+    }
+
+    /**
+     * Restaura o limite reservado a partir do arquivo.
+     *
+     * @return Limite restaurado ou 0 se o arquivo não existir.
+     */
+    private int restaurarLimite() {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(arquivo.toFile()))) {
+            return ois.readInt();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
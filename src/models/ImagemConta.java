@@ -0,0 +1,291 @@
+package models;
+
+import models.enums.TipoConta;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Imagem de uma conta em um ponto no tempo, utilizada nos snapshots do serviço bancário.
+ * A captura é barata: guarda apenas o estado do saldo, a quantidade de operações do histórico e as chaves
+ * Pix da conta. Como o histórico só recebe acréscimos, os lançamentos até a quantidade capturada são copiados
+ * do livro-razão da conta no momento da gravação, mesmo que novas operações tenham sido registradas depois.
+ * Imagens lidas de um snapshot guardam o livro lido e podem ser restauradas em uma nova conta.
+ * Para contas com o livro em um {@link ArmazemLivros}, a imagem guarda apenas a quantidade de lançamentos,
+ * e o histórico é reaberto do armazém na restauração.
+ * A codificação das imagens fica a cargo do snapshot.
+ */
+
+public final class ImagemConta {
+
+    private final TipoConta tipoConta;
+    private final int numeroConta;
+    private final String correntistaNome;
+    private final String correntistaCPF;
+    private final long estadoSaldo;
+    private final long limiteConcedido;
+    private final long ultimaExecucaoCorrecao;
+    private final int epocaCorrecao;
+    private final List<String> chavesPix;
+
+    private final Conta conta;
+    private final int quantidadeOperacoes;
+    private final LivroRazao livro;
+    private final boolean historicoExterno;
+
+    private ImagemConta(TipoConta tipoConta, int numeroConta, String correntistaNome, String correntistaCPF,
+                        long estadoSaldo, long limiteConcedido, long ultimaExecucaoCorrecao, int epocaCorrecao,
+                        List<String> chavesPix, Conta conta, int quantidadeOperacoes, LivroRazao livro, boolean historicoExterno) {
+        this.tipoConta = tipoConta;
+        this.numeroConta = numeroConta;
+        this.correntistaNome = correntistaNome;
+        this.correntistaCPF = correntistaCPF;
+        this.estadoSaldo = estadoSaldo;
+        this.limiteConcedido = limiteConcedido;
+        this.ultimaExecucaoCorrecao = ultimaExecucaoCorrecao;
+        this.epocaCorrecao = epocaCorrecao;
+        this.chavesPix = chavesPix;
+        this.conta = conta;
+        this.quantidadeOperacoes = quantidadeOperacoes;
+        this.livro = livro;
+        this.historicoExterno = historicoExterno;
+    }
+
+    /**
+     * Captura a imagem atual de uma conta.
+     * Para que a imagem seja consistente, nenhuma mutação da conta pode estar em andamento durante a captura.
+     * A imagem guarda o estado da conta como está, sem aplicar correções sob demanda pendentes: contas poupança
+     * são capturadas com a conta travada, junto com a quantidade de épocas de correção já aplicadas.
+     *
+     * @param conta Conta a ser capturada.
+     * @param chavesPix Chaves Pix cadastradas para a conta no momento da captura.
+     * @return Imagem da conta.
+     */
+    public static ImagemConta capturar(Conta conta, List<String> chavesPix) {
+        if (conta instanceof ContaEspecial contaEspecial) {
+            return capturar(conta, TipoConta.ESPECIAL, contaEspecial.getLimiteConcedido(), 0, 0, chavesPix);
+        }
+        if (conta instanceof ContaPoupanca contaPoupanca) {
+            synchronized (contaPoupanca) {
+                return capturar(conta, TipoConta.POUPANCA, 0, contaPoupanca.getUltimaExecucaoCorrecao(),
+                        contaPoupanca.getEpocaCorrecao(), chavesPix);
+            }
+        }
+        return capturar(conta, TipoConta.CORRENTE, 0, 0, 0, chavesPix);
+    }
+
+    /**
+     * Cria uma imagem a partir de dados lidos de um snapshot.
+     *
+     * @param tipoConta Tipo da conta.
+     * @param numeroConta Número da conta.
+     * @param correntistaNome Nome do correntista.
+     * @param correntistaCPF CPF do correntista.
+     * @param estadoSaldo Estado do saldo, com o saldo em centavos e o marcador das subclasses.
+     * @param limiteConcedido Limite especial concedido, em centavos (0 para contas que não são especiais).
+     * @param ultimaExecucaoCorrecao Identificador da última execução de correção (0 para contas que não são poupança).
+     * @param epocaCorrecao Quantidade de épocas de correção aplicadas (0 para contas que não são poupança).
+     * @param livro Livro-razão com o histórico de operações da conta.
+     * @param chavesPix Chaves Pix da conta.
+     * @return Imagem da conta.
+     */
+    public static ImagemConta de(TipoConta tipoConta, int numeroConta, String correntistaNome, String correntistaCPF,
+                                 long estadoSaldo, long limiteConcedido, long ultimaExecucaoCorrecao, int epocaCorrecao,
+                                 LivroRazao livro, List<String> chavesPix) {
+        return new ImagemConta(tipoConta, numeroConta, correntistaNome, correntistaCPF, estadoSaldo, limiteConcedido,
+                ultimaExecucaoCorrecao, epocaCorrecao, chavesPix, null, livro.tamanho(), livro, false);
+    }
+
+    /**
+     * Cria uma imagem a partir de dados lidos de um snapshot, para uma conta cujo histórico está em um
+     * {@link ArmazemLivros}.
+     *
+     * @param tipoConta Tipo da conta.
+     * @param numeroConta Número da conta.
+     * @param correntistaNome Nome do correntista.
+     * @param correntistaCPF CPF do correntista.
+     * @param estadoSaldo Estado do saldo, com o saldo em centavos e o marcador das subclasses.
+     * @param limiteConcedido Limite especial concedido, em centavos (0 para contas que não são especiais).
+     * @param ultimaExecucaoCorrecao Identificador da última execução de correção (0 para contas que não são poupança).
+     * @param epocaCorrecao Quantidade de épocas de correção aplicadas (0 para contas que não são poupança).
+     * @param quantidadeOperacoes Quantidade de lançamentos do livro da conta no momento do snapshot.
+     * @param chavesPix Chaves Pix da conta.
+     * @return Imagem da conta.
+     */
+    public static ImagemConta deHistoricoExterno(TipoConta tipoConta, int numeroConta, String correntistaNome, String correntistaCPF,
+                                                 long estadoSaldo, long limiteConcedido, long ultimaExecucaoCorrecao,
+                                                 int epocaCorrecao, int quantidadeOperacoes, List<String> chavesPix) {
+        return new ImagemConta(tipoConta, numeroConta, correntistaNome, correntistaCPF, estadoSaldo, limiteConcedido,
+                ultimaExecucaoCorrecao, epocaCorrecao, chavesPix, null, quantidadeOperacoes, null, true);
+    }
+
+    /**
+     * Cria a imagem de uma conta com o estado atual do saldo e a quantidade atual de lançamentos do livro.
+     *
+     * @param conta Conta a ser capturada.
+     * @param tipoConta Tipo da conta.
+     * @param limiteConcedido Limite especial concedido, em centavos.
+     * @param ultimaExecucaoCorrecao Identificador da última execução de correção.
+     * @param epocaCorrecao Quantidade de épocas de correção aplicadas.
+     * @param chavesPix Chaves Pix da conta.
+     * @return Imagem da conta.
+     */
+    private static ImagemConta capturar(Conta conta, TipoConta tipoConta, long limiteConcedido, long ultimaExecucaoCorrecao,
+                                        int epocaCorrecao, List<String> chavesPix) {
+        LivroRazao livroConta = conta.getLivro();
+        return new ImagemConta(tipoConta, conta.getNumeroConta(), conta.getCorrentistaNome(), conta.getCorrentistaCPF(),
+                conta.lerEstadoSaldo(), limiteConcedido, ultimaExecucaoCorrecao, epocaCorrecao, chavesPix, conta,
+                livroConta.tamanho(), null, livroConta.isPersistente());
+    }
+
+    /**
+     * Cria uma nova conta com o estado da imagem.
+     * O número da conta é registrado no gerador para não ser reemitido.
+     *
+     * @param armazemLivros Armazém com os livros das contas de histórico externo, ou null se não houver.
+     * @return Conta restaurada.
+     * @throws IOException Se o livro da conta não puder ser reaberto do armazém.
+     */
+    public Conta restaurar(ArmazemLivros armazemLivros) throws IOException {
+        LivroRazao livroRestaurado;
+        if (!historicoExterno) {
+            livroRestaurado = getLivro();
+        } else if (armazemLivros != null) {
+            livroRestaurado = armazemLivros.abrirLivro(numeroConta, quantidadeOperacoes);
+        } else {
+            throw new IOException("O histórico da conta n° " + numeroConta + " está em um livro mapeado, mas nenhum armazém de livros foi informado.");
+        }
+
+        Conta restaurada = switch (tipoConta) {
+            case CORRENTE -> new ContaCorrente(numeroConta, correntistaNome, correntistaCPF);
+            case POUPANCA -> {
+                ContaPoupanca contaPoupanca = new ContaPoupanca(numeroConta, correntistaNome, correntistaCPF);
+                contaPoupanca.restaurarUltimaExecucaoCorrecao(ultimaExecucaoCorrecao);
+                contaPoupanca.restaurarEpocaCorrecao(epocaCorrecao);
+                yield contaPoupanca;
+            }
+            case ESPECIAL -> new ContaEspecial(numeroConta, correntistaNome, correntistaCPF, limiteConcedido);
+        };
+
+        restaurada.restaurarEstado(estadoSaldo, livroRestaurado);
+        return restaurada;
+    }
+
+    /**
+     * Retorna o tipo da conta.
+     *
+     * @return Tipo da conta.
+     */
+    public TipoConta getTipoConta() {
+        return tipoConta;
+    }
+
+    /**
+     * Retorna o número da conta.
+     *
+     * @return Número da conta.
+     */
+    public int getNumeroConta() {
+        return numeroConta;
+    }
+
+    /**
+     * Retorna o nome do correntista.
+     *
+     * @return Nome do correntista.
+     */
+    public String getCorrentistaNome() {
+        return correntistaNome;
+    }
+
+    /**
+     * Retorna o CPF do correntista.
+     *
+     * @return CPF do correntista.
+     */
+    public String getCorrentistaCPF() {
+        return correntistaCPF;
+    }
+
+    /**
+     * Retorna o estado do saldo, com o saldo em centavos e o marcador das subclasses.
+     *
+     * @return Estado do saldo.
+     */
+    public long getEstadoSaldo() {
+        return estadoSaldo;
+    }
+
+    /**
+     * Retorna o limite especial concedido.
+     *
+     * @return Limite concedido, em centavos, ou 0 para contas que não são especiais.
+     */
+    public long getLimiteConcedido() {
+        return limiteConcedido;
+    }
+
+    /**
+     * Retorna o identificador da última execução de correção aplicada à conta.
+     *
+     * @return Identificador da execução, ou 0 para contas que não são poupança ou nunca foram corrigidas por uma execução.
+     */
+    public long getUltimaExecucaoCorrecao() {
+        return ultimaExecucaoCorrecao;
+    }
+
+    /**
+     * Retorna a quantidade de épocas de correção sob demanda já aplicadas à conta.
+     *
+     * @return Quantidade de épocas aplicadas, ou 0 para contas que não são poupança.
+     */
+    public int getEpocaCorrecao() {
+        return epocaCorrecao;
+    }
+
+    /**
+     * Indica se o histórico da conta está em um {@link ArmazemLivros}, caso em que o snapshot
+     * guarda apenas a quantidade de lançamentos.
+     *
+     * @return Verdadeiro se o histórico é externo.
+     */
+    public boolean isHistoricoExterno() {
+        return historicoExterno;
+    }
+
+    /**
+     * Retorna a quantidade de lançamentos do histórico no momento da captura.
+     *
+     * @return Quantidade de operações.
+     */
+    public int getQuantidadeOperacoes() {
+        return quantidadeOperacoes;
+    }
+
+    /**
+     * Retorna o livro-razão da imagem. Para imagens capturadas, os lançamentos são copiados
+     * do livro da conta até a quantidade existente no momento da captura.
+     *
+     * @return Livro com o histórico de operações.
+     * @throws IllegalStateException Se a imagem foi lida de um snapshot com o histórico externo.
+     */
+    public LivroRazao getLivro() {
+        if (livro != null) {
+            return livro;
+        }
+        if (conta == null) {
+            throw new IllegalStateException("O histórico da conta n° " + numeroConta + " está no armazém de livros.");
+        }
+        return conta.copiarLivro(quantidadeOperacoes);
+    }
+
+    /**
+     * Retorna as chaves Pix da conta no momento da captura.
+     *
+     * @return Lista com as chaves normalizadas.
+     */
+    public List<String> getChavesPix() {
+        return chavesPix;
+    }
+
+}
@@ -0,0 +1,294 @@
+package models;
+
+import models.enums.IdentificadorTipo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Livro-razão guardado no heap.
+ * Cada lançamento ocupa uma posição em vetores paralelos de data, valor, tipo e saldo após a operação.
+ * As taxas das correções ficam em um vetor criado apenas na primeira correção, e as mensagens das correções são
+ * montadas a partir dele na leitura. As demais mensagens, presentes em poucas operações (como as de históricos
+ * restaurados), ficam em uma tabela à parte indexada pela posição do lançamento.
+ * Os vetores crescem dobrando de capacidade.
+ */
+
+public final class LivroEmMemoria extends LivroRazao {
+
+    private static final int CAPACIDADE_INICIAL = 8;
+
+    private long[] datas;
+    private long[] valores;
+    private byte[] tipos;
+    private long[] saldos;
+    private long[] taxas;
+    private Map<Integer, String> mensagens;
+    private int tamanho;
+
+    /**
+     * Construtor de um livro vazio.
+     */
+    public LivroEmMemoria() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Construtor de um livro vazio com a capacidade inicial informada.
+     *
+     * @param capacidade Quantidade de lançamentos que cabem no livro antes de ele crescer.
+     */
+    public LivroEmMemoria(int capacidade) {
+        int capacidadeInicial = Math.max(capacidade, 1);
+        datas = new long[capacidadeInicial];
+        valores = new long[capacidadeInicial];
+        tipos = new byte[capacidadeInicial];
+        saldos = new long[capacidadeInicial];
+    }
+
+    /**
+     * Acrescenta um lançamento ao livro, dobrando a capacidade dos vetores quando necessário.
+     *
+     * @param data Data da operação, em milissegundos desde a época.
+     * @param valor Valor da operação, em centavos.
+     * @param tipo Tipo da operação.
+     * @param saldoApos Saldo após a operação, em centavos.
+     * @param mensagem Mensagem associada à operação, ou null.
+     */
+    @Override
+    public synchronized void registrar(long data, long valor, IdentificadorTipo tipo, long saldoApos, String mensagem) {
+        acrescentar(data, valor, tipo, saldoApos);
+
+        if (mensagem != null) {
+            if (mensagens == null) {
+                mensagens = new HashMap<>();
+            }
+            mensagens.put(tamanho, mensagem);
+        }
+        tamanho++;
+    }
+
+    /**
+     * Acrescenta uma correção ao livro, guardando a taxa no vetor de taxas.
+     *
+     * @param data Data da correção, em milissegundos desde a época.
+     * @param rendimento Rendimento da correção, em centavos.
+     * @param saldoApos Saldo após a correção, em centavos.
+     * @param taxa Taxa aplicada, na escala {@link Dinheiro#ESCALA_TAXA}.
+     */
+    @Override
+    public synchronized void registrarCorrecao(long data, long rendimento, long saldoApos, long taxa) {
+        acrescentar(data, rendimento, IdentificadorTipo.CORRECAO_TAX, saldoApos);
+
+        if (taxas == null) {
+            taxas = new long[datas.length];
+            Arrays.fill(taxas, SEM_TAXA);
+        }
+        taxas[tamanho] = taxa;
+        tamanho++;
+    }
+
+    /**
+     * Retorna a quantidade de lançamentos do livro.
+     *
+     * @return Quantidade de lançamentos.
+     */
+    @Override
+    public synchronized int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna a data de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Data, em milissegundos desde a época.
+     */
+    @Override
+    public synchronized long getData(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return datas[posicao];
+    }
+
+    /**
+     * Retorna o valor de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Valor, em centavos.
+     */
+    @Override
+    public synchronized long getValor(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return valores[posicao];
+    }
+
+    /**
+     * Retorna o tipo de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Tipo da operação.
+     */
+    @Override
+    public synchronized IdentificadorTipo getTipo(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return TIPOS[tipos[posicao]];
+    }
+
+    /**
+     * Retorna o saldo após um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Saldo após a operação, em centavos.
+     */
+    @Override
+    public synchronized long getSaldo(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return saldos[posicao];
+    }
+
+    /**
+     * Retorna a mensagem de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Mensagem da operação, ou null se não houver.
+     */
+    @Override
+    public synchronized String getMensagem(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return lerMensagem(posicao);
+    }
+
+    /**
+     * Retorna a taxa de uma correção.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Taxa, na escala {@link Dinheiro#ESCALA_TAXA}, ou {@link #SEM_TAXA} para os demais lançamentos.
+     */
+    @Override
+    public synchronized long getTaxa(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return taxas != null ? taxas[posicao] : SEM_TAXA;
+    }
+
+    /**
+     * Redefine a data dos lançamentos a partir da posição informada.
+     *
+     * @param inicio Posição do primeiro lançamento a ser redatado.
+     * @param data Nova data, em milissegundos desde a época.
+     */
+    @Override
+    public synchronized void redatar(int inicio, long data) {
+        int primeiro = Math.max(inicio, 0);
+        long dataOrdenada = primeiro > 0 && primeiro < tamanho ? Math.max(data, datas[primeiro - 1]) : data;
+
+        for (int i = primeiro; i < tamanho; i++) {
+            datas[i] = dataOrdenada;
+        }
+    }
+
+    /**
+     * Cria as operações correspondentes a um intervalo de lançamentos, lendo os vetores diretamente.
+     *
+     * @param inicio Posição do primeiro lançamento (inclusiva).
+     * @param fim Posição final (exclusiva).
+     * @return Lista com as operações do intervalo.
+     * @throws IndexOutOfBoundsException Se o intervalo estiver fora do livro.
+     */
+    @Override
+    public synchronized List<Operacao> materializar(int inicio, int fim) {
+        verificarIntervalo(inicio, fim, tamanho);
+
+        List<Operacao> operacoes = new ArrayList<>(fim - inicio);
+        for (int i = inicio; i < fim; i++) {
+            operacoes.add(new Operacao(paraData(datas[i]), valores[i], TIPOS[tipos[i]], lerMensagem(i), saldos[i]));
+        }
+        return operacoes;
+    }
+
+    /**
+     * Cria uma cópia dos primeiros lançamentos do livro, copiando os vetores em bloco.
+     *
+     * @param quantidade Quantidade de lançamentos a partir do início.
+     * @return Novo livro com os lançamentos copiados.
+     * @throws IndexOutOfBoundsException Se a quantidade for maior que o tamanho do livro.
+     */
+    @Override
+    public synchronized LivroRazao copiar(int quantidade) {
+        verificarIntervalo(0, quantidade, tamanho);
+
+        LivroEmMemoria copia = new LivroEmMemoria(quantidade);
+        System.arraycopy(datas, 0, copia.datas, 0, quantidade);
+        System.arraycopy(valores, 0, copia.valores, 0, quantidade);
+        System.arraycopy(tipos, 0, copia.tipos, 0, quantidade);
+        System.arraycopy(saldos, 0, copia.saldos, 0, quantidade);
+        if (taxas != null) {
+            copia.taxas = Arrays.copyOf(taxas, copia.datas.length);
+            Arrays.fill(copia.taxas, quantidade, copia.taxas.length, SEM_TAXA);
+        }
+
+        if (mensagens != null) {
+            for (Map.Entry<Integer, String> mensagem : mensagens.entrySet()) {
+                if (mensagem.getKey() < quantidade) {
+                    if (copia.mensagens == null) {
+                        copia.mensagens = new HashMap<>();
+                    }
+                    copia.mensagens.put(mensagem.getKey(), mensagem.getValue());
+                }
+            }
+        }
+        copia.tamanho = quantidade;
+        return copia;
+    }
+
+    /**
+     * Preenche as colunas de data, valor, tipo e saldo na próxima posição do livro, sem incrementar o tamanho.
+     *
+     * @param data Data da operação, em milissegundos desde a época.
+     * @param valor Valor da operação, em centavos.
+     * @param tipo Tipo da operação.
+     * @param saldoApos Saldo após a operação, em centavos.
+     */
+    private void acrescentar(long data, long valor, IdentificadorTipo tipo, long saldoApos) {
+        if (tamanho == datas.length) {
+            crescer();
+        }
+
+        datas[tamanho] = tamanho > 0 ? Math.max(data, datas[tamanho - 1]) : data;
+        valores[tamanho] = valor;
+        tipos[tamanho] = (byte) tipo.ordinal();
+        saldos[tamanho] = saldoApos;
+    }
+
+    /**
+     * Lê a mensagem de um lançamento, montando a das correções a partir da taxa.
+     *
+     * @param posicao Posição do lançamento, já verificada.
+     * @return Mensagem da operação, ou null se não houver.
+     */
+    private String lerMensagem(int posicao) {
+        if (taxas != null && taxas[posicao] != SEM_TAXA) {
+            return mensagemCorrecao(taxas[posicao]);
+        }
+        return mensagens != null ? mensagens.get(posicao) : null;
+    }
+
+    /**
+     * Dobra a capacidade dos vetores do livro.
+     */
+    private void crescer() {
+        int capacidadeAnterior = datas.length;
+        int novaCapacidade = capacidadeAnterior * 2;
+        datas = Arrays.copyOf(datas, novaCapacidade);
+        valores = Arrays.copyOf(valores, novaCapacidade);
+        tipos = Arrays.copyOf(tipos, novaCapacidade);
+        saldos = Arrays.copyOf(saldos, novaCapacidade);
+        if (taxas != null) {
+            taxas = Arrays.copyOf(taxas, novaCapacidade);
+            Arrays.fill(taxas, capacidadeAnterior, novaCapacidade, SEM_TAXA);
+        }
+    }
+
+}
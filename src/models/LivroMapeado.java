@@ -0,0 +1,367 @@
+package models;
+
+import models.enums.IdentificadorTipo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Livro-razão guardado fora do heap, em registros de tamanho fixo mapeados em memória.
+ * Os registros ficam em segmentos de tamanho fixo do arquivo de dados de um {@link ArmazemLivros},
+ * acrescentados conforme o livro cresce, de modo que os lançamentos recentes ficam no cache de páginas do
+ * sistema operacional e o histórico não ocupa o heap.
+ * As consultas leem os lançamentos diretamente do mapeamento, sem cópias intermediárias.
+ * <p>
+ * Registro ({@value #TAMANHO_REGISTRO} bytes): data (long), valor (long), saldo após a operação (long),
+ * tipo (byte), tamanho da mensagem em bytes (byte, -1 sem mensagem, -2 para correções) e mensagem em UTF-8, ou,
+ * nas correções, a taxa aplicada (long), a partir da qual a mensagem é montada na leitura. Mensagens com mais
+ * de {@value #TAMANHO_MAXIMO_MENSAGEM} bytes são truncadas.
+ * <p>
+ * O armazém não guarda a quantidade de lançamentos: ela é informada na abertura (pelo snapshot), e lançamentos
+ * posteriores a ela nos segmentos do livro são sobrescritos. Os lançamentos só chegam ao disco com {@link #descarregar()};
+ * até lá, o journal garante a sua recuperação.
+ */
+
+final class LivroMapeado extends LivroRazao {
+
+    static final int TAMANHO_REGISTRO = 64;
+    static final int TAMANHO_MAXIMO_MENSAGEM = 38;
+
+    private static final int POSICAO_DATA = 0;
+    private static final int POSICAO_VALOR = 8;
+    private static final int POSICAO_SALDO = 16;
+    private static final int POSICAO_TIPO = 24;
+    private static final int POSICAO_TAMANHO_MENSAGEM = 25;
+    private static final int POSICAO_MENSAGEM = 26;
+    private static final byte SEM_MENSAGEM = -1;
+    private static final byte MENSAGEM_TAXA = -2;
+
+    private final ArmazemLivros armazem;
+    private final int numeroConta;
+    private final int registrosPorSegmento;
+    private final List<MappedByteBuffer> segmentos = new ArrayList<>();
+    private int tamanho;
+    private int primeiroSegmentoAlterado = Integer.MAX_VALUE;
+
+    /**
+     * Abre o livro de uma conta, considerando apenas os primeiros lançamentos gravados nos seus segmentos.
+     *
+     * @param armazem Armazém que fornece os segmentos do livro.
+     * @param numeroConta Número da conta.
+     * @param registrosPorSegmento Quantidade de lançamentos em cada segmento.
+     * @param tamanho Quantidade de lançamentos válidos no livro.
+     * @throws IOException Em caso de erro de entrada/saída ou se o livro tiver menos lançamentos que o informado.
+     */
+    LivroMapeado(ArmazemLivros armazem, int numeroConta, int registrosPorSegmento, int tamanho) throws IOException {
+        this.armazem = armazem;
+        this.numeroConta = numeroConta;
+        this.registrosPorSegmento = registrosPorSegmento;
+
+        if ((long) armazem.getQuantidadeSegmentos(numeroConta) * registrosPorSegmento < tamanho) {
+            throw new IOException("O livro-razão da conta n° " + numeroConta + " não possui os " + tamanho + " lançamentos esperados.");
+        }
+
+        while ((long) segmentos.size() * registrosPorSegmento < tamanho) {
+            mapearSegmento();
+        }
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * Acrescenta um lançamento ao livro, mapeando um novo segmento do arquivo quando o atual está cheio.
+     *
+     * @param data Data da operação, em milissegundos desde a época.
+     * @param valor Valor da operação, em centavos.
+     * @param tipo Tipo da operação.
+     * @param saldoApos Saldo após a operação, em centavos.
+     * @param mensagem Mensagem associada à operação, ou null.
+     * @throws UncheckedIOException Se não for possível mapear um novo segmento.
+     */
+    @Override
+    public synchronized void registrar(long data, long valor, IdentificadorTipo tipo, long saldoApos, String mensagem) {
+        int inicio = acrescentar(data, valor, tipo, saldoApos);
+        gravarMensagem(segmento(tamanho), inicio, mensagem);
+
+        marcarAlterado(tamanho);
+        tamanho++;
+    }
+
+    /**
+     * Acrescenta uma correção ao livro, gravando a taxa no lugar da mensagem.
+     *
+     * @param data Data da correção, em milissegundos desde a época.
+     * @param rendimento Rendimento da correção, em centavos.
+     * @param saldoApos Saldo após a correção, em centavos.
+     * @param taxa Taxa aplicada, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @throws UncheckedIOException Se não for possível mapear um novo segmento.
+     */
+    @Override
+    public synchronized void registrarCorrecao(long data, long rendimento, long saldoApos, long taxa) {
+        int inicio = acrescentar(data, rendimento, IdentificadorTipo.CORRECAO_TAX, saldoApos);
+        MappedByteBuffer segmento = segmento(tamanho);
+        segmento.put(inicio + POSICAO_TAMANHO_MENSAGEM, MENSAGEM_TAXA);
+        segmento.putLong(inicio + POSICAO_MENSAGEM, taxa);
+
+        marcarAlterado(tamanho);
+        tamanho++;
+    }
+
+    /**
+     * Retorna a quantidade de lançamentos do livro.
+     *
+     * @return Quantidade de lançamentos.
+     */
+    @Override
+    public synchronized int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna a data de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Data, em milissegundos desde a época.
+     */
+    @Override
+    public synchronized long getData(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return lerData(posicao);
+    }
+
+    /**
+     * Retorna o valor de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Valor, em centavos.
+     */
+    @Override
+    public synchronized long getValor(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return segmento(posicao).getLong(inicioRegistro(posicao) + POSICAO_VALOR);
+    }
+
+    /**
+     * Retorna o tipo de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Tipo da operação.
+     */
+    @Override
+    public synchronized IdentificadorTipo getTipo(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return TIPOS[segmento(posicao).get(inicioRegistro(posicao) + POSICAO_TIPO)];
+    }
+
+    /**
+     * Retorna o saldo após um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Saldo após a operação, em centavos.
+     */
+    @Override
+    public synchronized long getSaldo(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        return segmento(posicao).getLong(inicioRegistro(posicao) + POSICAO_SALDO);
+    }
+
+    /**
+     * Retorna a mensagem de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Mensagem da operação, ou null se não houver.
+     */
+    @Override
+    public synchronized String getMensagem(int posicao) {
+        verificarPosicao(posicao, tamanho);
+
+        MappedByteBuffer segmento = segmento(posicao);
+        int inicio = inicioRegistro(posicao);
+        int tamanhoMensagem = segmento.get(inicio + POSICAO_TAMANHO_MENSAGEM);
+        if (tamanhoMensagem == SEM_MENSAGEM) {
+            return null;
+        }
+        if (tamanhoMensagem == MENSAGEM_TAXA) {
+            return mensagemCorrecao(segmento.getLong(inicio + POSICAO_MENSAGEM));
+        }
+
+        byte[] bytes = new byte[tamanhoMensagem];
+        segmento.get(inicio + POSICAO_MENSAGEM, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retorna a taxa de uma correção.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Taxa, na escala {@link Dinheiro#ESCALA_TAXA}, ou {@link #SEM_TAXA} para os demais lançamentos.
+     */
+    @Override
+    public synchronized long getTaxa(int posicao) {
+        verificarPosicao(posicao, tamanho);
+
+        MappedByteBuffer segmento = segmento(posicao);
+        int inicio = inicioRegistro(posicao);
+        return segmento.get(inicio + POSICAO_TAMANHO_MENSAGEM) == MENSAGEM_TAXA ? segmento.getLong(inicio + POSICAO_MENSAGEM) : SEM_TAXA;
+    }
+
+    /**
+     * Redefine a data dos lançamentos a partir da posição informada.
+     *
+     * @param inicio Posição do primeiro lançamento a ser redatado.
+     * @param data Nova data, em milissegundos desde a época.
+     */
+    @Override
+    public synchronized void redatar(int inicio, long data) {
+        int primeiro = Math.max(inicio, 0);
+        long dataOrdenada = primeiro > 0 && primeiro < tamanho ? Math.max(data, lerData(primeiro - 1)) : data;
+
+        for (int i = primeiro; i < tamanho; i++) {
+            segmento(i).putLong(inicioRegistro(i) + POSICAO_DATA, dataOrdenada);
+            marcarAlterado(i);
+        }
+    }
+
+    /**
+     * Indica que os lançamentos do livro são mantidos em arquivo.
+     *
+     * @return Sempre verdadeiro.
+     */
+    @Override
+    public boolean isPersistente() {
+        return true;
+    }
+
+    /**
+     * Sincroniza com o disco os segmentos alterados desde a última sincronização.
+     * A sincronização acontece fora do monitor do livro, sem bloquear novos lançamentos.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Override
+    public void descarregar() throws IOException {
+        List<MappedByteBuffer> alterados;
+
+        synchronized (this) {
+            if (primeiroSegmentoAlterado >= segmentos.size()) {
+                return;
+            }
+            alterados = new ArrayList<>(segmentos.subList(primeiroSegmentoAlterado, segmentos.size()));
+            primeiroSegmentoAlterado = Integer.MAX_VALUE;
+        }
+
+        try {
+            for (MappedByteBuffer segmento : alterados) {
+                segmento.force();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Obtém do armazém o próximo segmento do livro.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private void mapearSegmento() throws IOException {
+        segmentos.add(armazem.obterSegmento(numeroConta, segmentos.size()));
+    }
+
+    /**
+     * Grava a data, o valor, o saldo e o tipo na próxima posição do livro, mapeando um novo segmento do arquivo
+     * quando o atual está cheio, sem incrementar o tamanho.
+     *
+     * @param data Data da operação, em milissegundos desde a época.
+     * @param valor Valor da operação, em centavos.
+     * @param tipo Tipo da operação.
+     * @param saldoApos Saldo após a operação, em centavos.
+     * @return Posição do registro no seu segmento.
+     * @throws UncheckedIOException Se não for possível mapear um novo segmento.
+     */
+    private int acrescentar(long data, long valor, IdentificadorTipo tipo, long saldoApos) {
+        if (tamanho == segmentos.size() * registrosPorSegmento) {
+            try {
+                mapearSegmento();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao ampliar o livro-razão da conta n° " + numeroConta + ": " + e.getMessage(), e);
+            }
+        }
+
+        long dataOrdenada = tamanho > 0 ? Math.max(data, lerData(tamanho - 1)) : data;
+
+        MappedByteBuffer segmento = segmento(tamanho);
+        int inicio = inicioRegistro(tamanho);
+        segmento.putLong(inicio + POSICAO_DATA, dataOrdenada);
+        segmento.putLong(inicio + POSICAO_VALOR, valor);
+        segmento.putLong(inicio + POSICAO_SALDO, saldoApos);
+        segmento.put(inicio + POSICAO_TIPO, (byte) tipo.ordinal());
+        return inicio;
+    }
+
+    /**
+     * Grava a mensagem de um lançamento, truncada no limite do registro sem dividir caracteres.
+     *
+     * @param segmento Segmento do lançamento.
+     * @param inicio Posição do lançamento no segmento.
+     * @param mensagem Mensagem, ou null.
+     */
+    private static void gravarMensagem(MappedByteBuffer segmento, int inicio, String mensagem) {
+        if (mensagem == null) {
+            segmento.put(inicio + POSICAO_TAMANHO_MENSAGEM, SEM_MENSAGEM);
+            return;
+        }
+
+        byte[] bytes = mensagem.getBytes(StandardCharsets.UTF_8);
+        int tamanhoMensagem = Math.min(bytes.length, TAMANHO_MAXIMO_MENSAGEM);
+        while (tamanhoMensagem < bytes.length && (bytes[tamanhoMensagem] & 0xC0) == 0x80) {
+            tamanhoMensagem--;
+        }
+
+        segmento.put(inicio + POSICAO_TAMANHO_MENSAGEM, (byte) tamanhoMensagem);
+        segmento.put(inicio + POSICAO_MENSAGEM, bytes, 0, tamanhoMensagem);
+    }
+
+    /**
+     * Lê a data de um lançamento, sem verificar a posição.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Data, em milissegundos desde a época.
+     */
+    private long lerData(int posicao) {
+        return segmento(posicao).getLong(inicioRegistro(posicao) + POSICAO_DATA);
+    }
+
+    /**
+     * Registra que o segmento de um lançamento foi alterado desde a última sincronização.
+     *
+     * @param posicao Posição do lançamento alterado.
+     */
+    private void marcarAlterado(int posicao) {
+        primeiroSegmentoAlterado = Math.min(primeiroSegmentoAlterado, posicao / registrosPorSegmento);
+    }
+
+    /**
+     * Retorna o segmento que contém um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Segmento mapeado.
+     */
+    private MappedByteBuffer segmento(int posicao) {
+        return segmentos.get(posicao / registrosPorSegmento);
+    }
+
+    /**
+     * Retorna a posição de um lançamento dentro do seu segmento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Posição do primeiro byte do registro no segmento.
+     */
+    private int inicioRegistro(int posicao) {
+        return (posicao % registrosPorSegmento) * TAMANHO_REGISTRO;
+    }
+
+}
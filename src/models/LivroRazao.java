@@ -0,0 +1,322 @@
+package models;
+
+import models.enums.IdentificadorTipo;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Livro-razão de uma conta: o histórico de operações guardado em colunas de tipos primitivos.
+ * Cada lançamento guarda a data (milissegundos desde a época), o valor, o tipo (posição em
+ * {@link IdentificadorTipo}), o saldo após a operação, em centavos, e a mensagem opcional. As correções
+ * guardam apenas a taxa aplicada, e a mensagem correspondente é montada quando o lançamento é lido.
+ * <p>
+ * Objetos {@link Operacao} são criados apenas quando o histórico é consultado. O livro pode ser acessado
+ * por várias threads; os lançamentos só são acrescentados. As datas dos lançamentos nunca decrescem: um
+ * lançamento com data anterior à do último (relógios de threads diferentes) recebe a data do último. Assim,
+ * a posição de uma data no livro pode ser encontrada por busca binária. O histórico pode ficar em memória
+ * ({@link LivroEmMemoria}) ou em arquivos mapeados em memória, fora do heap (ver {@link ArmazemLivros}).
+ */
+
+public abstract class LivroRazao {
+
+    /**
+     * Taxa dos lançamentos que não são correções registradas com {@link #registrarCorrecao}.
+     */
+    public static final long SEM_TAXA = -1;
+
+    static final IdentificadorTipo[] TIPOS = IdentificadorTipo.values();
+
+    LivroRazao() {
+    }
+
+    /**
+     * Cria um livro em memória com as operações informadas, na mesma ordem.
+     *
+     * @param operacoes Operações do histórico.
+     * @return Livro com um lançamento por operação.
+     */
+    public static LivroRazao de(List<Operacao> operacoes) {
+        LivroRazao livro = new LivroEmMemoria(operacoes.size());
+        for (Operacao operacao : operacoes) {
+            livro.registrar(paraMillis(operacao.getData()), operacao.getValor(), operacao.getIdentificadorTipo(),
+                    operacao.getSaldoAtual(), operacao.getMsg());
+        }
+        return livro;
+    }
+
+    /**
+     * Acrescenta ao livro um lançamento de outro livro, mantendo a taxa das correções.
+     *
+     * @param origem Livro com o lançamento.
+     * @param posicao Posição do lançamento no livro de origem.
+     * @param destino Livro que recebe o lançamento.
+     */
+    static void copiarLancamento(LivroRazao origem, int posicao, LivroRazao destino) {
+        long taxa = origem.getTaxa(posicao);
+        if (taxa != SEM_TAXA) {
+            destino.registrarCorrecao(origem.getData(posicao), origem.getValor(posicao), origem.getSaldo(posicao), taxa);
+        } else {
+            destino.registrar(origem.getData(posicao), origem.getValor(posicao), origem.getTipo(posicao),
+                    origem.getSaldo(posicao), origem.getMensagem(posicao));
+        }
+    }
+
+    /**
+     * Acrescenta um lançamento ao livro. A data é ajustada para não ser anterior à do último lançamento.
+     *
+     * @param data Data da operação, em milissegundos desde a época.
+     * @param valor Valor da operação, em centavos.
+     * @param tipo Tipo da operação.
+     * @param saldoApos Saldo após a operação, em centavos.
+     * @param mensagem Mensagem associada à operação, ou null.
+     */
+    public abstract void registrar(long data, long valor, IdentificadorTipo tipo, long saldoApos, String mensagem);
+
+    /**
+     * Acrescenta ao livro uma correção do tipo {@link IdentificadorTipo#CORRECAO_TAX}, guardando apenas a taxa.
+     * A data é ajustada para não ser anterior à do último lançamento.
+     *
+     * @param data Data da correção, em milissegundos desde a época.
+     * @param rendimento Rendimento da correção, em centavos.
+     * @param saldoApos Saldo após a correção, em centavos.
+     * @param taxa Taxa aplicada, na escala {@link Dinheiro#ESCALA_TAXA}.
+     */
+    public abstract void registrarCorrecao(long data, long rendimento, long saldoApos, long taxa);
+
+    /**
+     * Retorna a quantidade de lançamentos do livro.
+     *
+     * @return Quantidade de lançamentos.
+     */
+    public abstract int tamanho();
+
+    /**
+     * Retorna a data de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Data, em milissegundos desde a época.
+     */
+    public abstract long getData(int posicao);
+
+    /**
+     * Retorna o valor de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Valor, em centavos.
+     */
+    public abstract long getValor(int posicao);
+
+    /**
+     * Retorna o tipo de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Tipo da operação.
+     */
+    public abstract IdentificadorTipo getTipo(int posicao);
+
+    /**
+     * Retorna o saldo após um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Saldo após a operação, em centavos.
+     */
+    public abstract long getSaldo(int posicao);
+
+    /**
+     * Retorna a mensagem de um lançamento.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Mensagem da operação, ou null se não houver.
+     */
+    public abstract String getMensagem(int posicao);
+
+    /**
+     * Retorna a taxa de uma correção registrada com {@link #registrarCorrecao}.
+     *
+     * @param posicao Posição do lançamento.
+     * @return Taxa, na escala {@link Dinheiro#ESCALA_TAXA}, ou {@link #SEM_TAXA} para os demais lançamentos.
+     */
+    public abstract long getTaxa(int posicao);
+
+    /**
+     * Redefine a data dos lançamentos a partir da posição informada.
+     * Utilizado para manter a data original de operações reproduzidas a partir do journal. A data é ajustada
+     * para não ser anterior à do lançamento que antecede a posição.
+     *
+     * @param inicio Posição do primeiro lançamento a ser redatado.
+     * @param data Nova data, em milissegundos desde a época.
+     */
+    public abstract void redatar(int inicio, long data);
+
+    /**
+     * Cria as operações correspondentes a um intervalo de lançamentos.
+     *
+     * @param inicio Posição do primeiro lançamento (inclusiva).
+     * @param fim Posição final (exclusiva).
+     * @return Lista com as operações do intervalo.
+     * @throws IndexOutOfBoundsException Se o intervalo estiver fora do livro.
+     */
+    public synchronized List<Operacao> materializar(int inicio, int fim) {
+        verificarIntervalo(inicio, fim, tamanho());
+
+        List<Operacao> operacoes = new ArrayList<>(fim - inicio);
+        for (int i = inicio; i < fim; i++) {
+            operacoes.add(new Operacao(paraData(getData(i)), getValor(i), getTipo(i), getMensagem(i), getSaldo(i)));
+        }
+        return operacoes;
+    }
+
+    /**
+     * Busca, por busca binária, a posição do primeiro lançamento com data igual ou posterior à informada.
+     *
+     * @param data Data procurada, em milissegundos desde a época.
+     * @return Posição do primeiro lançamento a partir da data, ou o tamanho do livro se não houver.
+     */
+    public synchronized int buscarData(long data) {
+        int inicio = 0;
+        int fim = tamanho();
+
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (getData(meio) < data) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    /**
+     * Consulta uma página de lançamentos, criando as operações apenas para os lançamentos da página.
+     * O início do período é localizado por busca binária, e a leitura termina ao completar a página ou ao
+     * passar do fim do período, de modo que o custo da página não depende do tamanho do histórico.
+     *
+     * @param consulta Parâmetros da consulta.
+     * @param posicaoInicial Posição a partir da qual a consulta continua.
+     * @param numeroConta Número da conta, codificado no cursor da próxima página.
+     * @return Página do extrato.
+     */
+    synchronized PaginaExtrato consultar(ConsultaExtrato consulta, int posicaoInicial, int numeroConta) {
+        int tamanho = tamanho();
+        int posicao = Math.min(posicaoInicial, tamanho);
+        if (consulta.getDataInicial() != null) {
+            posicao = Math.max(posicao, buscarData(paraMillis(consulta.getDataInicial())));
+        }
+        long dataFinal = consulta.getDataFinal() != null ? paraMillis(consulta.getDataFinal()) : Long.MAX_VALUE;
+
+        List<Operacao> operacoes = new ArrayList<>(Math.min(consulta.getTamanhoPagina(), tamanho - posicao));
+        while (posicao < tamanho && operacoes.size() < consulta.getTamanhoPagina()) {
+            long data = getData(posicao);
+            if (data >= dataFinal) {
+                break;
+            }
+
+            IdentificadorTipo tipo = getTipo(posicao);
+            if (consulta.aceita(tipo)) {
+                operacoes.add(new Operacao(paraData(data), getValor(posicao), tipo, getMensagem(posicao), getSaldo(posicao)));
+            }
+            posicao++;
+        }
+
+        boolean haMais = posicao < tamanho && getData(posicao) < dataFinal;
+        return new PaginaExtrato(operacoes, haMais ? PaginaExtrato.codificarCursor(numeroConta, posicao) : null);
+    }
+
+    /**
+     * Cria uma cópia em memória dos primeiros lançamentos do livro.
+     *
+     * @param quantidade Quantidade de lançamentos a partir do início.
+     * @return Novo livro com os lançamentos copiados.
+     * @throws IndexOutOfBoundsException Se a quantidade for maior que o tamanho do livro.
+     */
+    public synchronized LivroRazao copiar(int quantidade) {
+        verificarIntervalo(0, quantidade, tamanho());
+
+        LivroRazao copia = new LivroEmMemoria(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            copiarLancamento(this, i, copia);
+        }
+        return copia;
+    }
+
+    /**
+     * Indica se os lançamentos do livro são mantidos em arquivo e sobrevivem ao reinício da aplicação.
+     *
+     * @return Verdadeiro para livros persistentes.
+     */
+    public boolean isPersistente() {
+        return false;
+    }
+
+    /**
+     * Sincroniza com o disco os lançamentos gravados, em livros persistentes.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void descarregar() throws IOException {
+    }
+
+    /**
+     * Monta a mensagem de uma correção a partir da sua taxa.
+     *
+     * @param taxa Taxa aplicada, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @return Mensagem da correção.
+     */
+    static String mensagemCorrecao(long taxa) {
+        return "Taxa " + Dinheiro.formatarTaxa(taxa) + "%";
+    }
+
+    /**
+     * Converte uma data local em milissegundos desde a época, no fuso horário do sistema.
+     *
+     * @param data Data local.
+     * @return Milissegundos desde a época.
+     */
+    public static long paraMillis(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Converte milissegundos desde a época em uma data local, no fuso horário do sistema.
+     *
+     * @param millis Milissegundos desde a época.
+     * @return Data local.
+     */
+    public static LocalDateTime paraData(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Verifica se a posição corresponde a um lançamento do livro.
+     *
+     * @param posicao Posição do lançamento.
+     * @param tamanho Quantidade de lançamentos do livro.
+     * @throws IndexOutOfBoundsException Se a posição estiver fora do livro.
+     */
+    static void verificarPosicao(int posicao, int tamanho) {
+        if (posicao < 0 || posicao >= tamanho) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + " fora do livro com " + tamanho + " lançamentos.");
+        }
+    }
+
+    /**
+     * Verifica se o intervalo está contido no livro.
+     *
+     * @param inicio Posição inicial (inclusiva).
+     * @param fim Posição final (exclusiva).
+     * @param tamanho Quantidade de lançamentos do livro.
+     * @throws IndexOutOfBoundsException Se o intervalo estiver fora do livro.
+     */
+    static void verificarIntervalo(int inicio, int fim, int tamanho) {
+        if (inicio < 0 || fim > tamanho || inicio > fim) {
+            throw new IndexOutOfBoundsException("Intervalo [" + inicio + ", " + fim + ") fora do livro com " + tamanho + " lançamentos.");
+        }
+    }
+
+}
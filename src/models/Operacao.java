@@ -11,6 +11,7 @@ import java.time.format.DateTimeFormatter;
  * Classe responsável por guardar os dados de uma operação bancária,
  * incluindo informações como data, valor, tipo da operação, mensagem
  * associada e o saldo atual após a operação.
+ * Valores monetários são guardados em centavos (ver {@link Dinheiro}).
  */
 
 public class Operacao implements Serializable {
@@ -18,36 +19,36 @@ public class Operacao implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
-    private transient DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-    private final LocalDateTime data;
-    private final double valor;
-    private final IdentificadorTipo identificadorTipo;
+    private LocalDateTime data;
+    private long valorCentavos;
+    private IdentificadorTipo identificadorTipo;
     private String msg;
 
-    private double saldoAtual;
+    private long saldoAtualCentavos;
 
     /**
      * Construtor da operação, inicializando com data, valor e tipo.
      *
      * @param data Data da operação.
-     * @param valor Valor da operação.
+     * @param valor Valor da operação, em centavos.
      * @param identificadorTipo Tipo da operação (ex: depósito, saque).
      */
-    public Operacao(LocalDateTime data, double valor, IdentificadorTipo identificadorTipo) {
+    public Operacao(LocalDateTime data, long valor, IdentificadorTipo identificadorTipo) {
         this.data = data;
-        this.valor = valor;
+        this.valorCentavos = valor;
         this.identificadorTipo = identificadorTipo;
     }
 
     /**
      * Construtor da operação, inicializando com valor e tipo. A data é preenchida com o momento atual.
      *
-     * @param valor Valor da operação.
+     * @param valor Valor da operação, em centavos.
      * @param identificadorTipo Tipo da operação (ex: depósito, saque).
      */
-    public Operacao(double valor, IdentificadorTipo identificadorTipo) {
-        this.valor = valor;
+    public Operacao(long valor, IdentificadorTipo identificadorTipo) {
+        this.valorCentavos = valor;
         this.identificadorTipo = identificadorTipo;
         this.data = LocalDateTime.now();
     }
@@ -56,17 +57,34 @@ public class Operacao implements Serializable {
      * Construtor da operação, inicializando com valor, tipo e uma mensagem associada.
      * A data é preenchida com o momento atual.
      *
-     * @param valor Valor da operação.
+     * @param valor Valor da operação, em centavos.
      * @param identificadorTipo Tipo da operação (ex: depósito, saque).
      * @param msg Mensagem associada à operação.
      */
-    public Operacao(double valor, IdentificadorTipo identificadorTipo, String msg) {
-        this.valor = valor;
+    public Operacao(long valor, IdentificadorTipo identificadorTipo, String msg) {
+        this.valorCentavos = valor;
         this.identificadorTipo = identificadorTipo;
         this.data = LocalDateTime.now();
         this.msg = msg;
     }
 
+    /**
+     * Construtor da operação com todos os seus dados, utilizado na restauração de operações gravadas.
+     *
+     * @param data Data da operação.
+     * @param valor Valor da operação, em centavos.
+     * @param identificadorTipo Tipo da operação (ex: depósito, saque).
+     * @param msg Mensagem associada à operação, ou null.
+     * @param saldoAtual Saldo após a operação, em centavos.
+     */
+    public Operacao(LocalDateTime data, long valor, IdentificadorTipo identificadorTipo, String msg, long saldoAtual) {
+        this.data = data;
+        this.valorCentavos = valor;
+        this.identificadorTipo = identificadorTipo;
+        this.msg = msg;
+        this.saldoAtualCentavos = saldoAtual;
+    }
+
     /**
      * Retorna a data da operação.
      *
@@ -76,13 +94,23 @@ public class Operacao implements Serializable {
         return data;
     }
 
+    /**
+     * Define a data da operação.
+     * Utilizado para manter a data original de operações reproduzidas a partir do journal.
+     *
+     * @param data Data da operação.
+     */
+    public void setData(LocalDateTime data) {
+        this.data = data;
+    }
+
     /**
      * Retorna o valor da operação.
      *
-     * @return Valor da operação.
+     * @return Valor da operação, em centavos.
      */
-    public double getValor() {
-        return valor;
+    public long getValor() {
+        return valorCentavos;
     }
 
     /**
@@ -94,22 +122,31 @@ public class Operacao implements Serializable {
         return identificadorTipo;
     }
 
+    /**
+     * Retorna a mensagem associada à operação.
+     *
+     * @return Mensagem da operação, ou null se não houver.
+     */
+    public String getMsg() {
+        return msg;
+    }
+
     /**
      * Retorna o saldo atual após a operação.
      *
-     * @return Saldo atual.
+     * @return Saldo atual, em centavos.
      */
-    public double getSaldoAtual() {
-        return saldoAtual;
+    public long getSaldoAtual() {
+        return saldoAtualCentavos;
     }
 
     /**
      * Define o saldo atual após a operação.
      *
-     * @param saldoAtual Saldo atual.
+     * @param saldoAtual Saldo atual, em centavos.
      */
-    public void setSaldoAtual(double saldoAtual) {
-        this.saldoAtual = saldoAtual;
+    public void setSaldoAtual(long saldoAtual) {
+        this.saldoAtualCentavos = saldoAtual;
     }
 
     /**
@@ -120,16 +157,16 @@ public class Operacao implements Serializable {
      */
     @Override
     public String toString() {
-        return formatter.format(data) + " - " +
+        return FORMATTER.format(data) + " - " +
                 identificadorTipo.getTipoNome() + " - " +
-                String.format("%.2f", valor) + "\n" +
+                Dinheiro.formatar(valorCentavos) + "\n" +
                 (msg != null ? "Mensagem: " + msg + "\n" : "") +
-                "Saldo: " + String.format("%.2f", saldoAtual);
+                "Saldo: " + Dinheiro.formatar(saldoAtualCentavos);
     }
 
     /**
-     * Método especial para restaurar o estado do objeto após a desserialização,
-     * reconfigurando o formatter.
+     * Método especial para restaurar o estado do objeto após a desserialização.
+     * Operações salvas com valores em ponto flutuante são convertidas para centavos.
      *
      * @param ois Objeto de entrada de fluxo.
      * @throws java.io.IOException Em caso de erro de entrada/saída.
@@ -137,7 +174,17 @@ public class Operacao implements Serializable {
      */
     @Serial
     private void readObject(java.io.ObjectInputStream ois) throws java.io.IOException, ClassNotFoundException {
-        ois.defaultReadObject();
-        formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        java.io.ObjectInputStream.GetField campos = ois.readFields();
+        data = (LocalDateTime) campos.get("data", null);
+        identificadorTipo = (IdentificadorTipo) campos.get("identificadorTipo", null);
+        msg = (String) campos.get("msg", null);
+
+        if (campos.getObjectStreamClass().getField("valorCentavos") != null) {
+            valorCentavos = campos.get("valorCentavos", 0L);
+            saldoAtualCentavos = campos.get("saldoAtualCentavos", 0L);
+        } else {
+            valorCentavos = Dinheiro.deReais(campos.get("valor", 0.0));
+            saldoAtualCentavos = Dinheiro.deReais(campos.get("saldoAtual", 0.0));
+        }
     }
 }
@@ -0,0 +1,99 @@
+package models;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Página do extrato de uma conta, resultado de uma {@link ConsultaExtrato}.
+ * O cursor da próxima página identifica a posição do histórico em que a consulta parou; como o histórico
+ * só recebe acréscimos, o cursor continua válido enquanto novas operações são registradas.
+ */
+
+public final class PaginaExtrato {
+
+    private static final int TAMANHO_CURSOR = Integer.BYTES * 2;
+
+    private final List<Operacao> operacoes;
+    private final String proximoCursor;
+
+    /**
+     * Construtor da classe PaginaExtrato.
+     *
+     * @param operacoes Operações da página, em ordem cronológica.
+     * @param proximoCursor Cursor da próxima página, ou null se esta for a última.
+     */
+    public PaginaExtrato(List<Operacao> operacoes, String proximoCursor) {
+        this.operacoes = List.copyOf(operacoes);
+        this.proximoCursor = proximoCursor;
+    }
+
+    /**
+     * Retorna as operações da página.
+     *
+     * @return Lista imutável com as operações, em ordem cronológica.
+     */
+    public List<Operacao> getOperacoes() {
+        return operacoes;
+    }
+
+    /**
+     * Retorna o cursor a ser informado em {@link ConsultaExtrato#comCursor(String)} para obter a próxima página.
+     *
+     * @return Cursor da próxima página, ou null se esta for a última.
+     */
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    /**
+     * Indica se há uma próxima página.
+     *
+     * @return Verdadeiro se houver mais operações a consultar.
+     */
+    public boolean temProximaPagina() {
+        return proximoCursor != null;
+    }
+
+    /**
+     * Codifica um cursor com o número da conta e a posição do histórico em que a próxima página começa.
+     *
+     * @param numeroConta Número da conta consultada.
+     * @param posicao Posição do próximo lançamento a ser consultado.
+     * @return Cursor opaco.
+     */
+    static String codificarCursor(int numeroConta, int posicao) {
+        ByteBuffer bytes = ByteBuffer.allocate(TAMANHO_CURSOR).putInt(numeroConta).putInt(posicao);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
+    }
+
+    /**
+     * Decodifica a posição do histórico contida em um cursor.
+     *
+     * @param cursor Cursor devolvido por uma página anterior.
+     * @param numeroConta Número da conta consultada.
+     * @return Posição do próximo lançamento a ser consultado.
+     * @throws IllegalArgumentException Se o cursor for inválido ou pertencer a outra conta.
+     */
+    static int decodificarCursor(String cursor, int numeroConta) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de extrato inválido.", e);
+        }
+
+        if (bytes.length != TAMANHO_CURSOR) {
+            throw new IllegalArgumentException("Cursor de extrato inválido.");
+        }
+
+        ByteBuffer conteudo = ByteBuffer.wrap(bytes);
+        int numeroContaCursor = conteudo.getInt();
+        int posicao = conteudo.getInt();
+        if (numeroContaCursor != numeroConta || posicao < 0) {
+            throw new IllegalArgumentException("Cursor de extrato inválido para a conta n° " + numeroConta + ".");
+        }
+        return posicao;
+    }
+
+}
@@ -1,55 +1,246 @@
 package models;
 
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
 /**
  * Classe utilitária para validação de números de CPF (Cadastro de Pessoa Física).
  * Essa classe fornece métodos para verificar se um CPF é válido seguindo as regras
  * estabelecidas pelo Ministério da Fazenda do Brasil.
+ * <p>
+ * A validação percorre os caracteres (ou bytes) do CPF uma única vez, calculando os dois dígitos verificadores
+ * ao mesmo tempo, sem expressões regulares e sem criar objetos. São aceitos CPFs sem formatação (11 dígitos) ou
+ * formatados ({@code 000.000.000-00}). Arquivos e buffers com muitos CPFs, um por linha, podem ser validados
+ * em lote com {@link #validarEmLote(CharSequence)} e {@link #validarEmLote(ByteBuffer)}; as variantes que recebem
+ * um intervalo permitem dividir a entrada em trechos validados em paralelo.
  */
 
 public class ValidarCPF {
 
+    private static final int QUANTIDADE_DIGITOS = 11;
+    private static final int TAMANHO_FORMATADO = 14;
+
     /**
-     * Pesos utilizados para o cálculo dos dígitos verificadores do CPF.
+     * Verifica se o número de CPF fornecido é válido.
+     * Um CPF válido deve ter 11 dígitos, não ser composto por todos os dígitos iguais,
+     * e possuir dígitos verificadores que atendam aos critérios do cálculo.
+     *
+     * @param cpf O número de CPF a ser validado, somente com números ou no formato {@code 000.000.000-00}.
+     * @return {@code true} Se o CPF for válido; {@code false} caso contrário.
      */
-    private static final int[] PESO_CPF = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2};
+    public static boolean cpfEhValido(CharSequence cpf) {
+        return cpf != null && validar(cpf, null, 0, cpf.length());
+    }
 
     /**
-     * Calcula um dígito verificador de acordo com os pesos fornecidos.
+     * Verifica se o CPF gravado em um intervalo de bytes ASCII é válido, sem alterar a posição do buffer.
      *
-     * @param str A sequência de números a ser avaliada.
-     * @return O dígito verificador calculado.
+     * @param bytes Buffer com o CPF.
+     * @param inicio Posição do primeiro byte do CPF.
+     * @param fim Posição final do CPF (exclusiva).
+     * @return {@code true} Se o CPF for válido; {@code false} caso contrário.
      */
-    private static int calcularDigito(String str) {
-        int soma = 0;
+    public static boolean cpfEhValido(ByteBuffer bytes, int inicio, int fim) {
+        return bytes != null && validar(null, bytes, inicio, fim);
+    }
 
-        for (int i = 0; i < str.length(); i++) {
-            int digito = Character.getNumericValue(str.charAt(i));
-            soma += digito * ValidarCPF.PESO_CPF[ValidarCPF.PESO_CPF.length - str.length() + i];
+    /**
+     * Retorna o CPF somente com números, caso ele esteja no formato {@code 000.000.000-00}.
+     * Apenas CPFs formatados criam um novo texto; os demais são devolvidos sem alteração, para que a validação
+     * posterior os rejeite se forem inválidos.
+     *
+     * @param cpf CPF informado.
+     * @return CPF com 11 dígitos, ou o próprio texto informado se ele não estiver formatado.
+     */
+    public static String normalizar(String cpf) {
+        if (cpf == null || cpf.length() != TAMANHO_FORMATADO || cpf.charAt(3) != '.' || cpf.charAt(7) != '.' || cpf.charAt(11) != '-') {
+            return cpf;
         }
 
-        int resto = 11 - (soma % 11);
-        return (resto > 9) ? 0 : resto;
+        char[] digitos = new char[QUANTIDADE_DIGITOS];
+        cpf.getChars(0, 3, digitos, 0);
+        cpf.getChars(4, 7, digitos, 3);
+        cpf.getChars(8, 11, digitos, 6);
+        cpf.getChars(12, 14, digitos, 9);
+        return new String(digitos);
     }
 
     /**
-     * Verifica se o número de CPF fornecido é válido.
-     * Um CPF válido deve ter 11 dígitos, não ser composto por todos os dígitos iguais,
-     * e possuir dígitos verificadores que atendam aos critérios do cálculo.
+     * Valida em lote os CPFs de um texto, um por linha.
      *
-     * @param cpf O número de CPF a ser validado, sem formatação (somente números).
-     * @return {@code true} Se o CPF for válido; {@code false} caso contrário.
+     * @param cpfs Texto com os CPFs separados por quebras de linha ({@code \n} ou {@code \r\n}).
+     * @return Conjunto com a posição (linha, a partir de 0) de cada CPF válido.
+     */
+    public static BitSet validarEmLote(CharSequence cpfs) {
+        BitSet validos = new BitSet();
+        validarEmLote(cpfs, 0, cpfs.length(), validos);
+        return validos;
+    }
+
+    /**
+     * Valida em lote os CPFs em bytes ASCII entre a posição e o limite do buffer, um por linha.
+     * A posição do buffer não é alterada.
+     *
+     * @param cpfs Buffer com os CPFs separados por quebras de linha ({@code \n} ou {@code \r\n}).
+     * @return Conjunto com a posição (linha, a partir de 0) de cada CPF válido.
      */
-    public static boolean cpfEhValido(String cpf) {
-        if (cpf == null || cpf.length() != 11 || cpf.matches("(\\d)\\1{10}")) {
+    public static BitSet validarEmLote(ByteBuffer cpfs) {
+        BitSet validos = new BitSet();
+        validarEmLote(cpfs, cpfs.position(), cpfs.limit(), validos);
+        return validos;
+    }
+
+    /**
+     * Valida em lote os CPFs de um trecho do texto, um por linha. O trecho deve começar no início de uma linha,
+     * e uma linha sem quebra no fim do trecho é considerada completa.
+     *
+     * @param cpfs Texto com os CPFs separados por quebras de linha.
+     * @param inicio Posição inicial do trecho.
+     * @param fim Posição final do trecho (exclusiva).
+     * @param validos Conjunto que recebe a posição de cada CPF válido, contada a partir do início do trecho.
+     * @return Quantidade de linhas do trecho.
+     */
+    public static int validarEmLote(CharSequence cpfs, int inicio, int fim, BitSet validos) {
+        int linha = 0;
+        int inicioLinha = inicio;
+
+        for (int i = inicio; i < fim; i++) {
+            if (cpfs.charAt(i) == '\n') {
+                int fimLinha = i > inicioLinha && cpfs.charAt(i - 1) == '\r' ? i - 1 : i;
+                if (validar(cpfs, null, inicioLinha, fimLinha)) {
+                    validos.set(linha);
+                }
+                linha++;
+                inicioLinha = i + 1;
+            }
+        }
+
+        if (inicioLinha < fim) {
+            int fimLinha = cpfs.charAt(fim - 1) == '\r' ? fim - 1 : fim;
+            if (validar(cpfs, null, inicioLinha, fimLinha)) {
+                validos.set(linha);
+            }
+            linha++;
+        }
+        return linha;
+    }
+
+    /**
+     * Valida em lote os CPFs em bytes ASCII de um trecho do buffer, um por linha, sem alterar a posição do buffer.
+     * O trecho deve começar no início de uma linha, e uma linha sem quebra no fim do trecho é considerada completa.
+     *
+     * @param cpfs Buffer com os CPFs separados por quebras de linha.
+     * @param inicio Posição inicial do trecho.
+     * @param fim Posição final do trecho (exclusiva).
+     * @param validos Conjunto que recebe a posição de cada CPF válido, contada a partir do início do trecho.
+     * @return Quantidade de linhas do trecho.
+     */
+    public static int validarEmLote(ByteBuffer cpfs, int inicio, int fim, BitSet validos) {
+        int linha = 0;
+        int inicioLinha = inicio;
+
+        for (int i = inicio; i < fim; i++) {
+            if (cpfs.get(i) == '\n') {
+                int fimLinha = i > inicioLinha && cpfs.get(i - 1) == '\r' ? i - 1 : i;
+                if (validar(null, cpfs, inicioLinha, fimLinha)) {
+                    validos.set(linha);
+                }
+                linha++;
+                inicioLinha = i + 1;
+            }
+        }
+
+        if (inicioLinha < fim) {
+            int fimLinha = cpfs.get(fim - 1) == '\r' ? fim - 1 : fim;
+            if (validar(null, cpfs, inicioLinha, fimLinha)) {
+                validos.set(linha);
+            }
+            linha++;
+        }
+        return linha;
+    }
+
+    /**
+     * Valida um CPF lido de um texto ou de um buffer de bytes ASCII, em uma única passagem.
+     * Os dois dígitos verificadores são calculados enquanto os dígitos são lidos: o primeiro com pesos de 10 a 2
+     * sobre os nove primeiros dígitos e o segundo com pesos de 11 a 2 sobre os dez primeiros.
+     *
+     * @param texto Texto com o CPF, ou null se o CPF estiver no buffer.
+     * @param bytes Buffer com o CPF, utilizado quando o texto é null.
+     * @param inicio Posição do primeiro caractere do CPF.
+     * @param fim Posição final do CPF (exclusiva).
+     * @return Verdadeiro se o CPF for válido.
+     */
+    private static boolean validar(CharSequence texto, ByteBuffer bytes, int inicio, int fim) {
+        boolean formatado = fim - inicio == TAMANHO_FORMATADO;
+        if (!formatado && fim - inicio != QUANTIDADE_DIGITOS) {
             return false;
         }
 
-        String base = cpf.substring(0, 9);
+        int soma1 = 0;
+        int soma2 = 0;
+        int primeiroDigito = -1;
+        boolean todosIguais = true;
+        int digito9 = 0;
+        int digito10 = 0;
+        int posicao = inicio;
 
-        int digito1 = calcularDigito(base);
-        int digito2 = calcularDigito(base + digito1);
+        for (int k = 0; k < QUANTIDADE_DIGITOS; k++) {
+            if (formatado && (k == 3 || k == 6 || k == 9)) {
+                int separador = caractere(texto, bytes, posicao++);
+                if (separador != (k == 9 ? '-' : '.')) {
+                    return false;
+                }
+            }
 
-        return cpf.equals(base + digito1 + digito2);
+            int digito = caractere(texto, bytes, posicao++) - '0';
+            if (digito < 0 || digito > 9) {
+                return false;
+            }
+
+            if (k == 0) {
+                primeiroDigito = digito;
+            } else if (digito != primeiroDigito) {
+                todosIguais = false;
+            }
+
+            if (k < 9) {
+                soma1 += digito * (10 - k);
+            }
+            if (k < 10) {
+                soma2 += digito * (11 - k);
+            }
+            if (k == 9) {
+                digito9 = digito;
+            } else if (k == 10) {
+                digito10 = digito;
+            }
+        }
+
+        return !todosIguais && digito9 == digitoVerificador(soma1) && digito10 == digitoVerificador(soma2);
+    }
+
+    /**
+     * Calcula um dígito verificador a partir da soma ponderada dos dígitos.
+     *
+     * @param soma Soma dos dígitos multiplicados pelos seus pesos.
+     * @return O dígito verificador calculado.
+     */
+    private static int digitoVerificador(int soma) {
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+    /**
+     * Lê um caractere do texto ou um byte do buffer.
+     *
+     * @param texto Texto, ou null para ler do buffer.
+     * @param bytes Buffer de bytes ASCII.
+     * @param posicao Posição a ser lida.
+     * @return Caractere lido.
+     */
+    private static int caractere(CharSequence texto, ByteBuffer bytes, int posicao) {
+        return texto != null ? texto.charAt(posicao) : bytes.get(posicao);
     }
 
 }
@@ -3,6 +3,7 @@ package models.enums;
 /**
  * Enum que define os diferentes tipos de operações bancárias.
  * Cada tipo de operação é representado por um nome descritivo, utilizado para identificar a natureza da operação.
+ * A posição das constantes é gravada nos snapshots: novos tipos devem ser acrescentados ao fim.
  */
 
 public enum IdentificadorTipo {
@@ -0,0 +1,50 @@
+package models.enums;
+
+/**
+ * Enum que define os tipos de chave aceitos no cadastro de Pix.
+ * Cada tipo de chave é representado por um nome descritivo, utilizado na exibição das chaves cadastradas.
+ */
+
+public enum TipoChavePix {
+
+    /**
+     * Chave formada pelo CPF do correntista, somente números.
+     */
+    CPF("CPF"),
+
+    /**
+     * Chave formada por um endereço de e-mail.
+     */
+    EMAIL("E-mail"),
+
+    /**
+     * Chave formada por um número de telefone no formato internacional (ex: +5541999990000).
+     */
+    TELEFONE("Telefone"),
+
+    /**
+     * Chave aleatória (EVP), gerada pelo próprio sistema no formato UUID.
+     */
+    ALEATORIA("Aleatória");
+
+    private final String tipoNome;
+
+    /**
+     * Construtor da enumeração, atribuindo o nome do tipo de chave.
+     *
+     * @param tipoNome Nome descritivo do tipo de chave.
+     */
+    TipoChavePix(String tipoNome){
+        this.tipoNome = tipoNome;
+    }
+
+    /**
+     * Retorna o nome descritivo do tipo de chave.
+     *
+     * @return O nome do tipo de chave.
+     */
+    public String getTipoNome(){
+        return tipoNome;
+    }
+
+}
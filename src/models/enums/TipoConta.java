@@ -0,0 +1,46 @@
+package models.enums;
+
+/**
+ * Enum que define os tipos de conta oferecidos pelo banco.
+ * Cada tipo de conta é representado por um nome descritivo, utilizado na exibição das contas.
+ * A posição das constantes é gravada nos snapshots: novos tipos devem ser acrescentados ao fim.
+ */
+
+public enum TipoConta {
+
+    /**
+     * Conta corrente, com acesso ao sistema Pix.
+     */
+    CORRENTE("Conta Corrente"),
+
+    /**
+     * Conta poupança, remunerada pelas correções aplicadas pelo banco.
+     */
+    POUPANCA("Conta Poupança"),
+
+    /**
+     * Conta corrente com limite especial para saque e Pix.
+     */
+    ESPECIAL("Conta Especial");
+
+    private final String tipoNome;
+
+    /**
+     * Construtor da enumeração, atribuindo o nome do tipo de conta.
+     *
+     * @param tipoNome Nome descritivo do tipo de conta.
+     */
+    TipoConta(String tipoNome){
+        this.tipoNome = tipoNome;
+    }
+
+    /**
+     * Retorna o nome descritivo do tipo de conta.
+     *
+     * @return O nome do tipo de conta.
+     */
+    public String getTipoNome(){
+        return tipoNome;
+    }
+
+}
@@ -0,0 +1,73 @@
+package models.interfaces;
+
+import models.ContaCorrente;
+import models.enums.TipoChavePix;
+import models.exceptions.PixJaCadastradoException;
+
+import java.util.List;
+
+/**
+ * Interface que define o diretório de chaves Pix do banco.
+ * O diretório associa cada chave cadastrada (CPF, e-mail, telefone ou aleatória) à conta corrente
+ * que a recebe, permitindo resolver o destino de uma transferência diretamente pela chave.
+ */
+
+public interface DiretorioPix {
+
+    /**
+     * Registra uma chave Pix para a conta informada.
+     * Para chaves do tipo {@link TipoChavePix#ALEATORIA} o valor informado é ignorado e uma nova chave é gerada.
+     *
+     * @param tipo Tipo da chave a ser registrada.
+     * @param chave Valor da chave a ser registrada.
+     * @param conta Conta corrente associada à chave.
+     * @return A chave registrada, já normalizada.
+     * @throws PixJaCadastradoException Se a chave já estiver cadastrada no diretório.
+     * @throws IllegalArgumentException Se a chave não respeitar o formato do tipo informado.
+     */
+    String registrar(TipoChavePix tipo, String chave, ContaCorrente conta) throws PixJaCadastradoException;
+
+    /**
+     * Registra uma chave Pix já cadastrada anteriormente, exatamente como foi gravada.
+     * Diferente de {@link #registrar}, chaves aleatórias não são geradas novamente.
+     * Utilizado na restauração do diretório a partir do journal ou de um snapshot.
+     *
+     * @param chave Chave normalizada, como retornada pelo cadastro original.
+     * @param conta Conta corrente associada à chave.
+     * @throws PixJaCadastradoException Se a chave já estiver cadastrada no diretório.
+     */
+    void restaurar(String chave, ContaCorrente conta) throws PixJaCadastradoException;
+
+    /**
+     * Desfaz o registro de uma chave Pix, caso ela ainda esteja associada à conta informada.
+     * Utilizado quando o cadastro da chave não pôde ser registrado no journal.
+     *
+     * @param chave Chave normalizada, como retornada pelo cadastro.
+     * @param conta Conta corrente associada à chave.
+     */
+    void remover(String chave, ContaCorrente conta);
+
+    /**
+     * Busca a conta associada a uma chave Pix.
+     *
+     * @param chave Chave Pix a ser resolvida.
+     * @return Conta corrente associada à chave ou null se a chave não estiver cadastrada.
+     */
+    ContaCorrente resolver(String chave);
+
+    /**
+     * Verifica se a conta possui ao menos uma chave Pix cadastrada.
+     *
+     * @param conta Conta a ser verificada.
+     * @return Verdadeiro se a conta possuir chave cadastrada, caso contrário falso.
+     */
+    boolean possuiChave(ContaCorrente conta);
+
+    /**
+     * Retorna as chaves Pix cadastradas para a conta.
+     *
+     * @param conta Conta a ser consultada.
+     * @return Lista com as chaves normalizadas, vazia se a conta não possuir chave cadastrada.
+     */
+    List<String> chavesDaConta(ContaCorrente conta);
+}
@@ -1,12 +1,11 @@
 package models.interfaces;
 
 import models.ContaCorrente;
+import models.enums.TipoChavePix;
 import models.exceptions.PixJaCadastradoException;
 import models.exceptions.PixNaoCadastradoException;
 import models.exceptions.SaldoInsuficienteException;
 
-import java.util.List;
-
 /**
  * Interface que define os comportamentos necessários para contas que oferecem a funcionalidade de Pix.
  * Contas que implementam essa interface podem cadastrar, efetuar e receber transferências via Pix.
@@ -15,30 +14,74 @@ import java.util.List;
 public interface Pix {
 
     /**
-     * Cadastra um CPF no sistema de Pix, permitindo que a conta possa realizar transferências via Pix.
+     * Cadastra o CPF do correntista como chave no diretório de Pix, permitindo que a conta possa realizar transferências via Pix.
+     *
+     * @param diretorioPix Diretório de chaves cadastradas para realizar transações via Pix.
+     * @throws PixJaCadastradoException Se o CPF já estiver cadastrado no diretório de Pix.
+     */
+    void cadastrarPix(DiretorioPix diretorioPix) throws PixJaCadastradoException;
+
+    /**
+     * Cadastra uma chave do tipo informado no diretório de Pix, associada a esta conta.
      *
-     * @param usuariosPix Lista de CPFs cadastrados para realizar transações via Pix.
-     * @throws PixJaCadastradoException Se o CPF já estiver cadastrado no sistema de Pix.
+     * @param diretorioPix Diretório de chaves cadastradas para realizar transações via Pix.
+     * @param tipo Tipo da chave (CPF, e-mail, telefone ou aleatória).
+     * @param chave Valor da chave. Ignorado para chaves aleatórias, que são geradas pelo diretório.
+     * @return A chave cadastrada.
+     * @throws PixJaCadastradoException Se a chave já estiver cadastrada no diretório de Pix.
      */
-    void cadastrarPix(List<String> usuariosPix) throws PixJaCadastradoException;
+    String cadastrarPix(DiretorioPix diretorioPix, TipoChavePix tipo, String chave) throws PixJaCadastradoException;
 
     /**
      * Efetua uma transferência via Pix para outra conta, debitando o valor do saldo da conta de origem.
      *
-     * @param usuariosPix Lista de CPFs cadastrados para realizar transações via Pix.
+     * @param diretorioPix Diretório de chaves cadastradas para realizar transações via Pix.
+     * @param destinatario Conta de destino da transferência via Pix.
+     * @param valor Valor a ser transferido, em centavos.
+     * @throws PixNaoCadastradoException Se o remetente ou o destinatário não possuir chave cadastrada no diretório de Pix.
+     * @throws SaldoInsuficienteException Se o saldo da conta de origem for insuficiente para realizar a transferência.
+     */
+    void efetuarPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException, SaldoInsuficienteException;
+
+    /**
+     * Envia uma transferência via Pix, debitando o valor do saldo da conta de origem sem creditá-lo no destinatário,
+     * que deve recebê-lo em seguida por {@link #receberPixVerificado(long)}.
+     * Permite que o débito e o crédito sejam efetivados por threads diferentes.
+     *
+     * @param diretorioPix Diretório de chaves cadastradas para realizar transações via Pix.
      * @param destinatario Conta de destino da transferência via Pix.
-     * @param valor Valor a ser transferido.
-     * @throws PixNaoCadastradoException Se o CPF do remetente ou do destinatário não estiver cadastrado no sistema de Pix.
+     * @param valor Valor a ser transferido, em centavos.
+     * @throws PixNaoCadastradoException Se o remetente ou o destinatário não possuir chave cadastrada no diretório de Pix.
      * @throws SaldoInsuficienteException Se o saldo da conta de origem for insuficiente para realizar a transferência.
      */
-    void efetuarPix(List<String> usuariosPix, ContaCorrente destinatario, double valor) throws PixNaoCadastradoException, SaldoInsuficienteException;
+    void enviarPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException, SaldoInsuficienteException;
 
     /**
      * Recebe uma transferência via Pix na conta de destino, creditando o valor transferido no saldo da conta.
      *
-     * @param usuariosPix Lista de CPFs cadastrados para realizar transações via Pix.
-     * @param valor Valor a ser creditado na conta de destino.
-     * @throws PixNaoCadastradoException Se o CPF do destinatário não estiver cadastrado no sistema de Pix.
+     * @param diretorioPix Diretório de chaves cadastradas para realizar transações via Pix.
+     * @param valor Valor a ser creditado na conta de destino, em centavos.
+     * @throws PixNaoCadastradoException Se o destinatário não possuir chave cadastrada no diretório de Pix.
+     */
+    void receberPix(DiretorioPix diretorioPix, long valor) throws PixNaoCadastradoException;
+
+    /**
+     * Recebe uma transferência via Pix já verificada e debitada pela conta de origem, creditando o valor sem consultar
+     * o diretório de Pix novamente, de modo que o crédito de uma transferência debitada nunca é recusado.
+     *
+     * @param valor Valor a ser creditado na conta de destino, em centavos.
+     */
+    void receberPixVerificado(long valor);
+
+    /**
+     * Verifica, sem alterar a conta, se uma transferência via Pix para o destinatário seria debitada por
+     * {@link #enviarPix(DiretorioPix, ContaCorrente, long)}.
+     *
+     * @param diretorioPix Diretório de chaves cadastradas para realizar transações via Pix.
+     * @param destinatario Conta de destino da transferência via Pix.
+     * @param valor Valor a ser transferido, em centavos.
+     * @throws PixNaoCadastradoException Se o remetente ou o destinatário não possuir chave cadastrada no diretório de Pix.
+     * @throws SaldoInsuficienteException Se o saldo da conta de origem for insuficiente para realizar a transferência.
      */
-    void receberPix(List<String> usuariosPix, double valor) throws PixNaoCadastradoException;
+    void verificarEnvioPix(DiretorioPix diretorioPix, ContaCorrente destinatario, long valor) throws PixNaoCadastradoException, SaldoInsuficienteException;
 }
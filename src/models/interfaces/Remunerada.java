@@ -1,8 +1,11 @@
 package models.interfaces;
 
+import java.math.RoundingMode;
+
 /**
  * Interface que define um comportamento para contas que podem aplicar taxas de correção ao saldo.
  * Contas que implementam essa interface devem fornecer uma implementação do método taxaCorrecao.
+ * As taxas são representadas em ponto fixo, na escala {@link models.Dinheiro#ESCALA_TAXA}.
  */
 
 public interface Remunerada {
@@ -11,7 +14,52 @@ public interface Remunerada {
      * Aplica uma taxa de correção ao saldo da conta.
      * O valor do saldo será ajustado com base na porcentagem da taxa fornecida.
      *
-     * @param taxa Porcentagem da taxa de correção a ser aplicada.
+     * @param taxa Porcentagem da taxa de correção a ser aplicada, na escala {@link models.Dinheiro#ESCALA_TAXA}.
+     */
+    void taxaCorrecao(long taxa);
+
+    /**
+     * Aplica uma taxa de correção ao saldo da conta, arredondando o rendimento com o modo informado.
+     *
+     * @param taxa Porcentagem da taxa de correção a ser aplicada, na escala {@link models.Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     */
+    void taxaCorrecao(long taxa, RoundingMode arredondamento);
+
+    /**
+     * Aplica uma taxa de correção ao saldo da conta como parte de uma execução de correção identificada.
+     * A correção é aplicada uma única vez por execução: se a última correção da conta pertence à mesma
+     * execução, a conta não é alterada, o que permite retomar uma execução interrompida.
+     * O chamador deve impedir correções simultâneas da mesma conta.
+     *
+     * @param taxa Porcentagem da taxa de correção a ser aplicada, na escala {@link models.Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     * @param idExecucao Identificador da execução, ou 0 para uma correção avulsa, sempre aplicada.
+     * @return Verdadeiro se a correção foi aplicada, falso se a conta já havia sido corrigida pela execução.
+     */
+    boolean taxaCorrecao(long taxa, RoundingMode arredondamento, long idExecucao);
+
+    /**
+     * Retorna o identificador da última execução de correção aplicada à conta.
+     *
+     * @return Identificador da execução, ou 0 se a conta nunca foi corrigida por uma execução identificada.
+     */
+    long getUltimaExecucaoCorrecao();
+
+    /**
+     * Indica se a conta já foi corrigida pela execução informada, caso em que
+     * {@link #taxaCorrecao(long, RoundingMode, long)} não a altera.
+     *
+     * @param idExecucao Identificador da execução, ou 0 para uma correção avulsa.
+     * @return Verdadeiro se a execução já corrigiu a conta; sempre falso para correções avulsas.
+     */
+    boolean isCorrigidaPelaExecucao(long idExecucao);
+
+    /**
+     * Verifica, sem alterar a conta, se uma correção com a taxa informada seria aplicada.
+     *
+     * @param taxa Porcentagem da taxa de correção, na escala {@link models.Dinheiro#ESCALA_TAXA}.
+     * @throws IllegalArgumentException Se a taxa de correção for negativa.
      */
-    void taxaCorrecao(double taxa);
+    void verificarCorrecao(long taxa);
 }
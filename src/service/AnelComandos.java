@@ -0,0 +1,162 @@
+package service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fila circular de comandos de uma partição do {@link MotorParticionado}, com vários produtores e um único consumidor.
+ * Os comandos são objetos mutáveis alocados uma única vez na criação do anel e reaproveitados a cada volta: o produtor
+ * reserva uma sequência por comparação e troca no cursor, preenche o comando da posição e o publica gravando a
+ * sequência na posição; o consumidor lê as posições em ordem e libera cada uma avançando a sua sequência.
+ * Quando não há comandos, o consumidor gira por alguns ciclos, cede o processador e por fim é estacionado até que um
+ * produtor publique um novo comando.
+ */
+
+final class AnelComandos {
+
+    // Com um único processador, girar apenas atrasa o produtor que publicaria o próximo comando.
+    private static final int GIROS_OCIOSOS = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+    private static final int CESSOES_OCIOSAS = 16;
+
+    private final MotorParticionado.Comando[] comandos;
+    private final AtomicLongArray publicados;
+    private final int mascara;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong consumido = new AtomicLong();
+
+    private volatile Thread consumidor;
+    private volatile boolean estacionado;
+
+    /**
+     * Construtor do anel.
+     * A capacidade é arredondada para a próxima potência de dois.
+     *
+     * @param capacidade Quantidade mínima de comandos do anel.
+     * @throws IllegalArgumentException Se a capacidade for menor ou igual a 0.
+     */
+    AnelComandos(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do anel deve ser positiva.");
+        }
+
+        int tamanho = Integer.highestOneBit(capacidade);
+        if (tamanho < capacidade) {
+            tamanho <<= 1;
+        }
+
+        comandos = new MotorParticionado.Comando[tamanho];
+        publicados = new AtomicLongArray(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            comandos[i] = new MotorParticionado.Comando();
+            publicados.set(i, -1);
+        }
+        mascara = tamanho - 1;
+    }
+
+    /**
+     * Define a thread que consome o anel, estacionada quando não há comandos.
+     *
+     * @param consumidor Thread consumidora.
+     */
+    void setConsumidor(Thread consumidor) {
+        this.consumidor = consumidor;
+    }
+
+    /**
+     * Reserva uma posição do anel, aguardando o consumidor liberar espaço se o anel estiver cheio.
+     *
+     * @return Sequência reservada, a ser preenchida com {@link #comando(long)} e publicada com {@link #publicar(long)}.
+     */
+    long reservar() {
+        long sequencia;
+        while ((sequencia = tentarReservar()) < 0) {
+            Thread.yield();
+        }
+        return sequencia;
+    }
+
+    /**
+     * Tenta reservar uma posição do anel sem aguardar.
+     *
+     * @return Sequência reservada, ou -1 se o anel estiver cheio.
+     */
+    long tentarReservar() {
+        while (true) {
+            long atual = cursor.get();
+            if (atual - consumido.get() > mascara) {
+                return -1;
+            }
+            if (cursor.compareAndSet(atual, atual + 1)) {
+                return atual;
+            }
+        }
+    }
+
+    /**
+     * Retorna o comando de uma sequência reservada.
+     *
+     * @param sequencia Sequência reservada.
+     * @return Comando da posição, a ser preenchido pelo produtor.
+     */
+    MotorParticionado.Comando comando(long sequencia) {
+        return comandos[(int) sequencia & mascara];
+    }
+
+    /**
+     * Publica o comando de uma sequência reservada, acordando o consumidor se ele estiver estacionado.
+     *
+     * @param sequencia Sequência reservada.
+     */
+    void publicar(long sequencia) {
+        publicados.set((int) sequencia & mascara, sequencia);
+        if (estacionado) {
+            LockSupport.unpark(consumidor);
+        }
+    }
+
+    /**
+     * Retorna o próximo comando publicado, sem liberá-lo. Deve ser chamado apenas pelo consumidor.
+     *
+     * @return Próximo comando, ou null se ele ainda não foi publicado.
+     */
+    MotorParticionado.Comando proximo() {
+        long sequencia = consumido.get();
+        return publicados.get((int) sequencia & mascara) == sequencia ? comandos[(int) sequencia & mascara] : null;
+    }
+
+    /**
+     * Libera a posição do comando retornado por {@link #proximo()} para os produtores.
+     * O comando não deve mais ser lido depois de liberado.
+     */
+    void liberar() {
+        consumido.setRelease(consumido.get() + 1);
+    }
+
+    /**
+     * Aguarda a publicação de um comando: gira, cede o processador e por fim estaciona a thread consumidora.
+     *
+     * @param ociosidade Quantidade de esperas consecutivas sem comandos.
+     * @param estacionar Falso se o consumidor tem outro trabalho pendente e não deve ser estacionado.
+     */
+    void aguardar(int ociosidade, boolean estacionar) {
+        if (ociosidade < GIROS_OCIOSOS) {
+            Thread.onSpinWait();
+        } else if (ociosidade < GIROS_OCIOSOS + CESSOES_OCIOSAS || !estacionar) {
+            Thread.yield();
+        } else {
+            estacionado = true;
+            if (proximo() == null) {
+                LockSupport.park(this);
+            }
+            estacionado = false;
+        }
+    }
+
+    /**
+     * Acorda o consumidor, caso ele esteja estacionado.
+     */
+    void acordar() {
+        LockSupport.unpark(consumidor);
+    }
+}
@@ -1,12 +1,35 @@
 package service;
 
 import models.*;
+import models.enums.TipoChavePix;
+import models.enums.TipoConta;
 import models.exceptions.*;
+import models.interfaces.DiretorioPix;
+import models.interfaces.Remunerada;
+import service.metricas.MetricasBanco;
+import service.metricas.OperacaoMedida;
+import service.persistencia.CommitEmGrupo;
+import service.persistencia.EscritorSnapshot;
+import service.persistencia.GravadorJournal;
+import service.persistencia.Journal;
+import service.persistencia.LeitorSnapshot;
+import service.persistencia.RegistroJournal;
+import service.saida.SaidaBanco;
+import service.saida.SaidaConsole;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.math.RoundingMode;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Serviço responsável pela gestão de contas bancárias, incluindo operações
@@ -14,126 +37,489 @@ import java.util.List;
  * aplicação de correção em contas poupança, e consulta de extratos.
  * A classe principal Banco utiliza BancoService para lidar com as lógicas de negócios.
  * O detalhamento também é similar à classe Banco.
+ * <p>
+ * O serviço pode ser utilizado por várias threads. Operações sobre uma conta travam apenas a listra
+ * correspondente na {@link TabelaLocks}, e o cadastro de contas é serializado pelo monitor da lista de contas.
+ * No modo {@link ModoConcorrencia#LIVRE_DE_LOCK}, depósitos e saques dispensam o lock e dependem apenas
+ * da atualização atômica do saldo feita pelas contas.
+ * <p>
+ * Com um {@link Journal} anexado, cada mutação é verificada e registrada no journal antes de ser efetivada na conta,
+ * e confirmada depois de gravada (com um {@link CommitEmGrupo}, a confirmação aguarda o lote do registro ser gravado no disco);
+ * se o journal não aceitar o registro, a conta não é alterada. O estado pode ser recuperado carregando o último
+ * snapshot e reproduzindo os registros posteriores a ele.
+ * <p>
+ * Snapshots são gravados com {@link #gravarSnapshot(Path)} enquanto as operações continuam sendo atendidas.
+ * O ponto do snapshot é definido travando todas as listras por um instante, e a partir dele cada conta
+ * alterada tem a sua imagem anterior preservada antes da primeira mutação (cópia na escrita), de modo que o
+ * arquivo gravado corresponde exatamente ao estado no LSN do snapshot.
+ * <p>
+ * Integrações com grande volume de operações podem usar {@link #executarLote(List)}, que agrupa os comandos
+ * por conta e aguarda o journal uma única vez por lote, devolvendo o resultado de cada comando.
+ * <p>
+ * As operações devolvem um {@link Comprovante} e o entregam à {@link SaidaBanco} do serviço, que decide como
+ * apresentá-lo; o serviço não escreve diretamente no console.
+ * <p>
+ * Contas de parceiros podem ser cadastradas em massa a partir de um arquivo com {@link #importarContas(ImportacaoContas)}.
+ * <p>
+ * No modo {@link ModoCorrecao#SOB_DEMANDA}, uma correção apenas registra uma nova época nas {@link EpocasCorrecao}
+ * do serviço, e cada conta poupança aplica as épocas pendentes na próxima vez em que for consultada ou alterada.
+ * <p>
+ * Com um {@link MotorParticionado} iniciado por {@link #iniciarMotorParticionado(int)}, depósitos, saques e
+ * transferências Pix são executados pela thread da partição de cada conta, que é a única a alterá-la.
+ * <p>
+ * Depósitos e transferências Pix aceitam uma chave de idempotência informada pelo cliente: o reenvio de uma
+ * operação com a mesma chave devolve o comprovante original, guardado no {@link CacheIdempotencia} do serviço.
+ * <p>
+ * Com a medição ativada por {@link #ativarMetricas()}, cada operação registra a sua latência e o seu resultado nas
+ * {@link MetricasBanco}; desativada, o custo de cada operação é apenas o de verificar que não há métricas.
  */
 
 public class BancoService implements Serializable {
 
     @Serial
     private static final long serialVersionUID = 1L;
+    // Início de medição das operações executadas com as métricas desativadas.
+    private static final long SEM_MEDICAO = Long.MIN_VALUE;
 
-    private final List<Conta> contas = new ArrayList<>();
-    private final List<String> cpfsPix = new ArrayList<>();
+    private List<Conta> contas = new ArrayList<>();
+    private DiretorioPix diretorioPix = new DiretorioPixHash();
+
+    private transient IndiceContas indice = new IndiceContas();
+    private transient ParticoesContas particoes = new ParticoesContas();
+    private transient TabelaLocks tabelaLocks = new TabelaLocks();
+    private volatile boolean buscaPorVarredura;
+    private volatile ModoConcorrencia modoConcorrencia = ModoConcorrencia.LOCK_POR_CONTA;
+    private volatile ModoCorrecao modoCorrecao = ModoCorrecao.IMEDIATA;
+    private EpocasCorrecao epocasCorrecao = new EpocasCorrecao();
+    private long execucaoCorrecaoPendente;
+    private long lsnSnapshot;
+
+    private transient volatile GravadorJournal gravador;
+    private transient volatile CapturaSnapshot capturaEmAndamento;
+    private transient volatile ArmazemLivros armazemLivros;
+    private transient volatile SaidaBanco saida = new SaidaConsole();
+    private transient volatile MotorParticionado motor;
+    private transient CacheIdempotencia idempotencia = new CacheIdempotencia();
+    private transient ExecucaoCorrecao execucaoCorrecaoAtual;
+    private transient volatile MetricasBanco metricas;
 
     /**
      * Cria uma conta corrente no banco.
      *
      * @param correntistaNome Nome do correntista.
-     * @param correntistaCPF  CPF do correntista.
+     * @param correntistaCPF  CPF do correntista, somente com números ou formatado.
+     * @return Comprovante com o número da conta criada.
      * @throws ContaJaCadastradaException Se o nome ou CPF já estiver cadastrado.
      * @throws DocumentoInvalidoException Se o CPF for inválido.
      */
-    public void criarContaCorrente(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
-        checaDisponibilidadeNomeCPF(correntistaNome, correntistaCPF);
+    public Comprovante criarContaCorrente(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
+        long medicao = iniciarMedicao();
+        try {
+            correntistaCPF = ValidarCPF.normalizar(correntistaCPF);
+            Conta novaContaCorrente;
+            long lsn;
+
+            synchronized (contas) {
+                checaDisponibilidadeNomeCPF(correntistaNome, correntistaCPF);
 
-        Conta novaContaCorrente = new ContaCorrente(correntistaNome, correntistaCPF);
-        contas.add(novaContaCorrente);
+                novaContaCorrente = new ContaCorrente(correntistaNome, correntistaCPF);
+                criarLivro(novaContaCorrente);
+                lsn = registrarNoJournal(RegistroJournal.criacaoConta(novaContaCorrente.getNumeroConta(), TipoConta.CORRENTE, correntistaNome, correntistaCPF, 0));
+                registrarConta(novaContaCorrente);
+            }
+            aguardarDurabilidade(lsn);
 
-        System.out.println("\n- Conta Corrente criada com sucesso: n° " + novaContaCorrente.getNumeroConta());
+            return exibir(medir(OperacaoMedida.CRIACAO_CONTA, medicao, Comprovante.contaCriada(TipoConta.CORRENTE, novaContaCorrente.getNumeroConta(), 0)));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.CRIACAO_CONTA, medicao, e);
+            throw e;
+        }
     }
 
     /**
      * Cria uma conta poupança no sistema.
      *
      * @param correntistaNome Nome do correntista.
-     * @param correntistaCPF  CPF do correntista.
+     * @param correntistaCPF  CPF do correntista, somente com números ou formatado.
+     * @return Comprovante com o número da conta criada.
      * @throws ContaJaCadastradaException Se o nome ou CPF já estiver cadastrado.
      * @throws DocumentoInvalidoException Se o CPF for inválido.
      */
-    public void criarContaPoupanca(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
-        checaDisponibilidadeNomeCPF(correntistaNome, correntistaCPF);
+    public Comprovante criarContaPoupanca(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
+        long medicao = iniciarMedicao();
+        try {
+            correntistaCPF = ValidarCPF.normalizar(correntistaCPF);
+            Conta novaContaPoupanca;
+            long lsn;
+
+            synchronized (contas) {
+                checaDisponibilidadeNomeCPF(correntistaNome, correntistaCPF);
 
-        Conta novaContaPoupanca = new ContaPoupanca(correntistaNome, correntistaCPF);
-        contas.add(novaContaPoupanca);
+                novaContaPoupanca = new ContaPoupanca(correntistaNome, correntistaCPF);
+                criarLivro(novaContaPoupanca);
+                lsn = registrarNoJournal(RegistroJournal.criacaoConta(novaContaPoupanca.getNumeroConta(), TipoConta.POUPANCA, correntistaNome, correntistaCPF, 0));
+                registrarConta(novaContaPoupanca);
+            }
+            aguardarDurabilidade(lsn);
 
-        System.out.println("\n- Conta Poupança criada com sucesso: n° " + novaContaPoupanca.getNumeroConta());
+            return exibir(medir(OperacaoMedida.CRIACAO_CONTA, medicao, Comprovante.contaCriada(TipoConta.POUPANCA, novaContaPoupanca.getNumeroConta(), 0)));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.CRIACAO_CONTA, medicao, e);
+            throw e;
+        }
     }
 
     /**
      * Cria uma conta especial no sistema.
      *
      * @param correntistaNome Nome do correntista.
-     * @param correntistaCPF  CPF do correntista.
+     * @param correntistaCPF  CPF do correntista, somente com números ou formatado.
+     * @return Comprovante com o número da conta criada.
      * @throws ContaJaCadastradaException Se o nome ou CPF já estiver cadastrado.
      * @throws DocumentoInvalidoException Se o CPF for inválido.
      */
-    public void criarContaEspecial(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
-        checaDisponibilidadeNomeCPF(correntistaNome, correntistaCPF);
+    public Comprovante criarContaEspecial(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
+        long medicao = iniciarMedicao();
+        try {
+            correntistaCPF = ValidarCPF.normalizar(correntistaCPF);
+            Conta novaContaEspecial;
+            long lsn;
+
+            synchronized (contas) {
+                checaDisponibilidadeNomeCPF(correntistaNome, correntistaCPF);
 
-        Conta novaContaEspecial = new ContaEspecial(correntistaNome, correntistaCPF);
-        contas.add(novaContaEspecial);
+                novaContaEspecial = new ContaEspecial(correntistaNome, correntistaCPF);
+                criarLivro(novaContaEspecial);
+                lsn = registrarNoJournal(RegistroJournal.criacaoConta(novaContaEspecial.getNumeroConta(), TipoConta.ESPECIAL, correntistaNome, correntistaCPF, ((ContaEspecial) novaContaEspecial).getLimiteEspecial()));
+                registrarConta(novaContaEspecial);
+            }
+            aguardarDurabilidade(lsn);
 
-        double limiteEspecial = ((ContaEspecial) novaContaEspecial).getLimiteEspecial();
-        System.out.println("\n- Conta especial criada com sucesso: n° " + novaContaEspecial.getNumeroConta() + " | Limite Especial: " + String.format("%.2f", limiteEspecial));
+            long limiteEspecial = ((ContaEspecial) novaContaEspecial).getLimiteEspecial();
+            return exibir(medir(OperacaoMedida.CRIACAO_CONTA, medicao, Comprovante.contaCriada(TipoConta.ESPECIAL, novaContaEspecial.getNumeroConta(), limiteEspecial)));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.CRIACAO_CONTA, medicao, e);
+            throw e;
+        }
     }
 
     /**
      * Realiza um depósito em uma conta específica.
      *
      * @param numeroConta Número da conta.
-     * @param quantiaDeposito Valor a ser depositado.
+     * @param quantiaDeposito Valor a ser depositado, em centavos.
+     * @return Comprovante do depósito, com o saldo após a operação.
      * @throws ContaNaoEncontradaException Se a conta não for encontrada.
      */
-    public void efetuarDeposito(int numeroConta, double quantiaDeposito) throws ContaNaoEncontradaException {
-        Conta conta = getContaPorNumero(numeroConta);
-
-        if (conta == null) {
-            throw new ContaNaoEncontradaException("Conta com n° " + numeroConta + " não encontrada.");
+    public Comprovante efetuarDeposito(int numeroConta, long quantiaDeposito) throws ContaNaoEncontradaException {
+        long medicao = iniciarMedicao();
+        try {
+            return exibir(medir(OperacaoMedida.DEPOSITO, medicao, depositar(exigirConta(numeroConta), quantiaDeposito, null)));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.DEPOSITO, medicao, e);
+            throw e;
         }
+    }
+
+    /**
+     * Realiza um depósito com uma chave de idempotência informada pelo cliente.
+     * Se um depósito com a mesma chave já foi efetivado, o seu comprovante original é devolvido sem depositar de novo;
+     * se ainda estiver em andamento, a sua conclusão é aguardada (ver {@link CacheIdempotencia}).
+     *
+     * @param numeroConta Número da conta.
+     * @param quantiaDeposito Valor a ser depositado, em centavos.
+     * @param chaveIdempotencia Chave de idempotência do depósito.
+     * @return Comprovante do depósito, com o saldo após a operação original.
+     * @throws ContaNaoEncontradaException Se a conta não for encontrada.
+     * @throws IllegalArgumentException Se a chave já tiver sido usada em uma operação com outros parâmetros.
+     */
+    public Comprovante efetuarDeposito(int numeroConta, long quantiaDeposito, String chaveIdempotencia) throws ContaNaoEncontradaException {
+        long medicao = iniciarMedicao();
+        try {
+            Conta conta = exigirConta(numeroConta);
+            EntradaIdempotencia entrada = idempotencia.reservar(Objects.requireNonNull(chaveIdempotencia),
+                    TipoComprovante.DEPOSITO, numeroConta, 0, quantiaDeposito);
+
+            // Os reenvios são contados pelo cache de idempotência, e não como novos depósitos.
+            if (entrada.isConcluida()) {
+                return exibir(entrada.comprovante(null, null));
+            }
 
-        conta.depositar(quantiaDeposito);
-        System.out.println("- Depósito de R$" + String.format("%.2f", quantiaDeposito) + " realizado com sucesso.");
+            Comprovante comprovante = null;
+            try {
+                comprovante = depositar(conta, quantiaDeposito, entrada);
+            } finally {
+                encerrarReserva(entrada, comprovante);
+            }
+            return exibir(medir(OperacaoMedida.DEPOSITO, medicao, comprovante));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.DEPOSITO, medicao, e);
+            throw e;
+        }
     }
 
     /**
      * Realiza um saque em uma conta específica.
      *
      * @param numeroConta Número da conta.
-     * @param quantiaSaque Valor a ser sacado.
+     * @param quantiaSaque Valor a ser sacado, em centavos.
+     * @return Comprovante do saque, com o saldo após a operação, ou da falha por saldo insuficiente.
      * @throws ContaNaoEncontradaException Se a conta não for encontrada.
      */
-    public void efetuarSaque(int numeroConta, double quantiaSaque) throws ContaNaoEncontradaException {
+    public Comprovante efetuarSaque(int numeroConta, long quantiaSaque) throws ContaNaoEncontradaException {
+        long medicao = iniciarMedicao();
+        try {
+            return exibir(medir(OperacaoMedida.SAQUE, medicao, sacar(numeroConta, quantiaSaque)));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.SAQUE, medicao, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Saca de uma conta, pelo motor particionado, se houver um anexado, ou travando a listra da conta.
+     *
+     * @param numeroConta Número da conta.
+     * @param quantiaSaque Valor a ser sacado, em centavos.
+     * @return Comprovante do saque ou da falha por saldo insuficiente, ainda não exibido.
+     * @throws ContaNaoEncontradaException Se a conta não for encontrada.
+     */
+    private Comprovante sacar(int numeroConta, long quantiaSaque) throws ContaNaoEncontradaException {
         Conta conta = getContaPorNumero(numeroConta);
 
         if (conta == null) {
             throw new ContaNaoEncontradaException("Conta com n° " + numeroConta + " não encontrada.");
         }
 
+        MotorParticionado motorAtual = motor;
+        if (motorAtual != null) {
+            try {
+                return Comprovante.saque(numeroConta, quantiaSaque, motorAtual.sacar(conta, quantiaSaque));
+            } catch (SaldoInsuficienteException e) {
+                return Comprovante.falha(TipoComprovante.SAQUE, SituacaoComando.SALDO_INSUFICIENTE, numeroConta, quantiaSaque, e.getMessage());
+            }
+        }
+
+        boolean travar = precisaTravarConta();
+        long lsn;
+        long saldo;
+
+        if (travar) {
+            tabelaLocks.travar(numeroConta);
+        }
         try {
+            preservarImagem(conta);
+            conta.verificarSaque(quantiaSaque);
+            lsn = registrarNoJournal(RegistroJournal.saque(numeroConta, quantiaSaque));
             conta.sacar(quantiaSaque);
-            System.out.println("- Saque de R$" + String.format("%.2f", quantiaSaque) + " realizado com sucesso.");
+            saldo = conta.getSaldo();
         } catch (SaldoInsuficienteException e) {
-            System.out.println("\nErro: " + e.getMessage());
+            return Comprovante.falha(TipoComprovante.SAQUE, SituacaoComando.SALDO_INSUFICIENTE, numeroConta, quantiaSaque, e.getMessage());
+        } finally {
+            if (travar) {
+                tabelaLocks.destravar(numeroConta);
+            }
         }
+        aguardarDurabilidade(lsn);
+
+        return Comprovante.saque(numeroConta, quantiaSaque, saldo);
+    }
+
+    /**
+     * Aplica uma taxa de correção em todas as contas poupança registradas.
+     *
+     * @param taxa Taxa de correção em porcentagem, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @return Comprovante da correção.
+     */
+    public Comprovante aplicarCorrecao(long taxa) {
+        return aplicarCorrecao(taxa, Dinheiro.ARREDONDAMENTO_PADRAO);
     }
 
     /**
      * Aplica uma taxa de correção em todas as contas poupança registradas.
+     * No modo {@link ModoCorrecao#IMEDIATA}, as contas são corrigidas em paralelo por uma nova {@link ExecucaoCorrecao},
+     * cujo término é aguardado; no modo {@link ModoCorrecao#SOB_DEMANDA}, a correção é registrada como uma nova época
+     * (ver {@link #registrarCorrecaoSobDemanda}). O comprovante informa o identificador gerado para a execução.
+     * Se a execução for interrompida antes de processar todas as contas, o comprovante tem a situação
+     * {@link SituacaoComando#INTERROMPIDO}, e a execução deve ser retomada com {@link #iniciarCorrecao} e o mesmo
+     * identificador antes de qualquer outra correção.
+     *
+     * @param taxa Taxa de correção em porcentagem, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento de cada conta para centavos.
+     * @return Comprovante da correção, com o identificador da execução, a quantidade de contas e a duração.
+     * @throws IllegalStateException Se outra execução de correção ainda não foi concluída.
+     */
+    public Comprovante aplicarCorrecao(long taxa, RoundingMode arredondamento) {
+        long medicao = iniciarMedicao();
+        long inicio = System.nanoTime();
+
+        try {
+            long idExecucao = ExecucaoCorrecao.novoIdentificador();
+            if (modoCorrecao == ModoCorrecao.SOB_DEMANDA) {
+                registrarCorrecaoSobDemanda(taxa, arredondamento, idExecucao);
+                return exibir(medir(OperacaoMedida.CORRECAO, medicao,
+                        Comprovante.correcao(true, taxa, idExecucao, particoes.getPoupancas().tamanho(), System.nanoTime() - inicio)));
+            }
+
+            ExecucaoCorrecao execucao = iniciarCorrecao(taxa, arredondamento, idExecucao).aguardar();
+            if (!execucao.isCompleta()) {
+                return exibir(medir(OperacaoMedida.CORRECAO, medicao, Comprovante.correcaoInterrompida(taxa, idExecucao,
+                        execucao.getContasCorrigidas(), System.nanoTime() - inicio, "A correção " + idExecucao
+                                + " foi interrompida após processar " + (execucao.getContasCorrigidas() + execucao.getContasIgnoradas())
+                                + " de " + execucao.getTotalContas() + " contas; retome-a com o mesmo identificador.")));
+            }
+            return exibir(medir(OperacaoMedida.CORRECAO, medicao,
+                    Comprovante.correcao(false, taxa, idExecucao, execucao.getContasCorrigidas(), System.nanoTime() - inicio)));
+        } catch (RuntimeException e) {
+            medirFalha(OperacaoMedida.CORRECAO, medicao, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Inicia a correção de todas as contas remuneradas registradas, sem aguardar o seu término.
+     * As contas, obtidas da partição das contas remuneradas, são divididas em blocos corrigidos em paralelo no {@link ForkJoinPool#commonPool()}, cada
+     * conta travada apenas enquanto a sua correção é aplicada, e a gravação das correções no journal é
+     * aguardada uma única vez, ao final. O progresso pode ser acompanhado pela execução retornada.
+     * <p>
+     * Contas já corrigidas pela execução com o mesmo identificador não são corrigidas novamente: para
+     * retomar uma execução interrompida, basta iniciá-la outra vez com o mesmo identificador.
+     * A execução corrige as contas imediatamente, qualquer que seja o {@link ModoCorrecao} do serviço.
+     * <p>
+     * Cada conta guarda apenas a última execução que a corrigiu. Por isso, até que uma execução processe todas
+     * as suas contas, o que é registrado no journal e nos snapshots, nenhuma outra execução ou época de correção
+     * é aceita: apenas a retomada da execução pendente.
+     *
+     * @param taxa Taxa de correção em porcentagem, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento de cada conta para centavos.
+     * @param idExecucao Identificador positivo da execução (ver {@link ExecucaoCorrecao#novoIdentificador()}).
+     * @return Execução em andamento.
+     * @throws IllegalArgumentException Se a taxa for negativa ou o identificador não for positivo.
+     * @throws IllegalStateException Se a execução já estiver em andamento ou se outra execução ainda não foi concluída.
+     */
+    public ExecucaoCorrecao iniciarCorrecao(long taxa, RoundingMode arredondamento, long idExecucao) {
+        if (taxa < 0) {
+            throw new IllegalArgumentException("A taxa de correção deve ser positiva.");
+        }
+        if (idExecucao <= 0) {
+            throw new IllegalArgumentException("O identificador da execução de correção deve ser positivo.");
+        }
+
+        Conta[] contasCorrecao = particoes.getRemuneradas().copiar();
+        ExecucaoCorrecao execucao = new ExecucaoCorrecao(idExecucao, taxa, arredondamento, contasCorrecao.length);
+
+        synchronized (this) {
+            verificarExecucaoPendente(idExecucao);
+            if (execucaoCorrecaoAtual != null && !execucaoCorrecaoAtual.isTerminada()) {
+                throw new IllegalStateException("A execução de correção " + execucaoCorrecaoAtual.getIdExecucao() + " já está em andamento.");
+            }
+            execucaoCorrecaoPendente = idExecucao;
+            execucaoCorrecaoAtual = execucao;
+        }
+
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                long ultimoLsn = new TarefaCorrecao(this, execucao, contasCorrecao, 0, contasCorrecao.length).invoke();
+                aguardarDurabilidade(ultimoLsn);
+                aguardarDurabilidade(registrarConclusaoCorrecao(execucao));
+                execucao.concluir(null);
+            } catch (RuntimeException | Error e) {
+                execucao.concluir(e);
+            }
+        });
+        return execucao;
+    }
+
+    /**
+     * Registra uma correção de todas as contas poupança como uma nova época, sem alterar nenhuma conta.
+     * Cada conta poupança aplica a época, com a data do registro, antes da sua próxima consulta ou alteração.
+     * Todas as listras são travadas enquanto a época é registrada, para que a época fique, no journal e nas contas,
+     * na mesma posição em relação às operações de cada conta; o custo não depende da quantidade de contas.
+     * O registro aguarda o término de um snapshot em andamento, de modo que as contas gravadas no snapshot nunca
+     * contenham épocas posteriores a ele.
+     * <p>
+     * Uma execução cujo identificador já registrou uma época não é registrada novamente. Enquanto uma execução
+     * iniciada por {@link #iniciarCorrecao} não for concluída, nenhuma época é registrada.
      *
-     * @param taxa Taxa de correção em porcentagem.
+     * @param taxa Taxa de correção em porcentagem, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento de cada conta para centavos.
+     * @param idExecucao Identificador positivo da execução (ver {@link ExecucaoCorrecao#novoIdentificador()}).
+     * @return Verdadeiro se a época foi registrada, falso se a execução já havia registrado uma época.
+     * @throws IllegalArgumentException Se a taxa for negativa ou o identificador não for positivo.
+     * @throws IllegalStateException Se uma execução de correção ainda não foi concluída.
      */
-    public void aplicarCorrecao(double taxa) {
-        aplicaTaxaEmPorcentagem(taxa);
-        System.out.println("- Correção de " + taxa + "% realizada com sucesso.");
+    public synchronized boolean registrarCorrecaoSobDemanda(long taxa, RoundingMode arredondamento, long idExecucao) {
+        if (taxa < 0) {
+            throw new IllegalArgumentException("A taxa de correção deve ser positiva.");
+        }
+        if (idExecucao <= 0) {
+            throw new IllegalArgumentException("O identificador da execução de correção deve ser positivo.");
+        }
+        if (epocasCorrecao.contemExecucao(idExecucao)) {
+            return false;
+        }
+        verificarExecucaoPendente(0);
+
+        long lsn;
+
+        // O cadastro de contas também é bloqueado: uma conta poupança criada depois da época não a aplica.
+        synchronized (contas) {
+            tabelaLocks.travarTodas();
+            try {
+                RegistroJournal registro = RegistroJournal.epocaCorrecao(taxa, arredondamento, idExecucao);
+                lsn = registrarNoJournal(registro);
+                epocasCorrecao.registrar(registro.getTimestamp(), taxa, arredondamento, idExecucao);
+            } finally {
+                tabelaLocks.destravarTodas();
+            }
+        }
+        aguardarDurabilidade(lsn);
+        return true;
     }
 
     /**
      * Cadastra uma chave PIX associada a um CPF.
      *
      * @param cpf CPF a ser cadastrado.
+     * @return Comprovante do cadastro da chave, ou da falha se a chave já estiver cadastrada.
+     * @throws ContaNaoEncontradaException Se o CPF não estiver associado a uma conta.
+     * @throws TipoContaException Se a conta associada ao CPF não for uma conta corrente/especial.
+     */
+    public Comprovante cadastrarPix(String cpf) throws ContaNaoEncontradaException, TipoContaException {
+        return cadastrarPix(cpf, TipoChavePix.CPF, cpf);
+    }
+
+    /**
+     * Cadastra uma chave PIX do tipo informado para a conta associada a um CPF.
+     *
+     * @param cpf CPF do correntista dono da chave.
+     * @param tipo Tipo da chave (CPF, e-mail, telefone ou aleatória).
+     * @param chave Valor da chave. Ignorado para chaves aleatórias, que são geradas automaticamente.
+     * @return Comprovante do cadastro da chave, ou da falha se a chave já estiver cadastrada.
+     * @throws ContaNaoEncontradaException Se o CPF não estiver associado a uma conta.
+     * @throws TipoContaException Se a conta associada ao CPF não for uma conta corrente/especial.
+     */
+    public Comprovante cadastrarPix(String cpf, TipoChavePix tipo, String chave) throws ContaNaoEncontradaException, TipoContaException {
+        long medicao = iniciarMedicao();
+        try {
+            return exibir(medir(OperacaoMedida.CADASTRO_PIX, medicao, registrarChavePix(cpf, tipo, chave)));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.CADASTRO_PIX, medicao, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Cadastra uma chave Pix para a conta associada a um CPF, travando a listra da conta.
+     *
+     * @param cpf CPF do correntista dono da chave.
+     * @param tipo Tipo da chave.
+     * @param chave Valor da chave. Ignorado para chaves aleatórias.
+     * @return Comprovante do cadastro ou da falha se a chave já estiver cadastrada, ainda não exibido.
      * @throws ContaNaoEncontradaException Se o CPF não estiver associado a uma conta.
      * @throws TipoContaException Se a conta associada ao CPF não for uma conta corrente/especial.
      */
-    public void cadastrarPix(String cpf) throws ContaNaoEncontradaException, TipoContaException {
+    private Comprovante registrarChavePix(String cpf, TipoChavePix tipo, String chave) throws ContaNaoEncontradaException, TipoContaException {
         Conta conta = getContaPorCPF(cpf);
 
         if (conta == null) {
@@ -141,12 +527,29 @@ public class BancoService implements Serializable {
         }
 
         if (conta instanceof ContaCorrente contaCorrente) {
+            String chaveCadastrada;
+            long lsn;
+
+            tabelaLocks.travar(contaCorrente.getNumeroConta());
             try {
-                contaCorrente.cadastrarPix(cpfsPix);
-                System.out.println("- Chave pix cadastrada com sucesso.");
+                preservarImagem(contaCorrente);
+                verificarJournal();
+                chaveCadastrada = contaCorrente.cadastrarPix(diretorioPix, tipo, chave);
+                try {
+                    lsn = registrarNoJournal(RegistroJournal.cadastroPix(contaCorrente.getNumeroConta(), tipo, chaveCadastrada));
+                } catch (RuntimeException e) {
+                    diretorioPix.remover(chaveCadastrada, contaCorrente);
+                    throw e;
+                }
             } catch (PixJaCadastradoException e) {
-                System.out.println("\nErro: " + e.getMessage());
+                return Comprovante.falha(TipoComprovante.CADASTRO_PIX, SituacaoComando.CHAVE_PIX_JA_CADASTRADA,
+                        contaCorrente.getNumeroConta(), 0, e.getMessage());
+            } finally {
+                tabelaLocks.destravar(contaCorrente.getNumeroConta());
             }
+            aguardarDurabilidade(lsn);
+
+            return Comprovante.chavePixCadastrada(contaCorrente.getNumeroConta(), tipo, chaveCadastrada);
         } else {
             throw new TipoContaException("Conta selecionada não é Conta Corrente/Especial.");
         }
@@ -154,143 +557,1468 @@ public class BancoService implements Serializable {
 
     /**
      * Realiza uma transferência via PIX entre duas contas.
+     * As contas de origem e destino são resolvidas diretamente pelo diretório de chaves Pix,
+     * e suas listras são travadas na ordem canônica da {@link TabelaLocks} durante a transferência.
      *
-     * @param cpfOrigem  CPF da conta de origem.
-     * @param cpfDestino CPF da conta de destino.
-     * @param valor      Valor a ser transferido.
-     * @throws ContaNaoEncontradaException Se um dos CPFs não estiver cadastrado para PIX.
+     * @param chaveOrigem  Chave Pix da conta de origem.
+     * @param chaveDestino Chave Pix da conta de destino.
+     * @param valor        Valor a ser transferido, em centavos.
+     * @return Comprovante da transferência, com o saldo da conta de origem, ou da falha por saldo insuficiente.
+     * @throws ContaNaoEncontradaException Se uma das chaves não estiver cadastrada para PIX.
      */
-    public void efetuarPix(String cpfOrigem, String cpfDestino, double valor) throws ContaNaoEncontradaException {
-        if (!cpfsPix.contains(cpfOrigem)) {
-            throw new ContaNaoEncontradaException("CPF " + cpfOrigem + " não cadastrado para Pix.");
-        }
+    public Comprovante efetuarPix(String chaveOrigem, String chaveDestino, long valor) throws ContaNaoEncontradaException {
+        long medicao = iniciarMedicao();
+        try {
+            ContaCorrente origem = resolverChavePix(chaveOrigem);
+            ContaCorrente destino = resolverChavePix(chaveDestino);
 
-        if (!cpfsPix.contains(cpfDestino)) {
-            throw new ContaNaoEncontradaException("CPF " + cpfDestino + " não cadastrado para Pix.");
+            return exibir(medir(OperacaoMedida.PIX, medicao, transferir(origem, destino, chaveOrigem, chaveDestino, valor, null)));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.PIX, medicao, e);
+            throw e;
         }
+    }
+
+    /**
+     * Realiza uma transferência via Pix com uma chave de idempotência informada pelo cliente.
+     * Se uma transferência com a mesma chave já foi efetivada, o seu comprovante original é devolvido sem transferir
+     * de novo; se ainda estiver em andamento, a sua conclusão é aguardada. Transferências recusadas (por exemplo, por
+     * saldo insuficiente) liberam a chave para uma nova tentativa (ver {@link CacheIdempotencia}).
+     *
+     * @param chaveOrigem  Chave Pix da conta de origem.
+     * @param chaveDestino Chave Pix da conta de destino.
+     * @param valor        Valor a ser transferido, em centavos.
+     * @param chaveIdempotencia Chave de idempotência da transferência.
+     * @return Comprovante da transferência, com o saldo da conta de origem após a operação original, ou da falha.
+     * @throws ContaNaoEncontradaException Se uma das chaves não estiver cadastrada para PIX.
+     * @throws IllegalArgumentException Se a chave de idempotência já tiver sido usada em uma operação com outros parâmetros.
+     */
+    public Comprovante efetuarPix(String chaveOrigem, String chaveDestino, long valor, String chaveIdempotencia) throws ContaNaoEncontradaException {
+        long medicao = iniciarMedicao();
+        try {
+            ContaCorrente origem = resolverChavePix(chaveOrigem);
+            ContaCorrente destino = resolverChavePix(chaveDestino);
+            EntradaIdempotencia entrada = idempotencia.reservar(Objects.requireNonNull(chaveIdempotencia),
+                    TipoComprovante.PIX, origem.getNumeroConta(), destino.getNumeroConta(), valor);
+
+            // Os reenvios são contados pelo cache de idempotência, e não como novas transferências.
+            if (entrada.isConcluida()) {
+                return exibir(entrada.comprovante(chaveOrigem, chaveDestino));
+            }
 
-        ContaCorrente origem = (ContaCorrente) getContaPorCPF(cpfOrigem);
-        ContaCorrente destino = (ContaCorrente) getContaPorCPF(cpfDestino);
+            Comprovante comprovante = null;
+            try {
+                comprovante = transferir(origem, destino, chaveOrigem, chaveDestino, valor, entrada);
+            } finally {
+                encerrarReserva(entrada, comprovante);
+            }
+            return exibir(medir(OperacaoMedida.PIX, medicao, comprovante));
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.PIX, medicao, e);
+            throw e;
+        }
+    }
 
+    /**
+     * Executa um lote de depósitos, saques, transferências Pix e correções, sem exibir mensagens.
+     * <p>
+     * Os comandos entre duas transferências Pix são agrupados por conta: cada conta é buscada e travada uma
+     * única vez para todos os seus comandos do trecho, aplicados na ordem em que aparecem no lote. As
+     * transferências são aplicadas na sua posição do lote, de modo que os comandos de cada conta são sempre
+     * efetivados na ordem informada. Um comando inválido resulta em uma falha no seu resultado, sem interromper
+     * os demais. Com um journal anexado, a gravação dos registros do lote é aguardada uma única vez, ao final.
+     * <p>
+     * No lote, as contas são travadas em qualquer {@link ModoConcorrencia}, já que o lock é adquirido uma vez
+     * para todos os comandos da conta no trecho.
+     *
+     * @param comandos Comandos do lote.
+     * @return Resultado de cada comando, na mesma posição do comando no lote.
+     */
+    public ResultadoComando[] executarLote(List<ComandoLote> comandos) {
+        long medicao = iniciarMedicao();
         try {
-            origem.efetuarPix(cpfsPix, destino, valor); // Destino recebe automaticamente
-            System.out.println("- Pix de R$" + String.format("%.2f", valor) + " realizado com sucesso de " + cpfOrigem + " para " + cpfDestino + ".");
-        } catch (PixNaoCadastradoException | SaldoInsuficienteException e) {
-            System.out.println("\nErro: " + e.getMessage());
+            ComandoLote[] lote = comandos.toArray(new ComandoLote[0]);
+            ResultadoComando[] resultados = new ResultadoComando[lote.length];
+            long ultimoLsn = 0;
+            int inicioTrecho = 0;
+
+            for (int i = 0; i < lote.length; i++) {
+                if (lote[i].getTipo() == TipoComando.PIX) {
+                    ultimoLsn = Math.max(ultimoLsn, executarTrecho(lote, inicioTrecho, i, resultados));
+                    ultimoLsn = Math.max(ultimoLsn, executarPixDoLote(lote[i], i, resultados));
+                    inicioTrecho = i + 1;
+                }
+            }
+            ultimoLsn = Math.max(ultimoLsn, executarTrecho(lote, inicioTrecho, lote.length, resultados));
+            aguardarDurabilidade(ultimoLsn);
+
+            medir(OperacaoMedida.LOTE, medicao, SituacaoComando.EFETUADO);
+            return resultados;
+        } catch (RuntimeException e) {
+            medirFalha(OperacaoMedida.LOTE, medicao, e);
+            throw e;
         }
     }
 
+    /**
+     * Importa contas de um arquivo delimitado, sem exibir mensagens para cada conta.
+     * O arquivo é lido em blocos, sem ser carregado por inteiro na memória, e os campos e CPFs de cada bloco são
+     * validados em paralelo. As contas de cada bloco são criadas em lote, na ordem do arquivo, com o mesmo critério
+     * de duplicidade de nome e CPF de {@link #criarContaCorrente}; o depósito inicial, se houver, é efetuado logo após
+     * a criação da conta. As linhas que não geram conta são gravadas no arquivo de rejeições com o motivo.
+     * Com um journal anexado, a gravação dos registros é aguardada uma vez por bloco.
+     *
+     * @param importacao Parâmetros da importação.
+     * @return Resumo da importação, com as contagens e a vazão.
+     * @throws IOException Em caso de erro de leitura do arquivo ou de gravação das rejeições.
+     */
+    public ResumoImportacao importarContas(ImportacaoContas importacao) throws IOException {
+        return new ImportadorContas(this, importacao).executar();
+    }
+
     /**
      * Exibe o histórico de transações de uma conta.
+     * O histórico é percorrido página a página, sem criar todas as operações de uma vez.
      *
      * @param numeroConta Número da conta a ser consultada.
      * @throws ContaNaoEncontradaException Se a conta não for encontrada.
      */
     public void consultarExtrato(int numeroConta) throws ContaNaoEncontradaException {
-        Conta conta = getContaPorNumero(numeroConta);
+        ConsultaExtrato consulta = ConsultaExtrato.paginas(ConsultaExtrato.TAMANHO_PAGINA_PADRAO);
+        PaginaExtrato pagina = consultarExtrato(numeroConta, consulta);
 
-        if (conta == null) {
-            throw new ContaNaoEncontradaException("Conta com número " + numeroConta + " não encontrada.");
+        SaidaBanco saidaAtual = saida;
+        if (pagina.getOperacoes().isEmpty()) {
+            saidaAtual.exibir("\n- Sem transações disponíveis no histórico da conta.");
+            return;
         }
 
-        System.out.println();
-        List<Operacao> operacoesConta = conta.getTransacoes();
+        saidaAtual.exibir("\n---- Histórico de Transações ----");
+        pagina.getOperacoes().forEach(saidaAtual::exibir);
 
-        if (operacoesConta.isEmpty()) {
-            System.out.println("- Sem transações disponíveis no histórico da conta.");
-            return;
+        while (pagina.temProximaPagina()) {
+            pagina = consultarExtrato(numeroConta, consulta.comCursor(pagina.getProximoCursor()));
+            pagina.getOperacoes().forEach(saidaAtual::exibir);
+        }
+    }
+
+    /**
+     * Consulta uma página do histórico de transações de uma conta, sem exibir mensagens.
+     * A página pode ser restrita a um período e a tipos de operação, e a próxima página é obtida
+     * repetindo a consulta com o cursor devolvido.
+     *
+     * @param numeroConta Número da conta a ser consultada.
+     * @param consulta Parâmetros da consulta.
+     * @return Página com as operações, em ordem cronológica, e o cursor da próxima página.
+     * @throws ContaNaoEncontradaException Se a conta não for encontrada.
+     * @throws IllegalArgumentException Se o cursor da consulta for inválido ou pertencer a outra conta.
+     */
+    public PaginaExtrato consultarExtrato(int numeroConta, ConsultaExtrato consulta) throws ContaNaoEncontradaException {
+        long medicao = iniciarMedicao();
+        try {
+            Conta conta = getContaPorNumero(numeroConta);
+
+            if (conta == null) {
+                throw new ContaNaoEncontradaException("Conta com número " + numeroConta + " não encontrada.");
+            }
+            PaginaExtrato pagina = conta.consultarTransacoes(consulta);
+            medir(OperacaoMedida.EXTRATO, medicao, SituacaoComando.EFETUADO);
+            return pagina;
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.EXTRATO, medicao, e);
+            throw e;
         }
+    }
+
+    /**
+     * Consulta o saldo atual de uma conta, sem exibir mensagens.
+     *
+     * @param numeroConta Número da conta a ser consultada.
+     * @return Saldo da conta, em centavos.
+     * @throws ContaNaoEncontradaException Se a conta não for encontrada.
+     */
+    public long consultarSaldo(int numeroConta) throws ContaNaoEncontradaException {
+        long medicao = iniciarMedicao();
+        Conta conta = getContaPorNumero(numeroConta);
 
-        System.out.println("---- Histórico de Transações ----");
-        operacoesConta.forEach(System.out::println);
+        if (conta == null) {
+            medir(OperacaoMedida.BUSCA_CONTA, medicao, SituacaoComando.CONTA_NAO_ENCONTRADA);
+            throw new ContaNaoEncontradaException("Conta com número " + numeroConta + " não encontrada.");
+        }
+        long saldo = conta.getSaldo();
+        medir(OperacaoMedida.BUSCA_CONTA, medicao, SituacaoComando.EFETUADO);
+        return saldo;
     }
 
     /**
      * Exibe todas as contas registradas no sistema.
      */
     public void exibirContasRegistradas() {
-        System.out.println();
-        contas.forEach(System.out::println);
+        SaidaBanco saidaAtual = saida;
+        saidaAtual.exibir("");
+        copiarContas().forEach(saidaAtual::exibir);
     }
 
-    // Métodos Privados
+    /**
+     * Exibe as contas registradas de um tipo, percorrendo apenas a partição do tipo.
+     *
+     * @param tipo Tipo das contas a serem exibidas.
+     */
+    public void exibirContasRegistradas(TipoConta tipo) {
+        SaidaBanco saidaAtual = saida;
+        saidaAtual.exibir("");
+        particoes.getPorTipo(tipo).paraCada(saidaAtual::exibir);
+    }
 
     /**
-     * Verifica a disponibilidade de um nome e CPF no sistema.
+     * Retorna a quantidade de contas registradas de um tipo.
      *
-     * @param correntistaNome Nome a ser verificado.
-     * @param correntistaCPF  CPF a ser verificado.
-     * @throws ContaJaCadastradaException Se o nome ou CPF já estiver em uso.
-     * @throws DocumentoInvalidoException Se o CPF for inválido.
+     * @param tipo Tipo de conta.
+     * @return Quantidade de contas do tipo.
      */
-    private void checaDisponibilidadeNomeCPF(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
-        boolean nomeDisponibilidade = verificarDisponibilidadePorNome(correntistaNome);
+    public int getQuantidadeContas(TipoConta tipo) {
+        return particoes.getPorTipo(tipo).tamanho();
+    }
 
-        if (!nomeDisponibilidade) {
-            throw new ContaJaCadastradaException("Nome já cadastrado no sistema.");
+    /**
+     * Reproduz os registros do journal posteriores a este snapshot e passa a registrar no journal
+     * todas as mutações seguintes. Deve ser chamado antes de o serviço começar a receber operações.
+     * O gravador pode ser o próprio {@link Journal} ou um {@link CommitEmGrupo} à sua frente.
+     * Se a reprodução falhar, o serviço fica com apenas parte dos registros aplicada e deve ser descartado: não
+     * pode receber operações nem gravar snapshots, que fariam os registros já aplicados serem reproduzidos de novo.
+     *
+     * @param gravador Gravador do journal de escrita antecipada do serviço.
+     * @throws IOException Em caso de erro de entrada/saída ao ler o journal.
+     * @throws IllegalStateException Se um registro do journal não puder ser reproduzido sobre o estado atual.
+     */
+    public void anexarJournal(GravadorJournal gravador) throws IOException {
+        Journal journal = gravador.getJournal();
+        journal.avancarLsn(lsnSnapshot);
+        journal.reproduzir(lsnSnapshot, this::reproduzirRegistro);
+        this.gravador = gravador;
+    }
+
+    /**
+     * Passa a manter o histórico das contas em livros mapeados em memória do armazém informado, fora do heap.
+     * O histórico das contas existentes é transferido para o armazém, assim como o das contas cadastradas depois.
+     * Deve ser chamado antes de o serviço começar a receber operações.
+     *
+     * @param armazemLivros Armazém dos livros das contas.
+     * @throws IOException Em caso de erro de entrada/saída. As contas ainda não transferidas mantêm o histórico em memória.
+     */
+    public void usarArmazemLivros(ArmazemLivros armazemLivros) throws IOException {
+        this.armazemLivros = armazemLivros;
+
+        for (Conta conta : copiarContas()) {
+            armazemLivros.migrar(conta);
         }
+    }
 
-        boolean cpfDisponibilidade = verificarDisponibilidadePorCPF(correntistaCPF);
+    /**
+     * Grava um snapshot do serviço sem interromper as operações.
+     * Todas as listras são travadas apenas enquanto o ponto do snapshot é definido (o LSN do último registro),
+     * e o cadastro de contas até a cópia da lista de contas. Em seguida, com as operações já liberadas, o journal
+     * passa para um novo segmento e as contas são gravadas uma a uma: as alteradas desde o ponto do snapshot
+     * são gravadas a partir da imagem preservada antes da primeira alteração. Depois que o arquivo é movido
+     * para o lugar do snapshot anterior, os segmentos do journal já contidos nele são apagados.
+     * Contas com o histórico no armazém de livros têm apenas a quantidade de lançamentos gravada, e os livros
+     * são sincronizados com o disco antes de o snapshot substituir o anterior.
+     * <p>
+     * A imagem de cada conta corresponde exatamente ao ponto do snapshot quando as mutações travam as contas,
+     * ou seja, com um journal anexado ou no modo {@link ModoConcorrencia#LOCK_POR_CONTA}.
+     * Com um {@link MotorParticionado} iniciado, o ponto só é definido quando não há créditos Pix em trânsito
+     * entre partições.
+     * <p>
+     * Depois de uma falha de gravação do journal, nenhum snapshot é gravado: as mutações cujos registros se
+     * perderam já foram aplicadas às contas, e um snapshot as tornaria duráveis mesmo tendo sido recusadas a
+     * quem as solicitou.
+     *
+     * @param arquivo Arquivo do snapshot.
+     * @return LSN do último registro do journal contido no snapshot.
+     * @throws IOException Em caso de erro de entrada/saída. O snapshot anterior e o journal são mantidos.
+     * @throws UncheckedIOException Se a gravação de um registro do journal falhou. O snapshot anterior e o journal
+     *                              são mantidos.
+     */
+    public synchronized long gravarSnapshot(Path arquivo) throws IOException {
+        long medicao = iniciarMedicao();
+        try {
+            long lsn = escreverSnapshot(arquivo);
+            medir(OperacaoMedida.SNAPSHOT, medicao, SituacaoComando.EFETUADO);
+            return lsn;
+        } catch (Exception e) {
+            medirFalha(OperacaoMedida.SNAPSHOT, medicao, e);
+            throw e;
+        }
+    }
 
-        if (!cpfDisponibilidade) {
-            throw new ContaJaCadastradaException("CPF já cadastrado no sistema.");
+    /**
+     * Grava o snapshot descrito em {@link #gravarSnapshot(Path)}. Deve ser chamado com o monitor do serviço.
+     *
+     * @param arquivo Arquivo do snapshot.
+     * @return LSN do último registro do journal contido no snapshot.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private long escreverSnapshot(Path arquivo) throws IOException {
+        GravadorJournal gravadorAtual = gravador;
+        CapturaSnapshot captura = new CapturaSnapshot(diretorioPix);
+        long lsn;
+        long sequenciaIdempotencia;
+        List<Conta> contasSnapshot;
+
+        MotorParticionado motorAtual = motor;
+        if (motorAtual != null) {
+            motorAtual.pausar();
+        }
+        try {
+            synchronized (contas) {
+                tabelaLocks.travarTodas();
+                try {
+                    // Um Pix entre partições debitado antes do ponto precisa ter o crédito aplicado antes dele.
+                    while (motorAtual != null && motorAtual.possuiCreditosPendentes()) {
+                        tabelaLocks.destravarTodas();
+                        Thread.yield();
+                        tabelaLocks.travarTodas();
+                    }
+                    if (gravadorAtual != null) {
+                        gravadorAtual.verificarDisponivel();
+                        lsn = gravadorAtual.getUltimoLsn();
+                    } else {
+                        lsn = lsnSnapshot;
+                    }
+                    sequenciaIdempotencia = idempotencia.getSequencia();
+                    capturaEmAndamento = captura;
+                } finally {
+                    tabelaLocks.destravarTodas();
+                }
+                // O cadastro de contas continua bloqueado até a cópia da lista, que define as contas do snapshot.
+                contasSnapshot = new ArrayList<>(contas);
+            }
+        } finally {
+            if (motorAtual != null) {
+                motorAtual.retomar();
+            }
         }
 
-        boolean cpfEhValido = ValidarCPF.cpfEhValido(correntistaCPF);
+        try {
+            if (gravadorAtual != null) {
+                // Um lote ainda em gravação pode falhar depois do ponto: os seus registros não podem chegar ao snapshot.
+                gravadorAtual.aguardarDurabilidade(lsn);
+                gravadorAtual.getJournal().rotacionar();
+            }
 
-        if (!cpfEhValido) {
-            throw new DocumentoInvalidoException("CPF inválido.");
+            try (EscritorSnapshot escritor = EscritorSnapshot.criar(arquivo)) {
+                escritor.gravarCabecalho(lsn, buscaPorVarredura, modoConcorrencia, modoCorrecao, epocasCorrecao, execucaoCorrecaoPendente,
+                        idempotencia.entradasAte(sequenciaIdempotencia), contasSnapshot.size());
+
+                for (Conta conta : contasSnapshot) {
+                    ImagemConta imagem;
+
+                    tabelaLocks.travar(conta.getNumeroConta());
+                    try {
+                        imagem = captura.capturar(conta);
+                    } finally {
+                        tabelaLocks.destravar(conta.getNumeroConta());
+                    }
+
+                    escritor.gravarConta(imagem);
+                    captura.marcarGravada(conta);
+                }
+
+                ArmazemLivros armazem = armazemLivros;
+                if (armazem != null) {
+                    armazem.descarregar();
+                }
+                escritor.concluir();
+            }
+        } finally {
+            capturaEmAndamento = null;
+        }
+
+        lsnSnapshot = lsn;
+        if (gravadorAtual != null) {
+            gravadorAtual.getJournal().removerSegmentosAte(lsn);
         }
+        return lsn;
     }
 
     /**
-     * Busca uma conta pelo CPF.
+     * Cria um serviço a partir de um snapshot gravado com {@link #gravarSnapshot(Path)}.
+     * Os registros do journal posteriores ao snapshot são reproduzidos ao anexar o journal.
      *
-     * @param cpf Número do CPF.
-     * @return Conta encontrada ou null se não existir.
+     * @param arquivo Arquivo do snapshot.
+     * @return Serviço com o estado do snapshot.
+     * @throws IOException Em caso de erro de entrada/saída ou se o snapshot estiver corrompido.
      */
-    private Conta getContaPorCPF(String cpf) {
-        return contas.stream().filter(conta -> conta.getCorrentistaCPF().equals(cpf)).findFirst().orElse(null);
+    public static BancoService carregarSnapshot(Path arquivo) throws IOException {
+        return carregarSnapshot(arquivo, null);
     }
 
     /**
-     * Busca uma conta pelo número.
+     * Cria um serviço a partir de um snapshot gravado com {@link #gravarSnapshot(Path)}, reabrindo do armazém
+     * os livros das contas com histórico externo. O serviço passa a usar o armazém para as novas contas.
      *
-     * @param numeroConta Número da conta.
-     * @return Conta encontrada ou null se não existir.
+     * @param arquivo Arquivo do snapshot.
+     * @param armazemLivros Armazém dos livros das contas, ou null se não houver.
+     * @return Serviço com o estado do snapshot.
+     * @throws IOException Em caso de erro de entrada/saída, se o snapshot estiver corrompido ou se o livro
+     *                     de uma conta não puder ser reaberto.
      */
-    private Conta getContaPorNumero(int numeroConta) {
-        return contas.stream().filter(conta -> conta.getNumeroConta() == numeroConta).findFirst().orElse(null);
+    public static BancoService carregarSnapshot(Path arquivo, ArmazemLivros armazemLivros) throws IOException {
+        BancoService bancoService = new BancoService();
+        bancoService.armazemLivros = armazemLivros;
+
+        try (LeitorSnapshot leitor = LeitorSnapshot.abrir(arquivo)) {
+            bancoService.lsnSnapshot = leitor.getLsn();
+            bancoService.buscaPorVarredura = leitor.isBuscaPorVarredura();
+            bancoService.modoConcorrencia = leitor.getModoConcorrencia();
+            bancoService.modoCorrecao = leitor.getModoCorrecao();
+            bancoService.epocasCorrecao = leitor.getEpocasCorrecao();
+            bancoService.execucaoCorrecaoPendente = leitor.getExecucaoCorrecaoPendente();
+            for (EntradaIdempotencia entrada : leitor.getIdempotencia()) {
+                bancoService.idempotencia.restaurar(entrada);
+            }
+
+            for (int i = 0; i < leitor.getQuantidadeContas(); i++) {
+                ImagemConta imagem = leitor.lerConta();
+                Conta conta = imagem.restaurar(armazemLivros);
+                bancoService.registrarConta(conta);
+
+                for (String chave : imagem.getChavesPix()) {
+                    bancoService.diretorioPix.restaurar(chave, (ContaCorrente) conta);
+                }
+            }
+        } catch (PixJaCadastradoException | ClassCastException e) {
+            throw new IOException("Snapshot corrompido: " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return bancoService;
     }
 
     /**
-     * Aplica uma taxa de correção a todas as contas poupança.
+     * Inicia um {@link MotorParticionado} e o anexa ao serviço: a partir daí, depósitos, saques e transferências Pix
+     * são executados pelas threads das partições. As demais operações continuam travando as listras das contas.
+     * Fechar o motor o desanexa do serviço.
      *
-     * @param taxa Taxa a ser aplicada.
+     * @param quantidadeParticoes Quantidade de partições (e de threads) do motor.
+     * @return Motor iniciado.
+     * @throws IllegalArgumentException Se a quantidade de partições for menor ou igual a 0 ou maior que a quantidade
+     *                                  de listras da {@link TabelaLocks}.
+     * @throws IllegalStateException Se já houver um motor anexado ao serviço.
      */
-    private void aplicaTaxaEmPorcentagem(double taxa) {
-        contas.stream()
-                .filter(conta -> conta instanceof ContaPoupanca)
-                .map(conta -> (ContaPoupanca) conta)
-                .forEach(contaPoupanca -> {contaPoupanca.taxaCorrecao(taxa);}
-                );
+    public synchronized MotorParticionado iniciarMotorParticionado(int quantidadeParticoes) {
+        if (motor != null) {
+            throw new IllegalStateException("O serviço já possui um motor particionado em execução.");
+        }
+
+        motor = new MotorParticionado(this, tabelaLocks, quantidadeParticoes, MotorParticionado.CAPACIDADE_PADRAO);
+        return motor;
     }
 
     /**
-     * Verifica se nome está disponível no sistema.
-     * @param nome Nome a ser procurado.
-     * @return Verdadeiro se o nome está disponível, caso contrário falso.
+     * Define se as buscas de contas devem percorrer a lista completa em vez de usar o índice.
+     * O modo de varredura é mantido como alternativa para comparação com o índice.
+     *
+     * @param buscaPorVarredura Verdadeiro para buscar por varredura linear, falso para usar o índice.
      */
-    private boolean verificarDisponibilidadePorNome(String nome) {
-        return contas.stream().noneMatch(conta -> conta.getCorrentistaNome().equals(nome));
+    public void setBuscaPorVarredura(boolean buscaPorVarredura) {
+        this.buscaPorVarredura = buscaPorVarredura;
     }
 
     /**
-     * Verifica se o CPF está disponível no sistema.
-     * @param cpf CPF a ser procurado.
-     * @return Verdadeiro se o CPF está disponível, caso contrário falso.
+     * Define como depósitos e saques executados em paralelo são coordenados.
+     *
+     * @param modoConcorrencia Modo de concorrência a ser utilizado.
      */
-    private boolean verificarDisponibilidadePorCPF(String cpf) {
-        return contas.stream().noneMatch(conta -> conta.getCorrentistaCPF().equals(cpf));
+    public void setModoConcorrencia(ModoConcorrencia modoConcorrencia) {
+        this.modoConcorrencia = modoConcorrencia;
+    }
+
+    /**
+     * Define como as correções das contas poupança são aplicadas. Correções já registradas sob demanda continuam
+     * sendo aplicadas pelas contas ao trocar de modo.
+     *
+     * @param modoCorrecao Modo de correção a ser utilizado.
+     */
+    public void setModoCorrecao(ModoCorrecao modoCorrecao) {
+        this.modoCorrecao = modoCorrecao;
+    }
+
+    /**
+     * Define a saída onde o serviço entrega os comprovantes das operações, os extratos e as listas de contas.
+     * A saída anterior não é fechada.
+     *
+     * @param saida Nova saída do serviço (ver {@link service.saida.SaidaNula} para descartar as mensagens).
+     */
+    public void setSaida(SaidaBanco saida) {
+        this.saida = Objects.requireNonNull(saida);
+    }
+
+    /**
+     * Retorna a saída onde o serviço entrega as suas mensagens.
+     *
+     * @return Saída atual do serviço.
+     */
+    public SaidaBanco getSaida() {
+        return saida;
+    }
+
+    // Métodos Privados
+
+    /**
+     * Desanexa o motor informado do serviço, caso ele ainda seja o motor anexado.
+     *
+     * @param motorParticionado Motor que está sendo encerrado.
+     */
+    synchronized void desanexarMotor(MotorParticionado motorParticionado) {
+        if (motor == motorParticionado) {
+            motor = null;
+        }
+    }
+
+    /**
+     * Retorna o diretório de chaves Pix do serviço.
+     *
+     * @return Diretório de chaves Pix.
+     */
+    DiretorioPix getDiretorioPix() {
+        return diretorioPix;
+    }
+
+    /**
+     * Retorna o cache das chaves de idempotência, para configurar os seus limites e consultar os contadores.
+     *
+     * @return Cache de idempotência do serviço.
+     */
+    public CacheIdempotencia getCacheIdempotencia() {
+        return idempotencia;
+    }
+
+    /**
+     * Ativa a medição das operações do serviço, caso ainda não esteja ativa.
+     *
+     * @return Métricas do serviço.
+     */
+    public synchronized MetricasBanco ativarMetricas() {
+        if (metricas == null) {
+            metricas = new MetricasBanco(idempotencia);
+        }
+        return metricas;
+    }
+
+    /**
+     * Desativa a medição das operações. As métricas coletadas continuam disponíveis em quem as obteve.
+     */
+    public synchronized void desativarMetricas() {
+        metricas = null;
+    }
+
+    /**
+     * Retorna as métricas do serviço.
+     *
+     * @return Métricas, ou null se a medição estiver desativada.
+     */
+    public MetricasBanco getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Marca o início da medição de uma operação.
+     *
+     * @return Momento atual, lido de {@link System#nanoTime()}, ou {@link #SEM_MEDICAO} se as métricas estiverem
+     * desativadas.
+     */
+    private long iniciarMedicao() {
+        return metricas != null ? System.nanoTime() : SEM_MEDICAO;
+    }
+
+    /**
+     * Registra nas métricas uma operação concluída com um comprovante, caso a sua medição tenha sido iniciada.
+     *
+     * @param operacao Operação medida.
+     * @param medicao Valor devolvido por {@link #iniciarMedicao()}.
+     * @param comprovante Comprovante da operação.
+     * @return O próprio comprovante.
+     */
+    private Comprovante medir(OperacaoMedida operacao, long medicao, Comprovante comprovante) {
+        MetricasBanco metricasAtuais = metricas;
+        if (metricasAtuais != null && medicao != SEM_MEDICAO) {
+            metricasAtuais.registrar(operacao, medicao, comprovante);
+        }
+        return comprovante;
+    }
+
+    /**
+     * Registra nas métricas uma operação concluída sem comprovante, caso a sua medição tenha sido iniciada.
+     *
+     * @param operacao Operação medida.
+     * @param medicao Valor devolvido por {@link #iniciarMedicao()}.
+     * @param situacao Resultado da operação.
+     */
+    private void medir(OperacaoMedida operacao, long medicao, SituacaoComando situacao) {
+        MetricasBanco metricasAtuais = metricas;
+        if (metricasAtuais != null && medicao != SEM_MEDICAO) {
+            metricasAtuais.registrar(operacao, medicao, situacao);
+        }
+    }
+
+    /**
+     * Registra nas métricas uma operação interrompida por uma exceção, caso a sua medição tenha sido iniciada.
+     *
+     * @param operacao Operação medida.
+     * @param medicao Valor devolvido por {@link #iniciarMedicao()}.
+     * @param falha Exceção lançada pela operação.
+     */
+    private void medirFalha(OperacaoMedida operacao, long medicao, Exception falha) {
+        MetricasBanco metricasAtuais = metricas;
+        if (metricasAtuais != null && medicao != SEM_MEDICAO) {
+            metricasAtuais.registrarFalha(operacao, medicao, falha);
+        }
+    }
+
+    /**
+     * Entrega um comprovante à saída do serviço.
+     *
+     * @param comprovante Comprovante da operação.
+     * @return O próprio comprovante.
+     */
+    private Comprovante exibir(Comprovante comprovante) {
+        saida.exibir(comprovante);
+        return comprovante;
+    }
+
+    /**
+     * Busca uma conta pelo número, exigindo que ela exista.
+     *
+     * @param numeroConta Número da conta.
+     * @return Conta encontrada.
+     * @throws ContaNaoEncontradaException Se a conta não for encontrada.
+     */
+    private Conta exigirConta(int numeroConta) throws ContaNaoEncontradaException {
+        Conta conta = getContaPorNumero(numeroConta);
+
+        if (conta == null) {
+            throw new ContaNaoEncontradaException("Conta com n° " + numeroConta + " não encontrada.");
+        }
+        return conta;
+    }
+
+    /**
+     * Resolve a conta de uma chave Pix, exigindo que a chave esteja cadastrada.
+     *
+     * @param chave Chave Pix.
+     * @return Conta dona da chave.
+     * @throws ContaNaoEncontradaException Se a chave não estiver cadastrada para PIX.
+     */
+    private ContaCorrente resolverChavePix(String chave) throws ContaNaoEncontradaException {
+        ContaCorrente conta = diretorioPix.resolver(chave);
+
+        if (conta == null) {
+            throw new ContaNaoEncontradaException("Chave " + chave + " não cadastrada para Pix.");
+        }
+        return conta;
+    }
+
+    /**
+     * Deposita em uma conta, pelo motor particionado, se houver um anexado, ou travando a listra da conta.
+     *
+     * @param conta Conta do depósito.
+     * @param quantiaDeposito Valor a ser depositado, em centavos.
+     * @param entrada Entrada de idempotência reservada para o depósito, ou null.
+     * @return Comprovante do depósito, ainda não exibido.
+     */
+    private Comprovante depositar(Conta conta, long quantiaDeposito, EntradaIdempotencia entrada) {
+        int numeroConta = conta.getNumeroConta();
+
+        MotorParticionado motorAtual = motor;
+        if (motorAtual != null) {
+            return Comprovante.deposito(numeroConta, quantiaDeposito, motorAtual.depositar(conta, quantiaDeposito, entrada));
+        }
+
+        boolean travar = precisaTravarConta();
+        long lsn;
+        long saldo;
+
+        if (travar) {
+            tabelaLocks.travar(numeroConta);
+        }
+        try {
+            preservarImagem(conta);
+            conta.verificarDeposito(quantiaDeposito);
+            lsn = registrarNoJournal(RegistroJournal.deposito(numeroConta, quantiaDeposito, EntradaIdempotencia.chaveDe(entrada)));
+            conta.depositar(quantiaDeposito);
+            saldo = conta.getSaldo();
+            efetivarReserva(entrada, saldo);
+        } finally {
+            if (travar) {
+                tabelaLocks.destravar(numeroConta);
+            }
+        }
+        aguardarDurabilidade(lsn);
+
+        return Comprovante.deposito(numeroConta, quantiaDeposito, saldo);
+    }
+
+    /**
+     * Transfere via Pix entre duas contas, pelo motor particionado, se houver um anexado, ou travando as listras
+     * das duas contas.
+     *
+     * @param origem Conta de origem.
+     * @param destino Conta de destino.
+     * @param chaveOrigem Chave Pix da conta de origem.
+     * @param chaveDestino Chave Pix da conta de destino.
+     * @param valor Valor a ser transferido, em centavos.
+     * @param entrada Entrada de idempotência reservada para a transferência, ou null.
+     * @return Comprovante da transferência ou da falha, ainda não exibido.
+     */
+    private Comprovante transferir(ContaCorrente origem, ContaCorrente destino, String chaveOrigem, String chaveDestino,
+                                   long valor, EntradaIdempotencia entrada) {
+        MotorParticionado motorAtual = motor;
+        long saldo;
+
+        try {
+            if (motorAtual != null) {
+                saldo = motorAtual.transferirPix(origem, destino, valor, entrada);
+            } else {
+                aguardarDurabilidade(transferirPix(origem, destino, valor, entrada));
+                saldo = origem.getSaldo();
+            }
+        } catch (PixNaoCadastradoException e) {
+            return Comprovante.falha(TipoComprovante.PIX, SituacaoComando.CONTA_NAO_ENCONTRADA, origem.getNumeroConta(), valor, e.getMessage());
+        } catch (SaldoInsuficienteException e) {
+            return Comprovante.falha(TipoComprovante.PIX, SituacaoComando.SALDO_INSUFICIENTE, origem.getNumeroConta(), valor, e.getMessage());
+        }
+
+        return Comprovante.pix(origem.getNumeroConta(), chaveOrigem, chaveDestino, valor, saldo);
+    }
+
+    /**
+     * Registra o resultado de uma operação com chave de idempotência, caso haja uma entrada reservada.
+     * Deve ser chamado com a listra da conta travada, logo após registrar a operação no journal.
+     *
+     * @param entrada Entrada reservada para a operação, ou null.
+     * @param saldo Saldo da conta logo após a operação, em centavos.
+     */
+    void efetivarReserva(EntradaIdempotencia entrada, long saldo) {
+        if (entrada != null) {
+            idempotencia.efetivar(entrada, saldo);
+        }
+    }
+
+    /**
+     * Conclui a entrada de idempotência de uma operação efetuada, ou a libera se a operação falhou.
+     *
+     * @param entrada Entrada reservada para a operação.
+     * @param comprovante Comprovante da operação, ou null se ela lançou uma exceção.
+     */
+    private void encerrarReserva(EntradaIdempotencia entrada, Comprovante comprovante) {
+        if (comprovante != null && comprovante.isEfetuado()) {
+            idempotencia.concluir(entrada);
+        } else {
+            idempotencia.liberar(entrada);
+        }
+    }
+
+    /**
+     * Transfere o histórico de uma conta para o armazém de livros, caso o serviço utilize um.
+     * Contas novas devem ter o livro criado antes de a sua criação ser registrada no journal, para que uma
+     * falha do armazém não deixe no journal uma conta que não foi cadastrada.
+     *
+     * @param conta Conta cujo histórico será transferido.
+     * @throws UncheckedIOException Se o livro da conta não puder ser criado.
+     */
+    private void criarLivro(Conta conta) {
+        ArmazemLivros armazem = armazemLivros;
+        if (armazem != null) {
+            try {
+                armazem.migrar(conta);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao criar o livro-razão da conta n° " + conta.getNumeroConta() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Adiciona uma conta à lista de contas, ao índice e à partição do seu tipo, transferindo o seu histórico para o armazém de livros,
+     * caso o serviço utilize um e o livro ainda não tenha sido criado por {@link #criarLivro(Conta)}.
+     * Contas poupança são vinculadas às épocas de correção do serviço.
+     *
+     * @param conta Conta a ser registrada.
+     * @throws UncheckedIOException Se o livro da conta não puder ser criado. A conta não é registrada.
+     */
+    private void registrarConta(Conta conta) {
+        criarLivro(conta);
+
+        if (conta instanceof ContaPoupanca contaPoupanca) {
+            contaPoupanca.vincularEpocasCorrecao(epocasCorrecao);
+        }
+
+        contas.add(conta);
+        indice.indexar(conta);
+        particoes.adicionar(conta);
+    }
+
+    /**
+     * Ordena o registro de uma mutação no journal, caso o serviço possua um journal anexado.
+     * Mutações sobre uma conta são verificadas e registradas enquanto a listra da conta está travada, antes de
+     * serem efetivadas, para que a ordem dos registros de cada conta no journal seja a mesma em que foram
+     * efetivados e para que uma falha do journal nunca deixe na conta uma alteração sem registro.
+     *
+     * @param registro Registro da mutação.
+     * @return LSN atribuído ao registro, ou 0 se não houver journal anexado.
+     */
+    long registrarNoJournal(RegistroJournal registro) {
+        GravadorJournal gravadorAtual = gravador;
+        return gravadorAtual != null ? gravadorAtual.registrar(registro) : 0;
+    }
+
+    /**
+     * Verifica se o journal anexado, caso haja um, ainda aceita registros. Utilizado antes das mutações que só
+     * podem ser registradas depois de efetivadas, para que o serviço recuse a operação antes de alterar o estado.
+     *
+     * @throws java.io.UncheckedIOException Se uma gravação anterior do journal falhou.
+     */
+    private void verificarJournal() {
+        GravadorJournal gravadorAtual = gravador;
+        if (gravadorAtual != null) {
+            gravadorAtual.verificarDisponivel();
+        }
+    }
+
+    /**
+     * Aguarda a gravação no disco do registro informado, caso o serviço possua um journal anexado.
+     * Deve ser chamado depois de liberar as contas travadas, para que outras operações possam entrar
+     * no mesmo lote do commit em grupo.
+     *
+     * @param lsn LSN retornado por {@link #registrarNoJournal}.
+     */
+    void aguardarDurabilidade(long lsn) {
+        GravadorJournal gravadorAtual = gravador;
+        if (gravadorAtual != null && lsn > 0) {
+            gravadorAtual.aguardarDurabilidade(lsn);
+        }
+    }
+
+    /**
+     * Preserva a imagem da conta no snapshot em andamento, caso haja um, antes da sua primeira alteração.
+     * Deve ser chamado com a listra da conta travada, antes de alterá-la.
+     *
+     * @param conta Conta que será alterada.
+     */
+    void preservarImagem(Conta conta) {
+        CapturaSnapshot captura = capturaEmAndamento;
+        if (captura != null) {
+            captura.capturar(conta);
+        }
+    }
+
+    /**
+     * Indica se depósitos e saques devem travar a listra da conta.
+     * Com um journal anexado ou um snapshot em andamento a conta é sempre travada, pois a ordem dos registros
+     * e a imagem preservada da conta precisam seguir a ordem das mutações.
+     *
+     * @return Verdadeiro se a conta deve ser travada.
+     */
+    private boolean precisaTravarConta() {
+        return modoConcorrencia == ModoConcorrencia.LOCK_POR_CONTA || gravador != null || capturaEmAndamento != null;
+    }
+
+    /**
+     * Aplica um registro do journal ao estado do serviço, sem exibir mensagens.
+     * As operações geradas recebem a data original da mutação.
+     *
+     * @param registro Registro a ser reproduzido.
+     * @throws IllegalStateException Se o registro não puder ser aplicado sobre o estado atual.
+     */
+    private void reproduzirRegistro(RegistroJournal registro) {
+        long data = registro.getTimestamp();
+
+        try {
+            switch (registro.getTipo()) {
+                case CRIACAO_CONTA -> registrarConta(switch (registro.getTipoConta()) {
+                    case CORRENTE -> new ContaCorrente(registro.getNumeroConta(), registro.getNome(), registro.getCpf());
+                    case POUPANCA -> new ContaPoupanca(registro.getNumeroConta(), registro.getNome(), registro.getCpf());
+                    case ESPECIAL -> new ContaEspecial(registro.getNumeroConta(), registro.getNome(), registro.getCpf(), registro.getValor());
+                });
+                case DEPOSITO -> {
+                    Conta conta = getContaRegistrada(registro.getNumeroConta());
+                    int quantidadeAnterior = conta.getQuantidadeTransacoes();
+                    conta.depositar(registro.getValor());
+                    conta.definirDataTransacoes(quantidadeAnterior, data);
+                    if (registro.getChaveIdempotencia() != null) {
+                        idempotencia.restaurar(EntradaIdempotencia.restaurada(registro.getChaveIdempotencia(),
+                                TipoComprovante.DEPOSITO, registro.getNumeroConta(), 0, registro.getValor(), conta.getSaldo(), data));
+                    }
+                }
+                case SAQUE -> {
+                    Conta conta = getContaRegistrada(registro.getNumeroConta());
+                    int quantidadeAnterior = conta.getQuantidadeTransacoes();
+                    conta.sacar(registro.getValor());
+                    conta.definirDataTransacoes(quantidadeAnterior, data);
+                }
+                case CORRECAO -> {
+                    ContaPoupanca conta = (ContaPoupanca) getContaRegistrada(registro.getNumeroConta());
+                    int quantidadeAnterior = conta.getQuantidadeTransacoes();
+                    conta.taxaCorrecao(registro.getValor(), registro.getArredondamento(), registro.getIdExecucao());
+                    conta.definirDataTransacoes(quantidadeAnterior, data);
+                    if (registro.getIdExecucao() != 0) {
+                        execucaoCorrecaoPendente = registro.getIdExecucao();
+                    }
+                }
+                case CADASTRO_PIX -> diretorioPix.restaurar(registro.getChave(),
+                        (ContaCorrente) getContaRegistrada(registro.getNumeroConta()));
+                case PIX -> {
+                    ContaCorrente origem = (ContaCorrente) getContaRegistrada(registro.getNumeroConta());
+                    ContaCorrente destino = (ContaCorrente) getContaRegistrada(registro.getNumeroContaDestino());
+                    int quantidadeOrigem = origem.getQuantidadeTransacoes();
+                    int quantidadeDestino = destino.getQuantidadeTransacoes();
+                    origem.efetuarPix(diretorioPix, destino, registro.getValor());
+                    origem.definirDataTransacoes(quantidadeOrigem, data);
+                    destino.definirDataTransacoes(quantidadeDestino, data);
+                    if (registro.getChaveIdempotencia() != null) {
+                        idempotencia.restaurar(EntradaIdempotencia.restaurada(registro.getChaveIdempotencia(),
+                                TipoComprovante.PIX, registro.getNumeroConta(), registro.getNumeroContaDestino(),
+                                registro.getValor(), origem.getSaldo(), data));
+                    }
+                }
+                case EPOCA_CORRECAO -> epocasCorrecao.registrar(data, registro.getValor(), registro.getArredondamento(),
+                        registro.getIdExecucao());
+                case CONCLUSAO_CORRECAO -> {
+                    if (execucaoCorrecaoPendente == registro.getIdExecucao()) {
+                        execucaoCorrecaoPendente = 0;
+                    }
+                }
+            }
+        } catch (SaldoInsuficienteException | PixJaCadastradoException | PixNaoCadastradoException |
+                 ContaNaoEncontradaException | ClassCastException e) {
+            throw new IllegalStateException("Registro " + registro.getLsn() + " do journal não pôde ser reproduzido: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Busca uma conta pelo número no índice, exigindo que ela exista.
+     *
+     * @param numeroConta Número da conta.
+     * @return Conta encontrada.
+     * @throws ContaNaoEncontradaException Se a conta não estiver registrada.
+     */
+    private Conta getContaRegistrada(int numeroConta) throws ContaNaoEncontradaException {
+        Conta conta = indice.getPorNumero(numeroConta);
+        if (conta == null) {
+            throw new ContaNaoEncontradaException("Conta com n° " + numeroConta + " não encontrada.");
+        }
+        return conta;
+    }
+
+    /**
+     * Retorna uma cópia da lista de contas, permitindo percorrê-la enquanto novas contas são cadastradas.
+     *
+     * @return Cópia da lista de contas registradas.
+     */
+    private List<Conta> copiarContas() {
+        synchronized (contas) {
+            return new ArrayList<>(contas);
+        }
+    }
+
+    /**
+     * Verifica a disponibilidade de um nome e CPF no sistema.
+     *
+     * @param correntistaNome Nome a ser verificado.
+     * @param correntistaCPF  CPF a ser verificado.
+     * @throws ContaJaCadastradaException Se o nome ou CPF já estiver em uso.
+     * @throws DocumentoInvalidoException Se o CPF for inválido.
+     */
+    private void checaDisponibilidadeNomeCPF(String correntistaNome, String correntistaCPF) throws ContaJaCadastradaException, DocumentoInvalidoException {
+        boolean nomeDisponibilidade = verificarDisponibilidadePorNome(correntistaNome);
+
+        if (!nomeDisponibilidade) {
+            throw new ContaJaCadastradaException("Nome já cadastrado no sistema.");
+        }
+
+        boolean cpfDisponibilidade = verificarDisponibilidadePorCPF(correntistaCPF);
+
+        if (!cpfDisponibilidade) {
+            throw new ContaJaCadastradaException("CPF já cadastrado no sistema.");
+        }
+
+        boolean cpfEhValido = ValidarCPF.cpfEhValido(correntistaCPF);
+
+        if (!cpfEhValido) {
+            throw new DocumentoInvalidoException("CPF inválido.");
+        }
+    }
+
+    /**
+     * Busca uma conta pelo CPF.
+     *
+     * @param cpf Número do CPF, somente com números ou formatado.
+     * @return Conta encontrada ou null se não existir.
+     */
+    private Conta getContaPorCPF(String cpf) {
+        cpf = ValidarCPF.normalizar(cpf);
+        if (buscaPorVarredura) {
+            return getContaPorCPFVarredura(cpf);
+        }
+        return indice.getPorCPF(cpf);
+    }
+
+    /**
+     * Busca uma conta pelo CPF percorrendo toda a lista de contas.
+     *
+     * @param cpf Número do CPF.
+     * @return Conta encontrada ou null se não existir.
+     */
+    private Conta getContaPorCPFVarredura(String cpf) {
+        return copiarContas().stream().filter(conta -> conta.getCorrentistaCPF().equals(cpf)).findFirst().orElse(null);
+    }
+
+    /**
+     * Busca uma conta pelo número.
+     *
+     * @param numeroConta Número da conta.
+     * @return Conta encontrada ou null se não existir.
+     */
+    private Conta getContaPorNumero(int numeroConta) {
+        return buscaPorVarredura ? getContaPorNumeroVarredura(numeroConta) : indice.getPorNumero(numeroConta);
+    }
+
+    /**
+     * Busca uma conta pelo número percorrendo toda a lista de contas.
+     *
+     * @param numeroConta Número da conta.
+     * @return Conta encontrada ou null se não existir.
+     */
+    private Conta getContaPorNumeroVarredura(int numeroConta) {
+        return copiarContas().stream().filter(conta -> conta.getNumeroConta() == numeroConta).findFirst().orElse(null);
+    }
+
+    /**
+     * Cria as contas das linhas válidas de um bloco de importação, na ordem do bloco.
+     * O cadastro de contas fica serializado enquanto o bloco é registrado, e as linhas cujo nome ou CPF já estiver
+     * cadastrado, inclusive por uma linha anterior, são rejeitadas. Os depósitos iniciais são efetuados com a listra
+     * da conta travada, e a gravação dos registros no journal é aguardada uma única vez, ao final do bloco.
+     *
+     * @param bloco Bloco analisado, que recebe o número de cada conta criada ou o motivo de cada rejeição.
+     */
+    void registrarImportadas(BlocoImportacao bloco) {
+        long ultimoLsn = 0;
+
+        synchronized (contas) {
+            for (int i = 0; i < bloco.getQuantidade(); i++) {
+                if (bloco.getMotivo(i) != null) {
+                    continue;
+                }
+
+                String nome = bloco.getNome(i);
+                String cpf = bloco.getCpf(i);
+                if (!verificarDisponibilidadePorNome(nome)) {
+                    bloco.rejeitar(i, MotivoRejeicao.NOME_DUPLICADO);
+                    continue;
+                }
+                if (!verificarDisponibilidadePorCPF(cpf)) {
+                    bloco.rejeitar(i, MotivoRejeicao.CPF_DUPLICADO);
+                    continue;
+                }
+
+                Conta conta = switch (bloco.getTipo(i)) {
+                    case CORRENTE -> new ContaCorrente(nome, cpf);
+                    case POUPANCA -> new ContaPoupanca(nome, cpf);
+                    case ESPECIAL -> new ContaEspecial(nome, cpf);
+                };
+                long limiteEspecial = conta instanceof ContaEspecial contaEspecial ? contaEspecial.getLimiteEspecial() : 0;
+                criarLivro(conta);
+                ultimoLsn = registrarNoJournal(RegistroJournal.criacaoConta(conta.getNumeroConta(), bloco.getTipo(i), nome, cpf, limiteEspecial));
+                registrarConta(conta);
+                bloco.registrarConta(i, conta.getNumeroConta());
+
+                long depositoInicial = bloco.getDepositoInicial(i);
+                if (depositoInicial > 0) {
+                    tabelaLocks.travar(conta.getNumeroConta());
+                    try {
+                        preservarImagem(conta);
+                        ultimoLsn = registrarNoJournal(RegistroJournal.deposito(conta.getNumeroConta(), depositoInicial));
+                        conta.depositar(depositoInicial);
+                    } finally {
+                        tabelaLocks.destravar(conta.getNumeroConta());
+                    }
+                }
+            }
+        }
+        aguardarDurabilidade(ultimoLsn);
+    }
+
+    /**
+     * Aplica a correção de uma execução a uma conta remunerada, caso a conta ainda não tenha sido corrigida por ela.
+     * A conta é travada apenas enquanto a sua correção é aplicada e registrada no journal, de modo que uma
+     * execução interrompida nunca deixa a correção de uma conta pela metade.
+     *
+     * @param conta Conta remunerada a ser corrigida.
+     * @param execucao Execução de correção.
+     * @return LSN do registro da correção no journal, ou 0 se a conta já estava corrigida ou não houver journal anexado.
+     */
+    long corrigirConta(Conta conta, ExecucaoCorrecao execucao) {
+        Remunerada remunerada = (Remunerada) conta;
+        long lsn = 0;
+        boolean corrigida;
+
+        tabelaLocks.travar(conta.getNumeroConta());
+        try {
+            preservarImagem(conta);
+            corrigida = !remunerada.isCorrigidaPelaExecucao(execucao.getIdExecucao());
+            if (corrigida) {
+                lsn = registrarNoJournal(RegistroJournal.correcao(conta.getNumeroConta(), execucao.getTaxa(),
+                        execucao.getArredondamento(), execucao.getIdExecucao()));
+                remunerada.taxaCorrecao(execucao.getTaxa(), execucao.getArredondamento(), execucao.getIdExecucao());
+            }
+        } finally {
+            tabelaLocks.destravar(conta.getNumeroConta());
+        }
+
+        execucao.registrarConta(corrigida);
+        return lsn;
+    }
+
+    /**
+     * Verifica se uma correção pode ser iniciada, sem que outra execução esteja pendente.
+     * Deve ser chamado com o monitor do serviço.
+     *
+     * @param idExecucao Identificador da execução a ser iniciada ou retomada, ou 0 para uma época de correção.
+     * @throws IllegalStateException Se outra execução de correção ainda não foi concluída.
+     */
+    private void verificarExecucaoPendente(long idExecucao) {
+        if (execucaoCorrecaoPendente != 0 && execucaoCorrecaoPendente != idExecucao) {
+            throw new IllegalStateException("A execução de correção " + execucaoCorrecaoPendente
+                    + " não foi concluída; retome-a com o mesmo identificador antes de iniciar outra correção.");
+        }
+    }
+
+    /**
+     * Registra no journal a conclusão de uma execução de correção que processou todas as suas contas, liberando
+     * o início de outras correções. Uma execução interrompida continua pendente.
+     *
+     * @param execucao Execução de correção cujas contas já foram processadas ou interrompidas.
+     * @return LSN do registro da conclusão no journal, ou 0 se a execução não foi concluída ou não houver journal anexado.
+     */
+    private synchronized long registrarConclusaoCorrecao(ExecucaoCorrecao execucao) {
+        if (!execucao.isTodasContasProcessadas() || execucaoCorrecaoPendente != execucao.getIdExecucao()) {
+            return 0;
+        }
+
+        long lsn = registrarNoJournal(RegistroJournal.conclusaoCorrecao(execucao.getIdExecucao()));
+        execucaoCorrecaoPendente = 0;
+        return lsn;
+    }
+
+    /**
+     * Transfere um valor entre duas contas via Pix, travando as suas listras na ordem canônica da {@link TabelaLocks}.
+     *
+     * @param origem Conta de origem.
+     * @param destino Conta de destino.
+     * @param valor Valor a ser transferido, em centavos.
+     * @param entrada Entrada de idempotência reservada para a transferência, ou null.
+     * @return LSN do registro da transferência no journal, ou 0 se não houver journal anexado.
+     * @throws PixNaoCadastradoException Se a conta de destino não possuir chave Pix.
+     * @throws SaldoInsuficienteException Se a conta de origem não possuir saldo para a transferência.
+     */
+    long transferirPix(ContaCorrente origem, ContaCorrente destino, long valor, EntradaIdempotencia entrada) throws PixNaoCadastradoException, SaldoInsuficienteException {
+        tabelaLocks.travarPar(origem.getNumeroConta(), destino.getNumeroConta());
+        try {
+            preservarImagem(origem);
+            preservarImagem(destino);
+            origem.verificarEnvioPix(diretorioPix, destino, valor);
+            long lsn = registrarNoJournal(RegistroJournal.pix(origem.getNumeroConta(), destino.getNumeroConta(), valor,
+                    EntradaIdempotencia.chaveDe(entrada)));
+            origem.efetuarPix(diretorioPix, destino, valor); // Destino recebe automaticamente
+            efetivarReserva(entrada, origem.getSaldo());
+            return lsn;
+        } finally {
+            tabelaLocks.destravarPar(origem.getNumeroConta(), destino.getNumeroConta());
+        }
+    }
+
+    /**
+     * Executa os comandos de um trecho do lote sem transferências Pix, agrupados por conta.
+     * Cada comando é ordenado pela chave formada pelo número da conta (32 bits superiores) e pela sua posição
+     * no lote (32 bits inferiores), o que agrupa as contas mantendo a ordem dos comandos de cada uma.
+     *
+     * @param lote Comandos do lote.
+     * @param inicio Posição do primeiro comando do trecho (inclusiva).
+     * @param fim Posição final do trecho (exclusiva).
+     * @param resultados Resultados do lote, preenchidos nas posições do trecho.
+     * @return Maior LSN registrado no journal pelo trecho, ou 0 se nenhum registro foi gravado.
+     */
+    private long executarTrecho(ComandoLote[] lote, int inicio, int fim, ResultadoComando[] resultados) {
+        long[] ordem = new long[fim - inicio];
+        for (int i = inicio; i < fim; i++) {
+            ordem[i - inicio] = ((long) lote[i].getNumeroConta() << 32) | i;
+        }
+        Arrays.sort(ordem);
+
+        long ultimoLsn = 0;
+        int inicioGrupo = 0;
+
+        while (inicioGrupo < ordem.length) {
+            int numeroConta = (int) (ordem[inicioGrupo] >> 32);
+            int fimGrupo = inicioGrupo + 1;
+            while (fimGrupo < ordem.length && (int) (ordem[fimGrupo] >> 32) == numeroConta) {
+                fimGrupo++;
+            }
+            ultimoLsn = Math.max(ultimoLsn, executarGrupo(lote, ordem, inicioGrupo, fimGrupo, numeroConta, resultados));
+            inicioGrupo = fimGrupo;
+        }
+        return ultimoLsn;
+    }
+
+    /**
+     * Executa os comandos de um trecho do lote destinados a uma mesma conta, com a listra da conta travada uma única vez.
+     *
+     * @param lote Comandos do lote.
+     * @param ordem Chaves de ordenação do trecho, com a posição de cada comando nos 32 bits inferiores.
+     * @param inicio Posição da primeira chave do grupo (inclusiva).
+     * @param fim Posição final do grupo (exclusiva).
+     * @param numeroConta Número da conta do grupo.
+     * @param resultados Resultados do lote, preenchidos nas posições dos comandos do grupo.
+     * @return Maior LSN registrado no journal pelo grupo, ou 0 se nenhum registro foi gravado.
+     */
+    private long executarGrupo(ComandoLote[] lote, long[] ordem, int inicio, int fim, int numeroConta, ResultadoComando[] resultados) {
+        Conta conta = getContaPorNumero(numeroConta);
+
+        if (conta == null) {
+            ResultadoComando naoEncontrada = ResultadoComando.falha(SituacaoComando.CONTA_NAO_ENCONTRADA,
+                    "Conta com n° " + numeroConta + " não encontrada.");
+            for (int i = inicio; i < fim; i++) {
+                resultados[(int) ordem[i]] = naoEncontrada;
+            }
+            return 0;
+        }
+
+        long ultimoLsn = 0;
+
+        tabelaLocks.travar(numeroConta);
+        try {
+            preservarImagem(conta);
+            for (int i = inicio; i < fim; i++) {
+                int posicao = (int) ordem[i];
+                ultimoLsn = Math.max(ultimoLsn, executarComando(lote[posicao], conta, posicao, resultados));
+            }
+        } finally {
+            tabelaLocks.destravar(numeroConta);
+        }
+        return ultimoLsn;
+    }
+
+    /**
+     * Aplica um depósito, saque ou correção do lote a uma conta já travada, registrando o resultado do comando.
+     *
+     * @param comando Comando a ser aplicado.
+     * @param conta Conta do comando, com a listra travada.
+     * @param posicao Posição do comando no lote.
+     * @param resultados Resultados do lote.
+     * @return LSN do registro no journal, ou 0 se o comando falhou ou não houver journal anexado.
+     */
+    private long executarComando(ComandoLote comando, Conta conta, int posicao, ResultadoComando[] resultados) {
+        int numeroConta = conta.getNumeroConta();
+        long valor = comando.getValor();
+        long lsn;
+
+        try {
+            switch (comando.getTipo()) {
+                case DEPOSITO -> {
+                    conta.verificarDeposito(valor);
+                    lsn = registrarNoJournal(RegistroJournal.deposito(numeroConta, valor));
+                    conta.depositar(valor);
+                }
+                case SAQUE -> {
+                    conta.verificarSaque(valor);
+                    lsn = registrarNoJournal(RegistroJournal.saque(numeroConta, valor));
+                    conta.sacar(valor);
+                }
+                case CORRECAO -> {
+                    if (!(conta instanceof ContaPoupanca contaPoupanca)) {
+                        resultados[posicao] = ResultadoComando.falha(SituacaoComando.TIPO_CONTA_INVALIDO,
+                                "Conta n° " + numeroConta + " não é Conta Poupança.");
+                        return 0;
+                    }
+                    contaPoupanca.verificarCorrecao(valor);
+                    lsn = registrarNoJournal(RegistroJournal.correcao(numeroConta, valor, comando.getArredondamento()));
+                    contaPoupanca.taxaCorrecao(valor, comando.getArredondamento());
+                }
+                default -> throw new IllegalStateException("Comando " + comando.getTipo() + " não se aplica a uma única conta.");
+            }
+        } catch (SaldoInsuficienteException e) {
+            resultados[posicao] = ResultadoComando.falha(SituacaoComando.SALDO_INSUFICIENTE, e.getMessage());
+            return 0;
+        } catch (IllegalArgumentException e) {
+            resultados[posicao] = ResultadoComando.falha(SituacaoComando.VALOR_INVALIDO, e.getMessage());
+            return 0;
+        }
+
+        resultados[posicao] = ResultadoComando.efetuado();
+        return lsn;
+    }
+
+    /**
+     * Executa uma transferência Pix do lote, registrando o resultado do comando.
+     *
+     * @param comando Comando da transferência.
+     * @param posicao Posição do comando no lote.
+     * @param resultados Resultados do lote.
+     * @return LSN do registro no journal, ou 0 se a transferência falhou ou não houver journal anexado.
+     */
+    private long executarPixDoLote(ComandoLote comando, int posicao, ResultadoComando[] resultados) {
+        ContaCorrente origem = diretorioPix.resolver(comando.getChaveOrigem());
+        ContaCorrente destino = diretorioPix.resolver(comando.getChaveDestino());
+
+        if (origem == null || destino == null) {
+            String chave = origem == null ? comando.getChaveOrigem() : comando.getChaveDestino();
+            resultados[posicao] = ResultadoComando.falha(SituacaoComando.CONTA_NAO_ENCONTRADA,
+                    "Chave " + chave + " não cadastrada para Pix.");
+            return 0;
+        }
+
+        long lsn;
+
+        try {
+            lsn = transferirPix(origem, destino, comando.getValor(), null);
+        } catch (PixNaoCadastradoException e) {
+            resultados[posicao] = ResultadoComando.falha(SituacaoComando.CONTA_NAO_ENCONTRADA, e.getMessage());
+            return 0;
+        } catch (SaldoInsuficienteException e) {
+            resultados[posicao] = ResultadoComando.falha(SituacaoComando.SALDO_INSUFICIENTE, e.getMessage());
+            return 0;
+        } catch (IllegalArgumentException e) {
+            resultados[posicao] = ResultadoComando.falha(SituacaoComando.VALOR_INVALIDO, e.getMessage());
+            return 0;
+        }
+
+        resultados[posicao] = ResultadoComando.efetuado();
+        return lsn;
+    }
+
+    /**
+     * Verifica se nome está disponível no sistema.
+     * @param nome Nome a ser procurado.
+     * @return Verdadeiro se o nome está disponível, caso contrário falso.
+     */
+    private boolean verificarDisponibilidadePorNome(String nome) {
+        if (buscaPorVarredura) {
+            return contas.stream().noneMatch(conta -> conta.getCorrentistaNome().equals(nome));
+        }
+        return !indice.contemNome(nome);
+    }
+
+    /**
+     * Verifica se o CPF está disponível no sistema.
+     * @param cpf CPF a ser procurado.
+     * @return Verdadeiro se o CPF está disponível, caso contrário falso.
+     */
+    private boolean verificarDisponibilidadePorCPF(String cpf) {
+        if (buscaPorVarredura) {
+            return contas.stream().noneMatch(conta -> conta.getCorrentistaCPF().equals(cpf));
+        }
+        return !indice.contemCPF(cpf);
+    }
+
+    /**
+     * Método especial para salvar o estado do objeto, guardando junto o LSN do último registro
+     * do journal, para que a restauração reproduza apenas os registros posteriores ao snapshot.
+     *
+     * @param oos Objeto de saída de fluxo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        GravadorJournal gravadorAtual = gravador;
+        if (gravadorAtual != null) {
+            lsnSnapshot = gravadorAtual.getUltimoLsn();
+        }
+        oos.defaultWriteObject();
+    }
+
+    /**
+     * Método especial para restaurar o estado do objeto após a desserialização,
+     * reconstruindo o índice e as partições de contas a partir da lista restaurada e vinculando as contas
+     * poupança às épocas de correção restauradas.
+     * Estados salvos antes da existência do diretório de Pix têm a antiga lista de CPFs
+     * migrada para chaves do tipo CPF.
+     *
+     * @param ois Objeto de entrada de fluxo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     * @throws ClassNotFoundException Caso a classe não seja encontrada durante a leitura.
+     */
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = ois.readFields();
+        contas = (List<Conta>) campos.get("contas", new ArrayList<>());
+        diretorioPix = (DiretorioPix) lerCampoOpcional(campos, "diretorioPix");
+        buscaPorVarredura = campos.get("buscaPorVarredura", false);
+        modoConcorrencia = (ModoConcorrencia) lerCampoOpcional(campos, "modoConcorrencia");
+        modoCorrecao = (ModoCorrecao) lerCampoOpcional(campos, "modoCorrecao");
+        epocasCorrecao = (EpocasCorrecao) lerCampoOpcional(campos, "epocasCorrecao");
+        execucaoCorrecaoPendente = campos.get("execucaoCorrecaoPendente", 0L);
+        lsnSnapshot = campos.get("lsnSnapshot", 0L);
+
+        if (modoConcorrencia == null) {
+            modoConcorrencia = ModoConcorrencia.LOCK_POR_CONTA;
+        }
+        if (modoCorrecao == null) {
+            modoCorrecao = ModoCorrecao.IMEDIATA;
+        }
+        if (epocasCorrecao == null) {
+            epocasCorrecao = new EpocasCorrecao();
+        }
+
+        indice = new IndiceContas();
+        indice.reconstruir(contas);
+        particoes = new ParticoesContas();
+        particoes.reconstruir(contas);
+        particoes.getPoupancas().paraCada(conta -> conta.vincularEpocasCorrecao(epocasCorrecao));
+        tabelaLocks = new TabelaLocks();
+        saida = new SaidaConsole();
+        idempotencia = new CacheIdempotencia();
+
+        if (diretorioPix == null) {
+            diretorioPix = new DiretorioPixHash();
+            List<String> cpfsPix = (List<String>) lerCampoOpcional(campos, "cpfsPix");
+
+            if (cpfsPix != null) {
+                migrarCpfsPix(cpfsPix);
+            }
+        }
+    }
+
+    /**
+     * Lê um campo que pode não existir no estado salvo, conforme a versão que o gerou.
+     *
+     * @param campos Campos lidos do fluxo.
+     * @param nome Nome do campo.
+     * @return Valor do campo, ou null se ele não existir no estado salvo.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private static Object lerCampoOpcional(ObjectInputStream.GetField campos, String nome) throws IOException {
+        try {
+            return campos.get(nome, null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registra no diretório de Pix os CPFs da antiga lista de cadastros.
+     *
+     * @param cpfsPix Lista de CPFs cadastrados para Pix no estado salvo.
+     */
+    private void migrarCpfsPix(List<String> cpfsPix) {
+        for (String cpf : cpfsPix) {
+            if (indice.getPorCPF(cpf) instanceof ContaCorrente contaCorrente) {
+                try {
+                    contaCorrente.cadastrarPix(diretorioPix);
+                } catch (PixJaCadastradoException e) {
+                    // CPF repetido na lista antiga: a chave já foi migrada.
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,371 @@
+package service;
+
+import models.Dinheiro;
+import models.ValidarCPF;
+import models.enums.TipoConta;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bloco de linhas completas de um arquivo de {@link ImportacaoContas}, com os campos de cada linha em colunas.
+ * O bloco é analisado por uma thread do pool, que separa os campos e valida o tipo, o CPF e o depósito inicial
+ * diretamente sobre os bytes lidos; texto é criado apenas para o nome e o CPF das linhas válidas. A verificação
+ * de duplicidade e a criação das contas são feitas depois, em ordem, pelo {@link BancoService}.
+ */
+
+final class BlocoImportacao {
+
+    private static final int CAMPOS_MINIMOS = 3;
+    private static final int CAMPOS_MAXIMOS = 4;
+    private static final int TAMANHO_LINHA_ESTIMADO = 48;
+    private static final TipoConta[] TIPOS_CONTA = TipoConta.values();
+
+    private final byte[] dados;
+    private final int inicio;
+    private final int fim;
+    private final int[] limites = new int[CAMPOS_MAXIMOS + 1];
+
+    private int quantidade;
+    private int linhasLidas;
+    private int[] linhas;
+    private int[] iniciosLinha;
+    private int[] finsLinha;
+    private TipoConta[] tipos;
+    private String[] nomes;
+    private String[] cpfs;
+    private long[] depositosIniciais;
+    private MotivoRejeicao[] motivos;
+    private int[] numerosConta;
+
+    /**
+     * Construtor do bloco.
+     *
+     * @param dados Bytes lidos do arquivo.
+     * @param inicio Posição do início da primeira linha do bloco.
+     * @param fim Posição final do bloco (exclusiva), logo após a quebra da última linha ou no fim do arquivo.
+     */
+    BlocoImportacao(byte[] dados, int inicio, int fim) {
+        this.dados = dados;
+        this.inicio = inicio;
+        this.fim = fim;
+
+        int capacidade = Math.max((fim - inicio) / TAMANHO_LINHA_ESTIMADO, 16);
+        linhas = new int[capacidade];
+        iniciosLinha = new int[capacidade];
+        finsLinha = new int[capacidade];
+        tipos = new TipoConta[capacidade];
+        nomes = new String[capacidade];
+        cpfs = new String[capacidade];
+        depositosIniciais = new long[capacidade];
+        motivos = new MotivoRejeicao[capacidade];
+        numerosConta = new int[capacidade];
+    }
+
+    /**
+     * Separa as linhas do bloco e analisa os campos de cada uma. Linhas em branco são contadas, mas não registradas.
+     *
+     * @param delimitador Delimitador dos campos.
+     * @return Este bloco, analisado.
+     */
+    BlocoImportacao analisar(char delimitador) {
+        ByteBuffer buffer = ByteBuffer.wrap(dados);
+        int inicioLinha = inicio;
+
+        for (int i = inicio; i <= fim; i++) {
+            if (i == fim || dados[i] == '\n') {
+                if (i > inicioLinha || i < fim) {
+                    int fimLinha = i > inicioLinha && dados[i - 1] == '\r' ? i - 1 : i;
+                    analisarLinha(buffer, inicioLinha, fimLinha, (byte) delimitador);
+                    linhasLidas++;
+                }
+                inicioLinha = i + 1;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Retorna a quantidade de linhas registradas, sem contar as linhas em branco.
+     *
+     * @return Quantidade de linhas registradas.
+     */
+    int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna a quantidade de linhas do bloco, incluindo as linhas em branco.
+     *
+     * @return Quantidade de linhas lidas.
+     */
+    int getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    /**
+     * Retorna o tamanho do bloco.
+     *
+     * @return Quantidade de bytes do bloco.
+     */
+    int getTamanhoBytes() {
+        return fim - inicio;
+    }
+
+    /**
+     * Retorna a posição, no bloco, da linha registrada.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return Posição da linha entre todas as linhas do bloco, a partir de 0.
+     */
+    int getLinha(int posicao) {
+        return linhas[posicao];
+    }
+
+    /**
+     * Retorna o texto original da linha registrada, sem a quebra de linha.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return Texto da linha.
+     */
+    String getTexto(int posicao) {
+        return new String(dados, iniciosLinha[posicao], finsLinha[posicao] - iniciosLinha[posicao], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retorna o tipo da conta de uma linha válida.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return Tipo da conta.
+     */
+    TipoConta getTipo(int posicao) {
+        return tipos[posicao];
+    }
+
+    /**
+     * Retorna o nome do correntista de uma linha válida.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return Nome do correntista.
+     */
+    String getNome(int posicao) {
+        return nomes[posicao];
+    }
+
+    /**
+     * Retorna o CPF de uma linha válida, somente com números.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return CPF do correntista.
+     */
+    String getCpf(int posicao) {
+        return cpfs[posicao];
+    }
+
+    /**
+     * Retorna o depósito inicial de uma linha válida.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return Depósito inicial, em centavos, ou 0 se não houver.
+     */
+    long getDepositoInicial(int posicao) {
+        return depositosIniciais[posicao];
+    }
+
+    /**
+     * Retorna o motivo da rejeição de uma linha.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return Motivo da rejeição, ou null se a linha não foi rejeitada.
+     */
+    MotivoRejeicao getMotivo(int posicao) {
+        return motivos[posicao];
+    }
+
+    /**
+     * Retorna o número da conta criada a partir de uma linha.
+     *
+     * @param posicao Posição da linha registrada.
+     * @return Número da conta, ou 0 se a conta não foi criada.
+     */
+    int getNumeroConta(int posicao) {
+        return numerosConta[posicao];
+    }
+
+    /**
+     * Rejeita uma linha.
+     *
+     * @param posicao Posição da linha registrada.
+     * @param motivo Motivo da rejeição.
+     */
+    void rejeitar(int posicao, MotivoRejeicao motivo) {
+        motivos[posicao] = motivo;
+    }
+
+    /**
+     * Registra a conta criada a partir de uma linha.
+     *
+     * @param posicao Posição da linha registrada.
+     * @param numeroConta Número da conta criada.
+     */
+    void registrarConta(int posicao, int numeroConta) {
+        numerosConta[posicao] = numeroConta;
+    }
+
+    /**
+     * Analisa uma linha, registrando os seus campos ou o motivo da rejeição. Linhas em branco não são registradas.
+     *
+     * @param buffer Buffer sobre os bytes do bloco, utilizado na validação do CPF.
+     * @param inicioLinha Posição do início da linha.
+     * @param fimLinha Posição do fim da linha (exclusiva), sem a quebra de linha.
+     * @param delimitador Delimitador dos campos.
+     */
+    private void analisarLinha(ByteBuffer buffer, int inicioLinha, int fimLinha, byte delimitador) {
+        int inicioConteudo = pularEspacos(inicioLinha, fimLinha);
+        if (inicioConteudo == fimLinha) {
+            return;
+        }
+
+        if (quantidade == linhas.length) {
+            crescer();
+        }
+        int posicao = quantidade++;
+        linhas[posicao] = linhasLidas;
+        iniciosLinha[posicao] = inicioLinha;
+        finsLinha[posicao] = fimLinha;
+
+        int campos = 0;
+        limites[0] = inicioLinha;
+        for (int i = inicioLinha; i < fimLinha; i++) {
+            if (dados[i] == delimitador) {
+                if (++campos == CAMPOS_MAXIMOS) {
+                    motivos[posicao] = MotivoRejeicao.FORMATO_INVALIDO;
+                    return;
+                }
+                limites[campos] = i + 1;
+            }
+        }
+        limites[++campos] = fimLinha + 1;
+
+        if (campos < CAMPOS_MINIMOS) {
+            motivos[posicao] = MotivoRejeicao.FORMATO_INVALIDO;
+            return;
+        }
+
+        String nome = texto(limites[1], limites[2] - 1);
+        if (nome.isEmpty()) {
+            motivos[posicao] = MotivoRejeicao.FORMATO_INVALIDO;
+            return;
+        }
+
+        TipoConta tipo = tipoConta(texto(limites[0], limites[1] - 1));
+        if (tipo == null) {
+            motivos[posicao] = MotivoRejeicao.TIPO_CONTA_INVALIDO;
+            return;
+        }
+
+        int inicioCpf = pularEspacos(limites[2], limites[3] - 1);
+        int fimCpf = removerEspacosFinais(inicioCpf, limites[3] - 1);
+        if (!ValidarCPF.cpfEhValido(buffer, inicioCpf, fimCpf)) {
+            motivos[posicao] = MotivoRejeicao.CPF_INVALIDO;
+            return;
+        }
+
+        long depositoInicial = 0;
+        if (campos == CAMPOS_MAXIMOS) {
+            String valor = texto(limites[3], limites[4] - 1);
+            if (!valor.isEmpty()) {
+                try {
+                    depositoInicial = Dinheiro.parse(valor);
+                } catch (NumberFormatException | ArithmeticException e) {
+                    depositoInicial = -1;
+                }
+                if (depositoInicial < 0) {
+                    motivos[posicao] = MotivoRejeicao.VALOR_INVALIDO;
+                    return;
+                }
+            }
+        }
+
+        tipos[posicao] = tipo;
+        nomes[posicao] = nome;
+        cpfs[posicao] = ValidarCPF.normalizar(new String(dados, inicioCpf, fimCpf - inicioCpf, StandardCharsets.ISO_8859_1));
+        depositosIniciais[posicao] = depositoInicial;
+    }
+
+    /**
+     * Converte o texto do campo de tipo em um {@link TipoConta}, sem distinção de maiúsculas.
+     *
+     * @param texto Texto do campo.
+     * @return Tipo da conta, ou null se o texto não corresponder a nenhum tipo.
+     */
+    private static TipoConta tipoConta(String texto) {
+        for (TipoConta tipo : TIPOS_CONTA) {
+            if (tipo.name().equalsIgnoreCase(texto)) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cria o texto UTF-8 de um campo, sem os espaços iniciais e finais.
+     *
+     * @param inicioCampo Posição do início do campo.
+     * @param fimCampo Posição do fim do campo (exclusiva).
+     * @return Texto do campo, vazio se o campo só contiver espaços.
+     */
+    private String texto(int inicioCampo, int fimCampo) {
+        int inicioTexto = pularEspacos(inicioCampo, fimCampo);
+        int fimTexto = removerEspacosFinais(inicioTexto, fimCampo);
+        return new String(dados, inicioTexto, fimTexto - inicioTexto, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Avança sobre os espaços e tabulações do início de um intervalo.
+     *
+     * @param inicioIntervalo Posição inicial.
+     * @param fimIntervalo Posição final (exclusiva).
+     * @return Posição do primeiro byte que não é espaço, ou o fim do intervalo.
+     */
+    private int pularEspacos(int inicioIntervalo, int fimIntervalo) {
+        int i = inicioIntervalo;
+        while (i < fimIntervalo && (dados[i] == ' ' || dados[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Recua sobre os espaços e tabulações do fim de um intervalo.
+     *
+     * @param inicioIntervalo Posição inicial.
+     * @param fimIntervalo Posição final (exclusiva).
+     * @return Posição final do intervalo sem os espaços finais.
+     */
+    private int removerEspacosFinais(int inicioIntervalo, int fimIntervalo) {
+        int i = fimIntervalo;
+        while (i > inicioIntervalo && (dados[i - 1] == ' ' || dados[i - 1] == '\t')) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Dobra a capacidade das colunas do bloco.
+     */
+    private void crescer() {
+        int novaCapacidade = linhas.length * 2;
+        linhas = Arrays.copyOf(linhas, novaCapacidade);
+        iniciosLinha = Arrays.copyOf(iniciosLinha, novaCapacidade);
+        finsLinha = Arrays.copyOf(finsLinha, novaCapacidade);
+        tipos = Arrays.copyOf(tipos, novaCapacidade);
+        nomes = Arrays.copyOf(nomes, novaCapacidade);
+        cpfs = Arrays.copyOf(cpfs, novaCapacidade);
+        depositosIniciais = Arrays.copyOf(depositosIniciais, novaCapacidade);
+        motivos = Arrays.copyOf(motivos, novaCapacidade);
+        numerosConta = Arrays.copyOf(numerosConta, novaCapacidade);
+    }
+
+}
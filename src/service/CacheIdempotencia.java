@@ -0,0 +1,349 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache das chaves de idempotência dos depósitos e transferências Pix do {@link BancoService}.
+ * Um cliente que repete uma operação com a mesma chave, por exemplo após um tempo esgotado, recebe o comprovante
+ * original em vez de movimentar o dinheiro de novo. Reenvios com a mesma chave e parâmetros diferentes são recusados.
+ * <p>
+ * As entradas ficam em um mapa ordenado pelo momento da operação, o que torna a busca, a inclusão e a remoção O(1):
+ * a cada reserva, as entradas mais antigas que a validade são removidas do início do mapa, e, acima da capacidade,
+ * as mais antigas são descartadas. Entradas de operações em andamento nunca são removidas, para que um reenvio
+ * concorrente aguarde o resultado em vez de repetir a operação; por isso, o cache pode exceder a capacidade
+ * enquanto houver operações em andamento. Apenas operações efetivadas permanecem no cache; uma operação que falha
+ * libera a sua chave. As entradas são gravadas nos snapshots e os registros do journal guardam a chave da operação, de modo
+ * que o cache é recuperado junto com o estado do serviço.
+ */
+
+public final class CacheIdempotencia implements CacheIdempotenciaMXBean {
+
+    /**
+     * Quantidade padrão de entradas mantidas no cache.
+     */
+    public static final int CAPACIDADE_PADRAO = 100_000;
+
+    /**
+     * Validade padrão das entradas, em segundos (24 horas).
+     */
+    public static final long VALIDADE_PADRAO_SEGUNDOS = 24 * 60 * 60;
+
+    /**
+     * Tamanho máximo de uma chave de idempotência, em caracteres.
+     */
+    public static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final LinkedHashMap<String, EntradaIdempotencia> entradas = new LinkedHashMap<>();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder remocoesPorCapacidade = new LongAdder();
+    private final LongAdder remocoesPorValidade = new LongAdder();
+
+    private int capacidade = CAPACIDADE_PADRAO;
+    private long validadeMillis = VALIDADE_PADRAO_SEGUNDOS * 1_000;
+    private long ultimoMomento = Long.MIN_VALUE;
+
+    /**
+     * Define a capacidade e a validade das entradas, removendo imediatamente as que excederem os novos limites.
+     *
+     * @param capacidade Quantidade máxima de entradas.
+     * @param validadeSegundos Validade de cada entrada a partir do recebimento da operação, em segundos.
+     * @throws IllegalArgumentException Se a capacidade ou a validade for menor ou igual a 0.
+     */
+    public synchronized void configurar(int capacidade, long validadeSegundos) {
+        if (capacidade <= 0 || validadeSegundos <= 0) {
+            throw new IllegalArgumentException("A capacidade e a validade do cache de idempotência devem ser positivas.");
+        }
+
+        this.capacidade = capacidade;
+        this.validadeMillis = validadeSegundos * 1_000;
+        removerExpiradas(System.currentTimeMillis());
+        removerExcedentes();
+    }
+
+    /**
+     * Retorna a quantidade de reenvios atendidos com o resultado original.
+     *
+     * @return Quantidade de acertos.
+     */
+    @Override
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    /**
+     * Retorna a quantidade de chaves novas, que resultaram na execução da operação.
+     *
+     * @return Quantidade de faltas.
+     */
+    @Override
+    public long getFaltas() {
+        return faltas.sum();
+    }
+
+    /**
+     * Retorna a quantidade de entradas descartadas por exceder a capacidade do cache.
+     *
+     * @return Quantidade de remoções por capacidade.
+     */
+    @Override
+    public long getRemocoesPorCapacidade() {
+        return remocoesPorCapacidade.sum();
+    }
+
+    /**
+     * Retorna a quantidade de entradas removidas por terem ultrapassado a validade.
+     *
+     * @return Quantidade de remoções por validade.
+     */
+    @Override
+    public long getRemocoesPorValidade() {
+        return remocoesPorValidade.sum();
+    }
+
+    /**
+     * Retorna a quantidade de entradas no cache, incluindo as operações em andamento.
+     *
+     * @return Quantidade de entradas.
+     */
+    @Override
+    public synchronized int getTamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Retorna a capacidade do cache.
+     *
+     * @return Quantidade máxima de entradas.
+     */
+    @Override
+    public synchronized int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Retorna a validade das entradas.
+     *
+     * @return Validade, em segundos.
+     */
+    @Override
+    public synchronized long getValidadeSegundos() {
+        return validadeMillis / 1_000;
+    }
+
+    /**
+     * Retorna o resumo dos contadores do cache.
+     *
+     * @return Tamanho, acertos, faltas e remoções.
+     */
+    @Override
+    public String toString() {
+        return "Idempotência: " + getTamanho() + " entradas, " + getAcertos() + " acertos, " + getFaltas() + " faltas, "
+                + getRemocoesPorCapacidade() + " remoções por capacidade, " + getRemocoesPorValidade() + " por validade";
+    }
+
+    /**
+     * Busca a entrada de uma chave, aguardando a conclusão de uma operação em andamento com a mesma chave.
+     * Se a chave não estiver no cache, reserva uma nova entrada para a operação.
+     *
+     * @param chave Chave de idempotência.
+     * @param tipo Tipo da operação.
+     * @param numeroConta Número da conta (de origem, no Pix).
+     * @param numeroContaDestino Número da conta de destino do Pix, ou 0.
+     * @param valor Valor da operação, em centavos.
+     * @return Entrada concluída de uma operação anterior, ou uma nova entrada reservada, que deve ser concluída com
+     * {@link #concluir(EntradaIdempotencia)} ou liberada com {@link #liberar(EntradaIdempotencia)}.
+     * @throws IllegalArgumentException Se a chave estiver em branco, exceder {@link #TAMANHO_MAXIMO_CHAVE} ou já tiver
+     *                                  sido usada em uma operação com outros parâmetros.
+     */
+    EntradaIdempotencia reservar(String chave, TipoComprovante tipo, int numeroConta, int numeroContaDestino, long valor) {
+        // Validada antes da operação: a chave vai no registro do journal e deve ser recusada antes de qualquer registro
+        // ser gravado ou de qualquer listra ser travada.
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException("A chave de idempotência deve ter de 1 a " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+
+        while (true) {
+            EntradaIdempotencia existente;
+
+            synchronized (this) {
+                removerExpiradas(System.currentTimeMillis());
+                existente = entradas.get(chave);
+
+                if (existente == null) {
+                    EntradaIdempotencia nova = EntradaIdempotencia.reservada(chave, tipo, numeroConta, numeroContaDestino, valor);
+                    acrescentar(nova);
+                    removerExcedentes();
+                    faltas.increment();
+                    return nova;
+                }
+            }
+
+            if (!existente.corresponde(tipo, numeroConta, numeroContaDestino, valor)) {
+                throw new IllegalArgumentException("A chave de idempotência " + chave + " já foi utilizada em outra operação.");
+            }
+            if (existente.aguardar()) {
+                acertos.increment();
+                return existente;
+            }
+        }
+    }
+
+    /**
+     * Registra o resultado de uma operação reservada. Deve ser chamado com a listra da conta travada, logo após
+     * registrar a operação no journal, para que a entrada faça parte dos snapshots cujo ponto inclui a operação.
+     *
+     * @param entrada Entrada reservada.
+     * @param saldo Saldo da conta logo após a operação, em centavos.
+     */
+    void efetivar(EntradaIdempotencia entrada, long saldo) {
+        entrada.efetivar(saldo, sequencia.incrementAndGet());
+    }
+
+    /**
+     * Conclui uma operação efetivada, devolvendo o seu resultado aos reenvios.
+     *
+     * @param entrada Entrada efetivada.
+     */
+    void concluir(EntradaIdempotencia entrada) {
+        entrada.concluir();
+    }
+
+    /**
+     * Remove a entrada de uma operação que não foi efetivada, permitindo uma nova tentativa com a mesma chave.
+     *
+     * @param entrada Entrada reservada.
+     */
+    void liberar(EntradaIdempotencia entrada) {
+        synchronized (this) {
+            entradas.remove(entrada.getChave(), entrada);
+        }
+        entrada.liberar();
+    }
+
+    /**
+     * Inclui uma entrada recuperada de um snapshot ou do journal, caso ainda esteja na validade, na posição
+     * correspondente ao seu momento.
+     *
+     * @param entrada Entrada concluída.
+     */
+    synchronized void restaurar(EntradaIdempotencia entrada) {
+        long agora = System.currentTimeMillis();
+        if (agora - entrada.getMomento() > validadeMillis) {
+            return;
+        }
+
+        entrada.sequenciar(sequencia.incrementAndGet());
+        entradas.remove(entrada.getChave());
+        if (entrada.getMomento() >= ultimoMomento) {
+            acrescentar(entrada);
+        } else {
+            inserirEmOrdem(entrada);
+        }
+        removerExpiradas(agora);
+        removerExcedentes();
+    }
+
+    /**
+     * Retorna a sequência da última efetivação, que marca o ponto de um snapshot no cache.
+     * Deve ser lida com todas as listras travadas.
+     *
+     * @return Sequência atual.
+     */
+    long getSequencia() {
+        return sequencia.get();
+    }
+
+    /**
+     * Retorna as entradas efetivadas até o ponto de um snapshot e ainda na validade, na ordem do cache.
+     *
+     * @param sequenciaSnapshot Sequência lida no ponto do snapshot.
+     * @return Entradas a serem gravadas no snapshot.
+     */
+    synchronized List<EntradaIdempotencia> entradasAte(long sequenciaSnapshot) {
+        removerExpiradas(System.currentTimeMillis());
+
+        List<EntradaIdempotencia> resultado = new ArrayList<>(entradas.size());
+        for (EntradaIdempotencia entrada : entradas.values()) {
+            long sequenciaEntrada = entrada.getSequencia();
+            if (sequenciaEntrada > 0 && sequenciaEntrada <= sequenciaSnapshot) {
+                resultado.add(entrada);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Acrescenta uma entrada ao fim do mapa. O momento da entrada não pode ser anterior ao das entradas do mapa.
+     *
+     * @param entrada Entrada a ser acrescentada.
+     */
+    private void acrescentar(EntradaIdempotencia entrada) {
+        entradas.put(entrada.getChave(), entrada);
+        ultimoMomento = Math.max(ultimoMomento, entrada.getMomento());
+    }
+
+    /**
+     * Insere uma entrada antes das entradas com momento posterior ao seu, que são retiradas e acrescentadas de novo.
+     *
+     * @param entrada Entrada a ser inserida.
+     */
+    private void inserirEmOrdem(EntradaIdempotencia entrada) {
+        List<EntradaIdempotencia> posteriores = new ArrayList<>();
+        Iterator<EntradaIdempotencia> iterador = entradas.values().iterator();
+
+        while (iterador.hasNext()) {
+            EntradaIdempotencia existente = iterador.next();
+            if (existente.getMomento() > entrada.getMomento()) {
+                posteriores.add(existente);
+                iterador.remove();
+            }
+        }
+
+        entradas.put(entrada.getChave(), entrada);
+        for (EntradaIdempotencia posterior : posteriores) {
+            entradas.put(posterior.getChave(), posterior);
+        }
+    }
+
+    /**
+     * Remove do início do mapa as entradas concluídas que ultrapassaram a validade, mantendo as operações em andamento.
+     *
+     * @param agora Momento atual, em milissegundos desde a época Unix.
+     */
+    private void removerExpiradas(long agora) {
+        Iterator<EntradaIdempotencia> iterador = entradas.values().iterator();
+
+        while (iterador.hasNext()) {
+            EntradaIdempotencia entrada = iterador.next();
+            if (agora - entrada.getMomento() <= validadeMillis) {
+                return;
+            }
+            if (entrada.isConcluida()) {
+                iterador.remove();
+                remocoesPorValidade.increment();
+            }
+        }
+    }
+
+    /**
+     * Descarta as entradas concluídas mais antigas enquanto o cache estiver acima da capacidade, mantendo as operações
+     * em andamento.
+     */
+    private void removerExcedentes() {
+        Iterator<EntradaIdempotencia> iterador = entradas.values().iterator();
+
+        while (entradas.size() > capacidade && iterador.hasNext()) {
+            if (iterador.next().isConcluida()) {
+                iterador.remove();
+                remocoesPorCapacidade.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package service;
+
+/**
+ * Interface de gerenciamento (JMX) do {@link CacheIdempotencia}, publicada com o nome
+ * {@code banco:type=CacheIdempotencia} junto com as métricas do serviço.
+ */
+
+public interface CacheIdempotenciaMXBean {
+
+    /**
+     * Retorna a quantidade de reenvios atendidos com o resultado original.
+     *
+     * @return Quantidade de acertos.
+     */
+    long getAcertos();
+
+    /**
+     * Retorna a quantidade de chaves novas, que resultaram na execução da operação.
+     *
+     * @return Quantidade de faltas.
+     */
+    long getFaltas();
+
+    /**
+     * Retorna a quantidade de entradas descartadas por exceder a capacidade do cache.
+     *
+     * @return Quantidade de remoções por capacidade.
+     */
+    long getRemocoesPorCapacidade();
+
+    /**
+     * Retorna a quantidade de entradas removidas por terem ultrapassado a validade.
+     *
+     * @return Quantidade de remoções por validade.
+     */
+    long getRemocoesPorValidade();
+
+    /**
+     * Retorna a quantidade de entradas no cache.
+     *
+     * @return Quantidade de entradas.
+     */
+    int getTamanho();
+
+    /**
+     * Retorna a capacidade do cache.
+     *
+     * @return Quantidade máxima de entradas.
+     */
+    int getCapacidade();
+
+    /**
+     * Retorna a validade das entradas.
+     *
+     * @return Validade, em segundos.
+     */
+    long getValidadeSegundos();
+}
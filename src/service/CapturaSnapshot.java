@@ -0,0 +1,68 @@
+package service;
+
+import models.Conta;
+import models.ContaCorrente;
+import models.ImagemConta;
+import models.interfaces.DiretorioPix;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Imagens das contas preservadas durante um snapshot em andamento do {@link BancoService}.
+ * Enquanto o snapshot é gravado, a primeira mutação de cada conta captura antes a imagem da conta
+ * (cópia na escrita), e a gravação usa essa imagem no lugar do estado atual. Contas não alteradas são
+ * capturadas pela própria gravação. Depois de gravada, a imagem é descartada e a conta fica marcada,
+ * para que novas mutações não voltem a capturá-la.
+ * <p>
+ * As capturas devem ser feitas com a listra da conta travada, para que não haja mutação em andamento.
+ */
+
+final class CapturaSnapshot {
+
+    private static final Object GRAVADA = new Object();
+
+    private final DiretorioPix diretorioPix;
+    private final Map<Integer, Object> imagens = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor da captura.
+     *
+     * @param diretorioPix Diretório de onde são lidas as chaves Pix das contas capturadas.
+     */
+    CapturaSnapshot(DiretorioPix diretorioPix) {
+        this.diretorioPix = diretorioPix;
+    }
+
+    /**
+     * Captura a imagem da conta, caso ainda não tenha sido capturada neste snapshot.
+     *
+     * @param conta Conta a ser capturada.
+     * @return Imagem capturada, ou null se a conta já foi gravada.
+     */
+    ImagemConta capturar(Conta conta) {
+        Object imagem = imagens.computeIfAbsent(conta.getNumeroConta(), numero -> ImagemConta.capturar(conta, chavesPix(conta)));
+        return imagem == GRAVADA ? null : (ImagemConta) imagem;
+    }
+
+    /**
+     * Descarta a imagem da conta depois de gravada.
+     *
+     * @param conta Conta gravada.
+     */
+    void marcarGravada(Conta conta) {
+        imagens.put(conta.getNumeroConta(), GRAVADA);
+    }
+
+    /**
+     * Retorna as chaves Pix atuais da conta.
+     *
+     * @param conta Conta a ser consultada.
+     * @return Lista com as chaves, vazia para contas que não recebem Pix.
+     */
+    private List<String> chavesPix(Conta conta) {
+        return conta instanceof ContaCorrente contaCorrente ? diretorioPix.chavesDaConta(contaCorrente) : List.of();
+    }
+
+}
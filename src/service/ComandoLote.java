@@ -0,0 +1,158 @@
+package service;
+
+import models.Dinheiro;
+
+import java.math.RoundingMode;
+
+/**
+ * Comando de um lote executado por {@link BancoService#executarLote(java.util.List)}.
+ * Depósitos, saques e correções identificam a conta pelo número; transferências Pix, pelas chaves de
+ * origem e destino. Valores são validados apenas na execução, de modo que um comando inválido resulta
+ * em uma falha no seu resultado, sem interromper o lote. Instâncias são imutáveis.
+ */
+
+public final class ComandoLote {
+
+    private final TipoComando tipo;
+    private final int numeroConta;
+    private final String chaveOrigem;
+    private final String chaveDestino;
+    private final long valor;
+    private final RoundingMode arredondamento;
+
+    private ComandoLote(TipoComando tipo, int numeroConta, String chaveOrigem, String chaveDestino, long valor,
+                        RoundingMode arredondamento) {
+        this.tipo = tipo;
+        this.numeroConta = numeroConta;
+        this.chaveOrigem = chaveOrigem;
+        this.chaveDestino = chaveDestino;
+        this.valor = valor;
+        this.arredondamento = arredondamento;
+    }
+
+    /**
+     * Cria o comando de um depósito.
+     *
+     * @param numeroConta Número da conta.
+     * @param valor Valor a ser depositado, em centavos.
+     * @return Comando do depósito.
+     */
+    public static ComandoLote deposito(int numeroConta, long valor) {
+        return new ComandoLote(TipoComando.DEPOSITO, numeroConta, null, null, valor, null);
+    }
+
+    /**
+     * Cria o comando de um saque.
+     *
+     * @param numeroConta Número da conta.
+     * @param valor Valor a ser sacado, em centavos.
+     * @return Comando do saque.
+     */
+    public static ComandoLote saque(int numeroConta, long valor) {
+        return new ComandoLote(TipoComando.SAQUE, numeroConta, null, null, valor, null);
+    }
+
+    /**
+     * Cria o comando de uma transferência Pix.
+     *
+     * @param chaveOrigem Chave Pix da conta de origem.
+     * @param chaveDestino Chave Pix da conta de destino.
+     * @param valor Valor a ser transferido, em centavos.
+     * @return Comando da transferência.
+     */
+    public static ComandoLote pix(String chaveOrigem, String chaveDestino, long valor) {
+        return new ComandoLote(TipoComando.PIX, 0, chaveOrigem, chaveDestino, valor, null);
+    }
+
+    /**
+     * Cria o comando da correção de uma conta poupança, com o arredondamento padrão.
+     *
+     * @param numeroConta Número da conta poupança.
+     * @param taxa Taxa de correção em porcentagem, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @return Comando da correção.
+     */
+    public static ComandoLote correcao(int numeroConta, long taxa) {
+        return correcao(numeroConta, taxa, Dinheiro.ARREDONDAMENTO_PADRAO);
+    }
+
+    /**
+     * Cria o comando da correção de uma conta poupança.
+     *
+     * @param numeroConta Número da conta poupança.
+     * @param taxa Taxa de correção em porcentagem, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     * @return Comando da correção.
+     */
+    public static ComandoLote correcao(int numeroConta, long taxa, RoundingMode arredondamento) {
+        return new ComandoLote(TipoComando.CORRECAO, numeroConta, null, null, taxa, arredondamento);
+    }
+
+    /**
+     * Retorna o tipo do comando.
+     *
+     * @return Tipo do comando.
+     */
+    public TipoComando getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Retorna o número da conta de depósitos, saques e correções.
+     *
+     * @return Número da conta, ou 0 em transferências Pix.
+     */
+    public int getNumeroConta() {
+        return numeroConta;
+    }
+
+    /**
+     * Retorna a chave Pix da conta de origem de uma transferência.
+     *
+     * @return Chave de origem, ou null se o comando não for uma transferência Pix.
+     */
+    public String getChaveOrigem() {
+        return chaveOrigem;
+    }
+
+    /**
+     * Retorna a chave Pix da conta de destino de uma transferência.
+     *
+     * @return Chave de destino, ou null se o comando não for uma transferência Pix.
+     */
+    public String getChaveDestino() {
+        return chaveDestino;
+    }
+
+    /**
+     * Retorna o valor do comando: o valor em centavos, ou a taxa em correções.
+     *
+     * @return Valor ou taxa do comando.
+     */
+    public long getValor() {
+        return valor;
+    }
+
+    /**
+     * Retorna o modo de arredondamento de uma correção.
+     *
+     * @return Modo de arredondamento, ou null se o comando não for uma correção.
+     */
+    public RoundingMode getArredondamento() {
+        return arredondamento;
+    }
+
+    /**
+     * Retorna a representação textual do comando.
+     *
+     * @return Tipo, conta ou chaves e valor do comando.
+     */
+    @Override
+    public String toString() {
+        return switch (tipo) {
+            case PIX -> tipo + " " + chaveOrigem + " -> " + chaveDestino + " | " + Dinheiro.formatar(valor);
+            case CORRECAO -> tipo + " n° " + numeroConta + " | " + Dinheiro.formatarTaxa(valor) + "%";
+            default -> tipo + " n° " + numeroConta + " | " + Dinheiro.formatar(valor);
+        };
+    }
+
+}
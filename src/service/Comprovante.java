@@ -0,0 +1,315 @@
+package service;
+
+import models.Dinheiro;
+import models.enums.TipoChavePix;
+import models.enums.TipoConta;
+
+/**
+ * Comprovante de uma operação do {@link BancoService}: o tipo da operação, a situação e os dados efetivados.
+ * Os comprovantes são devolvidos pelas operações e entregues à {@link service.saida.SaidaBanco} do serviço, que os
+ * converte em texto ({@link #toString()}) apenas se forem exibidos. Instâncias são imutáveis.
+ */
+
+public final class Comprovante {
+
+    private final TipoComprovante tipo;
+    private final SituacaoComando situacao;
+    private final int numeroConta;
+    private final TipoConta tipoConta;
+    private final long valor;
+    private final long saldo;
+    private final TipoChavePix tipoChavePix;
+    private final String chave;
+    private final String chaveDestino;
+    private final long quantidadeContas;
+    private final long duracaoNanos;
+    private final String mensagem;
+    private final long idExecucao;
+
+    private Comprovante(TipoComprovante tipo, SituacaoComando situacao, int numeroConta, TipoConta tipoConta, long valor,
+                        long saldo, TipoChavePix tipoChavePix, String chave, String chaveDestino, long quantidadeContas,
+                        long duracaoNanos, String mensagem, long idExecucao) {
+        this.tipo = tipo;
+        this.situacao = situacao;
+        this.numeroConta = numeroConta;
+        this.tipoConta = tipoConta;
+        this.valor = valor;
+        this.saldo = saldo;
+        this.tipoChavePix = tipoChavePix;
+        this.chave = chave;
+        this.chaveDestino = chaveDestino;
+        this.quantidadeContas = quantidadeContas;
+        this.duracaoNanos = duracaoNanos;
+        this.mensagem = mensagem;
+        this.idExecucao = idExecucao;
+    }
+
+    /**
+     * Cria o comprovante da criação de uma conta.
+     *
+     * @param tipoConta Tipo da conta criada.
+     * @param numeroConta Número da conta criada.
+     * @param limiteEspecial Limite da conta especial, em centavos, ou 0 para os demais tipos.
+     * @return Comprovante da criação.
+     */
+    static Comprovante contaCriada(TipoConta tipoConta, int numeroConta, long limiteEspecial) {
+        return new Comprovante(TipoComprovante.CRIACAO_CONTA, SituacaoComando.EFETUADO, numeroConta, tipoConta,
+                limiteEspecial, 0, null, null, null, 1, 0, null, 0);
+    }
+
+    /**
+     * Cria o comprovante de um depósito.
+     *
+     * @param numeroConta Número da conta.
+     * @param valor Valor depositado, em centavos.
+     * @param saldo Saldo da conta lido logo após o depósito, em centavos.
+     * @return Comprovante do depósito.
+     */
+    static Comprovante deposito(int numeroConta, long valor, long saldo) {
+        return new Comprovante(TipoComprovante.DEPOSITO, SituacaoComando.EFETUADO, numeroConta, null, valor, saldo,
+                null, null, null, 0, 0, null, 0);
+    }
+
+    /**
+     * Cria o comprovante de um saque.
+     *
+     * @param numeroConta Número da conta.
+     * @param valor Valor sacado, em centavos.
+     * @param saldo Saldo da conta lido logo após o saque, em centavos.
+     * @return Comprovante do saque.
+     */
+    static Comprovante saque(int numeroConta, long valor, long saldo) {
+        return new Comprovante(TipoComprovante.SAQUE, SituacaoComando.EFETUADO, numeroConta, null, valor, saldo,
+                null, null, null, 0, 0, null, 0);
+    }
+
+    /**
+     * Cria o comprovante de uma correção das contas poupança.
+     *
+     * @param sobDemanda Verdadeiro se a correção foi registrada como uma época, a ser aplicada sob demanda.
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param idExecucao Identificador da execução de correção.
+     * @param quantidadeContas Quantidade de contas corrigidas ou, sob demanda, de contas poupança existentes.
+     * @param duracaoNanos Duração da correção, em nanossegundos.
+     * @return Comprovante da correção.
+     */
+    static Comprovante correcao(boolean sobDemanda, long taxa, long idExecucao, long quantidadeContas, long duracaoNanos) {
+        return new Comprovante(sobDemanda ? TipoComprovante.CORRECAO_SOB_DEMANDA : TipoComprovante.CORRECAO,
+                SituacaoComando.EFETUADO, 0, null, taxa, 0, null, null, null, quantidadeContas, duracaoNanos, null, idExecucao);
+    }
+
+    /**
+     * Cria o comprovante de uma execução de correção interrompida antes de processar todas as contas.
+     *
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param idExecucao Identificador da execução, com o qual ela pode ser retomada.
+     * @param quantidadeContas Quantidade de contas corrigidas antes da interrupção.
+     * @param duracaoNanos Duração da execução, em nanossegundos.
+     * @param mensagem Descrição da interrupção.
+     * @return Comprovante da correção interrompida.
+     */
+    static Comprovante correcaoInterrompida(long taxa, long idExecucao, long quantidadeContas, long duracaoNanos, String mensagem) {
+        return new Comprovante(TipoComprovante.CORRECAO, SituacaoComando.INTERROMPIDO, 0, null, taxa, 0, null, null, null,
+                quantidadeContas, duracaoNanos, mensagem, idExecucao);
+    }
+
+    /**
+     * Cria o comprovante do cadastro de uma chave Pix.
+     *
+     * @param numeroConta Número da conta dona da chave.
+     * @param tipoChavePix Tipo da chave.
+     * @param chave Chave cadastrada.
+     * @return Comprovante do cadastro.
+     */
+    static Comprovante chavePixCadastrada(int numeroConta, TipoChavePix tipoChavePix, String chave) {
+        return new Comprovante(TipoComprovante.CADASTRO_PIX, SituacaoComando.EFETUADO, numeroConta, null, 0, 0,
+                tipoChavePix, chave, null, 0, 0, null, 0);
+    }
+
+    /**
+     * Cria o comprovante de uma transferência Pix.
+     *
+     * @param numeroConta Número da conta de origem.
+     * @param chaveOrigem Chave Pix da conta de origem.
+     * @param chaveDestino Chave Pix da conta de destino.
+     * @param valor Valor transferido, em centavos.
+     * @param saldo Saldo da conta de origem lido logo após a transferência, em centavos.
+     * @return Comprovante da transferência.
+     */
+    static Comprovante pix(int numeroConta, String chaveOrigem, String chaveDestino, long valor, long saldo) {
+        return new Comprovante(TipoComprovante.PIX, SituacaoComando.EFETUADO, numeroConta, null, valor, saldo,
+                null, chaveOrigem, chaveDestino, 0, 0, null, 0);
+    }
+
+    /**
+     * Cria o comprovante de uma operação que não pôde ser efetuada.
+     *
+     * @param tipo Tipo da operação.
+     * @param situacao Motivo da falha.
+     * @param numeroConta Número da conta da operação, ou 0 se não houver.
+     * @param valor Valor da operação, em centavos.
+     * @param mensagem Mensagem do erro.
+     * @return Comprovante da falha.
+     * @throws IllegalArgumentException Se a situação for {@link SituacaoComando#EFETUADO}.
+     */
+    static Comprovante falha(TipoComprovante tipo, SituacaoComando situacao, int numeroConta, long valor, String mensagem) {
+        if (situacao == SituacaoComando.EFETUADO) {
+            throw new IllegalArgumentException("Uma falha não pode ter a situação " + situacao + ".");
+        }
+        return new Comprovante(tipo, situacao, numeroConta, null, valor, 0, null, null, null, 0, 0, mensagem, 0);
+    }
+
+    /**
+     * Retorna o tipo da operação.
+     *
+     * @return Tipo da operação.
+     */
+    public TipoComprovante getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Retorna a situação da operação.
+     *
+     * @return Situação da operação.
+     */
+    public SituacaoComando getSituacao() {
+        return situacao;
+    }
+
+    /**
+     * Indica se a operação foi efetuada.
+     *
+     * @return Verdadeiro se a operação foi efetuada.
+     */
+    public boolean isEfetuado() {
+        return situacao == SituacaoComando.EFETUADO;
+    }
+
+    /**
+     * Retorna o número da conta da operação: a conta criada, movimentada, dona da chave cadastrada ou de origem do Pix.
+     *
+     * @return Número da conta, ou 0 em correções.
+     */
+    public int getNumeroConta() {
+        return numeroConta;
+    }
+
+    /**
+     * Retorna o tipo da conta criada.
+     *
+     * @return Tipo da conta, ou null se a operação não for uma criação de conta.
+     */
+    public TipoConta getTipoConta() {
+        return tipoConta;
+    }
+
+    /**
+     * Retorna o valor da operação: o valor em centavos, a taxa em correções ou o limite especial na criação de contas.
+     *
+     * @return Valor da operação.
+     */
+    public long getValor() {
+        return valor;
+    }
+
+    /**
+     * Retorna o saldo da conta lido logo após um depósito, saque ou Pix efetuado.
+     * No {@link ModoConcorrencia#LIVRE_DE_LOCK}, o saldo pode incluir operações concorrentes.
+     *
+     * @return Saldo, em centavos, ou 0 nas demais operações.
+     */
+    public long getSaldo() {
+        return saldo;
+    }
+
+    /**
+     * Retorna o tipo da chave Pix cadastrada.
+     *
+     * @return Tipo da chave, ou null se a operação não for um cadastro de chave Pix.
+     */
+    public TipoChavePix getTipoChavePix() {
+        return tipoChavePix;
+    }
+
+    /**
+     * Retorna a chave Pix cadastrada ou a chave de origem de um Pix.
+     *
+     * @return Chave Pix, ou null nas demais operações.
+     */
+    public String getChave() {
+        return chave;
+    }
+
+    /**
+     * Retorna a chave Pix de destino de um Pix.
+     *
+     * @return Chave de destino, ou null nas demais operações.
+     */
+    public String getChaveDestino() {
+        return chaveDestino;
+    }
+
+    /**
+     * Retorna a quantidade de contas de uma correção.
+     *
+     * @return Contas corrigidas ou, sob demanda, contas poupança a corrigir.
+     */
+    public long getQuantidadeContas() {
+        return quantidadeContas;
+    }
+
+    /**
+     * Retorna a duração de uma correção.
+     *
+     * @return Duração, em milissegundos.
+     */
+    public long getDuracaoMillis() {
+        return duracaoNanos / 1_000_000;
+    }
+
+    /**
+     * Retorna o identificador da execução de uma correção, com o qual uma execução interrompida pode ser retomada.
+     *
+     * @return Identificador da execução, ou 0 nas demais operações.
+     */
+    public long getIdExecucao() {
+        return idExecucao;
+    }
+
+    /**
+     * Retorna a mensagem do erro de uma operação que não pôde ser efetuada.
+     *
+     * @return Mensagem do erro, ou null se a operação foi efetuada.
+     */
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    /**
+     * Retorna a representação textual do comprovante, na forma exibida aos correntistas.
+     *
+     * @return Mensagem de sucesso da operação ou do erro.
+     */
+    @Override
+    public String toString() {
+        if (!isEfetuado()) {
+            return "\nErro: " + mensagem;
+        }
+
+        return switch (tipo) {
+            case CRIACAO_CONTA -> "\n- " + tipoConta.getTipoNome() + " criada com sucesso: n° " + numeroConta
+                    + (tipoConta == TipoConta.ESPECIAL ? " | Limite Especial: " + Dinheiro.formatar(valor) : "");
+            case DEPOSITO -> "- Depósito de R$" + Dinheiro.formatar(valor) + " realizado com sucesso.";
+            case SAQUE -> "- Saque de R$" + Dinheiro.formatar(valor) + " realizado com sucesso.";
+            case CORRECAO -> "- Correção de " + Dinheiro.formatarTaxa(valor) + "% realizada com sucesso em "
+                    + quantidadeContas + " contas (" + getDuracaoMillis() + " ms, "
+                    + String.format("%.0f", quantidadeContas / (Math.max(duracaoNanos, 1) / 1e9)) + " contas/s).";
+            case CORRECAO_SOB_DEMANDA -> "- Correção de " + Dinheiro.formatarTaxa(valor) + "% registrada com sucesso para "
+                    + quantidadeContas + " contas, aplicada sob demanda.";
+            case CADASTRO_PIX -> "- Chave pix (" + tipoChavePix.getTipoNome() + ") cadastrada com sucesso: " + chave;
+            case PIX -> "- Pix de R$" + Dinheiro.formatar(valor) + " realizado com sucesso de " + chave + " para " + chaveDestino + ".";
+        };
+    }
+
+}
@@ -0,0 +1,251 @@
+package service;
+
+/**
+ * Operação registrada no {@link CacheIdempotencia} sob uma chave de idempotência informada pelo cliente.
+ * Guarda os parâmetros da operação, para reconhecer o reenvio da mesma operação, e o seu resultado, para devolvê-lo
+ * sem executá-la de novo.
+ * <p>
+ * Uma entrada criada por uma nova operação passa por três estados: reservada, enquanto a operação é executada;
+ * efetivada, quando a mutação é aplicada e registrada no journal, com a listra da conta travada; e concluída, depois
+ * da gravação do registro. Reenvios concorrentes aguardam a conclusão. Se a operação falhar, a entrada é liberada e
+ * a chave pode ser usada em uma nova tentativa.
+ */
+
+public final class EntradaIdempotencia {
+
+    private static final int RESERVADA = 0;
+    private static final int EFETIVADA = 1;
+    private static final int CONCLUIDA = 2;
+    private static final int LIBERADA = 3;
+
+    private final String chave;
+    private final TipoComprovante tipo;
+    private final int numeroConta;
+    private final int numeroContaDestino;
+    private final long valor;
+    private final long momento;
+
+    private long saldo;
+    private long sequencia;
+    private int estado;
+
+    private EntradaIdempotencia(String chave, TipoComprovante tipo, int numeroConta, int numeroContaDestino, long valor,
+                                long momento, long saldo, int estado) {
+        this.chave = chave;
+        this.tipo = tipo;
+        this.numeroConta = numeroConta;
+        this.numeroContaDestino = numeroContaDestino;
+        this.valor = valor;
+        this.momento = momento;
+        this.saldo = saldo;
+        this.estado = estado;
+    }
+
+    /**
+     * Cria a entrada reservada de uma nova operação.
+     *
+     * @param chave Chave de idempotência.
+     * @param tipo Tipo da operação ({@link TipoComprovante#DEPOSITO} ou {@link TipoComprovante#PIX}).
+     * @param numeroConta Número da conta (de origem, no Pix).
+     * @param numeroContaDestino Número da conta de destino do Pix, ou 0.
+     * @param valor Valor da operação, em centavos.
+     * @return Entrada reservada.
+     */
+    static EntradaIdempotencia reservada(String chave, TipoComprovante tipo, int numeroConta, int numeroContaDestino, long valor) {
+        return new EntradaIdempotencia(chave, tipo, numeroConta, numeroContaDestino, valor, System.currentTimeMillis(), 0, RESERVADA);
+    }
+
+    /**
+     * Cria a entrada concluída de uma operação recuperada de um snapshot ou do journal.
+     *
+     * @param chave Chave de idempotência.
+     * @param tipo Tipo da operação.
+     * @param numeroConta Número da conta (de origem, no Pix).
+     * @param numeroContaDestino Número da conta de destino do Pix, ou 0.
+     * @param valor Valor da operação, em centavos.
+     * @param saldo Saldo da conta logo após a operação, em centavos.
+     * @param momento Momento da operação, em milissegundos desde a época Unix.
+     * @return Entrada concluída.
+     */
+    public static EntradaIdempotencia restaurada(String chave, TipoComprovante tipo, int numeroConta, int numeroContaDestino,
+                                                 long valor, long saldo, long momento) {
+        return new EntradaIdempotencia(chave, tipo, numeroConta, numeroContaDestino, valor, momento, saldo, CONCLUIDA);
+    }
+
+    /**
+     * Retorna a chave de idempotência.
+     *
+     * @return Chave informada pelo cliente.
+     */
+    public String getChave() {
+        return chave;
+    }
+
+    /**
+     * Retorna o tipo da operação.
+     *
+     * @return {@link TipoComprovante#DEPOSITO} ou {@link TipoComprovante#PIX}.
+     */
+    public TipoComprovante getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Retorna o número da conta da operação, ou da conta de origem em uma transferência Pix.
+     *
+     * @return Número da conta.
+     */
+    public int getNumeroConta() {
+        return numeroConta;
+    }
+
+    /**
+     * Retorna o número da conta de destino de uma transferência Pix.
+     *
+     * @return Número da conta de destino, ou 0 para depósitos.
+     */
+    public int getNumeroContaDestino() {
+        return numeroContaDestino;
+    }
+
+    /**
+     * Retorna o valor da operação.
+     *
+     * @return Valor, em centavos.
+     */
+    public long getValor() {
+        return valor;
+    }
+
+    /**
+     * Retorna o saldo da conta (de origem, no Pix) logo após a operação.
+     *
+     * @return Saldo, em centavos.
+     */
+    public synchronized long getSaldo() {
+        return saldo;
+    }
+
+    /**
+     * Retorna o momento em que a operação foi recebida, a partir do qual conta a validade da entrada.
+     *
+     * @return Momento da operação, em milissegundos desde a época Unix.
+     */
+    public long getMomento() {
+        return momento;
+    }
+
+    /**
+     * Indica se a operação foi concluída e o seu resultado pode ser devolvido aos reenvios.
+     *
+     * @return Verdadeiro se a entrada está concluída.
+     */
+    public synchronized boolean isConcluida() {
+        return estado == CONCLUIDA;
+    }
+
+    /**
+     * Monta o comprovante original da operação, devolvido a um reenvio.
+     *
+     * @param chaveOrigem Chave Pix de origem informada no reenvio, ou null para depósitos.
+     * @param chaveDestino Chave Pix de destino informada no reenvio, ou null para depósitos.
+     * @return Comprovante da operação.
+     */
+    Comprovante comprovante(String chaveOrigem, String chaveDestino) {
+        return tipo == TipoComprovante.PIX
+                ? Comprovante.pix(numeroConta, chaveOrigem, chaveDestino, valor, getSaldo())
+                : Comprovante.deposito(numeroConta, valor, getSaldo());
+    }
+
+    /**
+     * Indica se a entrada corresponde aos parâmetros de uma operação.
+     *
+     * @param tipo Tipo da operação.
+     * @param numeroConta Número da conta (de origem, no Pix).
+     * @param numeroContaDestino Número da conta de destino do Pix, ou 0.
+     * @param valor Valor da operação, em centavos.
+     * @return Verdadeiro se todos os parâmetros forem iguais.
+     */
+    boolean corresponde(TipoComprovante tipo, int numeroConta, int numeroContaDestino, long valor) {
+        return this.tipo == tipo && this.numeroConta == numeroConta && this.numeroContaDestino == numeroContaDestino
+                && this.valor == valor;
+    }
+
+    /**
+     * Retorna a ordem em que a entrada foi efetivada no cache.
+     *
+     * @return Sequência da efetivação, ou 0 se a operação ainda não foi efetivada.
+     */
+    synchronized long getSequencia() {
+        return sequencia;
+    }
+
+    /**
+     * Registra o resultado da operação. Deve ser chamado com a listra da conta travada, logo após registrar a
+     * operação no journal.
+     *
+     * @param saldo Saldo da conta logo após a operação, em centavos.
+     * @param sequencia Sequência da efetivação no cache.
+     */
+    synchronized void efetivar(long saldo, long sequencia) {
+        this.saldo = saldo;
+        this.sequencia = sequencia;
+        estado = EFETIVADA;
+    }
+
+    /**
+     * Define a sequência de uma entrada restaurada no cache.
+     *
+     * @param sequencia Sequência da entrada no cache.
+     */
+    synchronized void sequenciar(long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    /**
+     * Conclui a entrada, liberando os reenvios que aguardam o resultado.
+     */
+    synchronized void concluir() {
+        estado = CONCLUIDA;
+        notifyAll();
+    }
+
+    /**
+     * Libera a entrada de uma operação que falhou, acordando os reenvios para que tentem executá-la.
+     */
+    synchronized void liberar() {
+        estado = LIBERADA;
+        notifyAll();
+    }
+
+    /**
+     * Aguarda a conclusão ou a liberação da operação.
+     *
+     * @return Verdadeiro se a operação foi concluída, falso se foi liberada.
+     */
+    synchronized boolean aguardar() {
+        boolean interrompida = false;
+
+        while (estado == RESERVADA || estado == EFETIVADA) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+        return estado == CONCLUIDA;
+    }
+
+    /**
+     * Retorna a chave de uma entrada opcional, para o registro da operação no journal.
+     *
+     * @param entrada Entrada da operação, ou null se ela foi feita sem chave.
+     * @return Chave de idempotência, ou null.
+     */
+    static String chaveDe(EntradaIdempotencia entrada) {
+        return entrada != null ? entrada.chave : null;
+    }
+}
@@ -0,0 +1,256 @@
+package service;
+
+import models.Dinheiro;
+
+import java.math.RoundingMode;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execução de uma correção das contas remuneradas, iniciada por {@link BancoService#iniciarCorrecao}.
+ * As contas são corrigidas em paralelo, e a execução informa o progresso e a vazão enquanto está em andamento.
+ * <p>
+ * Cada conta é corrigida por inteiro, com a sua listra travada, e guarda o identificador da execução que a
+ * corrigiu. Uma execução interrompida com {@link #interromper()} (ou por uma queda da aplicação) termina a
+ * conta em andamento e não corrige as demais; executá-la novamente com o mesmo identificador corrige apenas
+ * as contas que faltaram, sem aplicar a taxa duas vezes. Até lá, o serviço não inicia outras correções.
+ */
+
+public final class ExecucaoCorrecao {
+
+    private static final AtomicLong ULTIMO_IDENTIFICADOR = new AtomicLong();
+
+    private final long idExecucao;
+    private final long taxa;
+    private final RoundingMode arredondamento;
+    private final int totalContas;
+    private final LongAdder contasCorrigidas = new LongAdder();
+    private final LongAdder contasIgnoradas = new LongAdder();
+    private final CountDownLatch conclusao = new CountDownLatch(1);
+    private final long inicio = System.nanoTime();
+
+    private volatile boolean interrompida;
+    private volatile long fim;
+    private volatile Throwable falha;
+
+    /**
+     * Construtor da execução.
+     *
+     * @param idExecucao Identificador da execução.
+     * @param taxa Taxa de correção, na escala {@link Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento para centavos.
+     * @param totalContas Quantidade de contas remuneradas a serem corrigidas.
+     */
+    ExecucaoCorrecao(long idExecucao, long taxa, RoundingMode arredondamento, int totalContas) {
+        this.idExecucao = idExecucao;
+        this.taxa = taxa;
+        this.arredondamento = arredondamento;
+        this.totalContas = totalContas;
+    }
+
+    /**
+     * Gera um identificador para uma nova execução, distinto dos gerados anteriormente.
+     * O identificador é baseado no relógio do sistema, para não coincidir com os de execuções de reinícios anteriores.
+     *
+     * @return Identificador positivo da execução.
+     */
+    public static long novoIdentificador() {
+        long agora = System.currentTimeMillis();
+        return ULTIMO_IDENTIFICADOR.accumulateAndGet(agora, (ultimo, atual) -> Math.max(ultimo + 1, atual));
+    }
+
+    /**
+     * Solicita a interrupção da execução. As contas em correção são concluídas, e as demais não são corrigidas.
+     */
+    public void interromper() {
+        interrompida = true;
+    }
+
+    /**
+     * Aguarda o término da execução e a gravação das correções no journal.
+     * Se a thread for interrompida durante a espera, a execução é interrompida e a espera continua até as
+     * contas em andamento serem concluídas; o estado de interrupção da thread é mantido.
+     *
+     * @return Esta execução, concluída.
+     * @throws IllegalStateException Se a execução falhou.
+     */
+    public ExecucaoCorrecao aguardar() {
+        boolean threadInterrompida = false;
+
+        while (true) {
+            try {
+                conclusao.await();
+                break;
+            } catch (InterruptedException e) {
+                interromper();
+                threadInterrompida = true;
+            }
+        }
+
+        if (threadInterrompida) {
+            Thread.currentThread().interrupt();
+        }
+        if (falha != null) {
+            throw new IllegalStateException("A execução de correção " + idExecucao + " falhou: " + falha.getMessage(), falha);
+        }
+        return this;
+    }
+
+    /**
+     * Retorna o identificador da execução.
+     *
+     * @return Identificador da execução.
+     */
+    public long getIdExecucao() {
+        return idExecucao;
+    }
+
+    /**
+     * Retorna a taxa de correção aplicada.
+     *
+     * @return Taxa, na escala {@link Dinheiro#ESCALA_TAXA}.
+     */
+    public long getTaxa() {
+        return taxa;
+    }
+
+    /**
+     * Retorna o modo de arredondamento do rendimento.
+     *
+     * @return Modo de arredondamento.
+     */
+    public RoundingMode getArredondamento() {
+        return arredondamento;
+    }
+
+    /**
+     * Retorna a quantidade de contas remuneradas da execução.
+     *
+     * @return Total de contas.
+     */
+    public int getTotalContas() {
+        return totalContas;
+    }
+
+    /**
+     * Retorna a quantidade de contas corrigidas por esta execução até o momento.
+     *
+     * @return Contas corrigidas.
+     */
+    public long getContasCorrigidas() {
+        return contasCorrigidas.sum();
+    }
+
+    /**
+     * Retorna a quantidade de contas ignoradas por já terem sido corrigidas em uma tentativa anterior da execução.
+     *
+     * @return Contas ignoradas.
+     */
+    public long getContasIgnoradas() {
+        return contasIgnoradas.sum();
+    }
+
+    /**
+     * Retorna a fração das contas já processadas, corrigidas ou ignoradas.
+     *
+     * @return Progresso entre 0 e 1.
+     */
+    public double getProgresso() {
+        return totalContas == 0 ? 1 : (double) (getContasCorrigidas() + getContasIgnoradas()) / totalContas;
+    }
+
+    /**
+     * Retorna a vazão da execução: contas processadas por segundo desde o início até o término ou o momento atual.
+     *
+     * @return Contas por segundo.
+     */
+    public double getContasPorSegundo() {
+        long termino = fim != 0 ? fim : System.nanoTime();
+        double segundos = Math.max(termino - inicio, 1) / 1e9;
+        return (getContasCorrigidas() + getContasIgnoradas()) / segundos;
+    }
+
+    /**
+     * Retorna a duração da execução até o término ou o momento atual.
+     *
+     * @return Duração, em milissegundos.
+     */
+    public long getDuracaoMillis() {
+        long termino = fim != 0 ? fim : System.nanoTime();
+        return (termino - inicio) / 1_000_000;
+    }
+
+    /**
+     * Indica se a execução terminou, concluída, interrompida ou com falha.
+     *
+     * @return Verdadeiro se a execução terminou.
+     */
+    public boolean isTerminada() {
+        return conclusao.getCount() == 0;
+    }
+
+    /**
+     * Indica se a interrupção da execução foi solicitada.
+     *
+     * @return Verdadeiro se a execução foi interrompida.
+     */
+    public boolean isInterrompida() {
+        return interrompida;
+    }
+
+    /**
+     * Indica se todas as contas da execução foram corrigidas ou já estavam corrigidas.
+     *
+     * @return Verdadeiro se a execução terminou sem deixar contas pendentes.
+     */
+    public boolean isCompleta() {
+        return isTerminada() && falha == null && isTodasContasProcessadas();
+    }
+
+    /**
+     * Retorna a representação textual do progresso da execução.
+     *
+     * @return Identificador, contas processadas e vazão.
+     */
+    @Override
+    public String toString() {
+        return "Correção " + idExecucao + " de " + Dinheiro.formatarTaxa(taxa) + "%: "
+                + getContasCorrigidas() + " corrigidas, " + getContasIgnoradas() + " já corrigidas, de "
+                + totalContas + " contas (" + String.format("%.0f", getContasPorSegundo()) + " contas/s)";
+    }
+
+    /**
+     * Contabiliza uma conta processada.
+     *
+     * @param corrigida Verdadeiro se a conta foi corrigida, falso se já havia sido corrigida pela execução.
+     */
+    void registrarConta(boolean corrigida) {
+        if (corrigida) {
+            contasCorrigidas.increment();
+        } else {
+            contasIgnoradas.increment();
+        }
+    }
+
+    /**
+     * Indica se todas as contas da execução já foram corrigidas ou ignoradas, ainda que a execução não tenha terminado.
+     *
+     * @return Verdadeiro se não restam contas a processar.
+     */
+    boolean isTodasContasProcessadas() {
+        return getContasCorrigidas() + getContasIgnoradas() == totalContas;
+    }
+
+    /**
+     * Marca o término da execução, liberando quem aguarda por ela.
+     *
+     * @param falha Erro que encerrou a execução, ou null se ela terminou normalmente.
+     */
+    void concluir(Throwable falha) {
+        this.falha = falha;
+        this.fim = System.nanoTime();
+        conclusao.countDown();
+    }
+
+}
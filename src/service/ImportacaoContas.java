@@ -0,0 +1,168 @@
+package service;
+
+import java.nio.file.Path;
+
+/**
+ * Parâmetros de uma importação de contas executada por {@link BancoService#importarContas(ImportacaoContas)}.
+ * O arquivo é um texto delimitado em UTF-8, com uma conta por linha no formato
+ * {@code TIPO;NOME;CPF[;DEPOSITO_INICIAL]}: o tipo é uma constante de {@link models.enums.TipoConta}
+ * (sem distinção de maiúsculas), o CPF pode estar formatado e o depósito inicial, opcional, é um valor em reais
+ * (ex: {@code 1500,00}). Linhas em branco são ignoradas.
+ * <p>
+ * O arquivo é lido em blocos de {@link #getTamanhoBloco()} bytes, e no máximo {@link #getParalelismo()} blocos
+ * são analisados ao mesmo tempo, de modo que a memória utilizada não depende do tamanho do arquivo.
+ * Instâncias são imutáveis: cada método {@code com...} retorna uma nova importação.
+ */
+
+public final class ImportacaoContas {
+
+    public static final char DELIMITADOR_PADRAO = ';';
+    public static final int TAMANHO_BLOCO_PADRAO = 1 << 20;
+    public static final int TAMANHO_BLOCO_MINIMO = 1 << 10;
+
+    private final Path arquivo;
+    private final Path arquivoRejeicoes;
+    private final char delimitador;
+    private final boolean cabecalho;
+    private final int tamanhoBloco;
+    private final int paralelismo;
+
+    private ImportacaoContas(Path arquivo, Path arquivoRejeicoes, char delimitador, boolean cabecalho, int tamanhoBloco,
+                             int paralelismo) {
+        this.arquivo = arquivo;
+        this.arquivoRejeicoes = arquivoRejeicoes;
+        this.delimitador = delimitador;
+        this.cabecalho = cabecalho;
+        this.tamanhoBloco = tamanhoBloco;
+        this.paralelismo = paralelismo;
+    }
+
+    /**
+     * Cria a importação de um arquivo sem cabeçalho, delimitado por {@value #DELIMITADOR_PADRAO}.
+     * As linhas rejeitadas são gravadas no mesmo diretório, em um arquivo com o sufixo {@code .rejeitados}.
+     *
+     * @param arquivo Arquivo com as contas.
+     * @return Importação com os parâmetros padrão.
+     */
+    public static ImportacaoContas de(Path arquivo) {
+        return new ImportacaoContas(arquivo, arquivo.resolveSibling(arquivo.getFileName() + ".rejeitados"),
+                DELIMITADOR_PADRAO, false, TAMANHO_BLOCO_PADRAO, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Define o delimitador dos campos.
+     *
+     * @param delimitador Caractere ASCII que separa os campos (ex: {@code ','} ou {@code '\t'}).
+     * @return Nova importação com o delimitador.
+     * @throws IllegalArgumentException Se o delimitador não for ASCII ou for uma quebra de linha.
+     */
+    public ImportacaoContas comDelimitador(char delimitador) {
+        if (delimitador > 0x7F || delimitador == '\n' || delimitador == '\r') {
+            throw new IllegalArgumentException("O delimitador deve ser um caractere ASCII diferente da quebra de linha.");
+        }
+        return new ImportacaoContas(arquivo, arquivoRejeicoes, delimitador, cabecalho, tamanhoBloco, paralelismo);
+    }
+
+    /**
+     * Define se a primeira linha do arquivo é um cabeçalho, que não é importado.
+     *
+     * @param cabecalho Verdadeiro se o arquivo possui cabeçalho.
+     * @return Nova importação.
+     */
+    public ImportacaoContas comCabecalho(boolean cabecalho) {
+        return new ImportacaoContas(arquivo, arquivoRejeicoes, delimitador, cabecalho, tamanhoBloco, paralelismo);
+    }
+
+    /**
+     * Define o arquivo onde as linhas rejeitadas são gravadas, cada uma com o número da linha e o motivo.
+     *
+     * @param arquivoRejeicoes Arquivo de rejeições, substituído se já existir.
+     * @return Nova importação.
+     */
+    public ImportacaoContas comArquivoRejeicoes(Path arquivoRejeicoes) {
+        return new ImportacaoContas(arquivo, arquivoRejeicoes, delimitador, cabecalho, tamanhoBloco, paralelismo);
+    }
+
+    /**
+     * Define o tamanho dos blocos lidos do arquivo. Um bloco é ampliado apenas se uma única linha não couber nele.
+     *
+     * @param tamanhoBloco Tamanho do bloco, em bytes.
+     * @return Nova importação.
+     * @throws IllegalArgumentException Se o tamanho for menor que {@value #TAMANHO_BLOCO_MINIMO} bytes.
+     */
+    public ImportacaoContas comTamanhoBloco(int tamanhoBloco) {
+        if (tamanhoBloco < TAMANHO_BLOCO_MINIMO) {
+            throw new IllegalArgumentException("O tamanho do bloco deve ser de pelo menos " + TAMANHO_BLOCO_MINIMO + " bytes.");
+        }
+        return new ImportacaoContas(arquivo, arquivoRejeicoes, delimitador, cabecalho, tamanhoBloco, paralelismo);
+    }
+
+    /**
+     * Define a quantidade máxima de blocos analisados ao mesmo tempo.
+     *
+     * @param paralelismo Quantidade de blocos em análise.
+     * @return Nova importação.
+     * @throws IllegalArgumentException Se o paralelismo for menor ou igual a 0.
+     */
+    public ImportacaoContas comParalelismo(int paralelismo) {
+        if (paralelismo <= 0) {
+            throw new IllegalArgumentException("O paralelismo deve ser positivo.");
+        }
+        return new ImportacaoContas(arquivo, arquivoRejeicoes, delimitador, cabecalho, tamanhoBloco, paralelismo);
+    }
+
+    /**
+     * Retorna o arquivo com as contas.
+     *
+     * @return Arquivo importado.
+     */
+    public Path getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * Retorna o arquivo onde as linhas rejeitadas são gravadas.
+     *
+     * @return Arquivo de rejeições.
+     */
+    public Path getArquivoRejeicoes() {
+        return arquivoRejeicoes;
+    }
+
+    /**
+     * Retorna o delimitador dos campos.
+     *
+     * @return Delimitador.
+     */
+    public char getDelimitador() {
+        return delimitador;
+    }
+
+    /**
+     * Indica se a primeira linha do arquivo é um cabeçalho.
+     *
+     * @return Verdadeiro se o arquivo possui cabeçalho.
+     */
+    public boolean isCabecalho() {
+        return cabecalho;
+    }
+
+    /**
+     * Retorna o tamanho dos blocos lidos do arquivo.
+     *
+     * @return Tamanho do bloco, em bytes.
+     */
+    public int getTamanhoBloco() {
+        return tamanhoBloco;
+    }
+
+    /**
+     * Retorna a quantidade máxima de blocos analisados ao mesmo tempo.
+     *
+     * @return Paralelismo da análise.
+     */
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+}
@@ -0,0 +1,191 @@
+package service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Pipeline de uma {@link ImportacaoContas}, em três estágios.
+ * A thread que executa a importação lê o arquivo em blocos de linhas completas; cada bloco é analisado por uma
+ * tarefa no {@link ForkJoinPool#commonPool()} ({@link BlocoImportacao#analisar(char)}); os blocos analisados são
+ * entregues ao {@link BancoService}, na ordem do arquivo, para a criação das contas em lote, e as linhas rejeitadas
+ * são gravadas no arquivo de rejeições. Enquanto um bloco é registrado, os blocos seguintes continuam em análise.
+ * No máximo {@link ImportacaoContas#getParalelismo()} blocos ficam em análise ao mesmo tempo, o que limita a memória
+ * utilizada, qualquer que seja o tamanho do arquivo.
+ */
+
+final class ImportadorContas {
+
+    private final BancoService bancoService;
+    private final ImportacaoContas importacao;
+    private final Deque<ForkJoinTask<BlocoImportacao>> emAnalise = new ArrayDeque<>();
+    private final long[] rejeicoes = new long[MotivoRejeicao.values().length];
+
+    private long linhas;
+    private long contasCriadas;
+    private long depositosIniciais;
+    private long bytes;
+    private long linhasAnteriores;
+
+    /**
+     * Construtor do importador.
+     *
+     * @param bancoService Serviço onde as contas são criadas.
+     * @param importacao Parâmetros da importação.
+     */
+    ImportadorContas(BancoService bancoService, ImportacaoContas importacao) {
+        this.bancoService = bancoService;
+        this.importacao = importacao;
+    }
+
+    /**
+     * Executa a importação, lendo o arquivo até o fim.
+     * As contas dos blocos já registrados permanecem criadas caso a importação falhe no meio do arquivo.
+     *
+     * @return Resumo da importação.
+     * @throws IOException Em caso de erro de leitura do arquivo ou de gravação das rejeições.
+     */
+    ResumoImportacao executar() throws IOException {
+        long inicio = System.nanoTime();
+
+        try (InputStream entrada = Files.newInputStream(importacao.getArquivo());
+             BufferedWriter rejeitadas = Files.newBufferedWriter(importacao.getArquivoRejeicoes(), StandardCharsets.UTF_8)) {
+            byte[] sobra = new byte[0];
+            int tamanhoSobra = 0;
+            boolean pularCabecalho = importacao.isCabecalho();
+
+            while (true) {
+                byte[] dados = new byte[Math.max(importacao.getTamanhoBloco(), tamanhoSobra * 2)];
+                System.arraycopy(sobra, 0, dados, 0, tamanhoSobra);
+                int lidos = entrada.readNBytes(dados, tamanhoSobra, dados.length - tamanhoSobra);
+                int fimDados = tamanhoSobra + lidos;
+                boolean fimArquivo = fimDados < dados.length;
+                bytes += lidos;
+
+                int fimBloco = fimArquivo ? fimDados : ultimaQuebra(dados, 0, fimDados) + 1;
+                if (fimBloco == 0 && !fimArquivo) {
+                    sobra = dados;
+                    tamanhoSobra = fimDados;
+                    continue;
+                }
+
+                int inicioBloco = 0;
+                if (pularCabecalho) {
+                    int quebra = primeiraQuebra(dados, 0, fimBloco);
+                    inicioBloco = quebra < 0 ? fimBloco : quebra + 1;
+                    linhasAnteriores = 1;
+                    pularCabecalho = false;
+                }
+                if (fimBloco > inicioBloco) {
+                    enviar(new BlocoImportacao(dados, inicioBloco, fimBloco), rejeitadas);
+                }
+
+                if (fimArquivo) {
+                    break;
+                }
+                tamanhoSobra = fimDados - fimBloco;
+                sobra = Arrays.copyOfRange(dados, fimBloco, fimDados);
+            }
+
+            while (!emAnalise.isEmpty()) {
+                registrar(emAnalise.removeFirst().join(), rejeitadas);
+            }
+        }
+
+        return new ResumoImportacao(linhas, contasCriadas, depositosIniciais, rejeicoes, bytes,
+                System.nanoTime() - inicio, importacao.getArquivoRejeicoes());
+    }
+
+    /**
+     * Envia um bloco para análise, registrando antes o bloco mais antigo caso o limite de blocos em análise tenha sido atingido.
+     *
+     * @param bloco Bloco lido do arquivo.
+     * @param rejeitadas Arquivo de rejeições.
+     * @throws IOException Em caso de erro de gravação das rejeições.
+     */
+    private void enviar(BlocoImportacao bloco, BufferedWriter rejeitadas) throws IOException {
+        if (emAnalise.size() >= importacao.getParalelismo()) {
+            registrar(emAnalise.removeFirst().join(), rejeitadas);
+        }
+
+        char delimitador = importacao.getDelimitador();
+        emAnalise.addLast(ForkJoinPool.commonPool().submit(() -> bloco.analisar(delimitador)));
+    }
+
+    /**
+     * Cria as contas de um bloco analisado e grava as suas linhas rejeitadas, cada uma no formato
+     * {@code LINHA;MOTIVO;CONTEUDO}, com o delimitador da importação.
+     *
+     * @param bloco Bloco analisado.
+     * @param rejeitadas Arquivo de rejeições.
+     * @throws IOException Em caso de erro de gravação das rejeições.
+     */
+    private void registrar(BlocoImportacao bloco, BufferedWriter rejeitadas) throws IOException {
+        bancoService.registrarImportadas(bloco);
+
+        char delimitador = importacao.getDelimitador();
+        for (int i = 0; i < bloco.getQuantidade(); i++) {
+            MotivoRejeicao motivo = bloco.getMotivo(i);
+            if (motivo == null) {
+                contasCriadas++;
+                if (bloco.getDepositoInicial(i) > 0) {
+                    depositosIniciais++;
+                }
+                continue;
+            }
+
+            rejeicoes[motivo.ordinal()]++;
+            rejeitadas.write(Long.toString(linhasAnteriores + bloco.getLinha(i) + 1));
+            rejeitadas.write(delimitador);
+            rejeitadas.write(motivo.name());
+            rejeitadas.write(delimitador);
+            rejeitadas.write(bloco.getTexto(i));
+            rejeitadas.newLine();
+        }
+
+        linhas += bloco.getQuantidade();
+        linhasAnteriores += bloco.getLinhasLidas();
+    }
+
+    /**
+     * Busca a primeira quebra de linha de um intervalo.
+     *
+     * @param dados Bytes lidos.
+     * @param inicio Posição inicial.
+     * @param fim Posição final (exclusiva).
+     * @return Posição da quebra, ou -1 se não houver.
+     */
+    private static int primeiraQuebra(byte[] dados, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            if (dados[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca a última quebra de linha de um intervalo.
+     *
+     * @param dados Bytes lidos.
+     * @param inicio Posição inicial.
+     * @param fim Posição final (exclusiva).
+     * @return Posição da quebra, ou -1 se não houver.
+     */
+    private static int ultimaQuebra(byte[] dados, int inicio, int fim) {
+        for (int i = fim - 1; i >= inicio; i--) {
+            if (dados[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
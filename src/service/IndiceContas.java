@@ -0,0 +1,94 @@
+package service;
+
+import models.Conta;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória das contas registradas no {@link BancoService}.
+ * Mantém tabelas hash por número da conta, CPF e nome do correntista, permitindo buscas
+ * em tempo constante em vez de percorrer toda a lista de contas.
+ * O índice não é serializado: é reconstruído a partir da lista de contas ao restaurar o serviço.
+ * As buscas podem ser feitas de forma concorrente; a inclusão de contas é serializada pelo próprio serviço.
+ */
+
+public class IndiceContas {
+
+    private final Map<Integer, Conta> contasPorNumero = new ConcurrentHashMap<>();
+    private final Map<String, Conta> contasPorCPF = new ConcurrentHashMap<>();
+    private final Map<String, Conta> contasPorNome = new ConcurrentHashMap<>();
+
+    /**
+     * Adiciona uma conta ao índice.
+     *
+     * @param conta Conta a ser indexada.
+     */
+    public void indexar(Conta conta) {
+        contasPorNumero.put(conta.getNumeroConta(), conta);
+        contasPorCPF.put(conta.getCorrentistaCPF(), conta);
+        contasPorNome.put(conta.getCorrentistaNome(), conta);
+    }
+
+    /**
+     * Descarta o conteúdo atual e indexa novamente todas as contas informadas.
+     *
+     * @param contas Contas a serem indexadas.
+     */
+    public void reconstruir(Collection<? extends Conta> contas) {
+        contasPorNumero.clear();
+        contasPorCPF.clear();
+        contasPorNome.clear();
+        contas.forEach(this::indexar);
+    }
+
+    /**
+     * Busca uma conta pelo número.
+     *
+     * @param numeroConta Número da conta.
+     * @return Conta encontrada ou null se não existir.
+     */
+    public Conta getPorNumero(int numeroConta) {
+        return contasPorNumero.get(numeroConta);
+    }
+
+    /**
+     * Busca uma conta pelo CPF do correntista.
+     *
+     * @param cpf CPF do correntista.
+     * @return Conta encontrada ou null se não existir.
+     */
+    public Conta getPorCPF(String cpf) {
+        return contasPorCPF.get(cpf);
+    }
+
+    /**
+     * Verifica se já existe conta com o nome informado.
+     *
+     * @param nome Nome do correntista.
+     * @return Verdadeiro se o nome já estiver indexado, caso contrário falso.
+     */
+    public boolean contemNome(String nome) {
+        return contasPorNome.containsKey(nome);
+    }
+
+    /**
+     * Verifica se já existe conta com o CPF informado.
+     *
+     * @param cpf CPF do correntista.
+     * @return Verdadeiro se o CPF já estiver indexado, caso contrário falso.
+     */
+    public boolean contemCPF(String cpf) {
+        return contasPorCPF.containsKey(cpf);
+    }
+
+    /**
+     * Retorna a quantidade de contas indexadas.
+     *
+     * @return Número de contas no índice.
+     */
+    public int tamanho() {
+        return contasPorNumero.size();
+    }
+}
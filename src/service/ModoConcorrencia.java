@@ -0,0 +1,23 @@
+package service;
+
+/**
+ * Enum que define como o {@link BancoService} coordena depósitos e saques executados em paralelo.
+ * A posição das constantes é gravada nos snapshots: novos modos devem ser acrescentados ao fim.
+ */
+
+public enum ModoConcorrencia {
+
+    /**
+     * Depósitos e saques travam a listra da conta na {@link TabelaLocks} antes de alterar o saldo.
+     */
+    LOCK_POR_CONTA,
+
+    /**
+     * Depósitos e saques alteram o saldo diretamente por comparação e troca (CAS), sem travar a conta.
+     * Transferências Pix continuam travando as duas contas envolvidas. Operações simultâneas na mesma conta
+     * podem aparecer no histórico em ordem diferente da ordem em que os saldos foram efetivados.
+     * Com um journal anexado ao serviço, depósitos e saques travam a conta mesmo neste modo.
+     */
+    LIVRE_DE_LOCK
+
+}
@@ -0,0 +1,25 @@
+package service;
+
+import models.EpocasCorrecao;
+
+/**
+ * Enum que define como o {@link BancoService} aplica as correções das contas poupança.
+ * A posição das constantes é gravada nos snapshots: novos modos devem ser acrescentados ao fim.
+ */
+
+public enum ModoCorrecao {
+
+    /**
+     * A correção é aplicada a todas as contas poupança no momento em que é solicitada, em paralelo
+     * (ver {@link ExecucaoCorrecao}). O custo é proporcional à quantidade de contas.
+     */
+    IMEDIATA,
+
+    /**
+     * A correção é registrada como uma nova época nas {@link EpocasCorrecao} do serviço, com custo constante,
+     * e cada conta poupança a aplica na próxima vez em que for consultada ou alterada. O saldo e o histórico
+     * resultantes são os mesmos da correção imediata.
+     */
+    SOB_DEMANDA
+
+}
@@ -0,0 +1,39 @@
+package service;
+
+/**
+ * Enum que define o motivo pelo qual uma linha de uma {@link ImportacaoContas} não gerou uma conta.
+ */
+
+public enum MotivoRejeicao {
+
+    /**
+     * A linha não possui os campos esperados ou o nome do correntista está vazio.
+     */
+    FORMATO_INVALIDO,
+
+    /**
+     * O tipo de conta informado não existe.
+     */
+    TIPO_CONTA_INVALIDO,
+
+    /**
+     * O CPF informado é inválido.
+     */
+    CPF_INVALIDO,
+
+    /**
+     * O depósito inicial não é um valor válido ou é negativo.
+     */
+    VALOR_INVALIDO,
+
+    /**
+     * Já existe uma conta com o nome do correntista, cadastrada antes ou em uma linha anterior do arquivo.
+     */
+    NOME_DUPLICADO,
+
+    /**
+     * Já existe uma conta com o CPF, cadastrada antes ou em uma linha anterior do arquivo.
+     */
+    CPF_DUPLICADO
+
+}
@@ -0,0 +1,595 @@
+package service;
+
+import models.Conta;
+import models.ContaCorrente;
+import models.exceptions.PixNaoCadastradoException;
+import models.exceptions.SaldoInsuficienteException;
+import service.persistencia.RegistroJournal;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Motor de execução particionado do {@link BancoService}, com um único escritor por conta.
+ * As contas são distribuídas entre partições pela listra da {@link TabelaLocks} (cada listra pertence a uma única
+ * partição), e cada partição possui uma thread que consome os comandos das suas contas de um {@link AnelComandos}
+ * pré-alocado. Enquanto o motor está anexado ao serviço, depósitos, saques e transferências Pix são entregues à
+ * partição da conta e a thread que chamou o serviço aguarda a conclusão do comando (e, depois, a gravação do
+ * registro no journal), de modo que as operações de uma conta nunca disputam o lock entre si.
+ * <p>
+ * Uma transferência Pix entre partições é executada em duas etapas: a partição da origem verifica as duas contas,
+ * registra a transferência no journal e debita o valor, e em seguida encaminha o crédito ao anel da partição do
+ * destino, que o aplica uma única vez, sem verificar o destino novamente, e conclui a transferência. Assim, o crédito
+ * de uma transferência já debitada e registrada nunca é recusado. O registro do journal corresponde à transferência inteira, de modo que, após uma
+ * falha, a reprodução do journal aplica o crédito exatamente uma vez, mesmo que ele ainda não tivesse sido aplicado.
+ * Se o anel do destino estiver cheio, o crédito é guardado pela partição de origem e reenviado, sem bloqueá-la.
+ * <p>
+ * As partições continuam travando a listra das contas que alteram, sem disputa, para que snapshots, o journal e as
+ * demais operações do serviço (lotes, correções, importações e consultas) sigam funcionando sem mudanças.
+ * Durante a definição do ponto de um snapshot o motor é pausado: as transferências entre partições passam a ser
+ * efetivadas de uma só vez, com as duas listras travadas, até que os créditos em trânsito terminem.
+ */
+
+public final class MotorParticionado implements Closeable {
+
+    /**
+     * Quantidade padrão de comandos do anel de cada partição.
+     */
+    public static final int CAPACIDADE_PADRAO = 1024;
+
+    private static final int DEPOSITO = 0;
+    private static final int SAQUE = 1;
+    private static final int PIX = 2;
+    private static final int CREDITO_PIX = 3;
+
+    private static final int GIROS_RESPOSTA = Runtime.getRuntime().availableProcessors() > 1 ? 256 : 0;
+
+    private final BancoService bancoService;
+    private final TabelaLocks tabelaLocks;
+    private final Particao[] particoes;
+    private final AtomicLong emAndamento = new AtomicLong();
+    private final AtomicLong creditosPendentes = new AtomicLong();
+    private final ThreadLocal<Resposta> respostas = ThreadLocal.withInitial(Resposta::new);
+
+    private volatile boolean pausado;
+    private volatile boolean encerrado;
+
+    /**
+     * Construtor do motor. As threads das partições são iniciadas imediatamente.
+     *
+     * @param bancoService Serviço cujas contas são alteradas pelo motor.
+     * @param tabelaLocks Tabela de locks do serviço, que define a partição de cada conta.
+     * @param quantidadeParticoes Quantidade de partições.
+     * @param capacidade Quantidade mínima de comandos do anel de cada partição.
+     * @throws IllegalArgumentException Se a quantidade de partições for menor ou igual a 0 ou maior que a quantidade
+     *                                  de listras da tabela de locks.
+     */
+    MotorParticionado(BancoService bancoService, TabelaLocks tabelaLocks, int quantidadeParticoes, int capacidade) {
+        if (quantidadeParticoes <= 0 || quantidadeParticoes > tabelaLocks.getQuantidadeListras()) {
+            throw new IllegalArgumentException("A quantidade de partições deve estar entre 1 e " + tabelaLocks.getQuantidadeListras() + ".");
+        }
+
+        this.bancoService = bancoService;
+        this.tabelaLocks = tabelaLocks;
+        particoes = new Particao[quantidadeParticoes];
+
+        for (int i = 0; i < quantidadeParticoes; i++) {
+            particoes[i] = new Particao(new AnelComandos(capacidade));
+        }
+        for (int i = 0; i < quantidadeParticoes; i++) {
+            Thread thread = new Thread(particoes[i], "motor-particao-" + i);
+            thread.setDaemon(true);
+            particoes[i].thread = thread;
+            particoes[i].anel.setConsumidor(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de partições do motor.
+     *
+     * @return Quantidade de partições.
+     */
+    public int getQuantidadeParticoes() {
+        return particoes.length;
+    }
+
+    /**
+     * Desanexa o motor do serviço e encerra as partições depois que os comandos em andamento forem concluídos.
+     * As operações seguintes do serviço voltam a travar as listras das contas na própria thread que as chama.
+     */
+    @Override
+    public void close() {
+        bancoService.desanexarMotor(this);
+        encerrado = true;
+
+        boolean interrompida = false;
+        for (Particao particao : particoes) {
+            while (particao.thread.isAlive()) {
+                particao.anel.acordar();
+                try {
+                    particao.thread.join(10);
+                } catch (InterruptedException e) {
+                    interrompida = true;
+                }
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Efetua um depósito pela partição da conta.
+     *
+     * @param conta Conta do depósito.
+     * @param valor Valor a ser depositado, em centavos.
+     * @param entrada Entrada de idempotência reservada para o depósito, ou null.
+     * @return Saldo da conta após o depósito.
+     */
+    long depositar(Conta conta, long valor, EntradaIdempotencia entrada) {
+        return executar(DEPOSITO, conta, null, valor, entrada).getSaldo();
+    }
+
+    /**
+     * Efetua um saque pela partição da conta.
+     *
+     * @param conta Conta do saque.
+     * @param valor Valor a ser sacado, em centavos.
+     * @return Saldo da conta após o saque.
+     * @throws SaldoInsuficienteException Se o saldo da conta for insuficiente.
+     */
+    long sacar(Conta conta, long valor) throws SaldoInsuficienteException {
+        Resposta resposta = executar(SAQUE, conta, null, valor, null);
+        if (resposta.erro instanceof SaldoInsuficienteException e) {
+            throw e;
+        }
+        return resposta.getSaldo();
+    }
+
+    /**
+     * Efetua uma transferência Pix pela partição da conta de origem, aguardando o crédito no destino.
+     *
+     * @param origem Conta de origem.
+     * @param destino Conta de destino.
+     * @param valor Valor a ser transferido, em centavos.
+     * @param entrada Entrada de idempotência reservada para a transferência, ou null.
+     * @return Saldo da conta de origem após o débito.
+     * @throws PixNaoCadastradoException Se uma das contas não possuir chave Pix.
+     * @throws SaldoInsuficienteException Se a conta de origem não possuir saldo para a transferência.
+     */
+    long transferirPix(ContaCorrente origem, ContaCorrente destino, long valor, EntradaIdempotencia entrada) throws PixNaoCadastradoException, SaldoInsuficienteException {
+        Resposta resposta = executar(PIX, origem, destino, valor, entrada);
+        if (resposta.erro instanceof PixNaoCadastradoException e) {
+            throw e;
+        }
+        if (resposta.erro instanceof SaldoInsuficienteException e) {
+            throw e;
+        }
+        return resposta.getSaldo();
+    }
+
+    /**
+     * Pausa as transferências Pix em duas etapas, para que os créditos em trânsito possam terminar.
+     * Utilizado pelo serviço enquanto define o ponto de um snapshot.
+     */
+    void pausar() {
+        pausado = true;
+    }
+
+    /**
+     * Retoma as transferências Pix em duas etapas.
+     */
+    void retomar() {
+        pausado = false;
+    }
+
+    /**
+     * Indica se há transferências Pix já debitadas da origem cujo crédito ainda não foi aplicado no destino.
+     *
+     * @return Verdadeiro se houver créditos em trânsito.
+     */
+    boolean possuiCreditosPendentes() {
+        return creditosPendentes.get() != 0;
+    }
+
+    // Métodos Privados
+
+    /**
+     * Entrega um comando à partição da conta e aguarda a sua conclusão e a gravação do seu registro no journal.
+     * Depois que o motor é encerrado, o comando é executado na própria thread que chama, travando as listras.
+     *
+     * @param tipo Tipo do comando.
+     * @param conta Conta do comando (origem, no caso do Pix).
+     * @param destino Conta de destino do Pix, ou null.
+     * @param valor Valor do comando, em centavos.
+     * @param entrada Entrada de idempotência reservada para o comando, ou null.
+     * @return Resposta do comando, reaproveitada pela thread a cada chamada.
+     */
+    private Resposta executar(int tipo, Conta conta, ContaCorrente destino, long valor, EntradaIdempotencia entrada) {
+        Resposta resposta = respostas.get();
+        resposta.preparar();
+        emAndamento.incrementAndGet();
+
+        if (encerrado) {
+            aplicar(tipo, conta, destino, valor, entrada, resposta, true);
+        } else {
+            AnelComandos anel = particoes[particao(conta.getNumeroConta())].anel;
+            long sequencia = anel.reservar();
+            anel.comando(sequencia).preencher(tipo, conta, destino, valor, entrada, resposta);
+            anel.publicar(sequencia);
+            resposta.aguardar();
+        }
+
+        bancoService.aguardarDurabilidade(resposta.lsn);
+        return resposta;
+    }
+
+    /**
+     * Aplica um comando com a listra da conta travada e conclui a sua resposta.
+     *
+     * @param tipo Tipo do comando.
+     * @param conta Conta do comando.
+     * @param destino Conta de destino do Pix, ou null.
+     * @param valor Valor do comando, em centavos.
+     * @param entrada Entrada de idempotência reservada para o comando, ou null.
+     * @param resposta Resposta do comando.
+     * @param pixAtomico Verdadeiro para efetivar o Pix de uma só vez, travando as listras das duas contas.
+     * @return Verdadeiro se o Pix foi debitado da origem e o crédito ainda deve ser encaminhado ao destino;
+     * nesse caso a resposta só é concluída pela partição do destino.
+     */
+    private boolean aplicar(int tipo, Conta conta, ContaCorrente destino, long valor, EntradaIdempotencia entrada,
+                            Resposta resposta, boolean pixAtomico) {
+        try {
+            switch (tipo) {
+                case DEPOSITO -> depositarTravado(conta, valor, entrada, resposta);
+                case SAQUE -> sacarTravado(conta, valor, resposta);
+                case PIX -> {
+                    if (enviarPix((ContaCorrente) conta, destino, valor, entrada, resposta, pixAtomico)) {
+                        return true;
+                    }
+                }
+                default -> receberPix((ContaCorrente) conta, valor);
+            }
+        } catch (SaldoInsuficienteException | PixNaoCadastradoException | RuntimeException e) {
+            resposta.erro = e;
+        }
+
+        emAndamento.decrementAndGet();
+        resposta.concluir();
+        return false;
+    }
+
+    /**
+     * Deposita na conta com a sua listra travada.
+     *
+     * @param conta Conta do depósito.
+     * @param valor Valor do depósito, em centavos.
+     * @param entrada Entrada de idempotência reservada para o depósito, ou null.
+     * @param resposta Resposta que recebe o saldo e o LSN do registro.
+     */
+    private void depositarTravado(Conta conta, long valor, EntradaIdempotencia entrada, Resposta resposta) {
+        int numeroConta = conta.getNumeroConta();
+
+        tabelaLocks.travar(numeroConta);
+        try {
+            bancoService.preservarImagem(conta);
+            conta.verificarDeposito(valor);
+            resposta.lsn = bancoService.registrarNoJournal(RegistroJournal.deposito(numeroConta, valor, EntradaIdempotencia.chaveDe(entrada)));
+            conta.depositar(valor);
+            resposta.saldo = conta.getSaldo();
+            bancoService.efetivarReserva(entrada, resposta.saldo);
+        } finally {
+            tabelaLocks.destravar(numeroConta);
+        }
+    }
+
+    /**
+     * Saca da conta com a sua listra travada.
+     *
+     * @param conta Conta do saque.
+     * @param valor Valor do saque, em centavos.
+     * @param resposta Resposta que recebe o saldo e o LSN do registro.
+     * @throws SaldoInsuficienteException Se o saldo da conta for insuficiente.
+     */
+    private void sacarTravado(Conta conta, long valor, Resposta resposta) throws SaldoInsuficienteException {
+        int numeroConta = conta.getNumeroConta();
+
+        tabelaLocks.travar(numeroConta);
+        try {
+            bancoService.preservarImagem(conta);
+            conta.verificarSaque(valor);
+            resposta.lsn = bancoService.registrarNoJournal(RegistroJournal.saque(numeroConta, valor));
+            conta.sacar(valor);
+            resposta.saldo = conta.getSaldo();
+        } finally {
+            tabelaLocks.destravar(numeroConta);
+        }
+    }
+
+    /**
+     * Debita uma transferência Pix da origem. Se as duas contas pertencem à mesma partição, ou se o Pix deve ser
+     * atômico, a transferência é efetivada de uma só vez pelo serviço.
+     *
+     * @param origem Conta de origem.
+     * @param destino Conta de destino.
+     * @param valor Valor a ser transferido, em centavos.
+     * @param entrada Entrada de idempotência reservada para a transferência, ou null.
+     * @param resposta Resposta que recebe o saldo da origem e o LSN do registro.
+     * @param atomico Verdadeiro para efetivar a transferência de uma só vez.
+     * @return Verdadeiro se o crédito ainda deve ser encaminhado à partição do destino.
+     * @throws PixNaoCadastradoException Se uma das contas não possuir chave Pix.
+     * @throws SaldoInsuficienteException Se a conta de origem não possuir saldo para a transferência.
+     */
+    private boolean enviarPix(ContaCorrente origem, ContaCorrente destino, long valor, EntradaIdempotencia entrada,
+                              Resposta resposta, boolean atomico) throws PixNaoCadastradoException, SaldoInsuficienteException {
+        int numeroOrigem = origem.getNumeroConta();
+        int numeroDestino = destino.getNumeroConta();
+
+        if (atomico || particao(numeroOrigem) == particao(numeroDestino)) {
+            resposta.lsn = bancoService.transferirPix(origem, destino, valor, entrada);
+            resposta.saldo = origem.getSaldo();
+            return false;
+        }
+
+        tabelaLocks.travar(numeroOrigem);
+        try {
+            bancoService.preservarImagem(origem);
+            origem.verificarEnvioPix(bancoService.getDiretorioPix(), destino, valor);
+            // O registro cobre o débito e o crédito: a reprodução do journal aplica a transferência inteira.
+            resposta.lsn = bancoService.registrarNoJournal(RegistroJournal.pix(numeroOrigem, numeroDestino, valor,
+                    EntradaIdempotencia.chaveDe(entrada)));
+            origem.enviarPix(bancoService.getDiretorioPix(), destino, valor);
+            resposta.saldo = origem.getSaldo();
+            bancoService.efetivarReserva(entrada, resposta.saldo);
+            creditosPendentes.incrementAndGet();
+        } finally {
+            tabelaLocks.destravar(numeroOrigem);
+        }
+        return true;
+    }
+
+    /**
+     * Aplica no destino o crédito de uma transferência Pix debitada por outra partição.
+     * O destino foi verificado pela partição da origem antes do débito, e o registro do journal já cobre o crédito.
+     *
+     * @param destino Conta de destino.
+     * @param valor Valor transferido, em centavos.
+     */
+    private void receberPix(ContaCorrente destino, long valor) {
+        int numeroConta = destino.getNumeroConta();
+
+        tabelaLocks.travar(numeroConta);
+        try {
+            bancoService.preservarImagem(destino);
+            destino.receberPixVerificado(valor);
+        } finally {
+            creditosPendentes.decrementAndGet();
+            tabelaLocks.destravar(numeroConta);
+        }
+    }
+
+    /**
+     * Calcula a partição de uma conta a partir da sua listra na tabela de locks.
+     *
+     * @param numeroConta Número da conta.
+     * @return Índice da partição.
+     */
+    private int particao(int numeroConta) {
+        return tabelaLocks.getIndiceListra(numeroConta) % particoes.length;
+    }
+
+    /**
+     * Comando de um anel, preenchido pelo produtor e lido pela thread da partição.
+     */
+    static final class Comando {
+
+        private int tipo;
+        private Conta conta;
+        private ContaCorrente destino;
+        private long valor;
+        private EntradaIdempotencia entrada;
+        private Resposta resposta;
+
+        /**
+         * Preenche o comando.
+         *
+         * @param tipo Tipo do comando.
+         * @param conta Conta do comando.
+         * @param destino Conta de destino do Pix, ou null.
+         * @param valor Valor do comando, em centavos.
+         * @param entrada Entrada de idempotência reservada para o comando, ou null.
+         * @param resposta Resposta do comando.
+         */
+        void preencher(int tipo, Conta conta, ContaCorrente destino, long valor, EntradaIdempotencia entrada, Resposta resposta) {
+            this.tipo = tipo;
+            this.conta = conta;
+            this.destino = destino;
+            this.valor = valor;
+            this.entrada = entrada;
+            this.resposta = resposta;
+        }
+    }
+
+    /**
+     * Resposta de um comando, reaproveitada pela thread que chama o serviço a cada operação.
+     * A thread gira por alguns ciclos aguardando a conclusão e, em seguida, é estacionada até ser acordada
+     * pela partição que conclui o comando.
+     */
+    private static final class Resposta {
+
+        private final Thread thread = Thread.currentThread();
+
+        private long saldo;
+        private long lsn;
+        private Exception erro;
+        private volatile boolean concluida;
+        private volatile boolean aguardando;
+
+        /**
+         * Prepara a resposta para um novo comando.
+         */
+        void preparar() {
+            saldo = 0;
+            lsn = 0;
+            erro = null;
+            concluida = false;
+        }
+
+        /**
+         * Aguarda a conclusão do comando.
+         */
+        void aguardar() {
+            for (int i = 0; i < GIROS_RESPOSTA && !concluida; i++) {
+                Thread.onSpinWait();
+            }
+            if (concluida) {
+                return;
+            }
+
+            aguardando = true;
+            while (!concluida) {
+                LockSupport.park(this);
+            }
+            aguardando = false;
+        }
+
+        /**
+         * Conclui o comando, acordando a thread que o aguarda. A resposta não deve mais ser alterada depois disso.
+         */
+        void concluir() {
+            concluida = true;
+            if (aguardando) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * Retorna o saldo resultante do comando, relançando os erros de execução ocorridos na partição.
+         *
+         * @return Saldo da conta após o comando.
+         */
+        long getSaldo() {
+            if (erro instanceof RuntimeException e) {
+                throw e;
+            }
+            return saldo;
+        }
+    }
+
+    /**
+     * Partição do motor: o anel de comandos, a thread que o consome e os créditos Pix que ainda não couberam
+     * no anel da partição de destino.
+     */
+    private final class Particao implements Runnable {
+
+        private final AnelComandos anel;
+        private final ArrayDeque<Comando> creditosAdiados = new ArrayDeque<>();
+        private Thread thread;
+
+        /**
+         * Construtor da partição.
+         *
+         * @param anel Anel de comandos da partição.
+         */
+        Particao(AnelComandos anel) {
+            this.anel = anel;
+        }
+
+        /**
+         * Consome os comandos do anel até o motor ser encerrado e não restarem comandos em andamento.
+         */
+        @Override
+        public void run() {
+            int ociosidade = 0;
+
+            while (true) {
+                boolean trabalhou = reenviarCreditos();
+
+                Comando comando = anel.proximo();
+                if (comando != null) {
+                    int tipo = comando.tipo;
+                    Conta conta = comando.conta;
+                    ContaCorrente destino = comando.destino;
+                    long valor = comando.valor;
+                    EntradaIdempotencia entrada = comando.entrada;
+                    Resposta resposta = comando.resposta;
+                    anel.liberar();
+
+                    if (aplicar(tipo, conta, destino, valor, entrada, resposta, pausado)) {
+                        encaminharCredito(destino, valor, resposta);
+                    }
+                    trabalhou = true;
+                }
+
+                if (trabalhou) {
+                    ociosidade = 0;
+                    continue;
+                }
+                if (encerrado && emAndamento.get() == 0) {
+                    return;
+                }
+                anel.aguardar(ociosidade, creditosAdiados.isEmpty());
+                if (ociosidade < Integer.MAX_VALUE) {
+                    ociosidade++;
+                }
+            }
+        }
+
+        /**
+         * Encaminha o crédito de um Pix ao anel da partição do destino, ou o guarda se o anel estiver cheio.
+         *
+         * @param destino Conta de destino.
+         * @param valor Valor transferido, em centavos.
+         * @param resposta Resposta da transferência, concluída pela partição do destino.
+         */
+        private void encaminharCredito(ContaCorrente destino, long valor, Resposta resposta) {
+            if (creditosAdiados.isEmpty() && tentarEncaminhar(destino, valor, resposta)) {
+                return;
+            }
+
+            Comando credito = new Comando();
+            credito.preencher(CREDITO_PIX, destino, null, valor, null, resposta);
+            creditosAdiados.add(credito);
+        }
+
+        /**
+         * Reenvia, em ordem, os créditos guardados enquanto houver espaço nos anéis de destino.
+         *
+         * @return Verdadeiro se algum crédito foi reenviado.
+         */
+        private boolean reenviarCreditos() {
+            boolean reenviou = false;
+            Comando credito;
+
+            while ((credito = creditosAdiados.peek()) != null
+                    && tentarEncaminhar((ContaCorrente) credito.conta, credito.valor, credito.resposta)) {
+                creditosAdiados.poll();
+                reenviou = true;
+            }
+            return reenviou;
+        }
+
+        /**
+         * Tenta publicar um crédito no anel da partição do destino sem aguardar.
+         *
+         * @param destino Conta de destino.
+         * @param valor Valor transferido, em centavos.
+         * @param resposta Resposta da transferência.
+         * @return Falso se o anel do destino estiver cheio.
+         */
+        private boolean tentarEncaminhar(ContaCorrente destino, long valor, Resposta resposta) {
+            AnelComandos anelDestino = particoes[particao(destino.getNumeroConta())].anel;
+            long sequencia = anelDestino.tentarReservar();
+            if (sequencia < 0) {
+                return false;
+            }
+
+            anelDestino.comando(sequencia).preencher(CREDITO_PIX, destino, null, valor, null, resposta);
+            anelDestino.publicar(sequencia);
+            return true;
+        }
+    }
+}
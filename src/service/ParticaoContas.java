@@ -0,0 +1,96 @@
+package service;
+
+import models.Conta;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Vetor denso com as contas de um mesmo tipo, mantido pelas {@link ParticoesContas}.
+ * As contas são apenas acrescentadas, por um único escritor de cada vez (o cadastro de contas é serializado
+ * pelo serviço), e podem ser lidas por várias threads sem travas: o vetor e o tamanho são publicados por
+ * campos voláteis, com o tamanho gravado por último.
+ *
+ * @param <T> Tipo das contas da partição.
+ */
+
+public final class ParticaoContas<T extends Conta> {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private final IntFunction<T[]> criarVetor;
+    private volatile T[] contas;
+    private volatile int tamanho;
+
+    /**
+     * Construtor de uma partição vazia.
+     *
+     * @param criarVetor Criador de vetores do tipo das contas, como {@code ContaPoupanca[]::new}.
+     */
+    ParticaoContas(IntFunction<T[]> criarVetor) {
+        this.criarVetor = criarVetor;
+        this.contas = criarVetor.apply(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Acrescenta uma conta à partição, dobrando a capacidade do vetor quando necessário.
+     *
+     * @param conta Conta a ser acrescentada.
+     */
+    void adicionar(T conta) {
+        T[] atual = contas;
+        int quantidade = tamanho;
+
+        if (quantidade == atual.length) {
+            atual = Arrays.copyOf(atual, atual.length * 2);
+        }
+        atual[quantidade] = conta;
+        contas = atual;
+        tamanho = quantidade + 1;
+    }
+
+    /**
+     * Remove todas as contas da partição.
+     */
+    void limpar() {
+        contas = criarVetor.apply(CAPACIDADE_INICIAL);
+        tamanho = 0;
+    }
+
+    /**
+     * Retorna a quantidade de contas da partição.
+     *
+     * @return Quantidade de contas.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna uma cópia do vetor de contas, com as contas acrescentadas até o momento.
+     *
+     * @return Vetor com as contas, na ordem de cadastro.
+     */
+    public T[] copiar() {
+        int quantidade = tamanho;
+        T[] copia = criarVetor.apply(quantidade);
+        System.arraycopy(contas, 0, copia, 0, quantidade);
+        return copia;
+    }
+
+    /**
+     * Executa uma ação para cada conta da partição, na ordem de cadastro, sem copiar o vetor.
+     * Contas acrescentadas durante o percurso podem não ser visitadas.
+     *
+     * @param acao Ação a ser executada.
+     */
+    public void paraCada(Consumer<? super T> acao) {
+        int quantidade = tamanho;
+        T[] atual = contas;
+        for (int i = 0; i < quantidade; i++) {
+            acao.accept(atual[i]);
+        }
+    }
+
+}
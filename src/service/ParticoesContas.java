@@ -0,0 +1,110 @@
+package service;
+
+import models.Conta;
+import models.ContaCorrente;
+import models.ContaEspecial;
+import models.ContaPoupanca;
+import models.enums.TipoConta;
+import models.interfaces.Remunerada;
+
+import java.util.Collection;
+
+/**
+ * Partições das contas registradas no {@link BancoService} por tipo de conta.
+ * Cada tipo ({@link ContaCorrente}, {@link ContaEspecial} e {@link ContaPoupanca}) tem o seu vetor denso,
+ * e as contas que implementam {@link Remunerada} têm um vetor próprio, de modo que operações restritas a um
+ * tipo percorrem apenas as contas desse tipo, sem verificar o tipo de cada conta da lista completa.
+ * Assim como o {@link IndiceContas}, as partições não são serializadas: são mantidas no cadastro das contas
+ * e reconstruídas a partir da lista de contas ao restaurar o serviço.
+ */
+
+public class ParticoesContas {
+
+    private final ParticaoContas<ContaCorrente> correntes = new ParticaoContas<>(ContaCorrente[]::new);
+    private final ParticaoContas<ContaEspecial> especiais = new ParticaoContas<>(ContaEspecial[]::new);
+    private final ParticaoContas<ContaPoupanca> poupancas = new ParticaoContas<>(ContaPoupanca[]::new);
+    private final ParticaoContas<Conta> remuneradas = new ParticaoContas<>(Conta[]::new);
+
+    /**
+     * Adiciona uma conta à partição do seu tipo e, se for remunerada, à partição das contas remuneradas.
+     *
+     * @param conta Conta a ser adicionada.
+     */
+    public void adicionar(Conta conta) {
+        if (conta instanceof ContaEspecial contaEspecial) {
+            especiais.adicionar(contaEspecial);
+        } else if (conta instanceof ContaCorrente contaCorrente) {
+            correntes.adicionar(contaCorrente);
+        } else if (conta instanceof ContaPoupanca contaPoupanca) {
+            poupancas.adicionar(contaPoupanca);
+        }
+
+        if (conta instanceof Remunerada) {
+            remuneradas.adicionar(conta);
+        }
+    }
+
+    /**
+     * Descarta o conteúdo atual e particiona novamente todas as contas informadas.
+     *
+     * @param contas Contas a serem particionadas.
+     */
+    public void reconstruir(Collection<? extends Conta> contas) {
+        correntes.limpar();
+        especiais.limpar();
+        poupancas.limpar();
+        remuneradas.limpar();
+        contas.forEach(this::adicionar);
+    }
+
+    /**
+     * Retorna a partição das contas correntes, sem as contas especiais.
+     *
+     * @return Partição das contas correntes.
+     */
+    public ParticaoContas<ContaCorrente> getCorrentes() {
+        return correntes;
+    }
+
+    /**
+     * Retorna a partição das contas especiais.
+     *
+     * @return Partição das contas especiais.
+     */
+    public ParticaoContas<ContaEspecial> getEspeciais() {
+        return especiais;
+    }
+
+    /**
+     * Retorna a partição das contas poupança.
+     *
+     * @return Partição das contas poupança.
+     */
+    public ParticaoContas<ContaPoupanca> getPoupancas() {
+        return poupancas;
+    }
+
+    /**
+     * Retorna a partição das contas que implementam {@link Remunerada}.
+     *
+     * @return Partição das contas remuneradas.
+     */
+    public ParticaoContas<Conta> getRemuneradas() {
+        return remuneradas;
+    }
+
+    /**
+     * Retorna a partição das contas de um tipo.
+     *
+     * @param tipo Tipo de conta.
+     * @return Partição das contas do tipo.
+     */
+    public ParticaoContas<? extends Conta> getPorTipo(TipoConta tipo) {
+        return switch (tipo) {
+            case CORRENTE -> correntes;
+            case POUPANCA -> poupancas;
+            case ESPECIAL -> especiais;
+        };
+    }
+
+}
@@ -0,0 +1,81 @@
+package service;
+
+/**
+ * Resultado de um comando executado em lote pelo {@link BancoService}.
+ * Comandos efetuados compartilham uma única instância; falhas guardam a situação e a mensagem do erro.
+ */
+
+public final class ResultadoComando {
+
+    private static final ResultadoComando EFETUADO = new ResultadoComando(SituacaoComando.EFETUADO, null);
+
+    private final SituacaoComando situacao;
+    private final String mensagem;
+
+    private ResultadoComando(SituacaoComando situacao, String mensagem) {
+        this.situacao = situacao;
+        this.mensagem = mensagem;
+    }
+
+    /**
+     * Retorna o resultado de um comando efetuado.
+     *
+     * @return Resultado de sucesso.
+     */
+    public static ResultadoComando efetuado() {
+        return EFETUADO;
+    }
+
+    /**
+     * Cria o resultado de um comando que não pôde ser efetuado.
+     *
+     * @param situacao Motivo da falha.
+     * @param mensagem Mensagem do erro.
+     * @return Resultado da falha.
+     * @throws IllegalArgumentException Se a situação for {@link SituacaoComando#EFETUADO}.
+     */
+    public static ResultadoComando falha(SituacaoComando situacao, String mensagem) {
+        if (situacao == SituacaoComando.EFETUADO) {
+            throw new IllegalArgumentException("Uma falha não pode ter a situação " + situacao + ".");
+        }
+        return new ResultadoComando(situacao, mensagem);
+    }
+
+    /**
+     * Retorna a situação do comando.
+     *
+     * @return Situação do comando.
+     */
+    public SituacaoComando getSituacao() {
+        return situacao;
+    }
+
+    /**
+     * Retorna a mensagem do erro de um comando que não pôde ser efetuado.
+     *
+     * @return Mensagem do erro, ou null se o comando foi efetuado.
+     */
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    /**
+     * Indica se o comando foi efetuado.
+     *
+     * @return Verdadeiro se o comando foi efetuado.
+     */
+    public boolean isEfetuado() {
+        return situacao == SituacaoComando.EFETUADO;
+    }
+
+    /**
+     * Retorna a representação textual do resultado.
+     *
+     * @return Situação e, em falhas, a mensagem do erro.
+     */
+    @Override
+    public String toString() {
+        return mensagem != null ? situacao + ": " + mensagem : situacao.toString();
+    }
+
+}
@@ -0,0 +1,155 @@
+package service;
+
+import java.nio.file.Path;
+
+/**
+ * Resumo de uma importação de contas executada por {@link BancoService#importarContas(ImportacaoContas)}:
+ * quantidade de linhas lidas, contas criadas, depósitos iniciais efetuados, linhas rejeitadas por motivo e vazão.
+ */
+
+public final class ResumoImportacao {
+
+    private final long linhas;
+    private final long contasCriadas;
+    private final long depositosIniciais;
+    private final long[] rejeicoes;
+    private final long bytes;
+    private final long duracaoNanos;
+    private final Path arquivoRejeicoes;
+
+    /**
+     * Construtor do resumo.
+     *
+     * @param linhas Quantidade de linhas importadas, sem contar o cabeçalho e as linhas em branco.
+     * @param contasCriadas Quantidade de contas criadas.
+     * @param depositosIniciais Quantidade de depósitos iniciais efetuados.
+     * @param rejeicoes Quantidade de linhas rejeitadas, na posição de cada {@link MotivoRejeicao}.
+     * @param bytes Tamanho do arquivo lido, em bytes.
+     * @param duracaoNanos Duração da importação, em nanossegundos.
+     * @param arquivoRejeicoes Arquivo com as linhas rejeitadas.
+     */
+    ResumoImportacao(long linhas, long contasCriadas, long depositosIniciais, long[] rejeicoes, long bytes,
+                     long duracaoNanos, Path arquivoRejeicoes) {
+        this.linhas = linhas;
+        this.contasCriadas = contasCriadas;
+        this.depositosIniciais = depositosIniciais;
+        this.rejeicoes = rejeicoes.clone();
+        this.bytes = bytes;
+        this.duracaoNanos = duracaoNanos;
+        this.arquivoRejeicoes = arquivoRejeicoes;
+    }
+
+    /**
+     * Retorna a quantidade de linhas importadas, sem contar o cabeçalho e as linhas em branco.
+     *
+     * @return Quantidade de linhas.
+     */
+    public long getLinhas() {
+        return linhas;
+    }
+
+    /**
+     * Retorna a quantidade de contas criadas.
+     *
+     * @return Contas criadas.
+     */
+    public long getContasCriadas() {
+        return contasCriadas;
+    }
+
+    /**
+     * Retorna a quantidade de depósitos iniciais efetuados nas contas criadas.
+     *
+     * @return Depósitos iniciais.
+     */
+    public long getDepositosIniciais() {
+        return depositosIniciais;
+    }
+
+    /**
+     * Retorna a quantidade total de linhas rejeitadas.
+     *
+     * @return Linhas rejeitadas.
+     */
+    public long getRejeicoes() {
+        long total = 0;
+        for (long quantidade : rejeicoes) {
+            total += quantidade;
+        }
+        return total;
+    }
+
+    /**
+     * Retorna a quantidade de linhas rejeitadas por um motivo.
+     *
+     * @param motivo Motivo da rejeição.
+     * @return Linhas rejeitadas pelo motivo.
+     */
+    public long getRejeicoes(MotivoRejeicao motivo) {
+        return rejeicoes[motivo.ordinal()];
+    }
+
+    /**
+     * Retorna o arquivo com as linhas rejeitadas.
+     *
+     * @return Arquivo de rejeições.
+     */
+    public Path getArquivoRejeicoes() {
+        return arquivoRejeicoes;
+    }
+
+    /**
+     * Retorna a duração da importação.
+     *
+     * @return Duração, em milissegundos.
+     */
+    public long getDuracaoMillis() {
+        return duracaoNanos / 1_000_000;
+    }
+
+    /**
+     * Retorna a vazão da importação: linhas importadas por segundo.
+     *
+     * @return Linhas por segundo.
+     */
+    public double getLinhasPorSegundo() {
+        return linhas / (Math.max(duracaoNanos, 1) / 1e9);
+    }
+
+    /**
+     * Retorna a vazão de leitura do arquivo.
+     *
+     * @return Megabytes lidos por segundo.
+     */
+    public double getMegabytesPorSegundo() {
+        return bytes / (1024.0 * 1024.0) / (Math.max(duracaoNanos, 1) / 1e9);
+    }
+
+    /**
+     * Retorna a representação textual do resumo.
+     *
+     * @return Contagens, rejeições por motivo e vazão da importação.
+     */
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder()
+                .append("- Importação concluída: ").append(linhas).append(" linhas, ")
+                .append(contasCriadas).append(" contas criadas, ")
+                .append(depositosIniciais).append(" depósitos iniciais, ")
+                .append(getRejeicoes()).append(" rejeitadas (")
+                .append(getDuracaoMillis()).append(" ms, ")
+                .append(String.format("%.0f", getLinhasPorSegundo())).append(" linhas/s, ")
+                .append(String.format("%.1f", getMegabytesPorSegundo())).append(" MB/s).");
+
+        for (MotivoRejeicao motivo : MotivoRejeicao.values()) {
+            if (rejeicoes[motivo.ordinal()] > 0) {
+                texto.append("\n  ").append(motivo).append(": ").append(rejeicoes[motivo.ordinal()]);
+            }
+        }
+        if (getRejeicoes() > 0) {
+            texto.append("\n- Linhas rejeitadas gravadas em ").append(arquivoRejeicoes).append('.');
+        }
+        return texto.toString();
+    }
+
+}
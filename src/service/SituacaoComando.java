@@ -0,0 +1,46 @@
+package service;
+
+/**
+ * Enum que define o desfecho de um comando executado em lote pelo {@link BancoService} ou de uma operação
+ * descrita por um {@link Comprovante}.
+ */
+
+public enum SituacaoComando {
+
+    /**
+     * Comando efetivado e, com um journal anexado, gravado no disco.
+     */
+    EFETUADO,
+
+    /**
+     * A conta ou a chave Pix do comando não está cadastrada.
+     */
+    CONTA_NAO_ENCONTRADA,
+
+    /**
+     * A conta não possui saldo para o saque ou a transferência.
+     */
+    SALDO_INSUFICIENTE,
+
+    /**
+     * O valor ou a taxa do comando é inválido.
+     */
+    VALOR_INVALIDO,
+
+    /**
+     * O comando não se aplica ao tipo da conta, como a correção de uma conta que não é poupança.
+     */
+    TIPO_CONTA_INVALIDO,
+
+    /**
+     * A chave Pix informada já está cadastrada.
+     */
+    CHAVE_PIX_JA_CADASTRADA,
+
+    /**
+     * A execução de correção foi interrompida antes de processar todas as contas e pode ser retomada com o mesmo
+     * identificador.
+     */
+    INTERROMPIDO
+
+}
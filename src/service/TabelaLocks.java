@@ -0,0 +1,160 @@
+package service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tabela de locks listrada utilizada pelo {@link BancoService} para serializar as operações de cada conta.
+ * Cada número de conta é mapeado para uma das listras da tabela, de modo que operações em contas
+ * distintas normalmente travam locks distintos e podem ser executadas em paralelo, sem um monitor global.
+ * Operações que envolvem duas contas travam as listras sempre na mesma ordem canônica (índice crescente),
+ * evitando deadlock entre transferências simultâneas em sentidos opostos.
+ */
+
+public class TabelaLocks {
+
+    /**
+     * Quantidade padrão de listras da tabela.
+     */
+    public static final int LISTRAS_PADRAO = 256;
+
+    private final ReentrantLock[] listras;
+    private final int mascara;
+
+    /**
+     * Construtor da tabela com a quantidade padrão de listras.
+     */
+    public TabelaLocks() {
+        this(LISTRAS_PADRAO);
+    }
+
+    /**
+     * Construtor da tabela de locks.
+     * A quantidade de listras é arredondada para a próxima potência de dois.
+     *
+     * @param quantidadeListras Quantidade mínima de listras.
+     * @throws IllegalArgumentException Se a quantidade de listras for menor ou igual a 0.
+     */
+    public TabelaLocks(int quantidadeListras) {
+        if (quantidadeListras <= 0) {
+            throw new IllegalArgumentException("A quantidade de listras deve ser positiva.");
+        }
+
+        int tamanho = Integer.highestOneBit(quantidadeListras);
+        if (tamanho < quantidadeListras) {
+            tamanho <<= 1;
+        }
+
+        listras = new ReentrantLock[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            listras[i] = new ReentrantLock();
+        }
+        mascara = tamanho - 1;
+    }
+
+    /**
+     * Trava a listra da conta informada.
+     *
+     * @param numeroConta Número da conta.
+     */
+    public void travar(int numeroConta) {
+        listras[indice(numeroConta)].lock();
+    }
+
+    /**
+     * Destrava a listra da conta informada.
+     *
+     * @param numeroConta Número da conta.
+     */
+    public void destravar(int numeroConta) {
+        listras[indice(numeroConta)].unlock();
+    }
+
+    /**
+     * Trava as listras de duas contas na ordem canônica.
+     * Se as duas contas caírem na mesma listra, ela é travada uma única vez.
+     *
+     * @param numeroContaA Número da primeira conta.
+     * @param numeroContaB Número da segunda conta.
+     */
+    public void travarPar(int numeroContaA, int numeroContaB) {
+        int indiceA = indice(numeroContaA);
+        int indiceB = indice(numeroContaB);
+
+        if (indiceA == indiceB) {
+            listras[indiceA].lock();
+            return;
+        }
+
+        listras[Math.min(indiceA, indiceB)].lock();
+        listras[Math.max(indiceA, indiceB)].lock();
+    }
+
+    /**
+     * Destrava as listras de duas contas travadas com {@link #travarPar(int, int)}.
+     *
+     * @param numeroContaA Número da primeira conta.
+     * @param numeroContaB Número da segunda conta.
+     */
+    public void destravarPar(int numeroContaA, int numeroContaB) {
+        int indiceA = indice(numeroContaA);
+        int indiceB = indice(numeroContaB);
+
+        if (indiceA == indiceB) {
+            listras[indiceA].unlock();
+            return;
+        }
+
+        listras[Math.max(indiceA, indiceB)].unlock();
+        listras[Math.min(indiceA, indiceB)].unlock();
+    }
+
+    /**
+     * Trava todas as listras da tabela, em ordem canônica, aguardando as operações em andamento terminarem.
+     * O custo depende apenas da quantidade de listras, e não da quantidade de contas.
+     */
+    public void travarTodas() {
+        for (ReentrantLock listra : listras) {
+            listra.lock();
+        }
+    }
+
+    /**
+     * Destrava todas as listras travadas com {@link #travarTodas()}.
+     */
+    public void destravarTodas() {
+        for (int i = listras.length - 1; i >= 0; i--) {
+            listras[i].unlock();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de listras da tabela.
+     *
+     * @return Quantidade de listras.
+     */
+    public int getQuantidadeListras() {
+        return listras.length;
+    }
+
+    /**
+     * Retorna o índice da listra correspondente a um número de conta, permitindo distribuir as listras
+     * entre partições de forma que cada conta pertença sempre à partição da sua listra.
+     *
+     * @param numeroConta Número da conta.
+     * @return Índice da listra, entre 0 e {@link #getQuantidadeListras()} - 1.
+     */
+    public int getIndiceListra(int numeroConta) {
+        return indice(numeroConta);
+    }
+
+    /**
+     * Calcula a listra correspondente a um número de conta.
+     * Como os números de conta são sequenciais, contas consecutivas caem em listras distintas.
+     *
+     * @param numeroConta Número da conta.
+     * @return Índice da listra.
+     */
+    private int indice(int numeroConta) {
+        return numeroConta & mascara;
+    }
+}
@@ -0,0 +1,67 @@
+package service;
+
+import models.Conta;
+
+import java.io.Serial;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tarefa fork/join que corrige um intervalo das contas remuneradas de uma {@link ExecucaoCorrecao}.
+ * Intervalos maiores que {@value #LIMIAR} contas são divididos ao meio e corrigidos em paralelo.
+ * Antes de cada conta a tarefa verifica se a execução foi interrompida.
+ */
+
+final class TarefaCorrecao extends RecursiveTask<Long> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static final int LIMIAR = 256;
+
+    private final BancoService bancoService;
+    private final ExecucaoCorrecao execucao;
+    private final Conta[] contas;
+    private final int inicio;
+    private final int fim;
+
+    /**
+     * Construtor da tarefa.
+     *
+     * @param bancoService Serviço que aplica a correção a cada conta.
+     * @param execucao Execução de correção.
+     * @param contas Contas remuneradas da execução.
+     * @param inicio Posição da primeira conta do intervalo (inclusiva).
+     * @param fim Posição final do intervalo (exclusiva).
+     */
+    TarefaCorrecao(BancoService bancoService, ExecucaoCorrecao execucao, Conta[] contas, int inicio, int fim) {
+        this.bancoService = bancoService;
+        this.execucao = execucao;
+        this.contas = contas;
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    /**
+     * Corrige as contas do intervalo, dividindo-o enquanto for maior que o limiar.
+     *
+     * @return Maior LSN registrado no journal pelas correções do intervalo, ou 0 se nenhum registro foi gravado.
+     */
+    @Override
+    protected Long compute() {
+        if (fim - inicio > LIMIAR) {
+            int meio = (inicio + fim) >>> 1;
+            TarefaCorrecao esquerda = new TarefaCorrecao(bancoService, execucao, contas, inicio, meio);
+            TarefaCorrecao direita = new TarefaCorrecao(bancoService, execucao, contas, meio, fim);
+            esquerda.fork();
+            long lsnDireita = direita.compute();
+            return Math.max(esquerda.join(), lsnDireita);
+        }
+
+        long ultimoLsn = 0;
+        for (int i = inicio; i < fim && !execucao.isInterrompida(); i++) {
+            ultimoLsn = Math.max(ultimoLsn, bancoService.corrigirConta(contas[i], execucao));
+        }
+        return ultimoLsn;
+    }
+
+}
@@ -0,0 +1,29 @@
+package service;
+
+/**
+ * Enum que define os tipos de comando aceitos por {@link BancoService#executarLote(java.util.List)}.
+ */
+
+public enum TipoComando {
+
+    /**
+     * Depósito em uma conta.
+     */
+    DEPOSITO,
+
+    /**
+     * Saque de uma conta.
+     */
+    SAQUE,
+
+    /**
+     * Transferência Pix entre as contas de duas chaves.
+     */
+    PIX,
+
+    /**
+     * Correção de uma conta poupança.
+     */
+    CORRECAO
+
+}
@@ -0,0 +1,44 @@
+package service;
+
+/**
+ * Enum que define as operações do {@link BancoService} descritas por um {@link Comprovante}.
+ */
+
+public enum TipoComprovante {
+
+    /**
+     * Criação de uma conta.
+     */
+    CRIACAO_CONTA,
+
+    /**
+     * Depósito em uma conta.
+     */
+    DEPOSITO,
+
+    /**
+     * Saque de uma conta.
+     */
+    SAQUE,
+
+    /**
+     * Correção aplicada imediatamente às contas poupança.
+     */
+    CORRECAO,
+
+    /**
+     * Correção registrada como uma época, aplicada sob demanda às contas poupança.
+     */
+    CORRECAO_SOB_DEMANDA,
+
+    /**
+     * Cadastro de uma chave Pix.
+     */
+    CADASTRO_PIX,
+
+    /**
+     * Transferência Pix entre as contas de duas chaves.
+     */
+    PIX
+
+}
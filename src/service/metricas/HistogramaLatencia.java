@@ -0,0 +1,153 @@
+package service.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em nanossegundos, com faixas log-lineares no estilo do HdrHistogram.
+ * Valores abaixo de 64 ns têm uma faixa cada; acima, cada potência de dois é dividida em 32 faixas iguais, de modo
+ * que o erro relativo de um percentil fica abaixo de 1/32 (cerca de 3%) em toda a escala, de nanossegundos a anos,
+ * com 1.888 contadores fixos. O registro apenas incrementa o contador da faixa, sem locks nem alocação, e pode ser
+ * feito por várias threads ao mesmo tempo.
+ * <p>
+ * As consultas percorrem os contadores sem bloquear os registros, de modo que um percentil lido durante a medição
+ * pode não incluir os registros mais recentes.
+ */
+
+public final class HistogramaLatencia {
+
+    private static final int BITS_SUBFAIXA = 5;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+    private static final int FAIXAS_LINEARES = SUBFAIXAS << 1;
+    private static final int EXPOENTE_MINIMO = BITS_SUBFAIXA + 1;
+    private static final int QUANTIDADE_FAIXAS = FAIXAS_LINEARES + (Long.SIZE - 1 - EXPOENTE_MINIMO) * SUBFAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(QUANTIDADE_FAIXAS);
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra uma latência.
+     *
+     * @param nanos Latência, em nanossegundos. Valores negativos são registrados como 0.
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(nanos, 0);
+
+        contagens.incrementAndGet(faixa(valor));
+        quantidade.increment();
+        soma.add(valor);
+        if (valor > maximo.get()) {
+            maximo.accumulateAndGet(valor, Math::max);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de latências registradas.
+     *
+     * @return Quantidade de registros.
+     */
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    /**
+     * Retorna a maior latência registrada.
+     *
+     * @return Latência máxima, em nanossegundos, ou 0 se não houver registros.
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Retorna a média das latências registradas.
+     *
+     * @return Latência média, em nanossegundos, ou 0 se não houver registros.
+     */
+    public double getMedia() {
+        long total = quantidade.sum();
+        return total == 0 ? 0 : (double) soma.sum() / total;
+    }
+
+    /**
+     * Retorna a latência abaixo da qual está o percentual informado dos registros.
+     * O valor devolvido é o limite superior da faixa do percentil, limitado à latência máxima.
+     *
+     * @param percentual Percentual entre 0 e 100, como 50, 99 ou 99,9.
+     * @return Latência do percentil, em nanossegundos, ou 0 se não houver registros.
+     * @throws IllegalArgumentException Se o percentual estiver fora do intervalo de 0 a 100.
+     */
+    public long percentil(double percentual) {
+        if (percentual < 0 || percentual > 100) {
+            throw new IllegalArgumentException("O percentual deve estar entre 0 e 100.");
+        }
+
+        long[] copia = new long[QUANTIDADE_FAIXAS];
+        long total = 0;
+        for (int i = 0; i < QUANTIDADE_FAIXAS; i++) {
+            copia[i] = contagens.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long alvo = Math.max(1, (long) Math.ceil(percentual / 100 * total));
+        long acumulado = 0;
+        for (int i = 0; i < QUANTIDADE_FAIXAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Zera o histograma. Registros feitos durante a chamada podem ser mantidos parcialmente.
+     */
+    public void zerar() {
+        for (int i = 0; i < QUANTIDADE_FAIXAS; i++) {
+            contagens.set(i, 0);
+        }
+        quantidade.reset();
+        soma.reset();
+        maximo.set(0);
+    }
+
+    /**
+     * Calcula a faixa de uma latência.
+     *
+     * @param valor Latência não negativa, em nanossegundos.
+     * @return Índice da faixa.
+     */
+    private static int faixa(long valor) {
+        if (valor < FAIXAS_LINEARES) {
+            return (int) valor;
+        }
+
+        int expoente = Long.SIZE - 1 - Long.numberOfLeadingZeros(valor);
+        int subfaixa = (int) (valor >>> (expoente - BITS_SUBFAIXA)) - SUBFAIXAS;
+        return FAIXAS_LINEARES + (expoente - EXPOENTE_MINIMO) * SUBFAIXAS + subfaixa;
+    }
+
+    /**
+     * Calcula a maior latência contida em uma faixa.
+     *
+     * @param faixa Índice da faixa.
+     * @return Limite superior da faixa, em nanossegundos.
+     */
+    private static long limiteSuperior(int faixa) {
+        if (faixa < FAIXAS_LINEARES) {
+            return faixa;
+        }
+
+        int expoente = EXPOENTE_MINIMO + (faixa - FAIXAS_LINEARES) / SUBFAIXAS;
+        long subfaixa = SUBFAIXAS + (faixa - FAIXAS_LINEARES) % SUBFAIXAS;
+        // Na última faixa, o deslocamento ultrapassa Long.MAX_VALUE e o resultado volta exatamente a ele.
+        return ((subfaixa + 1) << (expoente - BITS_SUBFAIXA)) - 1;
+    }
+}
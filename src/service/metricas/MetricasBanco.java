@@ -0,0 +1,252 @@
+package service.metricas;
+
+import models.enums.IdentificadorTipo;
+import service.CacheIdempotencia;
+import service.Comprovante;
+import service.SituacaoComando;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de desempenho do {@link service.BancoService}: uma {@link MetricasOperacao} por {@link OperacaoMedida},
+ * com contadores por resultado e histograma de latências, e a quantidade de operações registradas nos extratos por
+ * {@link IdentificadorTipo}, contadas a partir dos comprovantes das operações efetuadas.
+ * <p>
+ * Todos os contadores são {@link LongAdder} ou vetores atômicos, atualizados sem locks pelas threads que executam as
+ * operações. Com as métricas desativadas, o serviço não cria esta classe, e o custo de cada operação se resume a
+ * verificar que não há métricas.
+ * <p>
+ * As métricas podem ser publicadas no servidor JMX da plataforma com {@link #publicar()}, sob o domínio
+ * {@value #DOMINIO_JMX}, e gravadas em um arquivo texto com {@link #gravar(Path)}.
+ */
+
+public final class MetricasBanco implements MetricasBancoMXBean {
+
+    /**
+     * Domínio dos nomes JMX das métricas.
+     */
+    public static final String DOMINIO_JMX = "banco";
+
+    private static final OperacaoMedida[] OPERACOES = OperacaoMedida.values();
+    private static final IdentificadorTipo[] TIPOS = IdentificadorTipo.values();
+
+    private final MetricasOperacao[] operacoes = new MetricasOperacao[OPERACOES.length];
+    private final LongAdder[] tipos = new LongAdder[TIPOS.length];
+    private final CacheIdempotencia cacheIdempotencia;
+    private final List<ObjectName> nomesPublicados = new ArrayList<>();
+
+    /**
+     * Construtor das métricas.
+     *
+     * @param cacheIdempotencia Cache de idempotência do serviço, publicado junto com as métricas.
+     */
+    public MetricasBanco(CacheIdempotencia cacheIdempotencia) {
+        this.cacheIdempotencia = cacheIdempotencia;
+        for (OperacaoMedida operacao : OPERACOES) {
+            operacoes[operacao.ordinal()] = new MetricasOperacao(operacao);
+        }
+        for (int i = 0; i < tipos.length; i++) {
+            tipos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra uma operação concluída com um comprovante e conta as operações de extrato que ela gerou.
+     *
+     * @param operacao Operação medida.
+     * @param inicio Início da operação, lido de {@link System#nanoTime()}.
+     * @param comprovante Comprovante da operação.
+     * @return O próprio comprovante.
+     */
+    public Comprovante registrar(OperacaoMedida operacao, long inicio, Comprovante comprovante) {
+        operacoes[operacao.ordinal()].registrar(System.nanoTime() - inicio, comprovante.getSituacao());
+
+        if (comprovante.isEfetuado()) {
+            switch (comprovante.getTipo()) {
+                case DEPOSITO -> tipos[IdentificadorTipo.DEPOSITO.ordinal()].increment();
+                case SAQUE -> tipos[IdentificadorTipo.SAQUE.ordinal()].increment();
+                case PIX -> {
+                    tipos[IdentificadorTipo.PIX_OUT.ordinal()].increment();
+                    tipos[IdentificadorTipo.PIX_IN.ordinal()].increment();
+                }
+                // As correções sob demanda são registradas nos extratos apenas quando cada conta é consultada.
+                case CORRECAO -> tipos[IdentificadorTipo.CORRECAO_TAX.ordinal()].add(comprovante.getQuantidadeContas());
+                default -> {
+                }
+            }
+        }
+        return comprovante;
+    }
+
+    /**
+     * Registra uma operação concluída sem comprovante.
+     *
+     * @param operacao Operação medida.
+     * @param inicio Início da operação, lido de {@link System#nanoTime()}.
+     * @param situacao Resultado da operação.
+     */
+    public void registrar(OperacaoMedida operacao, long inicio, SituacaoComando situacao) {
+        operacoes[operacao.ordinal()].registrar(System.nanoTime() - inicio, situacao);
+    }
+
+    /**
+     * Registra uma operação interrompida por uma exceção.
+     *
+     * @param operacao Operação medida.
+     * @param inicio Início da operação, lido de {@link System#nanoTime()}.
+     * @param falha Exceção lançada pela operação.
+     */
+    public void registrarFalha(OperacaoMedida operacao, long inicio, Throwable falha) {
+        operacoes[operacao.ordinal()].registrarFalha(System.nanoTime() - inicio, falha);
+    }
+
+    /**
+     * Retorna as métricas de uma operação.
+     *
+     * @param operacao Operação medida.
+     * @return Contadores e histograma da operação.
+     */
+    public MetricasOperacao getOperacao(OperacaoMedida operacao) {
+        return operacoes[operacao.ordinal()];
+    }
+
+    /**
+     * Retorna a quantidade de operações de um tipo registradas nos extratos.
+     *
+     * @param tipo Tipo da operação.
+     * @return Quantidade de operações.
+     */
+    public long getQuantidade(IdentificadorTipo tipo) {
+        return tipos[tipo.ordinal()].sum();
+    }
+
+    /**
+     * Retorna a quantidade de operações registradas nos extratos, por tipo.
+     *
+     * @return Quantidade de operações de cada tipo, na ordem de {@link IdentificadorTipo}.
+     */
+    @Override
+    public Map<String, Long> getOperacoesPorTipo() {
+        Map<String, Long> quantidades = new LinkedHashMap<>();
+        for (IdentificadorTipo tipo : TIPOS) {
+            quantidades.put(tipo.name(), getQuantidade(tipo));
+        }
+        return quantidades;
+    }
+
+    /**
+     * Retorna o relatório de todas as métricas.
+     *
+     * @return Relatório em texto.
+     */
+    @Override
+    public String getRelatorio() {
+        return toString();
+    }
+
+    /**
+     * Zera os contadores por tipo e as métricas de todas as operações.
+     */
+    @Override
+    public void zerar() {
+        for (MetricasOperacao metricasOperacao : operacoes) {
+            metricasOperacao.zerar();
+        }
+        for (LongAdder tipo : tipos) {
+            tipo.reset();
+        }
+    }
+
+    /**
+     * Publica as métricas, as métricas de cada operação e o cache de idempotência no servidor JMX da plataforma.
+     *
+     * @throws JMException Se algum nome já estiver registrado ou o registro falhar.
+     */
+    public synchronized void publicar() throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+
+        publicar(servidor, this, new ObjectName(DOMINIO_JMX + ":type=Metricas"));
+        for (MetricasOperacao metricasOperacao : operacoes) {
+            publicar(servidor, metricasOperacao,
+                    new ObjectName(DOMINIO_JMX + ":type=Operacao,name=" + metricasOperacao.getOperacao()));
+        }
+        publicar(servidor, cacheIdempotencia, new ObjectName(DOMINIO_JMX + ":type=CacheIdempotencia"));
+    }
+
+    /**
+     * Remove do servidor JMX da plataforma os nomes registrados por {@link #publicar()}.
+     */
+    public synchronized void retirar() {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+
+        for (ObjectName nome : nomesPublicados) {
+            try {
+                servidor.unregisterMBean(nome);
+            } catch (JMException e) {
+                // Já removido por outro meio.
+            }
+        }
+        nomesPublicados.clear();
+    }
+
+    /**
+     * Grava o relatório das métricas em um arquivo, substituindo o anterior.
+     * O relatório é gravado em um arquivo temporário ao lado do destino e movido para o lugar dele, de modo que
+     * um leitor nunca encontra um relatório pela metade.
+     *
+     * @param arquivo Arquivo do relatório.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravar(Path arquivo) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        Files.writeString(temporario, toString(), StandardCharsets.UTF_8);
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Retorna o relatório de todas as métricas: uma linha por operação executada ao menos uma vez, as quantidades
+     * por tipo de operação e os contadores do cache de idempotência.
+     *
+     * @return Relatório em texto.
+     */
+    @Override
+    public String toString() {
+        StringBuilder relatorio = new StringBuilder("Métricas do BancoService em ").append(LocalDateTime.now()).append('\n');
+
+        for (MetricasOperacao metricasOperacao : operacoes) {
+            if (metricasOperacao.getQuantidade() > 0) {
+                relatorio.append(metricasOperacao).append('\n');
+            }
+        }
+        relatorio.append("Operações por tipo: ").append(getOperacoesPorTipo()).append('\n');
+        relatorio.append(cacheIdempotencia).append('\n');
+        return relatorio.toString();
+    }
+
+    /**
+     * Registra um objeto no servidor JMX e guarda o seu nome para {@link #retirar()}.
+     *
+     * @param servidor Servidor JMX.
+     * @param objeto Objeto de gerenciamento.
+     * @param nome Nome do objeto.
+     * @throws JMException Se o nome já estiver registrado ou o registro falhar.
+     */
+    private void publicar(MBeanServer servidor, Object objeto, ObjectName nome) throws JMException {
+        servidor.registerMBean(objeto, nome);
+        nomesPublicados.add(nome);
+    }
+}
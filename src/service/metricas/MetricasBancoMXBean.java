@@ -0,0 +1,30 @@
+package service.metricas;
+
+import java.util.Map;
+
+/**
+ * Interface de gerenciamento (JMX) das métricas gerais do {@link service.BancoService}, publicada com o nome
+ * {@code banco:type=Metricas}.
+ */
+
+public interface MetricasBancoMXBean {
+
+    /**
+     * Retorna a quantidade de operações registradas nos extratos, por {@link models.enums.IdentificadorTipo}.
+     *
+     * @return Quantidade de operações de cada tipo.
+     */
+    Map<String, Long> getOperacoesPorTipo();
+
+    /**
+     * Retorna o relatório de todas as métricas, no formato gravado periodicamente em arquivo.
+     *
+     * @return Relatório em texto.
+     */
+    String getRelatorio();
+
+    /**
+     * Zera os contadores por tipo e as métricas de todas as operações.
+     */
+    void zerar();
+}
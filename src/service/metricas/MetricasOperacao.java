@@ -0,0 +1,191 @@
+package service.metricas;
+
+import service.SituacaoComando;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores por resultado e histograma de latências de uma {@link OperacaoMedida}.
+ * Os resultados descritos por um comprovante são contados em um {@link LongAdder} por {@link SituacaoComando};
+ * as exceções lançadas, por nome da classe, em um mapa que só é alterado na primeira ocorrência de cada exceção.
+ */
+
+public final class MetricasOperacao implements MetricasOperacaoMXBean {
+
+    private static final SituacaoComando[] SITUACOES = SituacaoComando.values();
+    private static final double NANOS_POR_MICRO = 1_000.0;
+
+    private final OperacaoMedida operacao;
+    private final HistogramaLatencia latencias = new HistogramaLatencia();
+    private final LongAdder[] situacoes = new LongAdder[SITUACOES.length];
+    private final ConcurrentHashMap<String, LongAdder> excecoes = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor das métricas de uma operação.
+     *
+     * @param operacao Operação medida.
+     */
+    MetricasOperacao(OperacaoMedida operacao) {
+        this.operacao = operacao;
+        for (int i = 0; i < situacoes.length; i++) {
+            situacoes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra uma execução concluída com um resultado.
+     *
+     * @param nanos Latência da execução, em nanossegundos.
+     * @param situacao Resultado da execução.
+     */
+    void registrar(long nanos, SituacaoComando situacao) {
+        latencias.registrar(nanos);
+        situacoes[situacao.ordinal()].increment();
+    }
+
+    /**
+     * Registra uma execução interrompida por uma exceção.
+     *
+     * @param nanos Latência da execução, em nanossegundos.
+     * @param falha Exceção lançada pela operação.
+     */
+    void registrarFalha(long nanos, Throwable falha) {
+        latencias.registrar(nanos);
+        excecoes.computeIfAbsent(falha.getClass().getSimpleName(), nome -> new LongAdder()).increment();
+    }
+
+    /**
+     * Retorna o histograma de latências da operação.
+     *
+     * @return Histograma, em nanossegundos.
+     */
+    public HistogramaLatencia getLatencias() {
+        return latencias;
+    }
+
+    /**
+     * Retorna o nome da operação medida.
+     *
+     * @return Nome da constante de {@link OperacaoMedida}.
+     */
+    @Override
+    public String getOperacao() {
+        return operacao.name();
+    }
+
+    /**
+     * Retorna a quantidade de execuções medidas, com qualquer resultado.
+     *
+     * @return Quantidade de execuções.
+     */
+    @Override
+    public long getQuantidade() {
+        return latencias.getQuantidade();
+    }
+
+    /**
+     * Retorna a quantidade de execuções por resultado, omitindo os resultados que não ocorreram.
+     *
+     * @return Quantidade de execuções de cada situação e de cada exceção, em ordem alfabética.
+     */
+    @Override
+    public Map<String, Long> getResultados() {
+        Map<String, Long> resultados = new TreeMap<>();
+
+        for (SituacaoComando situacao : SITUACOES) {
+            long quantidade = situacoes[situacao.ordinal()].sum();
+            if (quantidade > 0) {
+                resultados.put(situacao.name(), quantidade);
+            }
+        }
+        excecoes.forEach((nome, quantidade) -> resultados.put(nome, quantidade.sum()));
+        return resultados;
+    }
+
+    /**
+     * Retorna a latência média.
+     *
+     * @return Latência média, em microssegundos.
+     */
+    @Override
+    public double getLatenciaMediaMicros() {
+        return latencias.getMedia() / NANOS_POR_MICRO;
+    }
+
+    /**
+     * Retorna a mediana das latências.
+     *
+     * @return Percentil 50, em microssegundos.
+     */
+    @Override
+    public double getLatenciaP50Micros() {
+        return latencias.percentil(50) / NANOS_POR_MICRO;
+    }
+
+    /**
+     * Retorna o percentil 90 das latências.
+     *
+     * @return Percentil 90, em microssegundos.
+     */
+    @Override
+    public double getLatenciaP90Micros() {
+        return latencias.percentil(90) / NANOS_POR_MICRO;
+    }
+
+    /**
+     * Retorna o percentil 99 das latências.
+     *
+     * @return Percentil 99, em microssegundos.
+     */
+    @Override
+    public double getLatenciaP99Micros() {
+        return latencias.percentil(99) / NANOS_POR_MICRO;
+    }
+
+    /**
+     * Retorna o percentil 99,9 das latências.
+     *
+     * @return Percentil 99,9, em microssegundos.
+     */
+    @Override
+    public double getLatenciaP999Micros() {
+        return latencias.percentil(99.9) / NANOS_POR_MICRO;
+    }
+
+    /**
+     * Retorna a maior latência medida.
+     *
+     * @return Latência máxima, em microssegundos.
+     */
+    @Override
+    public double getLatenciaMaximaMicros() {
+        return latencias.getMaximo() / NANOS_POR_MICRO;
+    }
+
+    /**
+     * Zera os contadores e o histograma da operação.
+     */
+    @Override
+    public void zerar() {
+        latencias.zerar();
+        for (LongAdder situacao : situacoes) {
+            situacao.reset();
+        }
+        excecoes.clear();
+    }
+
+    /**
+     * Retorna o resumo das métricas da operação.
+     *
+     * @return Quantidade, resultados e latências média, p50, p99, p99,9 e máxima, em microssegundos.
+     */
+    @Override
+    public String toString() {
+        return String.format("%-14s %10d  média %9.1f  p50 %9.1f  p99 %9.1f  p99,9 %9.1f  máx %10.1f µs  %s",
+                operacao, getQuantidade(), getLatenciaMediaMicros(), getLatenciaP50Micros(), getLatenciaP99Micros(),
+                getLatenciaP999Micros(), getLatenciaMaximaMicros(), getResultados());
+    }
+}
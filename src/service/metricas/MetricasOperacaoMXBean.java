@@ -0,0 +1,80 @@
+package service.metricas;
+
+import java.util.Map;
+
+/**
+ * Interface de gerenciamento (JMX) das métricas de uma operação do {@link service.BancoService}, publicada com o nome
+ * {@code banco:type=Operacao,name=<operação>}. As latências são expressas em microssegundos.
+ */
+
+public interface MetricasOperacaoMXBean {
+
+    /**
+     * Retorna o nome da operação medida.
+     *
+     * @return Nome da constante de {@link OperacaoMedida}.
+     */
+    String getOperacao();
+
+    /**
+     * Retorna a quantidade de execuções medidas, com qualquer resultado.
+     *
+     * @return Quantidade de execuções.
+     */
+    long getQuantidade();
+
+    /**
+     * Retorna a quantidade de execuções por resultado: a situação do comprovante (por exemplo, EFETUADO ou
+     * SALDO_INSUFICIENTE) ou o nome simples da exceção lançada (por exemplo, ContaNaoEncontradaException).
+     *
+     * @return Quantidade de execuções de cada resultado ocorrido.
+     */
+    Map<String, Long> getResultados();
+
+    /**
+     * Retorna a latência média.
+     *
+     * @return Latência média, em microssegundos.
+     */
+    double getLatenciaMediaMicros();
+
+    /**
+     * Retorna a mediana das latências.
+     *
+     * @return Percentil 50, em microssegundos.
+     */
+    double getLatenciaP50Micros();
+
+    /**
+     * Retorna o percentil 90 das latências.
+     *
+     * @return Percentil 90, em microssegundos.
+     */
+    double getLatenciaP90Micros();
+
+    /**
+     * Retorna o percentil 99 das latências.
+     *
+     * @return Percentil 99, em microssegundos.
+     */
+    double getLatenciaP99Micros();
+
+    /**
+     * Retorna o percentil 99,9 das latências.
+     *
+     * @return Percentil 99,9, em microssegundos.
+     */
+    double getLatenciaP999Micros();
+
+    /**
+     * Retorna a maior latência medida.
+     *
+     * @return Latência máxima, em microssegundos.
+     */
+    double getLatenciaMaximaMicros();
+
+    /**
+     * Zera os contadores e o histograma da operação.
+     */
+    void zerar();
+}
@@ -0,0 +1,59 @@
+package service.metricas;
+
+/**
+ * Enum que define as operações do {@link service.BancoService} medidas pelas {@link MetricasBanco}.
+ */
+
+public enum OperacaoMedida {
+
+    /**
+     * Criação de uma conta corrente, poupança ou especial.
+     */
+    CRIACAO_CONTA,
+
+    /**
+     * Depósito em uma conta.
+     */
+    DEPOSITO,
+
+    /**
+     * Saque de uma conta.
+     */
+    SAQUE,
+
+    /**
+     * Transferência Pix entre as contas de duas chaves.
+     */
+    PIX,
+
+    /**
+     * Cadastro de uma chave Pix.
+     */
+    CADASTRO_PIX,
+
+    /**
+     * Correção das contas poupança, imediata ou sob demanda.
+     */
+    CORRECAO,
+
+    /**
+     * Consulta de uma página do extrato de uma conta.
+     */
+    EXTRATO,
+
+    /**
+     * Consulta de uma conta pelo número, feita pela consulta de saldo. As buscas internas das demais operações não
+     * são medidas à parte, pois já fazem parte da latência da operação.
+     */
+    BUSCA_CONTA,
+
+    /**
+     * Execução de um lote de comandos.
+     */
+    LOTE,
+
+    /**
+     * Gravação de um snapshot do serviço.
+     */
+    SNAPSHOT
+}
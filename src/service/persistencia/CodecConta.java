@@ -0,0 +1,188 @@
+package service.persistencia;
+
+import models.ImagemConta;
+import models.LivroEmMemoria;
+import models.LivroRazao;
+import models.enums.IdentificadorTipo;
+import models.enums.TipoConta;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificação binária das contas e operações gravadas nos snapshots.
+ * Cada operação ocupa um tamanho fixo (data em milissegundos desde a época, valor, posição do tipo e saldo
+ * após a operação) mais a mensagem opcional, em vez do grafo de objetos da serialização Java. As operações
+ * são lidas e gravadas diretamente nas colunas do {@link LivroRazao}, sem criar objetos {@link models.Operacao}.
+ * <p>
+ * Conta: tipo (byte), número (int), nome e CPF (texto), estado do saldo (long), limite concedido (long),
+ * última execução de correção (long, a partir da versão 4), épocas de correção aplicadas (int, a partir da versão 5),
+ * histórico externo (byte, a partir da versão 3), quantidade de operações (int), operações, quantidade de
+ * chaves Pix (short) e chaves (texto). Contas com histórico externo, mantido em um {@link models.ArmazemLivros},
+ * não têm as operações gravadas no snapshot.
+ * <br>
+ * Operação: data (long), valor (long), tipo (byte), saldo após a operação (long) e mensagem (texto opcional).
+ * A partir da versão 7, a mensagem é precedida de um indicador de correção (byte): as correções gravam a taxa
+ * aplicada (long) no lugar da mensagem, que é montada pelo livro-razão na leitura.
+ */
+
+public final class CodecConta {
+
+    static final int VERSAO_HISTORICO_EXTERNO = 3;
+    static final int VERSAO_EXECUCAO_CORRECAO = 4;
+    static final int VERSAO_EPOCA_CORRECAO = 5;
+    static final int VERSAO_TAXA_CORRECAO = 7;
+
+    private static final TipoConta[] TIPOS_CONTA = TipoConta.values();
+    private static final IdentificadorTipo[] TIPOS_OPERACAO = IdentificadorTipo.values();
+
+    private CodecConta() {
+    }
+
+    /**
+     * Grava a imagem de uma conta, com o seu histórico de operações e as suas chaves Pix.
+     * Para contas com histórico externo, apenas a quantidade de operações é gravada.
+     *
+     * @param imagem Imagem da conta.
+     * @param saida Saída binária do snapshot.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public static void gravar(ImagemConta imagem, SaidaBinaria saida) throws IOException {
+        saida.gravarByte(imagem.getTipoConta().ordinal());
+        saida.gravarInt(imagem.getNumeroConta());
+        saida.gravarTexto(imagem.getCorrentistaNome());
+        saida.gravarTexto(imagem.getCorrentistaCPF());
+        saida.gravarLong(imagem.getEstadoSaldo());
+        saida.gravarLong(imagem.getLimiteConcedido());
+        saida.gravarLong(imagem.getUltimaExecucaoCorrecao());
+        saida.gravarInt(imagem.getEpocaCorrecao());
+
+        saida.gravarBoolean(imagem.isHistoricoExterno());
+        if (imagem.isHistoricoExterno()) {
+            saida.gravarInt(imagem.getQuantidadeOperacoes());
+        } else {
+            LivroRazao livro = imagem.getLivro();
+            int quantidadeOperacoes = livro.tamanho();
+            saida.gravarInt(quantidadeOperacoes);
+            for (int i = 0; i < quantidadeOperacoes; i++) {
+                gravarOperacao(livro, i, saida);
+            }
+        }
+
+        List<String> chavesPix = imagem.getChavesPix();
+        saida.gravarShort(chavesPix.size());
+        for (String chave : chavesPix) {
+            saida.gravarTexto(chave);
+        }
+    }
+
+    /**
+     * Lê a imagem de uma conta gravada com {@link #gravar}.
+     *
+     * @param entrada Entrada binária do snapshot.
+     * @param versao Versão do snapshot.
+     * @return Imagem da conta.
+     * @throws IOException Em caso de erro de entrada/saída ou se o conteúdo estiver corrompido.
+     */
+    public static ImagemConta ler(EntradaBinaria entrada, int versao) throws IOException {
+        TipoConta tipoConta = constante(TIPOS_CONTA, entrada.lerByte(), "Tipo de conta");
+        int numeroConta = entrada.lerInt();
+        String correntistaNome = entrada.lerTexto();
+        String correntistaCPF = entrada.lerTexto();
+        long estadoSaldo = entrada.lerLong();
+        long limiteConcedido = entrada.lerLong();
+        long ultimaExecucaoCorrecao = versao >= VERSAO_EXECUCAO_CORRECAO ? entrada.lerLong() : 0;
+        int epocaCorrecao = versao >= VERSAO_EPOCA_CORRECAO ? entrada.lerInt() : 0;
+        boolean historicoExterno = versao >= VERSAO_HISTORICO_EXTERNO && entrada.lerBoolean();
+
+        int quantidadeOperacoes = entrada.lerInt();
+        if (quantidadeOperacoes < 0) {
+            throw new IOException("Quantidade de operações inválida: " + quantidadeOperacoes + ".");
+        }
+        LivroRazao livro = null;
+        if (!historicoExterno) {
+            livro = new LivroEmMemoria(quantidadeOperacoes);
+            for (int i = 0; i < quantidadeOperacoes; i++) {
+                lerOperacao(entrada, livro, versao);
+            }
+        }
+
+        int quantidadeChaves = entrada.lerShort();
+        List<String> chavesPix = new ArrayList<>(Math.max(quantidadeChaves, 0));
+        for (int i = 0; i < quantidadeChaves; i++) {
+            chavesPix.add(entrada.lerTexto());
+        }
+
+        if (historicoExterno) {
+            return ImagemConta.deHistoricoExterno(tipoConta, numeroConta, correntistaNome, correntistaCPF, estadoSaldo,
+                    limiteConcedido, ultimaExecucaoCorrecao, epocaCorrecao, quantidadeOperacoes, chavesPix);
+        }
+        return ImagemConta.de(tipoConta, numeroConta, correntistaNome, correntistaCPF, estadoSaldo, limiteConcedido,
+                ultimaExecucaoCorrecao, epocaCorrecao, livro, chavesPix);
+    }
+
+    /**
+     * Grava um lançamento do livro-razão.
+     *
+     * @param livro Livro com o lançamento.
+     * @param posicao Posição do lançamento no livro.
+     * @param saida Saída binária do snapshot.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public static void gravarOperacao(LivroRazao livro, int posicao, SaidaBinaria saida) throws IOException {
+        saida.gravarLong(livro.getData(posicao));
+        saida.gravarLong(livro.getValor(posicao));
+        saida.gravarByte(livro.getTipo(posicao).ordinal());
+        saida.gravarLong(livro.getSaldo(posicao));
+
+        long taxa = livro.getTaxa(posicao);
+        saida.gravarBoolean(taxa != LivroRazao.SEM_TAXA);
+        if (taxa != LivroRazao.SEM_TAXA) {
+            saida.gravarLong(taxa);
+        } else {
+            saida.gravarTextoOpcional(livro.getMensagem(posicao));
+        }
+    }
+
+    /**
+     * Lê uma operação gravada com {@link #gravarOperacao} e a acrescenta ao livro-razão.
+     *
+     * @param entrada Entrada binária do snapshot.
+     * @param livro Livro que recebe o lançamento lido.
+     * @param versao Versão do snapshot.
+     * @throws IOException Em caso de erro de entrada/saída ou se o conteúdo estiver corrompido.
+     */
+    public static void lerOperacao(EntradaBinaria entrada, LivroRazao livro, int versao) throws IOException {
+        long data = entrada.lerLong();
+        long valor = entrada.lerLong();
+        IdentificadorTipo tipo = constante(TIPOS_OPERACAO, entrada.lerByte(), "Tipo de operação");
+        long saldoAtual = entrada.lerLong();
+
+        if (versao >= VERSAO_TAXA_CORRECAO && entrada.lerBoolean()) {
+            livro.registrarCorrecao(data, valor, saldoAtual, entrada.lerLong());
+            return;
+        }
+        String msg = entrada.lerTextoOpcional();
+
+        livro.registrar(data, valor, tipo, saldoAtual, msg);
+    }
+
+    /**
+     * Obtém a constante de um enum pela sua posição.
+     *
+     * @param constantes Constantes do enum.
+     * @param posicao Posição gravada.
+     * @param descricao Descrição do valor, utilizada na mensagem de erro.
+     * @param <T> Tipo do enum.
+     * @return Constante na posição informada.
+     * @throws IOException Se a posição não corresponder a nenhuma constante.
+     */
+    private static <T> T constante(T[] constantes, int posicao, String descricao) throws IOException {
+        if (posicao < 0 || posicao >= constantes.length) {
+            throw new IOException(descricao + " desconhecido no snapshot: " + posicao + ".");
+        }
+        return constantes[posicao];
+    }
+
+}
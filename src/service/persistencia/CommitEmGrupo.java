@@ -0,0 +1,346 @@
+package service.persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estágio de commit em grupo à frente do {@link Journal}.
+ * Os registros das threads do serviço são enfileirados e recebem o seu LSN na ordem da fila; uma única
+ * thread gravadora retira da fila lotes de até {@code tamanhoLote} registros e os grava com uma única
+ * escrita e uma única sincronização com o disco. Cada thread é liberada em {@link #aguardarDurabilidade}
+ * assim que o lote do seu registro estiver no disco, de modo que o custo do fsync é dividido pelo lote.
+ * <p>
+ * A gravadora espera no máximo {@code esperaMaxima} a partir do registro mais antigo da fila para completar
+ * um lote. Se a gravação de um lote falhar, o estágio deixa de aceitar registros, descarta os registros ainda
+ * na fila, volta o último LSN para o último registro gravado e as threads que aguardam recebem o erro. Como o
+ * serviço ordena cada registro antes de alterar a conta, nenhuma mutação é efetivada depois que a falha é
+ * conhecida. As que foram ordenadas antes dela já estão aplicadas em memória, mas nunca são confirmadas a quem
+ * as solicitou: o serviço recusa gravar snapshots depois da falha, e o estado recuperado do journal não as
+ * contém. Enquanto o estágio estiver em uso, o journal não deve receber registros por outro caminho.
+ */
+
+public class CommitEmGrupo implements GravadorJournal {
+
+    /**
+     * Quantidade máxima padrão de registros por lote.
+     */
+    public static final int TAMANHO_LOTE_PADRAO = 256;
+
+    /**
+     * Espera máxima padrão para completar um lote, em microssegundos.
+     */
+    public static final long ESPERA_MAXIMA_PADRAO = 1000;
+
+    private static final int QUANTIDADE_AMOSTRAS = 8192;
+
+    private final Journal journal;
+    private final int tamanhoLote;
+    private final long esperaMaximaNanos;
+    private final Thread gravadora;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition registrosPendentes = lock.newCondition();
+    private final Condition lotesGravados = lock.newCondition();
+    private final ArrayDeque<Pendente> fila = new ArrayDeque<>();
+
+    private long ultimoLsn = -1;
+    private long ultimoLsnDuravel;
+    private IOException falha;
+    private boolean fechado;
+
+    private final long[] amostrasLatencia = new long[QUANTIDADE_AMOSTRAS];
+    private long quantidadeRegistros;
+    private long quantidadeLotes;
+
+    /**
+     * Construtor do commit em grupo com tamanho de lote e espera máxima padrão.
+     *
+     * @param journal Journal onde os lotes são gravados.
+     */
+    public CommitEmGrupo(Journal journal) {
+        this(journal, TAMANHO_LOTE_PADRAO, ESPERA_MAXIMA_PADRAO, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Construtor do commit em grupo. Inicia a thread gravadora.
+     *
+     * @param journal Journal onde os lotes são gravados.
+     * @param tamanhoLote Quantidade máxima de registros por lote.
+     * @param esperaMaxima Tempo máximo de espera para completar um lote; 0 grava imediatamente o que estiver na fila.
+     * @param unidade Unidade da espera máxima.
+     * @throws IllegalArgumentException Se o tamanho do lote for menor ou igual a 0 ou a espera for negativa.
+     */
+    public CommitEmGrupo(Journal journal, int tamanhoLote, long esperaMaxima, TimeUnit unidade) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("O tamanho do lote deve ser positivo.");
+        }
+        if (esperaMaxima < 0) {
+            throw new IllegalArgumentException("A espera máxima não pode ser negativa.");
+        }
+
+        this.journal = journal;
+        this.tamanhoLote = tamanhoLote;
+        this.esperaMaximaNanos = unidade.toNanos(esperaMaxima);
+
+        this.gravadora = new Thread(this::gravarLotes, "commit-em-grupo");
+        this.gravadora.setDaemon(true);
+        this.gravadora.start();
+    }
+
+    /**
+     * Enfileira um registro para o próximo lote, atribuindo a ele o próximo número de sequência.
+     *
+     * @param registro Registro da mutação.
+     * @return LSN atribuído ao registro.
+     * @throws UncheckedIOException Se a gravação de um lote anterior falhou.
+     * @throws IllegalStateException Se o commit em grupo já foi fechado.
+     */
+    @Override
+    public long registrar(RegistroJournal registro) {
+        lock.lock();
+        try {
+            prepararRegistro();
+
+            long lsn = ++ultimoLsn;
+            fila.addLast(new Pendente(registro, System.nanoTime()));
+
+            if (fila.size() == 1 || fila.size() >= tamanhoLote) {
+                registrosPendentes.signal();
+            }
+            return lsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Verifica se o commit em grupo ainda aceita registros.
+     *
+     * @throws UncheckedIOException Se a gravação de um lote anterior falhou.
+     * @throws IllegalStateException Se o commit em grupo já foi fechado.
+     */
+    @Override
+    public void verificarDisponivel() {
+        lock.lock();
+        try {
+            prepararRegistro();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aguarda até que o lote com o registro informado esteja gravado no disco.
+     *
+     * @param lsn LSN retornado por {@link #registrar}.
+     * @throws UncheckedIOException Se a gravação do lote falhar.
+     */
+    @Override
+    public void aguardarDurabilidade(long lsn) {
+        lock.lock();
+        try {
+            while (ultimoLsnDuravel < lsn && falha == null) {
+                lotesGravados.awaitUninterruptibly();
+            }
+            if (ultimoLsnDuravel < lsn) {
+                throw new UncheckedIOException("Erro ao gravar no journal: " + falha.getMessage(), falha);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna o número de sequência do último registro enfileirado. Depois de uma falha de gravação, retorna o do
+     * último registro gravado, sem os registros descartados.
+     *
+     * @return LSN do último registro.
+     */
+    @Override
+    public long getUltimoLsn() {
+        lock.lock();
+        try {
+            return ultimoLsn < 0 ? journal.getUltimoLsn() : ultimoLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna o journal onde os lotes são gravados.
+     *
+     * @return Journal subjacente.
+     */
+    @Override
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Retorna as estatísticas de commit acumuladas até o momento.
+     *
+     * @return Retrato das estatísticas.
+     */
+    public EstatisticasCommit getEstatisticas() {
+        lock.lock();
+        try {
+            int quantidadeAmostras = (int) Math.min(quantidadeRegistros, QUANTIDADE_AMOSTRAS);
+            long[] amostras = new long[quantidadeAmostras];
+            System.arraycopy(amostrasLatencia, 0, amostras, 0, quantidadeAmostras);
+            return new EstatisticasCommit(quantidadeLotes, quantidadeRegistros, amostras);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deixa de aceitar registros, aguarda a gravação dos registros já enfileirados e fecha o journal.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            fechado = true;
+            registrosPendentes.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            gravadora.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    /**
+     * Laço da thread gravadora: monta lotes a partir da fila e os grava no journal até o fechamento.
+     */
+    private void gravarLotes() {
+        List<RegistroJournal> lote = new ArrayList<>(tamanhoLote);
+        long[] enfileiradoEm = new long[tamanhoLote];
+
+        while (true) {
+            lock.lock();
+            try {
+                if (!aguardarLote()) {
+                    return;
+                }
+
+                lote.clear();
+                while (!fila.isEmpty() && lote.size() < tamanhoLote) {
+                    Pendente pendente = fila.pollFirst();
+                    enfileiradoEm[lote.size()] = pendente.enfileiradoEm;
+                    lote.add(pendente.registro);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            IOException erro = null;
+            long lsnGravado = 0;
+            try {
+                lsnGravado = journal.registrarLote(lote);
+            } catch (UncheckedIOException e) {
+                erro = e.getCause();
+            }
+
+            long agora = System.nanoTime();
+
+            lock.lock();
+            try {
+                if (erro != null) {
+                    falha = erro;
+                    fila.clear();
+                    ultimoLsn = ultimoLsnDuravel;
+                } else {
+                    ultimoLsnDuravel = lsnGravado;
+                    for (int i = 0; i < lote.size(); i++) {
+                        amostrasLatencia[(int) (quantidadeRegistros++ % QUANTIDADE_AMOSTRAS)] = agora - enfileiradoEm[i];
+                    }
+                    quantidadeLotes++;
+                }
+                lotesGravados.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            if (erro != null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aguarda, com o lock adquirido, até haver registros na fila e o lote estar completo ou a espera máxima
+     * a partir do registro mais antigo ter passado.
+     *
+     * @return Verdadeiro se há um lote a gravar, falso se o commit em grupo foi fechado e a fila está vazia.
+     */
+    private boolean aguardarLote() {
+        while (fila.isEmpty()) {
+            if (fechado) {
+                return false;
+            }
+            registrosPendentes.awaitUninterruptibly();
+        }
+
+        long prazo = fila.peekFirst().enfileiradoEm + esperaMaximaNanos;
+        while (fila.size() < tamanhoLote && !fechado) {
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0) {
+                break;
+            }
+            try {
+                registrosPendentes.awaitNanos(restante);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifica, com o lock adquirido, se o commit em grupo ainda aceita registros, e inicia a sequência
+     * de LSN a partir do journal no primeiro registro.
+     *
+     * @throws UncheckedIOException Se a gravação de um lote anterior falhou.
+     * @throws IllegalStateException Se o commit em grupo já foi fechado.
+     */
+    private void prepararRegistro() {
+        if (falha != null) {
+            throw new UncheckedIOException("Erro ao gravar no journal: " + falha.getMessage(), falha);
+        }
+        if (fechado) {
+            throw new IllegalStateException("Commit em grupo encerrado.");
+        }
+        if (ultimoLsn < 0) {
+            ultimoLsn = journal.getUltimoLsn();
+            ultimoLsnDuravel = ultimoLsn;
+        }
+    }
+
+    /**
+     * Registro aguardando gravação, com o momento em que foi enfileirado.
+     */
+    private static final class Pendente {
+
+        private final RegistroJournal registro;
+        private final long enfileiradoEm;
+
+        private Pendente(RegistroJournal registro, long enfileiradoEm) {
+            this.registro = registro;
+            this.enfileiradoEm = enfileiradoEm;
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package service.persistencia;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Entrada binária com buffer sobre um canal NIO, no formato gravado por {@link SaidaBinaria}.
+ * O buffer é reabastecido a partir do canal conforme os valores são lidos.
+ */
+
+public final class EntradaBinaria {
+
+    private final ReadableByteChannel canal;
+    private final ByteBuffer buffer;
+
+    /**
+     * Construtor da entrada binária.
+     *
+     * @param canal Canal de origem.
+     * @param tamanhoBuffer Tamanho do buffer, em bytes.
+     */
+    public EntradaBinaria(ReadableByteChannel canal, int tamanhoBuffer) {
+        this.canal = canal;
+        this.buffer = ByteBuffer.allocate(Math.max(tamanhoBuffer, Long.BYTES));
+        this.buffer.flip();
+    }
+
+    /**
+     * Lê um byte.
+     *
+     * @return Valor lido, entre -128 e 127.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes do esperado.
+     */
+    public byte lerByte() throws IOException {
+        garantirDisponivel(1);
+        return buffer.get();
+    }
+
+    /**
+     * Lê um booleano gravado como um byte 0 ou 1.
+     *
+     * @return Valor lido.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes do esperado.
+     */
+    public boolean lerBoolean() throws IOException {
+        return lerByte() != 0;
+    }
+
+    /**
+     * Lê um short.
+     *
+     * @return Valor lido.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes do esperado.
+     */
+    public short lerShort() throws IOException {
+        garantirDisponivel(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    /**
+     * Lê um int.
+     *
+     * @return Valor lido.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes do esperado.
+     */
+    public int lerInt() throws IOException {
+        garantirDisponivel(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    /**
+     * Lê um long.
+     *
+     * @return Valor lido.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes do esperado.
+     */
+    public long lerLong() throws IOException {
+        garantirDisponivel(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    /**
+     * Lê um texto obrigatório.
+     *
+     * @return Texto lido.
+     * @throws IOException Em caso de erro de entrada/saída, se o canal terminar antes do esperado ou se o texto estiver ausente.
+     */
+    public String lerTexto() throws IOException {
+        String texto = lerTextoOpcional();
+        if (texto == null) {
+            throw new IOException("Texto obrigatório ausente.");
+        }
+        return texto;
+    }
+
+    /**
+     * Lê um texto que pode estar ausente.
+     *
+     * @return Texto lido, ou null se estiver ausente.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes do esperado.
+     */
+    public String lerTextoOpcional() throws IOException {
+        int tamanho = lerShort();
+        if (tamanho < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[tamanho];
+        int posicao = 0;
+        while (posicao < tamanho) {
+            if (!buffer.hasRemaining()) {
+                reabastecer();
+            }
+            int quantidade = Math.min(buffer.remaining(), tamanho - posicao);
+            buffer.get(bytes, posicao, quantidade);
+            posicao += quantidade;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Garante que o buffer contenha ao menos a quantidade de bytes informada.
+     *
+     * @param bytes Quantidade de bytes necessária.
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar antes do esperado.
+     */
+    private void garantirDisponivel(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            reabastecer();
+        }
+    }
+
+    /**
+     * Lê do canal mais bytes para o buffer, preservando os ainda não consumidos.
+     *
+     * @throws IOException Em caso de erro de entrada/saída ou se o canal terminar.
+     */
+    private void reabastecer() throws IOException {
+        buffer.compact();
+        int lidos;
+        try {
+            lidos = canal.read(buffer);
+        } finally {
+            buffer.flip();
+        }
+
+        if (lidos < 0) {
+            throw new EOFException("Fim inesperado dos dados.");
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package service.persistencia;
+
+import models.EpocasCorrecao;
+import models.ImagemConta;
+import service.EntradaIdempotencia;
+import service.ModoConcorrencia;
+import service.ModoCorrecao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Grava um snapshot do {@link service.BancoService} conta a conta, no formato binário de {@link CodecConta}.
+ * O conteúdo é gravado em um arquivo temporário ao lado do destino, e só depois de sincronizado com o disco
+ * o arquivo temporário é movido atomicamente para o lugar do snapshot anterior, de modo que uma queda durante
+ * a gravação mantém o snapshot anterior intacto. O formato é lido por {@link LeitorSnapshot}.
+ * <p>
+ * Cabeçalho: identificador (int), versão (int), LSN (long), busca por varredura (byte), modo de concorrência
+ * (byte), modo de correção (byte), quantidade de épocas de correção (int), épocas, identificador da execução de
+ * correção não concluída (long, 0 se não houver), quantidade de entradas de idempotência (int), entradas e
+ * quantidade de contas (int), seguido das contas.
+ * <br>
+ * Época de correção: data (long), taxa (long), arredondamento (byte) e identificador da execução (long).
+ * <br>
+ * Entrada de idempotência: chave (texto), momento (long), tipo da operação (byte), número da conta (int),
+ * número da conta de destino (int), valor (long) e saldo (long).
+ */
+
+public final class EscritorSnapshot implements Closeable {
+
+    static final int IDENTIFICADOR = 0x42534E50;
+    static final int VERSAO = 8;
+    static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final Path destino;
+    private final Path temporario;
+    private final FileChannel canal;
+    private final SaidaBinaria saida;
+
+    private boolean concluido;
+
+    private EscritorSnapshot(Path destino, Path temporario, FileChannel canal) {
+        this.destino = destino;
+        this.temporario = temporario;
+        this.canal = canal;
+        this.saida = new SaidaBinaria(canal, TAMANHO_BUFFER);
+    }
+
+    /**
+     * Cria o arquivo temporário do snapshot.
+     *
+     * @param destino Arquivo final do snapshot.
+     * @return Escritor posicionado no início do snapshot.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public static EscritorSnapshot criar(Path destino) throws IOException {
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new EscritorSnapshot(destino, temporario, canal);
+    }
+
+    /**
+     * Grava o cabeçalho do snapshot. Deve ser chamado uma única vez, antes das contas.
+     *
+     * @param lsn LSN do último registro do journal contido no snapshot.
+     * @param buscaPorVarredura Modo de busca de contas do serviço.
+     * @param modoConcorrencia Modo de concorrência do serviço.
+     * @param modoCorrecao Modo de correção das contas poupança do serviço.
+     * @param epocasCorrecao Épocas de correção sob demanda registradas até o ponto do snapshot.
+     * @param execucaoCorrecaoPendente Identificador da execução de correção não concluída, ou 0 se não houver.
+     * @param idempotencia Entradas de idempotência efetivadas até o ponto do snapshot.
+     * @param quantidadeContas Quantidade de contas que serão gravadas.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravarCabecalho(long lsn, boolean buscaPorVarredura, ModoConcorrencia modoConcorrencia, ModoCorrecao modoCorrecao,
+                                EpocasCorrecao epocasCorrecao, long execucaoCorrecaoPendente, List<EntradaIdempotencia> idempotencia,
+                                int quantidadeContas)
+            throws IOException {
+        saida.gravarInt(IDENTIFICADOR);
+        saida.gravarInt(VERSAO);
+        saida.gravarLong(lsn);
+        saida.gravarBoolean(buscaPorVarredura);
+        saida.gravarByte(modoConcorrencia.ordinal());
+        saida.gravarByte(modoCorrecao.ordinal());
+
+        int quantidadeEpocas = epocasCorrecao.tamanho();
+        saida.gravarInt(quantidadeEpocas);
+        for (int epoca = 0; epoca < quantidadeEpocas; epoca++) {
+            saida.gravarLong(epocasCorrecao.getData(epoca));
+            saida.gravarLong(epocasCorrecao.getTaxa(epoca));
+            saida.gravarByte(epocasCorrecao.getArredondamento(epoca).ordinal());
+            saida.gravarLong(epocasCorrecao.getIdExecucao(epoca));
+        }
+        saida.gravarLong(execucaoCorrecaoPendente);
+
+        saida.gravarInt(idempotencia.size());
+        for (EntradaIdempotencia entrada : idempotencia) {
+            saida.gravarTexto(entrada.getChave());
+            saida.gravarLong(entrada.getMomento());
+            saida.gravarByte(entrada.getTipo().ordinal());
+            saida.gravarInt(entrada.getNumeroConta());
+            saida.gravarInt(entrada.getNumeroContaDestino());
+            saida.gravarLong(entrada.getValor());
+            saida.gravarLong(entrada.getSaldo());
+        }
+        saida.gravarInt(quantidadeContas);
+    }
+
+    /**
+     * Grava a imagem de uma conta.
+     *
+     * @param imagem Imagem da conta.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravarConta(ImagemConta imagem) throws IOException {
+        CodecConta.gravar(imagem, saida);
+    }
+
+    /**
+     * Sincroniza o snapshot com o disco e o move para o lugar do snapshot anterior.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void concluir() throws IOException {
+        saida.descarregar();
+        canal.force(true);
+        canal.close();
+
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        concluido = true;
+    }
+
+    /**
+     * Fecha o escritor. Se o snapshot não foi concluído, o arquivo temporário é apagado.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Override
+    public void close() throws IOException {
+        if (concluido) {
+            return;
+        }
+
+        try {
+            canal.close();
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+}
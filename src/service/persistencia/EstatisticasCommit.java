@@ -0,0 +1,94 @@
+package service.persistencia;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrato das estatísticas de um {@link CommitEmGrupo}: quantidade de lotes e registros gravados e
+ * percentis da latência de commit, medida entre o enfileiramento de um registro e a sua gravação no disco.
+ * Os percentis são calculados sobre as amostras mais recentes mantidas pelo commit em grupo.
+ */
+
+public final class EstatisticasCommit {
+
+    private final long quantidadeLotes;
+    private final long quantidadeRegistros;
+    private final long[] latenciasOrdenadas;
+
+    /**
+     * Construtor das estatísticas.
+     *
+     * @param quantidadeLotes Quantidade de lotes gravados.
+     * @param quantidadeRegistros Quantidade de registros gravados.
+     * @param latencias Amostras de latência de commit, em nanossegundos. O array é ordenado no lugar.
+     */
+    EstatisticasCommit(long quantidadeLotes, long quantidadeRegistros, long[] latencias) {
+        this.quantidadeLotes = quantidadeLotes;
+        this.quantidadeRegistros = quantidadeRegistros;
+        this.latenciasOrdenadas = latencias;
+        Arrays.sort(latenciasOrdenadas);
+    }
+
+    /**
+     * Retorna a quantidade de lotes gravados, ou seja, de sincronizações com o disco.
+     *
+     * @return Quantidade de lotes.
+     */
+    public long getQuantidadeLotes() {
+        return quantidadeLotes;
+    }
+
+    /**
+     * Retorna a quantidade de registros gravados.
+     *
+     * @return Quantidade de registros.
+     */
+    public long getQuantidadeRegistros() {
+        return quantidadeRegistros;
+    }
+
+    /**
+     * Retorna a quantidade média de registros por lote.
+     *
+     * @return Tamanho médio dos lotes, ou 0 se nenhum lote foi gravado.
+     */
+    public double getTamanhoMedioLote() {
+        return quantidadeLotes == 0 ? 0 : (double) quantidadeRegistros / quantidadeLotes;
+    }
+
+    /**
+     * Retorna o percentil informado da latência de commit.
+     *
+     * @param percentil Percentil desejado, entre 0 e 100 (ex: 99.9).
+     * @return Latência no percentil, em microssegundos, ou 0 se não houver amostras.
+     * @throws IllegalArgumentException Se o percentil estiver fora do intervalo de 0 a 100.
+     */
+    public long getLatenciaMicros(double percentil) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("O percentil deve estar entre 0 e 100.");
+        }
+        if (latenciasOrdenadas.length == 0) {
+            return 0;
+        }
+
+        int posicao = (int) Math.ceil(percentil / 100 * latenciasOrdenadas.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(latenciasOrdenadas[Math.max(posicao, 0)]);
+    }
+
+    /**
+     * Retorna uma representação textual das estatísticas, com os principais percentis de latência.
+     *
+     * @return Representação textual das estatísticas.
+     */
+    @Override
+    public String toString() {
+        return "Lotes: " + quantidadeLotes + " - Registros: " + quantidadeRegistros +
+                " - Média por lote: " + String.format("%.1f", getTamanhoMedioLote()) +
+                " - Latência (µs) p50: " + getLatenciaMicros(50) +
+                " p90: " + getLatenciaMicros(90) +
+                " p99: " + getLatenciaMicros(99) +
+                " p99.9: " + getLatenciaMicros(99.9) +
+                " máx: " + getLatenciaMicros(100);
+    }
+
+}
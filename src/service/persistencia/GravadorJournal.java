@@ -0,0 +1,54 @@
+package service.persistencia;
+
+import java.io.Closeable;
+
+/**
+ * Interface que define como o {@link service.BancoService} grava as suas mutações no {@link Journal}.
+ * O registro é feito em duas etapas: {@link #registrar} ordena a mutação no journal e deve ser chamado
+ * enquanto a conta está travada, antes de alterá-la; {@link #aguardarDurabilidade} aguarda a gravação no disco e
+ * deve ser chamado depois que a conta foi liberada, antes de confirmar a operação a quem a solicitou.
+ */
+
+public interface GravadorJournal extends Closeable {
+
+    /**
+     * Ordena um registro no journal, atribuindo a ele o próximo número de sequência.
+     *
+     * @param registro Registro da mutação.
+     * @return LSN atribuído ao registro.
+     * @throws java.io.UncheckedIOException Se não for possível gravar o registro.
+     */
+    long registrar(RegistroJournal registro);
+
+    /**
+     * Verifica se o gravador ainda aceita registros. Utilizado antes de mutações que só podem ser
+     * registradas depois de efetivadas, como o cadastro de uma chave Pix gerada pelo diretório.
+     *
+     * @throws java.io.UncheckedIOException Se uma gravação anterior falhou.
+     * @throws IllegalStateException Se o gravador já foi fechado.
+     */
+    void verificarDisponivel();
+
+    /**
+     * Aguarda até que o registro com o LSN informado, e todos os anteriores, estejam gravados.
+     *
+     * @param lsn LSN retornado por {@link #registrar}.
+     * @throws java.io.UncheckedIOException Se a gravação do registro falhar.
+     */
+    void aguardarDurabilidade(long lsn);
+
+    /**
+     * Retorna o número de sequência do último registro ordenado no journal.
+     *
+     * @return LSN do último registro.
+     */
+    long getUltimoLsn();
+
+    /**
+     * Retorna o journal onde os registros são gravados.
+     *
+     * @return Journal subjacente.
+     */
+    Journal getJournal();
+
+}
@@ -0,0 +1,566 @@
+package service.persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de escrita antecipada (write-ahead) das mutações do {@link service.BancoService}.
+ * Os registros são acrescentados ao fim de um arquivo por meio de um {@link FileChannel}, cada um
+ * em um quadro binário com o tamanho do corpo, o CRC32 do corpo, o número de sequência (LSN), o
+ * momento da mutação, o código do tipo e o conteúdo do {@link RegistroJournal}.
+ * <p>
+ * O journal é dividido em segmentos numerados ({@code arquivo.1}, {@code arquivo.2}, ...), e apenas o
+ * último recebe gravações. A cada snapshot um novo segmento é iniciado com {@link #rotacionar()}, e os
+ * segmentos anteriores cujos registros já estão no snapshot são apagados com {@link #removerSegmentosAte}.
+ * Um journal gravado antes da divisão em segmentos, no próprio {@code arquivo}, é tratado como o segmento 0.
+ * <p>
+ * Ao abrir o journal, o último segmento é percorrido até o último quadro íntegro, e o restante (um registro
+ * parcialmente gravado em uma queda, por exemplo) é descartado. A gravação no disco é forçada conforme
+ * a {@link PoliticaSincronizacao} configurada. As gravações são serializadas pelo próprio journal.
+ * <p>
+ * Se uma gravação falhar, o journal deixa de aceitar registros e de iniciar segmentos: como o serviço registra cada
+ * mutação antes de efetivá-la, nenhuma alteração posterior à falha chega às contas sem estar no journal, e nenhum
+ * snapshot posterior à falha é gravado.
+ */
+
+public class Journal implements GravadorJournal {
+
+    /**
+     * Intervalo padrão entre sincronizações na política {@link PoliticaSincronizacao#INTERVALO}, em milissegundos.
+     */
+    public static final long INTERVALO_SINCRONIZACAO_PADRAO = 100;
+
+    private static final int CABECALHO_QUADRO = 2 * Integer.BYTES;
+    private static final int CABECALHO_REGISTRO = 2 * Long.BYTES + 1;
+
+    private final Path arquivoBase;
+    private final PoliticaSincronizacao politica;
+    private final long intervaloSincronizacaoNanos;
+    private final CRC32 crc = new CRC32();
+    private final List<Segmento> segmentosAnteriores = new ArrayList<>();
+
+    private Segmento segmentoAtual;
+    private FileChannel canal;
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    private long ultimoLsn;
+    private long posicaoFim;
+    private long ultimaSincronizacao = System.nanoTime();
+    private IOException falha;
+
+    private Journal(Path arquivoBase, PoliticaSincronizacao politica, long intervaloSincronizacaoMillis) {
+        this.arquivoBase = arquivoBase;
+        this.politica = politica;
+        this.intervaloSincronizacaoNanos = TimeUnit.MILLISECONDS.toNanos(intervaloSincronizacaoMillis);
+    }
+
+    /**
+     * Abre o journal, criando o primeiro segmento caso nenhum exista.
+     *
+     * @param arquivo Arquivo base do journal, a partir do qual os nomes dos segmentos são formados.
+     * @param politica Política de sincronização com o disco.
+     * @return Journal posicionado após o último registro íntegro.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public static Journal abrir(Path arquivo, PoliticaSincronizacao politica) throws IOException {
+        return abrir(arquivo, politica, INTERVALO_SINCRONIZACAO_PADRAO);
+    }
+
+    /**
+     * Abre o journal, criando o primeiro segmento caso nenhum exista.
+     *
+     * @param arquivo Arquivo base do journal, a partir do qual os nomes dos segmentos são formados.
+     * @param politica Política de sincronização com o disco.
+     * @param intervaloSincronizacaoMillis Intervalo entre sincronizações na política {@link PoliticaSincronizacao#INTERVALO}.
+     * @return Journal posicionado após o último registro íntegro.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public static Journal abrir(Path arquivo, PoliticaSincronizacao politica, long intervaloSincronizacaoMillis) throws IOException {
+        Journal journal = new Journal(arquivo, politica, intervaloSincronizacaoMillis);
+        journal.carregarSegmentos();
+        return journal;
+    }
+
+    /**
+     * Acrescenta um registro ao journal, atribuindo a ele o próximo número de sequência.
+     * O registro é gravado antes do retorno, e forçado no disco conforme a política de sincronização.
+     *
+     * @param registro Registro a ser gravado.
+     * @return LSN atribuído ao registro.
+     * @throws UncheckedIOException Se não for possível gravar o registro, ou se uma gravação anterior falhou.
+     */
+    @Override
+    public synchronized long registrar(RegistroJournal registro) {
+        verificarFalha();
+        long lsn = ultimoLsn + 1;
+
+        buffer.clear();
+        codificar(registro, lsn);
+        gravar(lsn, false);
+        return lsn;
+    }
+
+    /**
+     * Acrescenta um lote de registros ao journal com uma única gravação e uma única sincronização com o disco,
+     * independente da política de sincronização. Os registros recebem números de sequência consecutivos, na ordem do lote.
+     *
+     * @param registros Registros a serem gravados.
+     * @return LSN atribuído ao último registro do lote.
+     * @throws UncheckedIOException Se não for possível gravar ou sincronizar o lote, ou se uma gravação anterior falhou.
+     */
+    public synchronized long registrarLote(List<RegistroJournal> registros) {
+        verificarFalha();
+        long lsn = ultimoLsn;
+
+        buffer.clear();
+        for (RegistroJournal registro : registros) {
+            codificar(registro, ++lsn);
+        }
+        gravar(lsn, true);
+        return lsn;
+    }
+
+    /**
+     * Verifica se o journal ainda aceita registros.
+     *
+     * @throws UncheckedIOException Se uma gravação anterior falhou.
+     */
+    @Override
+    public synchronized void verificarDisponivel() {
+        verificarFalha();
+    }
+
+    /**
+     * Retorna imediatamente, pois o journal grava cada registro antes de retornar de {@link #registrar}.
+     * A durabilidade do registro depende apenas da política de sincronização.
+     *
+     * @param lsn LSN do registro.
+     */
+    @Override
+    public void aguardarDurabilidade(long lsn) {
+        // Registros são gravados de forma síncrona.
+    }
+
+    /**
+     * Retorna o próprio journal.
+     *
+     * @return Este journal.
+     */
+    @Override
+    public Journal getJournal() {
+        return this;
+    }
+
+    /**
+     * Percorre os registros íntegros do journal, em ordem, entregando ao consumidor os posteriores ao LSN informado.
+     *
+     * @param aposLsn LSN a partir do qual os registros são entregues (exclusivo).
+     * @param consumidor Consumidor dos registros.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public synchronized void reproduzir(long aposLsn, Consumer<RegistroJournal> consumidor) throws IOException {
+        Consumer<RegistroJournal> filtro = registro -> {
+            if (registro.getLsn() > aposLsn) {
+                consumidor.accept(registro);
+            }
+        };
+
+        for (Segmento segmento : segmentosAnteriores) {
+            try (FileChannel leitura = FileChannel.open(segmento.arquivo, StandardOpenOption.READ)) {
+                percorrer(leitura, filtro);
+            }
+        }
+        percorrer(canal, filtro);
+    }
+
+    /**
+     * Retorna o número de sequência do último registro gravado.
+     *
+     * @return LSN do último registro, ou o LSN inicial se nenhum registro foi gravado.
+     */
+    @Override
+    public synchronized long getUltimoLsn() {
+        return ultimoLsn;
+    }
+
+    /**
+     * Garante que os próximos registros recebam números de sequência maiores que o informado.
+     * Utilizado quando os segmentos do journal foram apagados após um snapshot que já contém os registros até esse LSN.
+     *
+     * @param lsn LSN já utilizado.
+     */
+    public synchronized void avancarLsn(long lsn) {
+        if (lsn > ultimoLsn) {
+            ultimoLsn = lsn;
+        }
+    }
+
+    /**
+     * Encerra o segmento atual e passa a gravar os próximos registros em um novo segmento.
+     * Se o segmento atual ainda estiver vazio, ele continua sendo utilizado.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     * @throws UncheckedIOException Se uma gravação anterior falhou, já que nenhum snapshot pode ser gravado depois dela.
+     */
+    public synchronized void rotacionar() throws IOException {
+        verificarFalha();
+        if (posicaoFim == 0) {
+            return;
+        }
+
+        Segmento novo = new Segmento(segmentoAtual.indice + 1, caminhoSegmento(segmentoAtual.indice + 1));
+        FileChannel novoCanal = FileChannel.open(novo.arquivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        canal.force(false);
+        canal.close();
+        segmentoAtual.ultimoLsn = ultimoLsn;
+        segmentosAnteriores.add(segmentoAtual);
+
+        segmentoAtual = novo;
+        canal = novoCanal;
+        posicaoFim = 0;
+        ultimaSincronizacao = System.nanoTime();
+    }
+
+    /**
+     * Apaga os segmentos encerrados cujos registros têm todos LSN menor ou igual ao informado.
+     * Deve ser chamado somente depois que um snapshot contendo os registros até esse LSN foi gravado.
+     *
+     * @param lsn LSN do último registro contido no snapshot.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public synchronized void removerSegmentosAte(long lsn) throws IOException {
+        Iterator<Segmento> segmentos = segmentosAnteriores.iterator();
+        while (segmentos.hasNext()) {
+            Segmento segmento = segmentos.next();
+            if (segmento.ultimoLsn > lsn) {
+                return;
+            }
+            Files.deleteIfExists(segmento.arquivo);
+            segmentos.remove();
+        }
+    }
+
+    /**
+     * Força a gravação no disco de todos os registros gravados até o momento.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public synchronized void sincronizar() throws IOException {
+        canal.force(false);
+        ultimaSincronizacao = System.nanoTime();
+    }
+
+    /**
+     * Força a gravação dos registros pendentes e fecha o arquivo do journal.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (canal.isOpen()) {
+            canal.force(false);
+            canal.close();
+        }
+    }
+
+    /**
+     * Codifica um registro no buffer de gravação, a partir da posição atual, em um quadro completo.
+     *
+     * @param registro Registro a ser codificado.
+     * @param lsn LSN atribuído ao registro.
+     */
+    private void codificar(RegistroJournal registro, long lsn) {
+        garantirEspaco(CABECALHO_QUADRO + CABECALHO_REGISTRO + registro.tamanhoMaximoConteudo());
+
+        int inicioQuadro = buffer.position();
+        int inicioCorpo = inicioQuadro + CABECALHO_QUADRO;
+
+        buffer.position(inicioCorpo);
+        buffer.putLong(lsn).putLong(registro.getTimestamp()).put(registro.getTipo().getCodigo());
+        registro.codificarConteudo(buffer);
+
+        int tamanhoCorpo = buffer.position() - inicioCorpo;
+        crc.reset();
+        crc.update(buffer.array(), inicioCorpo, tamanhoCorpo);
+        buffer.putInt(inicioQuadro, tamanhoCorpo).putInt(inicioQuadro + Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Garante espaço no buffer de gravação, preservando o conteúdo já codificado.
+     *
+     * @param bytes Quantidade de bytes necessária após a posição atual.
+     */
+    private void garantirEspaco(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        ByteBuffer maior = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        maior.put(buffer);
+        buffer = maior;
+    }
+
+    /**
+     * Grava o conteúdo codificado no buffer ao fim do arquivo.
+     *
+     * @param ultimoLsnGravado LSN do último registro contido no buffer.
+     * @param forcarSincronizacao Verdadeiro para sincronizar com o disco independente da política.
+     * @throws UncheckedIOException Se não for possível gravar ou sincronizar o conteúdo.
+     */
+    private void gravar(long ultimoLsnGravado, boolean forcarSincronizacao) {
+        buffer.flip();
+        int tamanho = buffer.remaining();
+
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            if (forcarSincronizacao) {
+                canal.force(false);
+                ultimaSincronizacao = System.nanoTime();
+            } else {
+                sincronizarConformePolitica();
+            }
+        } catch (IOException e) {
+            falha = e;
+            try {
+                descartarGravacaoParcial();
+            } catch (IOException erroDescarte) {
+                e.addSuppressed(erroDescarte);
+            }
+            throw new UncheckedIOException("Erro ao gravar no journal: " + e.getMessage(), e);
+        }
+
+        posicaoFim += tamanho;
+        ultimoLsn = ultimoLsnGravado;
+    }
+
+    /**
+     * Verifica se o journal ainda aceita registros.
+     *
+     * @throws UncheckedIOException Se uma gravação anterior falhou.
+     */
+    private void verificarFalha() {
+        if (falha != null) {
+            throw new UncheckedIOException("Journal indisponível após falha de gravação: " + falha.getMessage(), falha);
+        }
+    }
+
+    /**
+     * Força a gravação no disco se a política de sincronização exigir.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private void sincronizarConformePolitica() throws IOException {
+        switch (politica) {
+            case SEMPRE -> canal.force(false);
+            case INTERVALO -> {
+                long agora = System.nanoTime();
+                if (agora - ultimaSincronizacao >= intervaloSincronizacaoNanos) {
+                    canal.force(false);
+                    ultimaSincronizacao = agora;
+                }
+            }
+            case SISTEMA_OPERACIONAL -> {
+                // A descarga fica a cargo do sistema operacional.
+            }
+        }
+    }
+
+    /**
+     * Remove do arquivo um registro parcialmente gravado, para que o fim do segmento volte ao último quadro íntegro.
+     * Se o descarte falhar, o quadro parcial permanece no arquivo e é descartado na próxima abertura do journal,
+     * que já não aceita registros depois da falha de gravação.
+     *
+     * @throws IOException Se não for possível truncar o arquivo.
+     */
+    private void descartarGravacaoParcial() throws IOException {
+        canal.truncate(posicaoFim);
+        canal.position(posicaoFim);
+    }
+
+    /**
+     * Localiza os segmentos existentes, percorre os encerrados para obter o último LSN de cada um e
+     * abre o último segmento para novas gravações.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private void carregarSegmentos() throws IOException {
+        List<Segmento> encontrados = listarSegmentos();
+        Segmento ultimo = encontrados.isEmpty() ? new Segmento(1, caminhoSegmento(1)) : encontrados.remove(encontrados.size() - 1);
+
+        for (Segmento segmento : encontrados) {
+            try (FileChannel leitura = FileChannel.open(segmento.arquivo, StandardOpenOption.READ)) {
+                percorrer(leitura, registro -> ultimoLsn = registro.getLsn());
+            }
+            segmento.ultimoLsn = ultimoLsn;
+            segmentosAnteriores.add(segmento);
+        }
+
+        segmentoAtual = ultimo;
+        canal = FileChannel.open(ultimo.arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            posicionarNoFim();
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lista os segmentos do journal existentes no disco, em ordem crescente de índice.
+     *
+     * @return Lista de segmentos.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private List<Segmento> listarSegmentos() throws IOException {
+        List<Segmento> segmentos = new ArrayList<>();
+        if (Files.exists(arquivoBase)) {
+            segmentos.add(new Segmento(0, arquivoBase));
+        }
+
+        String prefixo = arquivoBase.getFileName() + ".";
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(arquivoBase.toAbsolutePath().getParent())) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                if (nome.startsWith(prefixo) && nome.substring(prefixo.length()).matches("\\d{1,9}")) {
+                    segmentos.add(new Segmento(Integer.parseInt(nome.substring(prefixo.length())), arquivo));
+                }
+            }
+        }
+
+        segmentos.sort(Comparator.comparingInt(segmento -> segmento.indice));
+        return segmentos;
+    }
+
+    /**
+     * Monta o caminho do segmento de índice informado.
+     *
+     * @param indice Índice do segmento.
+     * @return Caminho do segmento.
+     */
+    private Path caminhoSegmento(int indice) {
+        return arquivoBase.resolveSibling(arquivoBase.getFileName() + "." + indice);
+    }
+
+    /**
+     * Localiza o último registro íntegro do segmento atual, descarta o restante do arquivo e posiciona
+     * o canal para novas gravações.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private void posicionarNoFim() throws IOException {
+        long fim = percorrer(canal, registro -> ultimoLsn = registro.getLsn());
+
+        if (fim < canal.size()) {
+            canal.truncate(fim);
+        }
+        canal.position(fim);
+        posicaoFim = fim;
+    }
+
+    /**
+     * Percorre os quadros de um segmento a partir do início, parando no primeiro quadro incompleto ou corrompido.
+     *
+     * @param leitura Canal do segmento.
+     * @param consumidor Consumidor dos registros íntegros.
+     * @return Posição do fim do último quadro íntegro.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private long percorrer(FileChannel leitura, Consumer<RegistroJournal> consumidor) throws IOException {
+        long tamanhoArquivo = leitura.size();
+        long posicao = 0;
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO_QUADRO);
+        ByteBuffer corpo = ByteBuffer.allocate(256);
+
+        while (posicao + CABECALHO_QUADRO <= tamanhoArquivo) {
+            cabecalho.clear();
+            lerCompleto(leitura, cabecalho, posicao);
+            cabecalho.flip();
+
+            int tamanhoCorpo = cabecalho.getInt();
+            int crcGravado = cabecalho.getInt();
+
+            if (tamanhoCorpo < CABECALHO_REGISTRO || posicao + CABECALHO_QUADRO + tamanhoCorpo > tamanhoArquivo) {
+                break;
+            }
+
+            if (corpo.capacity() < tamanhoCorpo) {
+                corpo = ByteBuffer.allocate(tamanhoCorpo);
+            }
+            corpo.clear().limit(tamanhoCorpo);
+            lerCompleto(leitura, corpo, posicao + CABECALHO_QUADRO);
+            corpo.flip();
+
+            crc.reset();
+            crc.update(corpo.array(), 0, tamanhoCorpo);
+            if ((int) crc.getValue() != crcGravado) {
+                break;
+            }
+
+            RegistroJournal registro;
+            try {
+                long lsn = corpo.getLong();
+                long timestamp = corpo.getLong();
+                TipoRegistro tipo = TipoRegistro.doCodigo(corpo.get());
+                registro = RegistroJournal.decodificar(tipo, lsn, timestamp, corpo);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                break;
+            }
+
+            consumidor.accept(registro);
+            posicao += CABECALHO_QUADRO + tamanhoCorpo;
+        }
+
+        return posicao;
+    }
+
+    /**
+     * Lê do segmento, a partir da posição informada, até preencher o buffer.
+     *
+     * @param leitura Canal do segmento.
+     * @param destino Buffer a ser preenchido até o seu limite.
+     * @param posicao Posição inicial da leitura no arquivo.
+     * @throws IOException Em caso de erro de entrada/saída ou se o arquivo terminar antes do esperado.
+     */
+    private void lerCompleto(FileChannel leitura, ByteBuffer destino, long posicao) throws IOException {
+        while (destino.hasRemaining()) {
+            int lidos = leitura.read(destino, posicao);
+            if (lidos < 0) {
+                throw new IOException("Fim inesperado do journal.");
+            }
+            posicao += lidos;
+        }
+    }
+
+    /**
+     * Segmento do journal, com o LSN do último registro gravado nele quando encerrado.
+     */
+    private static final class Segmento {
+
+        private final int indice;
+        private final Path arquivo;
+        private long ultimoLsn;
+
+        private Segmento(int indice, Path arquivo) {
+            this.indice = indice;
+            this.arquivo = arquivo;
+        }
+    }
+
+}
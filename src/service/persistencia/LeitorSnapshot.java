@@ -0,0 +1,338 @@
+package service.persistencia;
+
+import models.EpocasCorrecao;
+import models.ImagemConta;
+import models.LivroRazao;
+import models.Operacao;
+import models.enums.TipoConta;
+import service.EntradaIdempotencia;
+import service.ModoConcorrencia;
+import service.ModoCorrecao;
+import service.TipoComprovante;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lê um snapshot do {@link service.BancoService} gravado por {@link EscritorSnapshot}.
+ * O cabeçalho é lido na abertura, e as contas são lidas uma a uma com {@link #lerConta()}.
+ * Snapshots da versão 1, gravados com a serialização Java, da versão 2, sem histórico externo, da versão 3,
+ * sem a última execução de correção das contas, da versão 4, sem as épocas de correção sob demanda, da
+ * versão 5, sem as entradas de idempotência, e da versão 7, sem a execução de correção não concluída,
+ * continuam sendo lidos.
+ */
+
+public final class LeitorSnapshot implements Closeable {
+
+    private static final short IDENTIFICADOR_SERIALIZACAO = (short) 0xACED;
+    private static final int VERSAO_MINIMA_BINARIA = 2;
+    private static final int VERSAO_EPOCAS_CORRECAO = 5;
+    private static final int VERSAO_IDEMPOTENCIA = 6;
+    private static final int VERSAO_EXECUCAO_PENDENTE = 8;
+    private static final ModoConcorrencia[] MODOS_CONCORRENCIA = ModoConcorrencia.values();
+    private static final ModoCorrecao[] MODOS_CORRECAO = ModoCorrecao.values();
+    private static final RoundingMode[] ARREDONDAMENTOS = RoundingMode.values();
+    private static final TipoComprovante[] TIPOS_COMPROVANTE = TipoComprovante.values();
+
+    private final FileChannel canal;
+    private EntradaBinaria entrada;
+    private ObjectInputStream entradaVersao1;
+
+    private int versao;
+    private long lsn;
+    private boolean buscaPorVarredura;
+    private ModoConcorrencia modoConcorrencia;
+    private ModoCorrecao modoCorrecao = ModoCorrecao.IMEDIATA;
+    private final EpocasCorrecao epocasCorrecao = new EpocasCorrecao();
+    private long execucaoCorrecaoPendente;
+    private final List<EntradaIdempotencia> idempotencia = new ArrayList<>();
+    private int quantidadeContas;
+
+    private LeitorSnapshot(FileChannel canal) {
+        this.canal = canal;
+    }
+
+    /**
+     * Abre um snapshot e lê o seu cabeçalho.
+     *
+     * @param arquivo Arquivo do snapshot.
+     * @return Leitor posicionado na primeira conta.
+     * @throws IOException Em caso de erro de entrada/saída ou se o arquivo não for um snapshot válido.
+     */
+    public static LeitorSnapshot abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        LeitorSnapshot leitor = new LeitorSnapshot(canal);
+
+        try {
+            leitor.lerCabecalho();
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        return leitor;
+    }
+
+    /**
+     * Lê a próxima conta do snapshot.
+     *
+     * @return Imagem da conta.
+     * @throws IOException Em caso de erro de entrada/saída ou se o conteúdo estiver corrompido.
+     */
+    public ImagemConta lerConta() throws IOException {
+        if (entradaVersao1 != null) {
+            return lerContaVersao1();
+        }
+        return CodecConta.ler(entrada, versao);
+    }
+
+    /**
+     * Retorna o LSN do último registro do journal contido no snapshot.
+     *
+     * @return LSN do snapshot.
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * Retorna o modo de busca de contas do serviço no momento do snapshot.
+     *
+     * @return Verdadeiro se as buscas eram feitas por varredura.
+     */
+    public boolean isBuscaPorVarredura() {
+        return buscaPorVarredura;
+    }
+
+    /**
+     * Retorna o modo de concorrência do serviço no momento do snapshot.
+     *
+     * @return Modo de concorrência.
+     */
+    public ModoConcorrencia getModoConcorrencia() {
+        return modoConcorrencia;
+    }
+
+    /**
+     * Retorna o modo de correção das contas poupança do serviço no momento do snapshot.
+     *
+     * @return Modo de correção, {@link ModoCorrecao#IMEDIATA} para snapshots anteriores à versão 5.
+     */
+    public ModoCorrecao getModoCorrecao() {
+        return modoCorrecao;
+    }
+
+    /**
+     * Retorna as épocas de correção sob demanda registradas até o ponto do snapshot.
+     *
+     * @return Épocas de correção, vazias para snapshots anteriores à versão 5.
+     */
+    public EpocasCorrecao getEpocasCorrecao() {
+        return epocasCorrecao;
+    }
+
+    /**
+     * Retorna a execução de correção iniciada e não concluída até o ponto do snapshot.
+     *
+     * @return Identificador da execução, ou 0 se não houver ou para snapshots anteriores à versão 8.
+     */
+    public long getExecucaoCorrecaoPendente() {
+        return execucaoCorrecaoPendente;
+    }
+
+    /**
+     * Retorna as entradas de idempotência efetivadas até o ponto do snapshot.
+     *
+     * @return Entradas de idempotência, vazias para snapshots anteriores à versão 6.
+     */
+    public List<EntradaIdempotencia> getIdempotencia() {
+        return idempotencia;
+    }
+
+    /**
+     * Retorna a quantidade de contas gravadas no snapshot.
+     *
+     * @return Quantidade de contas.
+     */
+    public int getQuantidadeContas() {
+        return quantidadeContas;
+    }
+
+    /**
+     * Fecha o arquivo do snapshot.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Identifica a versão do snapshot e lê o seu cabeçalho.
+     *
+     * @throws IOException Em caso de erro de entrada/saída ou se o cabeçalho for inválido.
+     */
+    private void lerCabecalho() throws IOException {
+        ByteBuffer inicio = ByteBuffer.allocate(Short.BYTES);
+        canal.read(inicio, 0);
+
+        if (inicio.position() == Short.BYTES && inicio.getShort(0) == IDENTIFICADOR_SERIALIZACAO) {
+            lerCabecalhoVersao1();
+            return;
+        }
+
+        entrada = new EntradaBinaria(canal, EscritorSnapshot.TAMANHO_BUFFER);
+        if (entrada.lerInt() != EscritorSnapshot.IDENTIFICADOR) {
+            throw new IOException("Arquivo não é um snapshot do BancoService.");
+        }
+
+        versao = entrada.lerInt();
+        if (versao < VERSAO_MINIMA_BINARIA || versao > EscritorSnapshot.VERSAO) {
+            throw new IOException("Versão " + versao + " do snapshot não suportada.");
+        }
+
+        lsn = entrada.lerLong();
+        buscaPorVarredura = entrada.lerBoolean();
+
+        int modo = entrada.lerByte();
+        if (modo < 0 || modo >= MODOS_CONCORRENCIA.length) {
+            throw new IOException("Modo de concorrência desconhecido no snapshot.");
+        }
+        modoConcorrencia = MODOS_CONCORRENCIA[modo];
+
+        if (versao >= VERSAO_EPOCAS_CORRECAO) {
+            lerCorrecao();
+        }
+        if (versao >= VERSAO_IDEMPOTENCIA) {
+            lerIdempotencia();
+        }
+        quantidadeContas = entrada.lerInt();
+    }
+
+    /**
+     * Lê o modo de correção, as épocas de correção sob demanda e a execução de correção não concluída do cabeçalho.
+     *
+     * @throws IOException Em caso de erro de entrada/saída ou se o conteúdo for inválido.
+     */
+    private void lerCorrecao() throws IOException {
+        int modo = entrada.lerByte();
+        if (modo < 0 || modo >= MODOS_CORRECAO.length) {
+            throw new IOException("Modo de correção desconhecido no snapshot.");
+        }
+        modoCorrecao = MODOS_CORRECAO[modo];
+
+        int quantidadeEpocas = entrada.lerInt();
+        if (quantidadeEpocas < 0) {
+            throw new IOException("Quantidade de épocas de correção inválida: " + quantidadeEpocas + ".");
+        }
+        for (int i = 0; i < quantidadeEpocas; i++) {
+            long data = entrada.lerLong();
+            long taxa = entrada.lerLong();
+            int arredondamento = entrada.lerByte();
+            long idExecucao = entrada.lerLong();
+
+            if (taxa < 0 || arredondamento < 0 || arredondamento >= ARREDONDAMENTOS.length) {
+                throw new IOException("Época de correção " + i + " inválida no snapshot.");
+            }
+            epocasCorrecao.registrar(data, taxa, ARREDONDAMENTOS[arredondamento], idExecucao);
+        }
+
+        if (versao >= VERSAO_EXECUCAO_PENDENTE) {
+            execucaoCorrecaoPendente = entrada.lerLong();
+        }
+    }
+
+    /**
+     * Lê as entradas de idempotência do cabeçalho.
+     *
+     * @throws IOException Em caso de erro de entrada/saída ou se o conteúdo for inválido.
+     */
+    private void lerIdempotencia() throws IOException {
+        int quantidadeEntradas = entrada.lerInt();
+        if (quantidadeEntradas < 0) {
+            throw new IOException("Quantidade de entradas de idempotência inválida: " + quantidadeEntradas + ".");
+        }
+        for (int i = 0; i < quantidadeEntradas; i++) {
+            String chave = entrada.lerTexto();
+            long momento = entrada.lerLong();
+            int tipo = entrada.lerByte();
+            int numeroConta = entrada.lerInt();
+            int numeroContaDestino = entrada.lerInt();
+            long valor = entrada.lerLong();
+            long saldo = entrada.lerLong();
+
+            if (tipo < 0 || tipo >= TIPOS_COMPROVANTE.length) {
+                throw new IOException("Entrada de idempotência " + i + " inválida no snapshot.");
+            }
+            idempotencia.add(EntradaIdempotencia.restaurada(chave, TIPOS_COMPROVANTE[tipo], numeroConta,
+                    numeroContaDestino, valor, saldo, momento));
+        }
+    }
+
+    /**
+     * Lê o cabeçalho de um snapshot da versão 1, gravado com a serialização Java.
+     *
+     * @throws IOException Em caso de erro de entrada/saída ou se o cabeçalho for inválido.
+     */
+    private void lerCabecalhoVersao1() throws IOException {
+        entradaVersao1 = new ObjectInputStream(new BufferedInputStream(Channels.newInputStream(canal), EscritorSnapshot.TAMANHO_BUFFER));
+
+        if (entradaVersao1.readInt() != EscritorSnapshot.IDENTIFICADOR || entradaVersao1.readInt() != 1) {
+            throw new IOException("Arquivo não é um snapshot do BancoService.");
+        }
+
+        lsn = entradaVersao1.readLong();
+        buscaPorVarredura = entradaVersao1.readBoolean();
+        try {
+            modoConcorrencia = ModoConcorrencia.valueOf(entradaVersao1.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Modo de concorrência desconhecido no snapshot.", e);
+        }
+        quantidadeContas = entradaVersao1.readInt();
+    }
+
+    /**
+     * Lê uma conta de um snapshot da versão 1.
+     *
+     * @return Imagem da conta.
+     * @throws IOException Em caso de erro de entrada/saída ou se o conteúdo estiver corrompido.
+     */
+    private ImagemConta lerContaVersao1() throws IOException {
+        try {
+            TipoConta tipoConta = TipoConta.valueOf(entradaVersao1.readUTF());
+            int numeroConta = entradaVersao1.readInt();
+            String correntistaNome = entradaVersao1.readUTF();
+            String correntistaCPF = entradaVersao1.readUTF();
+            long estadoSaldo = entradaVersao1.readLong();
+            long limiteConcedido = entradaVersao1.readLong();
+
+            int quantidadeOperacoes = entradaVersao1.readInt();
+            List<Operacao> operacoes = new ArrayList<>(quantidadeOperacoes);
+            for (int i = 0; i < quantidadeOperacoes; i++) {
+                operacoes.add((Operacao) entradaVersao1.readObject());
+            }
+
+            int quantidadeChaves = entradaVersao1.readInt();
+            List<String> chavesPix = new ArrayList<>(quantidadeChaves);
+            for (int i = 0; i < quantidadeChaves; i++) {
+                chavesPix.add(entradaVersao1.readUTF());
+            }
+
+            return ImagemConta.de(tipoConta, numeroConta, correntistaNome, correntistaCPF, estadoSaldo, limiteConcedido,
+                    0, 0, LivroRazao.de(operacoes), chavesPix);
+        } catch (ClassNotFoundException | ClassCastException | IllegalArgumentException e) {
+            throw new IOException("Snapshot corrompido: " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package service.persistencia;
+
+/**
+ * Enum que define quando o {@link Journal} força a gravação dos registros no disco (fsync).
+ * Quanto mais frequente a sincronização, menor a quantidade de operações perdidas em uma queda
+ * do sistema operacional, e maior o custo de cada operação.
+ */
+
+public enum PoliticaSincronizacao {
+
+    /**
+     * Força a gravação no disco após cada registro. Nenhuma operação confirmada é perdida.
+     */
+    SEMPRE,
+
+    /**
+     * Força a gravação no disco quando o intervalo configurado no journal tiver passado desde a última
+     * sincronização. Uma queda do sistema operacional pode perder as operações desse intervalo.
+     */
+    INTERVALO,
+
+    /**
+     * Nunca força a gravação, deixando a descarga para o sistema operacional. Os registros sobrevivem
+     * à queda do processo, mas não à queda do sistema operacional.
+     */
+    SISTEMA_OPERACIONAL
+
+}
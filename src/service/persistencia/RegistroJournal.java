@@ -0,0 +1,479 @@
+package service.persistencia;
+
+import models.enums.TipoChavePix;
+import models.enums.TipoConta;
+
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Registro de uma mutação do {@link service.BancoService} no {@link Journal}.
+ * Cada tipo de registro grava apenas os campos de que precisa, em formato binário compacto:
+ * inteiros e valores em centavos em tamanho fixo, enums pelo ordinal em um byte e textos em UTF-8
+ * precedidos do seu tamanho. O número de sequência (LSN) é atribuído pelo journal na gravação, e só
+ * está preenchido nos registros lidos do arquivo.
+ * <p>
+ * Correções gravam, ao fim do conteúdo, o identificador da execução de correção a que pertencem. Correções
+ * gravadas antes da existência do identificador não o possuem e são lidas como correções avulsas (0).
+ * Épocas de correção sob demanda não se referem a uma conta e gravam apenas a taxa, o arredondamento e o
+ * identificador da execução; a data da época é o momento do registro. A conclusão de uma execução de correção
+ * grava apenas o identificador da execução.
+ * <p>
+ * Depósitos e transferências Pix feitos com uma chave de idempotência gravam a chave ao fim do conteúdo, para que
+ * a reprodução do journal também recupere as chaves já utilizadas. Registros sem a chave terminam no valor.
+ */
+
+public final class RegistroJournal {
+
+    private static final int TAMANHO_MAXIMO_TEXTO = 0xFFFF;
+
+    private final TipoRegistro tipo;
+    private final long lsn;
+    private final long timestamp;
+    private final int numeroConta;
+    private final int numeroContaDestino;
+    private final long valor;
+    private final byte auxiliar;
+    private final String nome;
+    private final String cpf;
+    private final String chave;
+    private final long idExecucao;
+    private final String chaveIdempotencia;
+
+    private RegistroJournal(TipoRegistro tipo, long lsn, long timestamp, int numeroConta, int numeroContaDestino,
+                            long valor, byte auxiliar, String nome, String cpf, String chave, long idExecucao,
+                            String chaveIdempotencia) {
+        this.tipo = tipo;
+        this.lsn = lsn;
+        this.timestamp = timestamp;
+        this.numeroConta = numeroConta;
+        this.numeroContaDestino = numeroContaDestino;
+        this.valor = valor;
+        this.auxiliar = auxiliar;
+        this.nome = nome;
+        this.cpf = cpf;
+        this.chave = chave;
+        this.idExecucao = idExecucao;
+        this.chaveIdempotencia = chaveIdempotencia;
+    }
+
+    /**
+     * Cria o registro da criação de uma conta.
+     *
+     * @param numeroConta Número atribuído à conta.
+     * @param tipoConta Tipo da conta criada.
+     * @param nome Nome do correntista.
+     * @param cpf CPF do correntista.
+     * @param limiteEspecial Limite especial concedido, em centavos, ou 0 para contas sem limite.
+     * @return Registro da criação da conta.
+     */
+    public static RegistroJournal criacaoConta(int numeroConta, TipoConta tipoConta, String nome, String cpf, long limiteEspecial) {
+        return new RegistroJournal(TipoRegistro.CRIACAO_CONTA, 0, System.currentTimeMillis(), numeroConta, 0,
+                limiteEspecial, (byte) tipoConta.ordinal(), nome, cpf, null, 0, null);
+    }
+
+    /**
+     * Cria o registro de um depósito.
+     *
+     * @param numeroConta Número da conta.
+     * @param valor Valor depositado, em centavos.
+     * @return Registro do depósito.
+     */
+    public static RegistroJournal deposito(int numeroConta, long valor) {
+        return deposito(numeroConta, valor, null);
+    }
+
+    /**
+     * Cria o registro de um depósito feito com uma chave de idempotência.
+     *
+     * @param numeroConta Número da conta.
+     * @param valor Valor depositado, em centavos.
+     * @param chaveIdempotencia Chave de idempotência informada pelo cliente, ou null.
+     * @return Registro do depósito.
+     */
+    public static RegistroJournal deposito(int numeroConta, long valor, String chaveIdempotencia) {
+        return new RegistroJournal(TipoRegistro.DEPOSITO, 0, System.currentTimeMillis(), numeroConta, 0,
+                valor, (byte) 0, null, null, null, 0, chaveIdempotencia);
+    }
+
+    /**
+     * Cria o registro de um saque.
+     *
+     * @param numeroConta Número da conta.
+     * @param valor Valor sacado, em centavos.
+     * @return Registro do saque.
+     */
+    public static RegistroJournal saque(int numeroConta, long valor) {
+        return new RegistroJournal(TipoRegistro.SAQUE, 0, System.currentTimeMillis(), numeroConta, 0,
+                valor, (byte) 0, null, null, null, 0, null);
+    }
+
+    /**
+     * Cria o registro de uma correção avulsa aplicada a uma conta poupança.
+     *
+     * @param numeroConta Número da conta poupança.
+     * @param taxa Taxa aplicada, na escala {@link models.Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento.
+     * @return Registro da correção.
+     */
+    public static RegistroJournal correcao(int numeroConta, long taxa, RoundingMode arredondamento) {
+        return correcao(numeroConta, taxa, arredondamento, 0);
+    }
+
+    /**
+     * Cria o registro da correção aplicada a uma conta poupança por uma execução de correção.
+     *
+     * @param numeroConta Número da conta poupança.
+     * @param taxa Taxa aplicada, na escala {@link models.Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento.
+     * @param idExecucao Identificador da execução de correção, ou 0 para uma correção avulsa.
+     * @return Registro da correção.
+     */
+    public static RegistroJournal correcao(int numeroConta, long taxa, RoundingMode arredondamento, long idExecucao) {
+        return new RegistroJournal(TipoRegistro.CORRECAO, 0, System.currentTimeMillis(), numeroConta, 0,
+                taxa, (byte) arredondamento.ordinal(), null, null, null, idExecucao, null);
+    }
+
+    /**
+     * Cria o registro de uma época de correção sob demanda, aplicada a todas as contas poupança existentes.
+     *
+     * @param taxa Taxa da correção, na escala {@link models.Dinheiro#ESCALA_TAXA}.
+     * @param arredondamento Modo de arredondamento do rendimento.
+     * @param idExecucao Identificador da execução de correção.
+     * @return Registro da época de correção.
+     */
+    public static RegistroJournal epocaCorrecao(long taxa, RoundingMode arredondamento, long idExecucao) {
+        return new RegistroJournal(TipoRegistro.EPOCA_CORRECAO, 0, System.currentTimeMillis(), 0, 0,
+                taxa, (byte) arredondamento.ordinal(), null, null, null, idExecucao, null);
+    }
+
+    /**
+     * Cria o registro da conclusão de uma execução de correção, depois que todas as suas contas foram processadas.
+     *
+     * @param idExecucao Identificador da execução de correção.
+     * @return Registro da conclusão.
+     */
+    public static RegistroJournal conclusaoCorrecao(long idExecucao) {
+        return new RegistroJournal(TipoRegistro.CONCLUSAO_CORRECAO, 0, System.currentTimeMillis(), 0, 0,
+                0, (byte) 0, null, null, null, idExecucao, null);
+    }
+
+    /**
+     * Cria o registro do cadastro de uma chave Pix.
+     *
+     * @param numeroConta Número da conta dona da chave.
+     * @param tipoChave Tipo da chave.
+     * @param chave Chave cadastrada, já normalizada.
+     * @return Registro do cadastro da chave.
+     */
+    public static RegistroJournal cadastroPix(int numeroConta, TipoChavePix tipoChave, String chave) {
+        return new RegistroJournal(TipoRegistro.CADASTRO_PIX, 0, System.currentTimeMillis(), numeroConta, 0,
+                0, (byte) tipoChave.ordinal(), null, null, chave, 0, null);
+    }
+
+    /**
+     * Cria o registro de uma transferência Pix.
+     *
+     * @param numeroContaOrigem Número da conta de origem.
+     * @param numeroContaDestino Número da conta de destino.
+     * @param valor Valor transferido, em centavos.
+     * @return Registro da transferência.
+     */
+    public static RegistroJournal pix(int numeroContaOrigem, int numeroContaDestino, long valor) {
+        return pix(numeroContaOrigem, numeroContaDestino, valor, null);
+    }
+
+    /**
+     * Cria o registro de uma transferência Pix feita com uma chave de idempotência.
+     *
+     * @param numeroContaOrigem Número da conta de origem.
+     * @param numeroContaDestino Número da conta de destino.
+     * @param valor Valor transferido, em centavos.
+     * @param chaveIdempotencia Chave de idempotência informada pelo cliente, ou null.
+     * @return Registro da transferência.
+     */
+    public static RegistroJournal pix(int numeroContaOrigem, int numeroContaDestino, long valor, String chaveIdempotencia) {
+        return new RegistroJournal(TipoRegistro.PIX, 0, System.currentTimeMillis(), numeroContaOrigem, numeroContaDestino,
+                valor, (byte) 0, null, null, null, 0, chaveIdempotencia);
+    }
+
+    /**
+     * Retorna o tipo do registro.
+     *
+     * @return Tipo do registro.
+     */
+    public TipoRegistro getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Retorna o número de sequência do registro no journal.
+     *
+     * @return LSN do registro, ou 0 se o registro ainda não foi gravado.
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * Retorna o momento em que a mutação foi efetivada.
+     *
+     * @return Momento da mutação, em milissegundos desde a época Unix.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Retorna o número da conta alterada, ou da conta de origem em uma transferência Pix.
+     *
+     * @return Número da conta.
+     */
+    public int getNumeroConta() {
+        return numeroConta;
+    }
+
+    /**
+     * Retorna o número da conta de destino de uma transferência Pix.
+     *
+     * @return Número da conta de destino.
+     */
+    public int getNumeroContaDestino() {
+        return numeroContaDestino;
+    }
+
+    /**
+     * Retorna o valor da mutação: o valor movimentado, a taxa de uma correção ou época de correção, ou o limite
+     * especial de uma conta criada.
+     *
+     * @return Valor do registro.
+     */
+    public long getValor() {
+        return valor;
+    }
+
+    /**
+     * Retorna o tipo da conta criada.
+     *
+     * @return Tipo da conta.
+     */
+    public TipoConta getTipoConta() {
+        return TipoConta.values()[auxiliar];
+    }
+
+    /**
+     * Retorna o tipo da chave Pix cadastrada.
+     *
+     * @return Tipo da chave.
+     */
+    public TipoChavePix getTipoChavePix() {
+        return TipoChavePix.values()[auxiliar];
+    }
+
+    /**
+     * Retorna o modo de arredondamento de uma correção ou de uma época de correção.
+     *
+     * @return Modo de arredondamento.
+     */
+    public RoundingMode getArredondamento() {
+        return RoundingMode.values()[auxiliar];
+    }
+
+    /**
+     * Retorna o identificador da execução de correção a que uma correção ou uma época de correção pertence.
+     *
+     * @return Identificador da execução, ou 0 para correções avulsas.
+     */
+    public long getIdExecucao() {
+        return idExecucao;
+    }
+
+    /**
+     * Retorna o nome do correntista da conta criada.
+     *
+     * @return Nome do correntista.
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Retorna o CPF do correntista da conta criada.
+     *
+     * @return CPF do correntista.
+     */
+    public String getCpf() {
+        return cpf;
+    }
+
+    /**
+     * Retorna a chave Pix cadastrada.
+     *
+     * @return Chave Pix.
+     */
+    public String getChave() {
+        return chave;
+    }
+
+    /**
+     * Retorna a chave de idempotência de um depósito ou de uma transferência Pix.
+     *
+     * @return Chave de idempotência, ou null se a operação foi feita sem chave.
+     */
+    public String getChaveIdempotencia() {
+        return chaveIdempotencia;
+    }
+
+    /**
+     * Retorna um limite superior para o tamanho do conteúdo do registro, em bytes.
+     *
+     * @return Tamanho máximo do conteúdo codificado.
+     */
+    int tamanhoMaximoConteudo() {
+        return 32 + tamanhoMaximoTexto(nome) + tamanhoMaximoTexto(cpf) + tamanhoMaximoTexto(chave)
+                + tamanhoMaximoTexto(chaveIdempotencia);
+    }
+
+    /**
+     * Codifica os campos do registro no buffer, conforme o seu tipo.
+     *
+     * @param buffer Buffer de destino, com espaço para {@link #tamanhoMaximoConteudo()} bytes.
+     */
+    void codificarConteudo(ByteBuffer buffer) {
+        switch (tipo) {
+            case CRIACAO_CONTA -> {
+                buffer.putInt(numeroConta).put(auxiliar).putLong(valor);
+                escreverTexto(buffer, nome);
+                escreverTexto(buffer, cpf);
+            }
+            case DEPOSITO, SAQUE -> {
+                buffer.putInt(numeroConta).putLong(valor);
+                escreverTextoOpcional(buffer, chaveIdempotencia);
+            }
+            case CORRECAO -> buffer.putInt(numeroConta).putLong(valor).put(auxiliar).putLong(idExecucao);
+            case CADASTRO_PIX -> {
+                buffer.putInt(numeroConta).put(auxiliar);
+                escreverTexto(buffer, chave);
+            }
+            case PIX -> {
+                buffer.putInt(numeroConta).putInt(numeroContaDestino).putLong(valor);
+                escreverTextoOpcional(buffer, chaveIdempotencia);
+            }
+            case EPOCA_CORRECAO -> buffer.putLong(valor).put(auxiliar).putLong(idExecucao);
+            case CONCLUSAO_CORRECAO -> buffer.putLong(idExecucao);
+        }
+    }
+
+    /**
+     * Decodifica um registro lido do journal.
+     *
+     * @param tipo Tipo do registro.
+     * @param lsn Número de sequência do registro.
+     * @param timestamp Momento da mutação, em milissegundos desde a época Unix.
+     * @param buffer Buffer posicionado no início do conteúdo do registro.
+     * @return Registro decodificado.
+     * @throws java.nio.BufferUnderflowException Se o conteúdo estiver incompleto.
+     */
+    static RegistroJournal decodificar(TipoRegistro tipo, long lsn, long timestamp, ByteBuffer buffer) {
+        return switch (tipo) {
+            case CRIACAO_CONTA -> {
+                int numero = buffer.getInt();
+                byte tipoConta = buffer.get();
+                long limite = buffer.getLong();
+                String nome = lerTexto(buffer);
+                String cpf = lerTexto(buffer);
+                yield new RegistroJournal(tipo, lsn, timestamp, numero, 0, limite, tipoConta, nome, cpf, null, 0, null);
+            }
+            case DEPOSITO, SAQUE -> {
+                int numero = buffer.getInt();
+                long valor = buffer.getLong();
+                yield new RegistroJournal(tipo, lsn, timestamp, numero, 0, valor, (byte) 0, null, null, null, 0, lerTextoOpcional(buffer));
+            }
+            case CORRECAO -> {
+                int numero = buffer.getInt();
+                long taxa = buffer.getLong();
+                byte arredondamento = buffer.get();
+                long execucao = buffer.remaining() >= Long.BYTES ? buffer.getLong() : 0;
+                yield new RegistroJournal(tipo, lsn, timestamp, numero, 0, taxa, arredondamento, null, null, null, execucao, null);
+            }
+            case CADASTRO_PIX -> {
+                int numero = buffer.getInt();
+                byte tipoChave = buffer.get();
+                yield new RegistroJournal(tipo, lsn, timestamp, numero, 0, 0, tipoChave, null, null, lerTexto(buffer), 0, null);
+            }
+            case PIX -> {
+                int origem = buffer.getInt();
+                int destino = buffer.getInt();
+                long valor = buffer.getLong();
+                yield new RegistroJournal(tipo, lsn, timestamp, origem, destino, valor, (byte) 0, null, null, null, 0, lerTextoOpcional(buffer));
+            }
+            case EPOCA_CORRECAO -> {
+                long taxa = buffer.getLong();
+                byte arredondamento = buffer.get();
+                yield new RegistroJournal(tipo, lsn, timestamp, 0, 0, taxa, arredondamento, null, null, null, buffer.getLong(), null);
+            }
+            case CONCLUSAO_CORRECAO -> new RegistroJournal(tipo, lsn, timestamp, 0, 0, 0, (byte) 0, null, null, null, buffer.getLong(), null);
+        };
+    }
+
+    /**
+     * Escreve um texto em UTF-8, precedido do seu tamanho em bytes.
+     *
+     * @param buffer Buffer de destino.
+     * @param texto Texto a ser escrito.
+     * @throws IllegalArgumentException Se o texto codificado ultrapassar o tamanho máximo.
+     */
+    private static void escreverTexto(ByteBuffer buffer, String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TAMANHO_MAXIMO_TEXTO) {
+            throw new IllegalArgumentException("Texto muito longo para o journal.");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Escreve um texto opcional ao fim do conteúdo do registro; um texto nulo não ocupa nenhum byte.
+     *
+     * @param buffer Buffer de destino.
+     * @param texto Texto a ser escrito, ou null.
+     */
+    private static void escreverTextoOpcional(ByteBuffer buffer, String texto) {
+        if (texto != null) {
+            escreverTexto(buffer, texto);
+        }
+    }
+
+    /**
+     * Lê o texto opcional do fim do conteúdo do registro.
+     *
+     * @param buffer Buffer de origem.
+     * @return Texto lido, ou null se o conteúdo terminou.
+     */
+    private static String lerTextoOpcional(ByteBuffer buffer) {
+        return buffer.hasRemaining() ? lerTexto(buffer) : null;
+    }
+
+    /**
+     * Lê um texto em UTF-8 precedido do seu tamanho em bytes.
+     *
+     * @param buffer Buffer de origem.
+     * @return Texto lido.
+     */
+    private static String lerTexto(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retorna o maior tamanho possível de um texto codificado, incluindo o prefixo de tamanho.
+     *
+     * @param texto Texto a ser codificado, ou null.
+     * @return Tamanho máximo em bytes.
+     */
+    private static int tamanhoMaximoTexto(String texto) {
+        return texto == null ? 0 : 2 + texto.length() * 3;
+    }
+
+}
@@ -0,0 +1,163 @@
+package service.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Saída binária com buffer sobre um canal NIO.
+ * Os valores são acumulados em um {@link ByteBuffer} e gravados no canal quando o buffer enche ou em
+ * {@link #descarregar()}. Inteiros são gravados com largura fixa, em big-endian, e textos com o tamanho
+ * em bytes (um short) seguido do conteúdo em UTF-8; o tamanho -1 representa um texto ausente.
+ */
+
+public final class SaidaBinaria {
+
+    /**
+     * Tamanho máximo, em bytes, de um texto gravado.
+     */
+    public static final int TAMANHO_MAXIMO_TEXTO = Short.MAX_VALUE;
+
+    private final WritableByteChannel canal;
+    private final ByteBuffer buffer;
+
+    /**
+     * Construtor da saída binária.
+     *
+     * @param canal Canal de destino.
+     * @param tamanhoBuffer Tamanho do buffer, em bytes.
+     */
+    public SaidaBinaria(WritableByteChannel canal, int tamanhoBuffer) {
+        this.canal = canal;
+        this.buffer = ByteBuffer.allocate(Math.max(tamanhoBuffer, Long.BYTES));
+    }
+
+    /**
+     * Grava um byte.
+     *
+     * @param valor Valor a ser gravado.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravarByte(int valor) throws IOException {
+        garantirEspaco(1);
+        buffer.put((byte) valor);
+    }
+
+    /**
+     * Grava um booleano, como um byte 0 ou 1.
+     *
+     * @param valor Valor a ser gravado.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravarBoolean(boolean valor) throws IOException {
+        gravarByte(valor ? 1 : 0);
+    }
+
+    /**
+     * Grava um short.
+     *
+     * @param valor Valor a ser gravado.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravarShort(int valor) throws IOException {
+        garantirEspaco(Short.BYTES);
+        buffer.putShort((short) valor);
+    }
+
+    /**
+     * Grava um int.
+     *
+     * @param valor Valor a ser gravado.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravarInt(int valor) throws IOException {
+        garantirEspaco(Integer.BYTES);
+        buffer.putInt(valor);
+    }
+
+    /**
+     * Grava um long.
+     *
+     * @param valor Valor a ser gravado.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void gravarLong(long valor) throws IOException {
+        garantirEspaco(Long.BYTES);
+        buffer.putLong(valor);
+    }
+
+    /**
+     * Grava um texto obrigatório.
+     *
+     * @param texto Texto a ser gravado.
+     * @throws IOException Em caso de erro de entrada/saída ou se o texto exceder {@link #TAMANHO_MAXIMO_TEXTO} bytes.
+     */
+    public void gravarTexto(String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TAMANHO_MAXIMO_TEXTO) {
+            throw new IOException("Texto com " + bytes.length + " bytes excede o tamanho máximo.");
+        }
+
+        gravarShort(bytes.length);
+        gravarBytes(bytes);
+    }
+
+    /**
+     * Grava um texto que pode estar ausente.
+     *
+     * @param texto Texto a ser gravado, ou null.
+     * @throws IOException Em caso de erro de entrada/saída ou se o texto exceder {@link #TAMANHO_MAXIMO_TEXTO} bytes.
+     */
+    public void gravarTextoOpcional(String texto) throws IOException {
+        if (texto == null) {
+            gravarShort(-1);
+        } else {
+            gravarTexto(texto);
+        }
+    }
+
+    /**
+     * Grava no canal todo o conteúdo acumulado no buffer.
+     *
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    public void descarregar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Grava uma sequência de bytes, dividindo-a conforme o espaço do buffer.
+     *
+     * @param bytes Bytes a serem gravados.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private void gravarBytes(byte[] bytes) throws IOException {
+        int posicao = 0;
+        while (posicao < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                descarregar();
+            }
+            int quantidade = Math.min(buffer.remaining(), bytes.length - posicao);
+            buffer.put(bytes, posicao, quantidade);
+            posicao += quantidade;
+        }
+    }
+
+    /**
+     * Descarrega o buffer caso não haja espaço para a quantidade de bytes informada.
+     *
+     * @param bytes Quantidade de bytes necessária.
+     * @throws IOException Em caso de erro de entrada/saída.
+     */
+    private void garantirEspaco(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            descarregar();
+        }
+    }
+
+}
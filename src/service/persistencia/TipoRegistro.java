@@ -0,0 +1,92 @@
+package service.persistencia;
+
+/**
+ * Enum que define os tipos de mutação registrados no {@link Journal}.
+ * O tipo é gravado pelo seu código; novos tipos devem receber códigos ainda não utilizados.
+ */
+
+public enum TipoRegistro {
+
+    /**
+     * Criação de uma conta, com número, tipo, correntista e limite especial.
+     */
+    CRIACAO_CONTA(1),
+
+    /**
+     * Depósito efetuado em uma conta.
+     */
+    DEPOSITO(2),
+
+    /**
+     * Saque efetuado em uma conta.
+     */
+    SAQUE(3),
+
+    /**
+     * Correção aplicada a uma conta poupança.
+     */
+    CORRECAO(4),
+
+    /**
+     * Cadastro de uma chave Pix.
+     */
+    CADASTRO_PIX(5),
+
+    /**
+     * Transferência Pix entre duas contas.
+     */
+    PIX(6),
+
+    /**
+     * Época de correção sob demanda, aplicada a todas as contas poupança existentes.
+     */
+    EPOCA_CORRECAO(7),
+
+    /**
+     * Conclusão de uma execução de correção que processou todas as suas contas.
+     */
+    CONCLUSAO_CORRECAO(8);
+
+    private static final TipoRegistro[] POR_CODIGO = new TipoRegistro[9];
+
+    static {
+        for (TipoRegistro tipo : values()) {
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    private final byte codigo;
+
+    /**
+     * Construtor da enumeração, atribuindo o código gravado no journal.
+     *
+     * @param codigo Código do tipo de registro.
+     */
+    TipoRegistro(int codigo) {
+        this.codigo = (byte) codigo;
+    }
+
+    /**
+     * Retorna o código gravado no journal para este tipo de registro.
+     *
+     * @return Código do tipo de registro.
+     */
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Retorna o tipo de registro correspondente a um código gravado no journal.
+     *
+     * @param codigo Código lido do journal.
+     * @return Tipo de registro correspondente.
+     * @throws IllegalArgumentException Se o código não corresponder a nenhum tipo de registro.
+     */
+    public static TipoRegistro doCodigo(byte codigo) {
+        if (codigo <= 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Tipo de registro desconhecido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+
+}
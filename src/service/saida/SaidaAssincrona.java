@@ -0,0 +1,241 @@
+package service.saida;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saída que apresenta os conteúdos em uma thread própria, com escrita em buffer.
+ * {@link #exibir(Object)} apenas coloca o conteúdo em uma fila limitada; a thread de gravação retira os conteúdos
+ * em lotes, converte-os em texto e grava o lote inteiro antes de descarregar o buffer, de modo que as operações
+ * não esperam pelo console nem disputam o seu lock. Com a fila cheia, {@link #exibir(Object)} aguarda espaço.
+ * <p>
+ * Como a conversão em texto é feita na thread de gravação, objetos mutáveis, como contas, são apresentados com
+ * o estado do momento da gravação. Um erro de escrita é informado uma vez em {@link System#err}, e o conteúdo
+ * seguinte é descartado.
+ */
+
+public final class SaidaAssincrona implements SaidaBanco {
+
+    /**
+     * Capacidade padrão da fila de conteúdos.
+     */
+    public static final int CAPACIDADE_PADRAO = 8_192;
+
+    private static final int TAMANHO_LOTE = 1_024;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final Object FIM = new Object();
+
+    private final BlockingQueue<Object> fila;
+    private final Writer destino;
+    private final String separador = System.lineSeparator();
+    private final Thread gravacao;
+    private final AtomicLong exibidos = new AtomicLong();
+    private final Object monitor = new Object();
+
+    private long gravados;
+    private volatile boolean fechada;
+    private boolean falhou;
+
+    /**
+     * Construtor da saída sobre a saída padrão, com a capacidade padrão.
+     */
+    public SaidaAssincrona() {
+        this(System.out, Charset.defaultCharset(), CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Construtor da saída.
+     *
+     * @param destino Fluxo onde os conteúdos são gravados.
+     * @param charset Codificação do texto gravado.
+     * @param capacidade Quantidade máxima de conteúdos aguardando gravação.
+     * @throws IllegalArgumentException Se a capacidade for menor ou igual a 0.
+     */
+    public SaidaAssincrona(OutputStream destino, Charset charset, int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade da fila deve ser positiva.");
+        }
+
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.destino = new BufferedWriter(new OutputStreamWriter(destino, charset), TAMANHO_BUFFER);
+        this.gravacao = new Thread(this::gravar, "saida-banco");
+        this.gravacao.setDaemon(true);
+        this.gravacao.start();
+    }
+
+    /**
+     * Coloca o conteúdo na fila de gravação, aguardando espaço se a fila estiver cheia.
+     *
+     * @param conteudo Conteúdo a ser exibido.
+     * @throws IllegalStateException Se a saída já tiver sido fechada.
+     */
+    @Override
+    public void exibir(Object conteudo) {
+        if (fechada) {
+            throw new IllegalStateException("A saída já foi fechada.");
+        }
+
+        exibidos.incrementAndGet();
+        colocarNaFila(conteudo != null ? conteudo : "null");
+    }
+
+    /**
+     * Aguarda a gravação de todo o conteúdo exibido antes da chamada.
+     * Se a thread for interrompida durante a espera, a espera termina e o estado de interrupção é mantido.
+     */
+    @Override
+    public void descarregar() {
+        long alvo = exibidos.get();
+
+        synchronized (monitor) {
+            while (gravados < alvo && gravacao.isAlive()) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava o conteúdo pendente e encerra a thread de gravação. Chamadas seguintes não têm efeito.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (fechada) {
+                return;
+            }
+            fechada = true;
+        }
+
+        colocarNaFila(FIM);
+        boolean interrompida = false;
+        while (gravacao.isAlive()) {
+            try {
+                gravacao.join();
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Coloca um item na fila, aguardando espaço sem perder o estado de interrupção da thread.
+     *
+     * @param item Item a ser colocado na fila.
+     */
+    private void colocarNaFila(Object item) {
+        boolean interrompida = false;
+        while (true) {
+            try {
+                fila.put(item);
+                break;
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Laço da thread de gravação: retira os conteúdos em lotes, grava cada lote e descarrega o buffer.
+     */
+    private void gravar() {
+        List<Object> lote = new ArrayList<>(TAMANHO_LOTE);
+        boolean fim = false;
+
+        while (!fim) {
+            try {
+                lote.add(fila.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            fila.drainTo(lote, TAMANHO_LOTE - 1);
+
+            int gravadosLote = 0;
+            for (Object conteudo : lote) {
+                if (conteudo == FIM) {
+                    fim = true;
+                } else {
+                    escrever(conteudo);
+                    gravadosLote++;
+                }
+            }
+            descarregarBuffer();
+            lote.clear();
+
+            synchronized (monitor) {
+                gravados += gravadosLote;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Converte um conteúdo em texto e o grava no buffer.
+     *
+     * @param conteudo Conteúdo a ser gravado.
+     */
+    private void escrever(Object conteudo) {
+        if (falhou) {
+            return;
+        }
+
+        String texto;
+        try {
+            texto = String.valueOf(conteudo);
+        } catch (RuntimeException e) {
+            texto = "Erro ao apresentar o conteúdo: " + e;
+        }
+
+        try {
+            destino.write(texto);
+            destino.write(separador);
+        } catch (IOException e) {
+            registrarFalha(e);
+        }
+    }
+
+    /**
+     * Descarrega o buffer no destino.
+     */
+    private void descarregarBuffer() {
+        if (falhou) {
+            return;
+        }
+
+        try {
+            destino.flush();
+        } catch (IOException e) {
+            registrarFalha(e);
+        }
+    }
+
+    /**
+     * Registra um erro de escrita; a partir dele, o conteúdo é descartado.
+     *
+     * @param e Erro de escrita.
+     */
+    private void registrarFalha(IOException e) {
+        falhou = true;
+        System.err.println("\nErro ao gravar a saída do BancoService: " + e.getMessage());
+    }
+
+}
@@ -0,0 +1,36 @@
+package service.saida;
+
+import java.io.Closeable;
+
+/**
+ * Destino das mensagens do {@link service.BancoService}: comprovantes das operações, extratos e listas de contas.
+ * O serviço entrega os objetos sem convertê-los em texto, e cada saída decide se e quando os apresenta, de modo
+ * que a apresentação não faz parte do custo das operações. As implementações podem ser utilizadas por várias threads.
+ * <p>
+ * Implementações disponíveis: {@link SaidaConsole} (padrão), {@link SaidaAssincrona} e {@link SaidaNula}.
+ */
+
+public interface SaidaBanco extends Closeable {
+
+    /**
+     * Exibe um conteúdo. A conversão em texto ({@code toString()}) é feita pela saída, apenas se o conteúdo for
+     * apresentado.
+     *
+     * @param conteudo Conteúdo a ser exibido.
+     */
+    void exibir(Object conteudo);
+
+    /**
+     * Aguarda a apresentação de todo o conteúdo exibido antes da chamada. Saídas síncronas não precisam esperar.
+     */
+    default void descarregar() {
+    }
+
+    /**
+     * Apresenta o conteúdo pendente e libera os recursos da saída.
+     */
+    @Override
+    default void close() {
+    }
+
+}
@@ -0,0 +1,41 @@
+package service.saida;
+
+import java.io.PrintStream;
+
+/**
+ * Saída que apresenta cada conteúdo imediatamente, uma linha por conteúdo, na thread que executou a operação.
+ * É a saída padrão do {@link service.BancoService}, adequada ao uso interativo.
+ */
+
+public final class SaidaConsole implements SaidaBanco {
+
+    private final PrintStream destino;
+
+    /**
+     * Construtor da saída sobre a saída padrão. O {@link System#out} é consultado a cada conteúdo, de modo que
+     * a saída acompanha um {@link System#setOut(PrintStream)} posterior.
+     */
+    public SaidaConsole() {
+        this.destino = null;
+    }
+
+    /**
+     * Construtor da saída sobre um fluxo.
+     *
+     * @param destino Fluxo onde os conteúdos são apresentados.
+     */
+    public SaidaConsole(PrintStream destino) {
+        this.destino = destino;
+    }
+
+    /**
+     * Apresenta o conteúdo em uma nova linha.
+     *
+     * @param conteudo Conteúdo a ser exibido.
+     */
+    @Override
+    public void exibir(Object conteudo) {
+        (destino != null ? destino : System.out).println(conteudo);
+    }
+
+}
@@ -0,0 +1,27 @@
+package service.saida;
+
+/**
+ * Saída que descarta todo o conteúdo, sem convertê-lo em texto.
+ * Utilizada por benchmarks e servidores que apresentam os comprovantes por conta própria.
+ */
+
+public final class SaidaNula implements SaidaBanco {
+
+    /**
+     * Instância única da saída nula.
+     */
+    public static final SaidaNula INSTANCIA = new SaidaNula();
+
+    private SaidaNula() {
+    }
+
+    /**
+     * Descarta o conteúdo.
+     *
+     * @param conteudo Conteúdo ignorado.
+     */
+    @Override
+    public void exibir(Object conteudo) {
+    }
+
+}